@@ -40,4 +40,10 @@ public @interface OpenWireProperty {
 
     int size() default 0;
 
+    /**
+     * @return true if from the compact numerics version onwards the value is encoded as the
+     *         difference from the value of the same property in the previous frame.
+     */
+    boolean deltaEncoded() default false;
+
 }
@@ -31,4 +31,11 @@ public @interface OpenWireType {
 
     boolean marshalAware() default false;
 
+    /**
+     * The number of leading properties that are decoded when an instance is unmarshaled
+     * lazily, the remaining properties are decoded on first access.  Zero disables lazy
+     * unmarshaling of the type.
+     */
+    int headerProperties() default 0;
+
 }
@@ -0,0 +1,437 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.benchmarks;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.commands.BrokerId;
+import org.apache.activemq.openwire.commands.BrokerInfo;
+import org.apache.activemq.openwire.commands.BrokerSubscriptionInfo;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionControl;
+import org.apache.activemq.openwire.commands.ConnectionError;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConnectionInfo;
+import org.apache.activemq.openwire.commands.ConsumerControl;
+import org.apache.activemq.openwire.commands.ConsumerId;
+import org.apache.activemq.openwire.commands.ConsumerInfo;
+import org.apache.activemq.openwire.commands.ControlCommand;
+import org.apache.activemq.openwire.commands.DataArrayResponse;
+import org.apache.activemq.openwire.commands.DataResponse;
+import org.apache.activemq.openwire.commands.DataStructure;
+import org.apache.activemq.openwire.commands.DestinationInfo;
+import org.apache.activemq.openwire.commands.DiscoveryEvent;
+import org.apache.activemq.openwire.commands.ExceptionResponse;
+import org.apache.activemq.openwire.commands.FlushCommand;
+import org.apache.activemq.openwire.commands.IntegerResponse;
+import org.apache.activemq.openwire.commands.JournalQueueAck;
+import org.apache.activemq.openwire.commands.JournalTopicAck;
+import org.apache.activemq.openwire.commands.JournalTrace;
+import org.apache.activemq.openwire.commands.JournalTransaction;
+import org.apache.activemq.openwire.commands.KeepAliveInfo;
+import org.apache.activemq.openwire.commands.LastPartialCommand;
+import org.apache.activemq.openwire.commands.LocalTransactionId;
+import org.apache.activemq.openwire.commands.Message;
+import org.apache.activemq.openwire.commands.MessageAck;
+import org.apache.activemq.openwire.commands.MessageDispatch;
+import org.apache.activemq.openwire.commands.MessageDispatchNotification;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.MessagePull;
+import org.apache.activemq.openwire.commands.NetworkBridgeFilter;
+import org.apache.activemq.openwire.commands.OpenWireBlobMessage;
+import org.apache.activemq.openwire.commands.OpenWireBytesMessage;
+import org.apache.activemq.openwire.commands.OpenWireMapMessage;
+import org.apache.activemq.openwire.commands.OpenWireMessage;
+import org.apache.activemq.openwire.commands.OpenWireObjectMessage;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireStreamMessage;
+import org.apache.activemq.openwire.commands.OpenWireTempQueue;
+import org.apache.activemq.openwire.commands.OpenWireTempTopic;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.OpenWireTopic;
+import org.apache.activemq.openwire.commands.PartialCommand;
+import org.apache.activemq.openwire.commands.ProducerAck;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.ProducerInfo;
+import org.apache.activemq.openwire.commands.RemoveInfo;
+import org.apache.activemq.openwire.commands.RemoveSubscriptionInfo;
+import org.apache.activemq.openwire.commands.ReplayCommand;
+import org.apache.activemq.openwire.commands.Response;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.apache.activemq.openwire.commands.SessionInfo;
+import org.apache.activemq.openwire.commands.ShutdownInfo;
+import org.apache.activemq.openwire.commands.SubscriptionInfo;
+import org.apache.activemq.openwire.commands.TransactionInfo;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.apache.activemq.openwire.commands.XATransactionId;
+
+/**
+ * Factory for the sample commands and wire formats used by the benchmarks.
+ * <p>
+ * Each sample is populated with the identifiers and destinations a client would
+ * normally send so that nested and cached objects are exercised by the codecs
+ * rather than only the null markers of an empty command.
+ */
+public final class BenchmarkCommands {
+
+    private static final ConnectionId CONNECTION_ID = new ConnectionId("ID:benchmark-host-41234-1700000000000-1:1");
+    private static final SessionId SESSION_ID = new SessionId(CONNECTION_ID, 1);
+    private static final ProducerId PRODUCER_ID = new ProducerId(SESSION_ID, 1);
+    private static final ConsumerId CONSUMER_ID = new ConsumerId(SESSION_ID, 1);
+    private static final BrokerId BROKER_ID = new BrokerId("ID:benchmark-broker-38731-1700000000000-0:1");
+    private static final OpenWireQueue QUEUE = new OpenWireQueue("BENCHMARK.QUEUE");
+    private static final OpenWireTopic TOPIC = new OpenWireTopic("BENCHMARK.TOPIC");
+
+    /**
+     * The version of the "universal" codec, kept at the version the earlier results were
+     * measured with so that they remain comparable.
+     */
+    public static final int UNIVERSAL_VERSION = 12;
+
+    private BenchmarkCommands() {
+    }
+
+    /**
+     * Creates an OpenWireFormat configured for a benchmark run.
+     *
+     * @param codec
+     *      "universal" for the universal codec, "compact" for the universal codec at the compact
+     *      numerics version or "vN" for the legacy codec of version N.
+     * @param tight
+     *      should tight encoding be enabled.
+     * @param cache
+     *      should the marshal cache be enabled.
+     *
+     * @return a new configured OpenWireFormat instance.
+     */
+    public static OpenWireFormat createWireFormat(String codec, boolean tight, boolean cache) {
+        OpenWireFormat wireFormat;
+
+        if ("universal".equals(codec)) {
+            wireFormat = new OpenWireFormat(UNIVERSAL_VERSION);
+        } else if ("compact".equals(codec)) {
+            wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS);
+        } else if (codec.startsWith("v")) {
+            int version = Integer.parseInt(codec.substring(1));
+            wireFormat = new OpenWireFormat(version);
+            wireFormat.setUseLegacyCodecs(true);
+            wireFormat.setVersion(version);
+        } else {
+            throw new IllegalArgumentException("Unknown codec: " + codec);
+        }
+
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setCacheEnabled(cache);
+
+        return wireFormat;
+    }
+
+    /**
+     * Returns the delta encoded values of a wire format to their initial state so that the
+     * same frame can be marshaled or unmarshaled again with the same result, has no effect
+     * unless the wire format uses the compact numerics version.
+     *
+     * @param wireFormat
+     *      the wire format to reset.
+     */
+    public static void resetDeltaState(OpenWireFormat wireFormat) {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            wireFormat.setVersion(wireFormat.getVersion());
+        }
+    }
+
+    /**
+     * Creates a populated sample instance of the command with the given type name.
+     *
+     * @param commandType
+     *      the name of a {@link CommandTypes} constant, for example "MESSAGE_ACK".
+     *
+     * @return a new populated instance of the command.
+     *
+     * @throws Exception if an error occurs while populating the command.
+     */
+    public static DataStructure createCommand(String commandType) throws Exception {
+        switch (commandType) {
+            case "WIREFORMAT_INFO":
+                WireFormatInfo wireFormatInfo = new WireFormatInfo();
+                wireFormatInfo.setVersion(CommandTypes.PROTOCOL_VERSION);
+                wireFormatInfo.setCacheEnabled(true);
+                wireFormatInfo.setTightEncodingEnabled(true);
+                wireFormatInfo.setCacheSize(1024);
+                wireFormatInfo.setMaxInactivityDuration(30000);
+                return wireFormatInfo;
+            case "BROKER_INFO":
+                BrokerInfo brokerInfo = new BrokerInfo();
+                brokerInfo.setBrokerId(BROKER_ID);
+                brokerInfo.setBrokerName("benchmark-broker");
+                brokerInfo.setBrokerURL("tcp://localhost:61616");
+                return brokerInfo;
+            case "CONNECTION_INFO":
+                ConnectionInfo connectionInfo = new ConnectionInfo(CONNECTION_ID);
+                connectionInfo.setClientId("benchmark-client");
+                connectionInfo.setUserName("user");
+                connectionInfo.setPassword("password");
+                return connectionInfo;
+            case "SESSION_INFO":
+                return new SessionInfo(SESSION_ID);
+            case "CONSUMER_INFO":
+                ConsumerInfo consumerInfo = new ConsumerInfo(CONSUMER_ID);
+                consumerInfo.setDestination(QUEUE);
+                consumerInfo.setPrefetchSize(1000);
+                return consumerInfo;
+            case "PRODUCER_INFO":
+                ProducerInfo producerInfo = new ProducerInfo(PRODUCER_ID);
+                producerInfo.setDestination(QUEUE);
+                return producerInfo;
+            case "TRANSACTION_INFO":
+                return new TransactionInfo(CONNECTION_ID, new LocalTransactionId(CONNECTION_ID, 1), TransactionInfo.BEGIN);
+            case "DESTINATION_INFO":
+                return new DestinationInfo(CONNECTION_ID, DestinationInfo.ADD_OPERATION_TYPE, QUEUE);
+            case "REMOVE_SUBSCRIPTION_INFO":
+                RemoveSubscriptionInfo removeSubscriptionInfo = new RemoveSubscriptionInfo();
+                removeSubscriptionInfo.setConnectionId(CONNECTION_ID);
+                removeSubscriptionInfo.setClientId("benchmark-client");
+                removeSubscriptionInfo.setSubscriptionName("benchmark-subscription");
+                return removeSubscriptionInfo;
+            case "KEEP_ALIVE_INFO":
+                return new KeepAliveInfo();
+            case "SHUTDOWN_INFO":
+                return new ShutdownInfo();
+            case "REMOVE_INFO":
+                return new RemoveInfo(CONSUMER_ID);
+            case "CONTROL_COMMAND":
+                ControlCommand controlCommand = new ControlCommand();
+                controlCommand.setCommand("shutdown");
+                return controlCommand;
+            case "FLUSH_COMMAND":
+                return new FlushCommand();
+            case "CONNECTION_ERROR":
+                ConnectionError connectionError = new ConnectionError();
+                connectionError.setConnectionId(CONNECTION_ID);
+                connectionError.setException(new IOException("Benchmark connection error"));
+                return connectionError;
+            case "CONSUMER_CONTROL":
+                ConsumerControl consumerControl = new ConsumerControl();
+                consumerControl.setConsumerId(CONSUMER_ID);
+                consumerControl.setDestination(QUEUE);
+                consumerControl.setPrefetch(500);
+                return consumerControl;
+            case "CONNECTION_CONTROL":
+                ConnectionControl connectionControl = new ConnectionControl();
+                connectionControl.setFaultTolerant(true);
+                connectionControl.setConnectedBrokers("tcp://localhost:61616,tcp://localhost:61617");
+                return connectionControl;
+            case "PRODUCER_ACK":
+                return new ProducerAck(PRODUCER_ID, 1024);
+            case "MESSAGE_PULL":
+                MessagePull messagePull = new MessagePull();
+                messagePull.setConsumerId(CONSUMER_ID);
+                messagePull.setDestination(QUEUE);
+                messagePull.setTimeout(1000);
+                return messagePull;
+            case "MESSAGE_DISPATCH":
+                MessageDispatch messageDispatch = new MessageDispatch();
+                messageDispatch.setConsumerId(CONSUMER_ID);
+                messageDispatch.setDestination(QUEUE);
+                messageDispatch.setMessage(createTextMessage(256));
+                return messageDispatch;
+            case "MESSAGE_ACK":
+                return new MessageAck(createTextMessage(0), MessageAck.STANDARD_ACK_TYPE, 1);
+            case "OPENWIRE_MESSAGE":
+                return populate(new OpenWireMessage());
+            case "OPENWIRE_BYTES_MESSAGE":
+                return createBytesMessage(256);
+            case "OPENWIRE_MAP_MESSAGE":
+                OpenWireMapMessage mapMessage = populate(new OpenWireMapMessage());
+                mapMessage.setObject("name", "benchmark");
+                mapMessage.setObject("count", 42);
+                mapMessage.setObject("enabled", Boolean.TRUE);
+                return mapMessage;
+            case "OPENWIRE_OBJECT_MESSAGE":
+                OpenWireObjectMessage objectMessage = populate(new OpenWireObjectMessage());
+                objectMessage.setObject("benchmark object payload");
+                return objectMessage;
+            case "OPENWIRE_STREAM_MESSAGE":
+                OpenWireStreamMessage streamMessage = populate(new OpenWireStreamMessage());
+                streamMessage.setContent(new Buffer(createPayload(256)));
+                return streamMessage;
+            case "OPENWIRE_TEXT_MESSAGE":
+                return createTextMessage(256);
+            case "OPENWIRE_BLOB_MESSAGE":
+                OpenWireBlobMessage blobMessage = populate(new OpenWireBlobMessage());
+                blobMessage.setURL(new URL("http://localhost:8161/fileserver/benchmark"));
+                blobMessage.setMimeType("application/octet-stream");
+                blobMessage.setName("benchmark.bin");
+                return blobMessage;
+            case "RESPONSE":
+                Response response = new Response();
+                response.setCorrelationId(42);
+                return response;
+            case "EXCEPTION_RESPONSE":
+                return new ExceptionResponse(new IOException("Benchmark exception response"));
+            case "DATA_RESPONSE":
+                return new DataResponse(CONSUMER_ID);
+            case "DATA_ARRAY_RESPONSE":
+                return new DataArrayResponse(new DataStructure[] { CONSUMER_ID, PRODUCER_ID, QUEUE });
+            case "INTEGER_RESPONSE":
+                return new IntegerResponse(42);
+            case "DISCOVERY_EVENT":
+                return new DiscoveryEvent("tcp://localhost:61616");
+            case "JOURNAL_ACK":
+                JournalTopicAck journalTopicAck = new JournalTopicAck();
+                journalTopicAck.setDestination(TOPIC);
+                journalTopicAck.setMessageId(new MessageId(PRODUCER_ID, 1));
+                journalTopicAck.setMessageSequenceId(1);
+                journalTopicAck.setClientId("benchmark-client");
+                journalTopicAck.setSubscritionName("benchmark-subscription");
+                return journalTopicAck;
+            case "JOURNAL_REMOVE":
+                JournalQueueAck journalQueueAck = new JournalQueueAck();
+                journalQueueAck.setDestination(QUEUE);
+                journalQueueAck.setMessageAck(new MessageAck(createTextMessage(0), MessageAck.STANDARD_ACK_TYPE, 1));
+                return journalQueueAck;
+            case "JOURNAL_TRACE":
+                return new JournalTrace("benchmark trace");
+            case "JOURNAL_TRANSACTION":
+                return new JournalTransaction(JournalTransaction.LOCAL_COMMIT, new LocalTransactionId(CONNECTION_ID, 1), false);
+            case "DURABLE_SUBSCRIPTION_INFO":
+                SubscriptionInfo subscriptionInfo = new SubscriptionInfo("benchmark-client", "benchmark-subscription");
+                subscriptionInfo.setDestination(TOPIC);
+                return subscriptionInfo;
+            case "PARTIAL_COMMAND":
+                PartialCommand partialCommand = new PartialCommand();
+                partialCommand.setCommandId(1);
+                partialCommand.setData(createPayload(1024));
+                return partialCommand;
+            case "PARTIAL_LAST_COMMAND":
+                LastPartialCommand lastPartialCommand = new LastPartialCommand();
+                lastPartialCommand.setCommandId(2);
+                lastPartialCommand.setData(createPayload(128));
+                return lastPartialCommand;
+            case "REPLAY":
+                ReplayCommand replayCommand = new ReplayCommand();
+                replayCommand.setFirstNakNumber(10);
+                replayCommand.setLastNakNumber(20);
+                return replayCommand;
+            case "MESSAGE_DISPATCH_NOTIFICATION":
+                MessageDispatchNotification notification = new MessageDispatchNotification();
+                notification.setConsumerId(CONSUMER_ID);
+                notification.setDestination(QUEUE);
+                notification.setMessageId(new MessageId(PRODUCER_ID, 1));
+                notification.setDeliverySequenceId(1);
+                return notification;
+            case "NETWORK_BRIDGE_FILTER":
+                ConsumerInfo bridgeConsumer = new ConsumerInfo(CONSUMER_ID);
+                bridgeConsumer.setDestination(QUEUE);
+                return new NetworkBridgeFilter(bridgeConsumer, BROKER_ID, 1, 1);
+            case "BROKER_SUBSCRIPTION_INFO":
+                return new BrokerSubscriptionInfo("benchmark-broker");
+            case "OPENWIRE_QUEUE":
+                return new OpenWireQueue("BENCHMARK.QUEUE");
+            case "OPENWIRE_TOPIC":
+                return new OpenWireTopic("BENCHMARK.TOPIC");
+            case "OPENWIRE_TEMP_QUEUE":
+                return new OpenWireTempQueue(CONNECTION_ID.getValue() + ":1");
+            case "OPENWIRE_TEMP_TOPIC":
+                return new OpenWireTempTopic(CONNECTION_ID.getValue() + ":1");
+            case "MESSAGE_ID":
+                return new MessageId(PRODUCER_ID, 1);
+            case "OPENWIRE_LOCAL_TRANSACTION_ID":
+                return new LocalTransactionId(CONNECTION_ID, 1);
+            case "OPENWIRE_XA_TRANSACTION_ID":
+                XATransactionId xaTransactionId = new XATransactionId();
+                xaTransactionId.setFormatId(1);
+                xaTransactionId.setGlobalTransactionId(createPayload(64));
+                xaTransactionId.setBranchQualifier(createPayload(64));
+                return xaTransactionId;
+            case "CONNECTION_ID":
+                return new ConnectionId(CONNECTION_ID);
+            case "SESSION_ID":
+                return new SessionId(SESSION_ID);
+            case "CONSUMER_ID":
+                return new ConsumerId(CONSUMER_ID);
+            case "PRODUCER_ID":
+                return new ProducerId(PRODUCER_ID);
+            case "BROKER_ID":
+                return new BrokerId(BROKER_ID.getValue());
+            default:
+                throw new IllegalArgumentException("Unknown command type: " + commandType);
+        }
+    }
+
+    /**
+     * Creates a populated OpenWireTextMessage with a body of the given size.
+     *
+     * @param payloadSize
+     *      the number of characters in the message body.
+     *
+     * @return a new populated OpenWireTextMessage.
+     *
+     * @throws Exception if an error occurs while populating the message.
+     */
+    public static OpenWireTextMessage createTextMessage(int payloadSize) throws Exception {
+        OpenWireTextMessage message = populate(new OpenWireTextMessage());
+        char[] text = new char[payloadSize];
+        Arrays.fill(text, 'a');
+        message.setText(new String(text));
+        return message;
+    }
+
+    /**
+     * Creates a populated OpenWireBytesMessage with a body of the given size.
+     *
+     * @param payloadSize
+     *      the number of bytes in the message body.
+     *
+     * @return a new populated OpenWireBytesMessage.
+     *
+     * @throws Exception if an error occurs while populating the message.
+     */
+    public static OpenWireBytesMessage createBytesMessage(int payloadSize) throws Exception {
+        OpenWireBytesMessage message = populate(new OpenWireBytesMessage());
+        message.setBodyBytes(createPayload(payloadSize));
+        return message;
+    }
+
+    private static <T extends Message> T populate(T message) throws Exception {
+        message.setProducerId(PRODUCER_ID);
+        message.setMessageId(new MessageId(PRODUCER_ID, 1));
+        message.setDestination(QUEUE);
+        message.setPersistent(true);
+        message.setTimestamp(1700000000000L);
+        message.setPriority((byte) 4);
+        message.setCorrelationId("benchmark-correlation");
+        message.setType("benchmark-type");
+        message.setGroupID("benchmark-group");
+        message.setUserId("benchmark-user");
+        message.setProperty("application", "openwire-benchmarks");
+        message.setProperty("sequence", 1);
+        return message;
+    }
+
+    private static byte[] createPayload(int size) {
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            payload[i] = (byte) i;
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.commands.DataStructure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures marshal and unmarshal throughput of every command type known to the
+ * codecs, run with {@code -prof gc} to also report the allocation rate.
+ * <p>
+ * Not every command type exists in the older legacy codecs, configurations that
+ * combine such a type with an older codec fail during setup and are reported as
+ * such by JMH.
+ * <p>
+ * With the "compact" codec each frame is delta encoded against the one before it, the
+ * delta state is reset on each invocation so that every iteration encodes and decodes
+ * the same frame, the cost of that reset is included in the results.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandMarshalBenchmark {
+
+    @Param({
+        "WIREFORMAT_INFO", "BROKER_INFO", "CONNECTION_INFO", "SESSION_INFO", "CONSUMER_INFO",
+        "PRODUCER_INFO", "TRANSACTION_INFO", "DESTINATION_INFO", "REMOVE_SUBSCRIPTION_INFO",
+        "KEEP_ALIVE_INFO", "SHUTDOWN_INFO", "REMOVE_INFO", "CONTROL_COMMAND", "FLUSH_COMMAND",
+        "CONNECTION_ERROR", "CONSUMER_CONTROL", "CONNECTION_CONTROL", "PRODUCER_ACK",
+        "MESSAGE_PULL", "MESSAGE_DISPATCH", "MESSAGE_ACK", "OPENWIRE_MESSAGE",
+        "OPENWIRE_BYTES_MESSAGE", "OPENWIRE_MAP_MESSAGE", "OPENWIRE_OBJECT_MESSAGE",
+        "OPENWIRE_STREAM_MESSAGE", "OPENWIRE_TEXT_MESSAGE", "OPENWIRE_BLOB_MESSAGE", "RESPONSE",
+        "EXCEPTION_RESPONSE", "DATA_RESPONSE", "DATA_ARRAY_RESPONSE", "INTEGER_RESPONSE",
+        "DISCOVERY_EVENT", "JOURNAL_ACK", "JOURNAL_REMOVE", "JOURNAL_TRACE", "JOURNAL_TRANSACTION",
+        "DURABLE_SUBSCRIPTION_INFO", "PARTIAL_COMMAND", "PARTIAL_LAST_COMMAND", "REPLAY",
+        "MESSAGE_DISPATCH_NOTIFICATION", "NETWORK_BRIDGE_FILTER", "BROKER_SUBSCRIPTION_INFO",
+        "OPENWIRE_QUEUE", "OPENWIRE_TOPIC", "OPENWIRE_TEMP_QUEUE", "OPENWIRE_TEMP_TOPIC",
+        "MESSAGE_ID", "OPENWIRE_LOCAL_TRANSACTION_ID", "OPENWIRE_XA_TRANSACTION_ID",
+        "CONNECTION_ID", "SESSION_ID", "CONSUMER_ID", "PRODUCER_ID", "BROKER_ID"
+    })
+    public String commandType;
+
+    @Param({"universal", "compact", "v12", "v11", "v9", "v6", "v1"})
+    public String codec;
+
+    @Param({"true", "false"})
+    public boolean tightEncoding;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private OpenWireFormat marshaler;
+    private OpenWireFormat unmarshaler;
+    private DataStructure command;
+    private Buffer frame;
+    private boolean compact;
+
+    @Setup
+    public void setUp() throws Exception {
+        marshaler = BenchmarkCommands.createWireFormat(codec, tightEncoding, cacheEnabled);
+        unmarshaler = BenchmarkCommands.createWireFormat(codec, tightEncoding, cacheEnabled);
+        command = BenchmarkCommands.createCommand(commandType);
+
+        // With caching enabled the first frame populates both caches and all later
+        // frames carry cache references, prime the reader so that the measured frame
+        // reflects the steady state of a long lived connection.
+        unmarshaler.unmarshal(marshaler.marshal(command));
+        compact = marshaler.isCompactNumericsEnabled();
+        BenchmarkCommands.resetDeltaState(marshaler);
+        BenchmarkCommands.resetDeltaState(unmarshaler);
+        frame = marshaler.marshal(command);
+    }
+
+    @Benchmark
+    public Buffer marshal() throws IOException {
+        if (compact) {
+            BenchmarkCommands.resetDeltaState(marshaler);
+        }
+
+        return marshaler.marshal(command);
+    }
+
+    @Benchmark
+    public Object unmarshal() throws IOException {
+        if (compact) {
+            BenchmarkCommands.resetDeltaState(unmarshaler);
+        }
+
+        return unmarshaler.unmarshal(frame);
+    }
+}
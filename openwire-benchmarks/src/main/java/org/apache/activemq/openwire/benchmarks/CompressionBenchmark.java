@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.compression.CompressionCodec;
+import org.apache.activemq.openwire.compression.CompressionCodecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures compress and decompress throughput of the message body compression codecs
+ * for payloads that compress well and payloads that do not compress at all.
+ * <p>
+ * The compression ratio of each codec and payload is printed during setup so that it
+ * can be read alongside the throughput results.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final String TEXT = "The quick red fox jumped over the lazy brown dog. ";
+
+    @Param({"deflate", "lz4", "none"})
+    public String codecName;
+
+    @Param({"text", "random"})
+    public String payloadType;
+
+    @Param({"1024", "10240", "102400"})
+    public int payloadSize;
+
+    private CompressionCodec codec;
+    private Buffer payload;
+    private Buffer compressed;
+
+    @Setup
+    public void setUp() throws Exception {
+        switch (codecName) {
+            case "deflate":
+                codec = CompressionCodecs.DEFLATE;
+                break;
+            case "lz4":
+                codec = CompressionCodecs.LZ4;
+                break;
+            case "none":
+                codec = CompressionCodecs.NONE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown codec: " + codecName);
+        }
+
+        byte[] data = new byte[payloadSize];
+        if ("text".equals(payloadType)) {
+            byte[] text = TEXT.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < data.length; ++i) {
+                data[i] = text[i % text.length];
+            }
+        } else if ("random".equals(payloadType)) {
+            new Random(42).nextBytes(data);
+        } else {
+            throw new IllegalArgumentException("Unknown payload type: " + payloadType);
+        }
+
+        payload = new Buffer(data);
+        compressed = codec.compress(payload);
+
+        System.out.printf("%n%s %s payload of %d bytes compressed to %d bytes, ratio %.2f%n",
+                          codecName, payloadType, payloadSize, compressed.getLength(),
+                          (double) payloadSize / compressed.getLength());
+    }
+
+    @Benchmark
+    public Buffer compress() throws IOException {
+        return codec.compress(payload);
+    }
+
+    @Benchmark
+    public Buffer decompress() throws IOException {
+        return codec.decompress(compressed);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.codec.OpenWireFormatFactory;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of setting up the wire format of a new connection, creating it from
+ * the factory and renegotiating it against the WireFormatInfo sent by the peer.
+ * <p>
+ * Run with {@code -prof gc} to also report the memory allocated per connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionSetupBenchmark {
+
+    @Param({"12", "9", "1"})
+    public int peerVersion;
+
+    @Param({"true", "false"})
+    public boolean specialized;
+
+    private OpenWireFormatFactory factory;
+    private WireFormatInfo peerInfo;
+
+    @Setup
+    public void setUp() throws Exception {
+        factory = new OpenWireFormatFactory();
+
+        OpenWireFormatFactory peerFactory = new OpenWireFormatFactory();
+        peerFactory.setVersion(peerVersion);
+        peerInfo = peerFactory.createWireFormat().getPreferedWireFormatInfo();
+    }
+
+    @Benchmark
+    public OpenWireFormat connect() throws IOException {
+        OpenWireFormat wireFormat = factory.createWireFormat();
+        wireFormat.setUseVersionSpecializedCodecs(specialized);
+        wireFormat.renegotiateWireFormat(peerInfo);
+        return wireFormat;
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.commands.Message;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures marshal and unmarshal throughput of text and bytes messages across a
+ * range of realistic payload sizes, run with {@code -prof gc} to also report the
+ * allocation rate.
+ * <p>
+ * The text message body is reset before each marshal so that the UTF-8 encoding
+ * of the body is measured the same way it is for a producer sending new messages.
+ * The string cache size parameter shows the effect of reusing decoded header strings
+ * such as the JMS type, group id and user id.
+ * <p>
+ * The "compact" codec delta encodes timestamps and sequence ids, its wire formats are
+ * reset before each marshal and unmarshal and that reset is part of what is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageMarshalBenchmark {
+
+    @Param({"text", "bytes"})
+    public String messageType;
+
+    @Param({"128", "1024", "10240", "102400"})
+    public int payloadSize;
+
+    @Param({"universal", "compact", "v12", "v11", "v9", "v6", "v1"})
+    public String codec;
+
+    @Param({"true", "false"})
+    public boolean tightEncoding;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    @Param({"0", "256"})
+    public int stringCacheSize;
+
+    private OpenWireFormat marshaler;
+    private OpenWireFormat unmarshaler;
+    private OpenWireFormat lazyUnmarshaler;
+    private Message message;
+    private OpenWireTextMessage textMessage;
+    private String text;
+    private Buffer frame;
+    private boolean compact;
+
+    @Setup
+    public void setUp() throws Exception {
+        marshaler = BenchmarkCommands.createWireFormat(codec, tightEncoding, cacheEnabled);
+        unmarshaler = BenchmarkCommands.createWireFormat(codec, tightEncoding, cacheEnabled);
+        unmarshaler.setStringCacheSize(stringCacheSize);
+        lazyUnmarshaler = BenchmarkCommands.createWireFormat(codec, tightEncoding, cacheEnabled);
+        lazyUnmarshaler.setStringCacheSize(stringCacheSize);
+        lazyUnmarshaler.setLazyUnmarshalEnabled(true);
+
+        if ("text".equals(messageType)) {
+            textMessage = BenchmarkCommands.createTextMessage(payloadSize);
+            text = textMessage.getText();
+            message = textMessage;
+        } else if ("bytes".equals(messageType)) {
+            message = BenchmarkCommands.createBytesMessage(payloadSize);
+        } else {
+            throw new IllegalArgumentException("Unknown message type: " + messageType);
+        }
+
+        unmarshaler.unmarshal(marshaler.marshal(message));
+        lazyUnmarshaler.unmarshal(marshaler.marshal(message));
+        compact = marshaler.isCompactNumericsEnabled();
+        BenchmarkCommands.resetDeltaState(marshaler);
+        BenchmarkCommands.resetDeltaState(unmarshaler);
+        BenchmarkCommands.resetDeltaState(lazyUnmarshaler);
+        frame = marshaler.marshal(message);
+    }
+
+    @Benchmark
+    public Buffer marshal() throws IOException {
+        if (textMessage != null) {
+            textMessage.setText(text);
+        }
+        if (compact) {
+            BenchmarkCommands.resetDeltaState(marshaler);
+        }
+
+        return marshaler.marshal(message);
+    }
+
+    @Benchmark
+    public Object unmarshal() throws IOException {
+        if (compact) {
+            BenchmarkCommands.resetDeltaState(unmarshaler);
+        }
+
+        return unmarshaler.unmarshal(frame);
+    }
+
+    /**
+     * Unmarshals only what a broker needs to route the message, the remaining fields are
+     * decoded lazily when the marshal cache is disabled and in full otherwise.
+     */
+    @Benchmark
+    public Object unmarshalHeader() throws IOException {
+        if (compact) {
+            BenchmarkCommands.resetDeltaState(lazyUnmarshaler);
+        }
+
+        Message decoded = (Message) lazyUnmarshaler.unmarshal(frame);
+        return decoded.getDestination();
+    }
+}
@@ -22,18 +22,30 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.apache.activemq.openwire.utils.HexSupport;
 
 /**
  * Wrapper for byte[] instances used to manage marshaled data
+ * <p>
+ * Each Buffer carries a reference count that starts at one, a Buffer obtained from a
+ * {@link BufferAllocator} is handed back to that allocator once the count drops to zero
+ * so that its backing array can be reused.  Buffers created directly are never returned
+ * to an allocator and calling {@link #release()} on them is optional.
  */
 public class Buffer implements Comparable<Buffer> {
 
+    private static final AtomicIntegerFieldUpdater<Buffer> REFERENCE_COUNT_UPDATER =
+        AtomicIntegerFieldUpdater.newUpdater(Buffer.class, "referenceCount");
+
     public byte[] data;
     public int offset;
     public int length;
 
+    private final BufferAllocator allocator;
+    private volatile int referenceCount = 1;
+
     public Buffer(ByteBuffer other) {
         this(other.array(), other.arrayOffset()+other.position(), other.remaining());
     }
@@ -51,6 +63,23 @@ public class Buffer implements Comparable<Buffer> {
     }
 
     public Buffer(byte data[], int offset, int length) {
+        this(data, offset, length, null);
+    }
+
+    /**
+     * Creates a Buffer whose backing array is owned by the given allocator, the array
+     * is handed back to the allocator when the last reference is released.
+     *
+     * @param data
+     *      the backing array.
+     * @param offset
+     *      the offset into the array where the Buffer's data starts.
+     * @param length
+     *      the number of bytes of the array that belong to this Buffer.
+     * @param allocator
+     *      the allocator that owns the array or null if the array is not pooled.
+     */
+    public Buffer(byte data[], int offset, int length, BufferAllocator allocator) {
 
         if (data == null) {
             throw new IllegalArgumentException("byte array value cannot by null");
@@ -64,6 +93,7 @@ public class Buffer implements Comparable<Buffer> {
         this.data = data;
         this.offset = offset;
         this.length = length;
+        this.allocator = allocator;
     }
 
     //-----Implementation ----------------------------------------------------//
@@ -80,6 +110,66 @@ public class Buffer implements Comparable<Buffer> {
         return offset;
     }
 
+    /**
+     * @return the allocator that owns this Buffer's backing array or null if not pooled.
+     */
+    public BufferAllocator getAllocator() {
+        return allocator;
+    }
+
+    /**
+     * @return the current reference count of this Buffer.
+     */
+    public int getReferenceCount() {
+        return referenceCount;
+    }
+
+    /**
+     * Adds a reference to this Buffer, each call must be matched by a call to {@link #release()}.
+     *
+     * @return this Buffer instance.
+     *
+     * @throws IllegalStateException if the Buffer has already been fully released.
+     */
+    public Buffer retain() {
+        for (;;) {
+            int current = referenceCount;
+            if (current <= 0) {
+                throw new IllegalStateException("Cannot retain a Buffer that has already been released");
+            }
+            if (REFERENCE_COUNT_UPDATER.compareAndSet(this, current, current + 1)) {
+                return this;
+            }
+        }
+    }
+
+    /**
+     * Removes a reference from this Buffer, when the last reference is removed the
+     * backing array is handed back to the allocator that created it and the Buffer
+     * must no longer be accessed.
+     *
+     * @return true if this call released the last reference to the Buffer.
+     *
+     * @throws IllegalStateException if the Buffer has already been fully released.
+     */
+    public boolean release() {
+        for (;;) {
+            int current = referenceCount;
+            if (current <= 0) {
+                throw new IllegalStateException("Buffer has already been released");
+            }
+            if (REFERENCE_COUNT_UPDATER.compareAndSet(this, current, current - 1)) {
+                if (current == 1) {
+                    if (allocator != null) {
+                        allocator.free(this);
+                    }
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
     final public boolean isEmpty() {
         return length == 0;
     }
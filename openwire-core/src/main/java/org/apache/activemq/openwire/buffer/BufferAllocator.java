@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.buffer;
+
+/**
+ * Source of the Buffer instances that an OpenWireFormat fills when marshaling
+ * frames and unmarshaling message content and properties.
+ * <p>
+ * Implementations must be thread safe as a single allocator can be shared by
+ * many wire format instances.
+ */
+public interface BufferAllocator {
+
+    /**
+     * Allocates a Buffer with an offset of zero and a length of exactly the given
+     * size, the backing array may be larger than the requested size.  The contents
+     * of the returned Buffer are undefined.
+     *
+     * @param size
+     *      the number of bytes required.
+     *
+     * @return a Buffer with a reference count of one.
+     */
+    Buffer allocate(int size);
+
+    /**
+     * Called by {@link Buffer#release()} once the last reference to a Buffer that
+     * was created by this allocator has been released.
+     *
+     * @param buffer
+     *      the Buffer whose backing array can be reused.
+     */
+    void free(Buffer buffer);
+
+}
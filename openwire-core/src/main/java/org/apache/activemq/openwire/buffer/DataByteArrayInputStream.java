@@ -97,13 +97,23 @@ public final class DataByteArrayInputStream extends InputStream implements DataI
         return buf;
     }
 
+    /**
+     * Returns a Buffer that shares this stream's underlying array for the next len
+     * bytes and advances past them, fewer bytes are returned if the stream does not
+     * hold that many.
+     *
+     * @param len
+     *      the number of bytes to read.
+     *
+     * @return a view of the next bytes in the stream or null if the stream is exhausted.
+     */
     public Buffer readBuffer(int len) {
         int endpos = offset + length;
         if (pos > endpos) {
             return null;
         }
         if (pos + len > endpos) {
-            len = length - pos;
+            len = endpos - pos;
         }
         Buffer rc = new Buffer(buf, pos, len);
         pos += len;
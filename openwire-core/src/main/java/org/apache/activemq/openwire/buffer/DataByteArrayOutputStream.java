@@ -71,6 +71,19 @@ public final class DataByteArrayOutputStream extends OutputStream implements Dat
         pos = 0;
     }
 
+    /**
+     * start writing at the beginning of the given byte array
+     *
+     * @param buffer
+     */
+    public void restart(byte buffer[]) {
+        if (buffer == null || buffer.length == 0) {
+            throw new IllegalArgumentException("Invalid buffer");
+        }
+        buf = buffer;
+        pos = 0;
+    }
+
     /**
      * start using a fresh byte array
      */
@@ -230,11 +243,14 @@ public final class DataByteArrayOutputStream extends OutputStream implements Dat
     }
 
     @Override
+    @SuppressWarnings("deprecation")
     public void writeBytes(String s) throws IOException {
         int length = s.length();
-        for (int i = 0; i < length; i++) {
-            write((byte) s.charAt(i));
-        }
+        ensureEnoughBuffer(pos + length);
+        // Yes deprecated, but it copies the low byte of each char straight into the
+        // buffer which is exactly what writeBytes is specified to do.
+        s.getBytes(0, length, buf, pos);
+        pos += length;
     }
 
     @Override
@@ -0,0 +1,268 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.buffer;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * DataInput implementation that reads directly from a heap or direct ByteBuffer.
+ * <p>
+ * Reads start at the buffer's current position and advance it, an attempt to
+ * read past the buffer's limit results in an {@link EOFException}.
+ */
+public final class DataByteBufferInputStream extends InputStream implements DataInput {
+
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a new DataByteBufferInputStream that reads from the given buffer.
+     *
+     * @param buffer
+     *        the source buffer, must use big endian byte order.
+     */
+    public DataByteBufferInputStream(ByteBuffer buffer) {
+        restart(buffer);
+    }
+
+    /**
+     * Reset the stream to read from a new ByteBuffer
+     *
+     * @param buffer
+     *        the source buffer, must use big endian byte order.
+     */
+    public void restart(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("Invalid buffer");
+        }
+        if (buffer.order() != ByteOrder.BIG_ENDIAN) {
+            throw new IllegalArgumentException("ByteBuffer must use big endian byte order");
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return the ByteBuffer that this stream reads from.
+     */
+    public ByteBuffer getByteBuffer() {
+        return buffer;
+    }
+
+    //----- InputStream implementation ---------------------------------------//
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+    }
+
+    @Override
+    public int read(byte b[], int off, int len) {
+        if (b == null) {
+            throw new NullPointerException();
+        }
+
+        int remaining = buffer.remaining();
+        if (remaining == 0) {
+            return -1;
+        }
+        if (len > remaining) {
+            len = remaining;
+        }
+        if (len <= 0) {
+            return 0;
+        }
+
+        buffer.get(b, off, len);
+        return len;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    //----- DataInput Implementation -----------------------------------------//
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        require(len);
+        buffer.get(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int remaining = buffer.remaining();
+        if (n > remaining) {
+            n = remaining;
+        }
+        if (n < 0) {
+            return 0;
+        }
+        buffer.position(buffer.position() + n);
+        return n;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xff;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(2);
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xffff;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        require(2);
+        return buffer.getChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() {
+        StringBuilder line = new StringBuilder();
+        while (buffer.hasRemaining()) {
+            int c = buffer.get() & 0xff;
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                    buffer.get();
+                }
+                break;
+            }
+            line.append((char) c);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        int length = readUnsignedShort();
+        require(length);
+
+        char[] characters = new char[length];
+        int c;
+        int c2;
+        int c3;
+        int count = 0;
+        int read = 0;
+
+        while (read < length) {
+            c = buffer.get() & 0xff;
+            read++;
+            switch (c >> 4) {
+                case 0:
+                case 1:
+                case 2:
+                case 3:
+                case 4:
+                case 5:
+                case 6:
+                case 7:
+                    characters[count++] = (char) c;
+                    break;
+                case 12:
+                case 13:
+                    read++;
+                    if (read > length) {
+                        throw new UTFDataFormatException("bad string");
+                    }
+                    c2 = buffer.get();
+                    if ((c2 & 0xC0) != 0x80) {
+                        throw new UTFDataFormatException("bad string");
+                    }
+                    characters[count++] = (char) (((c & 0x1F) << 6) | (c2 & 0x3F));
+                    break;
+                case 14:
+                    read += 2;
+                    if (read > length) {
+                        throw new UTFDataFormatException("bad string");
+                    }
+                    c2 = buffer.get();
+                    c3 = buffer.get();
+                    if (((c2 & 0xC0) != 0x80) || ((c3 & 0xC0) != 0x80)) {
+                        throw new UTFDataFormatException("bad string");
+                    }
+                    characters[count++] = (char) (((c & 0x0F) << 12) | ((c2 & 0x3F) << 6) | ((c3 & 0x3F) << 0));
+                    break;
+                default:
+                    throw new UTFDataFormatException("bad string");
+            }
+        }
+
+        return new String(characters, 0, count);
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    private void require(int count) throws EOFException {
+        if (buffer.remaining() < count) {
+            throw new EOFException("Attempted to read " + count + " bytes but only " + buffer.remaining() + " remain");
+        }
+    }
+}
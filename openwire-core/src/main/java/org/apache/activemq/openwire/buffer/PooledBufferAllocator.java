@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.buffer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * BufferAllocator that recycles released arrays using power of two size classes.
+ * <p>
+ * A request is served from the smallest size class that can hold it, requests larger
+ * than the largest size class are allocated directly and never pooled.  Each size class
+ * retains at most a fixed number of free arrays, arrays released beyond that limit are
+ * left to the garbage collector.
+ */
+public final class PooledBufferAllocator implements BufferAllocator {
+
+    public static final int DEFAULT_MIN_SIZE_CLASS = 256;
+    public static final int DEFAULT_MAX_SIZE_CLASS = 1024 * 1024;
+    public static final int DEFAULT_MAX_POOLED_PER_CLASS = 64;
+
+    private final int minSizeClassShift;
+    private final int maxSizeClass;
+    private final ArrayBlockingQueue<byte[]>[] pools;
+
+    /**
+     * Creates a new allocator using the default size classes and pool depth.
+     */
+    public PooledBufferAllocator() {
+        this(DEFAULT_MIN_SIZE_CLASS, DEFAULT_MAX_SIZE_CLASS, DEFAULT_MAX_POOLED_PER_CLASS);
+    }
+
+    /**
+     * Creates a new allocator.
+     *
+     * @param minSizeClass
+     *      the size of the smallest size class, rounded up to a power of two.
+     * @param maxSizeClass
+     *      the size of the largest size class, rounded up to a power of two.
+     * @param maxPooledPerClass
+     *      the maximum number of free arrays retained for each size class.
+     */
+    @SuppressWarnings("unchecked")
+    public PooledBufferAllocator(int minSizeClass, int maxSizeClass, int maxPooledPerClass) {
+        if (minSizeClass <= 0 || maxSizeClass < minSizeClass) {
+            throw new IllegalArgumentException("Invalid size classes: " + minSizeClass + " to " + maxSizeClass);
+        }
+        if (maxSizeClass > (1 << 30)) {
+            throw new IllegalArgumentException("Largest size class cannot exceed 1GB: " + maxSizeClass);
+        }
+        if (maxPooledPerClass <= 0) {
+            throw new IllegalArgumentException("Invalid pool depth: " + maxPooledPerClass);
+        }
+
+        this.minSizeClassShift = log2(roundToPowerOfTwo(minSizeClass));
+        this.maxSizeClass = roundToPowerOfTwo(maxSizeClass);
+
+        int classes = log2(this.maxSizeClass) - minSizeClassShift + 1;
+        this.pools = new ArrayBlockingQueue[classes];
+        for (int i = 0; i < classes; ++i) {
+            pools[i] = new ArrayBlockingQueue<byte[]>(maxPooledPerClass);
+        }
+    }
+
+    @Override
+    public Buffer allocate(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+
+        if (size > maxSizeClass) {
+            return new Buffer(new byte[size], 0, size);
+        }
+
+        int sizeClass = sizeClassOf(size);
+        byte[] data = pools[sizeClass].poll();
+        if (data == null) {
+            data = new byte[1 << (sizeClass + minSizeClassShift)];
+        }
+
+        return new Buffer(data, 0, size, this);
+    }
+
+    @Override
+    public void free(Buffer buffer) {
+        byte[] data = buffer.data;
+        int capacity = data.length;
+
+        // Only arrays that exactly match one of our size classes can be reused.
+        if (capacity <= maxSizeClass && Integer.bitCount(capacity) == 1) {
+            int sizeClass = log2(capacity) - minSizeClassShift;
+            if (sizeClass >= 0) {
+                pools[sizeClass].offer(data);
+            }
+        }
+    }
+
+    /**
+     * @return the number of free arrays currently held across all size classes.
+     */
+    public int getPooledCount() {
+        int count = 0;
+        for (ArrayBlockingQueue<byte[]> pool : pools) {
+            count += pool.size();
+        }
+        return count;
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    private int sizeClassOf(int size) {
+        if (size <= 1) {
+            return 0;
+        }
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        return Math.max(0, shift - minSizeClassShift);
+    }
+
+    private static int roundToPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+
+    private static int log2(int powerOfTwo) {
+        return Integer.numberOfTrailingZeros(powerOfTwo);
+    }
+}
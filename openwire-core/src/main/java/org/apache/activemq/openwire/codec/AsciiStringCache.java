@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * A fixed size, direct mapped cache of String values decoded from ASCII encoded bytes.
+ * <p>
+ * Fields such as the JMS type, group id or user id tend to carry the same few values on
+ * every message, this cache lets the decoder return the String it created the last time
+ * the same bytes were seen instead of allocating a new one.  Each slot holds the most
+ * recent value that hashed to it, a collision simply replaces the older value.
+ * <p>
+ * The cache is safe for concurrent use, a racing lookup at worst misses and creates a
+ * new String.
+ */
+public final class AsciiStringCache {
+
+    /**
+     * Values longer than this are decoded without consulting the cache.
+     */
+    public static final int MAX_CACHED_LENGTH = 128;
+
+    private final String[] entries;
+    private final int mask;
+
+    /**
+     * Creates a new cache with at least the given number of slots.
+     *
+     * @param size
+     *      the minimum number of slots, rounded up to the next power of two.
+     */
+    public AsciiStringCache(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid cache size: " + size);
+        }
+
+        int capacity = Integer.highestOneBit(size);
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+
+        this.entries = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the number of slots in this cache.
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Returns a String holding the given ASCII encoded bytes, reusing a previously
+     * returned instance when one with the same value is still cached.
+     *
+     * @param data
+     *      the array holding the encoded value.
+     * @param offset
+     *      the offset of the first byte of the value.
+     * @param length
+     *      the number of bytes in the value.
+     *
+     * @return a String with the decoded value.
+     */
+    @SuppressWarnings("deprecation")
+    public String intern(byte[] data, int offset, int length) {
+        if (length > MAX_CACHED_LENGTH) {
+            return new String(data, 0, offset, length);
+        }
+
+        // Same hash as String.hashCode() for ASCII values.
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + data[i];
+        }
+
+        final int index = (hash ^ (hash >>> 16)) & mask;
+        final String cached = entries[index];
+        if (cached != null && matches(cached, data, offset, length)) {
+            return cached;
+        }
+
+        // Yes deprecated, but the value is known to hold only ASCII characters.
+        String value = new String(data, 0, offset, length);
+        entries[index] = value;
+        return value;
+    }
+
+    /**
+     * Removes all values from the cache.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = null;
+        }
+    }
+
+    private static boolean matches(String value, byte[] data, int offset, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != data[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -20,10 +20,13 @@ import static org.apache.activemq.openwire.utils.OpenWireValidationSupport.conve
 
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.EOFException;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 
 import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
 import org.apache.activemq.openwire.commands.DataStructure;
 import org.apache.activemq.openwire.utils.OpenWireValidationSupport;
 
@@ -64,6 +67,10 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
     }
 
     public int tightMarshalLong1(OpenWireFormat wireFormat, long o, BooleanStream bs) throws IOException {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            return CompactNumerics.encodedSize(o);
+        }
+
         if (o == 0) {
             bs.writeBoolean(false);
             bs.writeBoolean(false);
@@ -84,6 +91,11 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
     }
 
     public void tightMarshalLong2(OpenWireFormat wireFormat, long o, DataOutput dataOut, BooleanStream bs) throws IOException {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            CompactNumerics.write(dataOut, o);
+            return;
+        }
+
         if (bs.readBoolean()) {
             if (bs.readBoolean()) {
                 dataOut.writeLong(o);
@@ -98,6 +110,10 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
     }
 
     public long tightUnmarshalLong(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            return CompactNumerics.read(dataIn);
+        }
+
         if (bs.readBoolean()) {
             if (bs.readBoolean()) {
                 return dataIn.readLong();
@@ -113,6 +129,52 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
         }
     }
 
+    /**
+     * Tight marshals a long property whose value is encoded as the difference from its value
+     * in the previous frame once compact numerics are negotiated, see
+     * {@link OpenWireFormat#isCompactNumericsEnabled()}.  The difference is computed here and
+     * replayed by {@link #tightMarshalDeltaLong2(OpenWireFormat, int, long, DataOutput, BooleanStream)}.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param slot
+     *      the slot that holds the previous value of the property.
+     * @param o
+     *      the value to marshal.
+     * @param bs
+     *      the boolean stream of the structure being marshaled.
+     *
+     * @return the number of bytes that the value occupies in the data stream.
+     *
+     * @throws IOException if an error occurs while marshaling the value.
+     */
+    public int tightMarshalDeltaLong1(OpenWireFormat wireFormat, int slot, long o, BooleanStream bs) throws IOException {
+        if (!wireFormat.isCompactNumericsEnabled()) {
+            return tightMarshalLong1(wireFormat, o, bs);
+        }
+
+        long delta = wireFormat.marshalDelta(slot, o);
+        wireFormat.recordMarshalDelta(delta);
+        return CompactNumerics.encodedSize(delta);
+    }
+
+    public void tightMarshalDeltaLong2(OpenWireFormat wireFormat, int slot, long o, DataOutput dataOut, BooleanStream bs) throws IOException {
+        if (!wireFormat.isCompactNumericsEnabled()) {
+            tightMarshalLong2(wireFormat, o, dataOut, bs);
+            return;
+        }
+
+        CompactNumerics.write(dataOut, wireFormat.nextMarshalDelta());
+    }
+
+    public long tightUnmarshalDeltaLong(OpenWireFormat wireFormat, int slot, DataInput dataIn, BooleanStream bs) throws IOException {
+        if (!wireFormat.isCompactNumericsEnabled()) {
+            return tightUnmarshalLong(wireFormat, dataIn, bs);
+        }
+
+        return wireFormat.unmarshalDelta(slot, CompactNumerics.read(dataIn));
+    }
+
     protected long toLong(short value) {
         // lets handle negative values
         long answer = value;
@@ -155,13 +217,19 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
 
     protected int tightMarshalCachedObject1(OpenWireFormat wireFormat, DataStructure o, BooleanStream bs) throws IOException {
         if (wireFormat.isCacheEnabled()) {
-            Short index = wireFormat.getMarshallCacheIndex(o);
-            bs.writeBoolean(index == null);
-            if (index == null) {
+            // Reserve our position ahead of any cached values nested inside this one
+            // as tightMarshal2 writes this index before theirs.
+            final int position = wireFormat.reserveMarshallCacheIndex();
+            short index = wireFormat.lookupMarshallCacheIndex(o);
+            bs.writeBoolean(index < 0);
+            if (index < 0) {
                 int rc = wireFormat.tightMarshalNestedObject1(o, bs);
-                wireFormat.addToMarshallCache(o);
+                index = wireFormat.putMarshallCacheIndex(o);
+                wireFormat.setMarshallCacheIndex(position, index);
+                wireFormat.setMarshallCacheEncodedSize(index, rc);
                 return 2 + rc;
             } else {
+                wireFormat.setMarshallCacheIndex(position, index);
                 return 2;
             }
         } else {
@@ -171,12 +239,12 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
 
     protected void tightMarshalCachedObject2(OpenWireFormat wireFormat, DataStructure o, DataOutput dataOut, BooleanStream bs) throws IOException {
         if (wireFormat.isCacheEnabled()) {
-            Short index = wireFormat.getMarshallCacheIndex(o);
+            short index = wireFormat.nextMarshallCacheIndex();
             if (bs.readBoolean()) {
-                dataOut.writeShort(index.shortValue());
+                dataOut.writeShort(index);
                 wireFormat.tightMarshalNestedObject2(o, dataOut, bs);
             } else {
-                dataOut.writeShort(index.shortValue());
+                dataOut.writeShort(index);
             }
         } else {
             wireFormat.tightMarshalNestedObject2(o, dataOut, bs);
@@ -185,16 +253,16 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
 
     protected Throwable tightUnmarsalThrowable(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
         if (bs.readBoolean()) {
-            String clazz = tightUnmarshalString(dataIn, bs);
-            String message = tightUnmarshalString(dataIn, bs);
+            String clazz = tightUnmarshalString(wireFormat, dataIn, bs);
+            String message = tightUnmarshalString(wireFormat, dataIn, bs);
             Throwable o = createThrowable(clazz, message);
             if (wireFormat.isStackTraceEnabled()) {
                 if (STACK_TRACE_ELEMENT_CONSTRUCTOR != null) {
                     StackTraceElement ss[] = new StackTraceElement[dataIn.readShort()];
                     for (int i = 0; i < ss.length; i++) {
                         try {
-                            ss[i] = STACK_TRACE_ELEMENT_CONSTRUCTOR.newInstance(new Object[] { convertJmsPackage(tightUnmarshalString(dataIn, bs)),
-                                tightUnmarshalString(dataIn, bs), tightUnmarshalString(dataIn, bs), Integer.valueOf(dataIn.readInt()) });
+                            ss[i] = STACK_TRACE_ELEMENT_CONSTRUCTOR.newInstance(new Object[] { convertJmsPackage(tightUnmarshalString(wireFormat, dataIn, bs)),
+                                tightUnmarshalString(wireFormat, dataIn, bs), tightUnmarshalString(wireFormat, dataIn, bs), Integer.valueOf(dataIn.readInt()) });
                         } catch (IOException e) {
                             throw e;
                         } catch (Throwable e) {
@@ -204,9 +272,9 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
                 } else {
                     short size = dataIn.readShort();
                     for (int i = 0; i < size; i++) {
-                        tightUnmarshalString(dataIn, bs);
-                        tightUnmarshalString(dataIn, bs);
-                        tightUnmarshalString(dataIn, bs);
+                        tightUnmarshalString(wireFormat, dataIn, bs);
+                        tightUnmarshalString(wireFormat, dataIn, bs);
+                        tightUnmarshalString(wireFormat, dataIn, bs);
                         dataIn.readInt();
                     }
                 }
@@ -277,17 +345,10 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
         }
     }
 
-    @SuppressWarnings("deprecation")
     protected String tightUnmarshalString(DataInput dataIn, BooleanStream bs) throws IOException {
         if (bs.readBoolean()) {
             if (bs.readBoolean()) {
-                int size = dataIn.readShort();
-                byte data[] = new byte[size];
-                dataIn.readFully(data);
-                // Yes deprecated, but we know what we are doing.
-                // This allows us to create a String from a ASCII byte array. (no UTF-8
-                // decoding)
-                return new String(data, 0);
+                return readAsciiString(null, dataIn);
             } else {
                 return dataIn.readUTF();
             }
@@ -296,20 +357,60 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
         }
     }
 
+    /**
+     * Reads a tight encoded String, ASCII values are passed through the wire format's
+     * {@link AsciiStringCache} when one has been configured.
+     */
+    protected String tightUnmarshalString(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        if (bs.readBoolean()) {
+            if (bs.readBoolean()) {
+                return readAsciiString(wireFormat.getStringCache(), dataIn);
+            } else {
+                return dataIn.readUTF();
+            }
+        } else {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static String readAsciiString(AsciiStringCache cache, DataInput dataIn) throws IOException {
+        int size = dataIn.readShort();
+        if (dataIn instanceof DataByteArrayInputStream) {
+            // Decode straight out of the frame, no intermediate copy of the bytes.
+            DataByteArrayInputStream bytesIn = (DataByteArrayInputStream) dataIn;
+            if (size < 0 || bytesIn.available() < size) {
+                throw new EOFException("String of " + size + " bytes exceeds the " + bytesIn.available() + " remaining in the frame");
+            }
+
+            final byte[] data = bytesIn.getRawData();
+            final int offset = bytesIn.getPos();
+            final String value = cache != null ? cache.intern(data, offset, size) : new String(data, 0, offset, size);
+            bytesIn.skipBytes(size);
+            return value;
+        }
+
+        byte data[] = new byte[size];
+        dataIn.readFully(data);
+        if (cache != null) {
+            return cache.intern(data, 0, size);
+        }
+        // Yes deprecated, but we know what we are doing.
+        // This allows us to create a String from a ASCII byte array. (no UTF-8
+        // decoding)
+        return new String(data, 0);
+    }
+
     protected int tightMarshalString1(String value, BooleanStream bs) throws IOException {
         bs.writeBoolean(value != null);
         if (value != null) {
 
-            int strlen = value.length();
+            final int strlen = value.length();
             int utflen = 0;
-            char[] charr = new char[strlen];
-            int c = 0;
             boolean isOnlyAscii = true;
 
-            value.getChars(0, strlen, charr, 0);
-
             for (int i = 0; i < strlen; i++) {
-                c = charr[i];
+                final int c = value.charAt(i);
                 if ((c >= 0x0001) && (c <= 0x007F)) {
                     utflen++;
                 } else if (c > 0x07FF) {
@@ -435,6 +536,97 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
         return rc;
     }
 
+    protected Buffer tightUnmarshalByteSequence(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        Buffer rc = null;
+        if (bs.readBoolean()) {
+            rc = readByteSequence(wireFormat, dataIn);
+        }
+        return rc;
+    }
+
+    //
+    // The skipping logic used by the generated SkippableMarshaller implementations, none
+    // of these create the values they step over or touch the unmarshal cache.
+    //
+
+    protected void tightSkipLong(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            CompactNumerics.skip(dataIn);
+        } else if (bs.readBoolean()) {
+            skipFully(dataIn, bs.readBoolean() ? 8 : 4);
+        } else if (bs.readBoolean()) {
+            skipFully(dataIn, 2);
+        }
+    }
+
+    protected void tightSkipString(DataInput dataIn, BooleanStream bs) throws IOException {
+        if (bs.readBoolean()) {
+            if (bs.readBoolean()) {
+                skipFully(dataIn, dataIn.readShort());
+            } else {
+                skipFully(dataIn, dataIn.readUnsignedShort());
+            }
+        }
+    }
+
+    protected void tightSkipNestedObject(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        wireFormat.tightSkipNestedObject(dataIn, bs);
+    }
+
+    protected void tightSkipCachedObject(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        if (wireFormat.isCacheEnabled()) {
+            boolean inline = bs.readBoolean();
+            dataIn.readShort();
+            if (inline) {
+                wireFormat.tightSkipNestedObject(dataIn, bs);
+            }
+        } else {
+            wireFormat.tightSkipNestedObject(dataIn, bs);
+        }
+    }
+
+    protected void tightSkipThrowable(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        if (bs.readBoolean()) {
+            tightSkipString(dataIn, bs);
+            tightSkipString(dataIn, bs);
+            if (wireFormat.isStackTraceEnabled()) {
+                short size = dataIn.readShort();
+                for (int i = 0; i < size; i++) {
+                    tightSkipString(dataIn, bs);
+                    tightSkipString(dataIn, bs);
+                    tightSkipString(dataIn, bs);
+                    skipFully(dataIn, 4);
+                }
+                tightSkipThrowable(wireFormat, dataIn, bs);
+            }
+        }
+    }
+
+    protected void tightSkipObjectArray(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        if (bs.readBoolean()) {
+            short size = dataIn.readShort();
+            for (int i = 0; i < size; i++) {
+                wireFormat.tightSkipNestedObject(dataIn, bs);
+            }
+        }
+    }
+
+    protected void tightSkipObjectArrayConstSize(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            wireFormat.tightSkipNestedObject(dataIn, bs);
+        }
+    }
+
+    protected void tightSkipByteArray(DataInput dataIn, BooleanStream bs) throws IOException {
+        if (bs.readBoolean()) {
+            skipFully(dataIn, dataIn.readInt());
+        }
+    }
+
+    protected void tightSkipByteSequence(DataInput dataIn, BooleanStream bs) throws IOException {
+        tightSkipByteArray(dataIn, bs);
+    }
+
     //
     // The loose marshaling logic
     //
@@ -448,10 +640,32 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
     }
 
     public void looseMarshalLong(OpenWireFormat wireFormat, long o, DataOutput dataOut) throws IOException {
-        dataOut.writeLong(o);
+        if (wireFormat.isCompactNumericsEnabled()) {
+            CompactNumerics.write(dataOut, o);
+        } else {
+            dataOut.writeLong(o);
+        }
     }
 
     public long looseUnmarshalLong(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            return CompactNumerics.read(dataIn);
+        }
+        return dataIn.readLong();
+    }
+
+    public void looseMarshalDeltaLong(OpenWireFormat wireFormat, int slot, long o, DataOutput dataOut) throws IOException {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            CompactNumerics.write(dataOut, wireFormat.marshalDelta(slot, o));
+        } else {
+            dataOut.writeLong(o);
+        }
+    }
+
+    public long looseUnmarshalDeltaLong(OpenWireFormat wireFormat, int slot, DataInput dataIn) throws IOException {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            return wireFormat.unmarshalDelta(slot, CompactNumerics.read(dataIn));
+        }
         return dataIn.readLong();
     }
 
@@ -481,14 +695,21 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
 
     protected void looseMarshalCachedObject(OpenWireFormat wireFormat, DataStructure o, DataOutput dataOut) throws IOException {
         if (wireFormat.isCacheEnabled()) {
-            Short index = wireFormat.getMarshallCacheIndex(o);
-            dataOut.writeBoolean(index == null);
-            if (index == null) {
-                index = wireFormat.addToMarshallCache(o);
-                dataOut.writeShort(index.shortValue());
-                wireFormat.looseMarshalNestedObject(o, dataOut);
+            short index = wireFormat.lookupMarshallCacheIndex(o);
+            dataOut.writeBoolean(index < 0);
+            if (index < 0) {
+                index = wireFormat.putMarshallCacheIndex(o);
+                dataOut.writeShort(index);
+                if (dataOut instanceof DataByteArrayOutputStream) {
+                    DataByteArrayOutputStream bytesOut = (DataByteArrayOutputStream) dataOut;
+                    int start = bytesOut.position();
+                    wireFormat.looseMarshalNestedObject(o, dataOut);
+                    wireFormat.setMarshallCacheEncodedSize(index, bytesOut.position() - start);
+                } else {
+                    wireFormat.looseMarshalNestedObject(o, dataOut);
+                }
             } else {
-                dataOut.writeShort(index.shortValue());
+                dataOut.writeShort(index);
             }
         } else {
             wireFormat.looseMarshalNestedObject(o, dataOut);
@@ -622,4 +843,116 @@ public abstract class BaseDataStreamMarshaller implements DataStreamMarshaller {
         }
         return rc;
     }
+
+    protected Buffer looseUnmarshalByteSequence(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        Buffer rc = null;
+        if (dataIn.readBoolean()) {
+            rc = readByteSequence(wireFormat, dataIn);
+        }
+        return rc;
+    }
+
+    protected void looseSkipLong(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        if (wireFormat.isCompactNumericsEnabled()) {
+            CompactNumerics.skip(dataIn);
+        } else {
+            skipFully(dataIn, 8);
+        }
+    }
+
+    protected void looseSkipString(DataInput dataIn) throws IOException {
+        if (dataIn.readBoolean()) {
+            skipFully(dataIn, dataIn.readUnsignedShort());
+        }
+    }
+
+    protected void looseSkipNestedObject(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        wireFormat.looseSkipNestedObject(dataIn);
+    }
+
+    protected void looseSkipCachedObject(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        if (wireFormat.isCacheEnabled()) {
+            boolean inline = dataIn.readBoolean();
+            dataIn.readShort();
+            if (inline) {
+                wireFormat.looseSkipNestedObject(dataIn);
+            }
+        } else {
+            wireFormat.looseSkipNestedObject(dataIn);
+        }
+    }
+
+    protected void looseSkipThrowable(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        if (dataIn.readBoolean()) {
+            looseSkipString(dataIn);
+            looseSkipString(dataIn);
+            if (wireFormat.isStackTraceEnabled()) {
+                short size = dataIn.readShort();
+                for (int i = 0; i < size; i++) {
+                    looseSkipString(dataIn);
+                    looseSkipString(dataIn);
+                    looseSkipString(dataIn);
+                    skipFully(dataIn, 4);
+                }
+                looseSkipThrowable(wireFormat, dataIn);
+            }
+        }
+    }
+
+    protected void looseSkipObjectArray(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        if (dataIn.readBoolean()) {
+            short size = dataIn.readShort();
+            for (int i = 0; i < size; i++) {
+                wireFormat.looseSkipNestedObject(dataIn);
+            }
+        }
+    }
+
+    protected void looseSkipObjectArrayConstSize(OpenWireFormat wireFormat, DataInput dataIn, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            wireFormat.looseSkipNestedObject(dataIn);
+        }
+    }
+
+    protected void looseSkipByteArray(DataInput dataIn) throws IOException {
+        if (dataIn.readBoolean()) {
+            skipFully(dataIn, dataIn.readInt());
+        }
+    }
+
+    protected void looseSkipByteSequence(DataInput dataIn) throws IOException {
+        looseSkipByteArray(dataIn);
+    }
+
+    /**
+     * Skips exactly the given number of bytes, failing if the input ends before then.
+     */
+    protected static void skipFully(DataInput dataIn, int size) throws IOException {
+        if (size < 0) {
+            throw new IOException("Invalid encoded length: " + size);
+        }
+        if (dataIn.skipBytes(size) != size) {
+            throw new EOFException("Input ended while skipping " + size + " bytes");
+        }
+    }
+
+    private Buffer readByteSequence(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        int size = dataIn.readInt();
+        if (wireFormat.isZeroCopyUnmarshalEnabled() && dataIn instanceof DataByteArrayInputStream) {
+            DataByteArrayInputStream bytesIn = (DataByteArrayInputStream) dataIn;
+            if (size < 0 || bytesIn.available() < size) {
+                throw new EOFException("Byte sequence of " + size + " bytes exceeds the " + bytesIn.available() + " remaining in the frame");
+            }
+            return bytesIn.readBuffer(size);
+        }
+
+        Buffer rc = wireFormat.getBufferAllocator().allocate(size);
+        try {
+            dataIn.readFully(rc.data, rc.offset, size);
+        } catch (IOException e) {
+            rc.release();
+            throw e;
+        }
+        return rc;
+    }
 }
@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public final class BooleanStream {
 
@@ -108,6 +109,65 @@ public final class BooleanStream {
         bytePos = 0;
     }
 
+    /**
+     * Discards any previously written or read values so that this instance can be
+     * reused to write a new set of booleans.
+     */
+    public void reset() {
+        Arrays.fill(data, 0, arrayLimit, (byte) 0);
+        arrayLimit = 0;
+        clear();
+    }
+
+    /**
+     * @return a copy of this stream that reads the remaining booleans from its current position.
+     */
+    BooleanStream snapshot() {
+        BooleanStream copy = new BooleanStream();
+        copy.data = Arrays.copyOf(data, Math.max(arrayLimit, 1));
+        copy.arrayLimit = arrayLimit;
+        copy.arrayPos = arrayPos;
+        copy.bytePos = bytePos;
+        return copy;
+    }
+
+    /**
+     * @return the number of booleans written since this stream was last reset.
+     */
+    int writePosition() {
+        return (arrayPos << 3) + bytePos;
+    }
+
+    /**
+     * Reads back up to 64 previously written booleans without moving the read position.
+     *
+     * @param start
+     *      the write position of the first boolean to return.
+     * @param count
+     *      the number of booleans to return.
+     *
+     * @return the booleans packed into a long, the first boolean in the lowest bit.
+     */
+    long peekBooleans(int start, int count) {
+        long result = 0;
+        for (int i = 0; i < count; i++) {
+            int position = start + i;
+            if (((data[position >> 3] >> (position & 0x07)) & 0x01) != 0) {
+                result |= 1L << i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes up to 64 booleans packed into a long, the first boolean in the lowest bit.
+     */
+    void writeBooleans(long values, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            writeBoolean(((values >>> i) & 0x01L) != 0);
+        }
+    }
+
     public int marshalledSize() {
         if (arrayLimit < 64) {
             return 1 + arrayLimit;
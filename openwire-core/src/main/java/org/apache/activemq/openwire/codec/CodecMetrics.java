@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * Receives the timings of the commands an {@link OpenWireFormat} encodes and decodes.
+ * <p>
+ * An instance is installed with {@link OpenWireFormat#setCodecMetrics(CodecMetrics)}; when
+ * none is installed the wire format does not read the clock at all.  Implementations are
+ * called on the marshaling thread, possibly from several threads at once when the wire
+ * format is used through {@link MarshalContext} instances, and must not block.
+ *
+ * @see DefaultCodecMetrics
+ */
+public interface CodecMetrics {
+
+    /**
+     * Records one completed codec operation.
+     *
+     * @param operation
+     *      the operation that completed.
+     * @param dataType
+     *      the {@link org.apache.activemq.openwire.commands.CommandTypes} value of the command.
+     * @param bytes
+     *      the encoded size of the command without its size prefix, zero if unknown.
+     * @param nanos
+     *      the time the operation took in nanoseconds.
+     */
+    void record(CodecOperation operation, byte dataType, int bytes, long nanos);
+
+}
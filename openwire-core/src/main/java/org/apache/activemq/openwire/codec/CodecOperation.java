@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * The encoding and decoding operations of an {@link OpenWireFormat} that are reported to
+ * a {@link CodecMetrics} instance.
+ */
+public enum CodecOperation {
+
+    /**
+     * A complete marshal of a command, including both tight marshaling passes.
+     */
+    MARSHAL,
+
+    /**
+     * The first tight marshaling pass that sizes a command and fills its boolean stream.
+     */
+    TIGHT_MARSHAL1,
+
+    /**
+     * The second tight marshaling pass that writes a command.
+     */
+    TIGHT_MARSHAL2,
+
+    /**
+     * The unmarshal of a command once its frame size has been read.
+     */
+    UNMARSHAL;
+
+}
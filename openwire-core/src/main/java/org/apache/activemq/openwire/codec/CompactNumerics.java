@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Encoding of the long values marshaled from the compact numerics protocol version onwards.
+ * <p>
+ * A value is zig-zag mapped so that small negative numbers stay small and then written
+ * as a LEB128 varint, seven bits per byte starting with the least significant group and
+ * the high bit of each byte set when more bytes follow.  A value takes from one byte for
+ * numbers between -64 and 63 up to ten bytes for the extremes of the long range.
+ */
+final class CompactNumerics {
+
+    static final int MAX_ENCODED_SIZE = 10;
+
+    private CompactNumerics() {
+    }
+
+    /**
+     * @param value
+     *      the value to be encoded.
+     *
+     * @return the number of bytes that the encoded value occupies.
+     */
+    static int encodedSize(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        int bits = 64 - Long.numberOfLeadingZeros(zigZag | 1);
+        return (bits + 6) / 7;
+    }
+
+    /**
+     * Writes the encoding of a value.
+     *
+     * @param dataOut
+     *      the output that receives the encoded value.
+     * @param value
+     *      the value to be encoded.
+     *
+     * @throws IOException if an error occurs while writing the value.
+     */
+    static void write(DataOutput dataOut, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            dataOut.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        dataOut.writeByte((int) zigZag);
+    }
+
+    /**
+     * Reads an encoded value.
+     *
+     * @param dataIn
+     *      the input positioned at the first byte of the value.
+     *
+     * @return the decoded value.
+     *
+     * @throws IOException if the input ends early or the value is longer than any valid encoding.
+     */
+    static long read(DataInput dataIn) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readUnsignedByte(dataIn);
+            zigZag |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Encoded numeric value exceeds " + MAX_ENCODED_SIZE + " bytes");
+    }
+
+    /**
+     * Skips over an encoded value.
+     *
+     * @param dataIn
+     *      the input positioned at the first byte of the value.
+     *
+     * @throws IOException if the input ends early or the value is longer than any valid encoding.
+     */
+    static void skip(DataInput dataIn) throws IOException {
+        for (int i = 0; i < MAX_ENCODED_SIZE; ++i) {
+            if (readUnsignedByte(dataIn) < 0x80) {
+                return;
+            }
+        }
+        throw new IOException("Encoded numeric value exceeds " + MAX_ENCODED_SIZE + " bytes");
+    }
+
+    // The byte array streams return -1 rather than throwing once the end is reached
+    private static int readUnsignedByte(DataInput dataIn) throws IOException {
+        int b = dataIn.readUnsignedByte();
+        if (b < 0) {
+            throw new EOFException("Input ended inside an encoded numeric value");
+        }
+        return b;
+    }
+}
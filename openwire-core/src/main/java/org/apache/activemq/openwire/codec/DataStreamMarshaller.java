@@ -22,6 +22,13 @@ import java.io.IOException;
 
 import org.apache.activemq.openwire.commands.DataStructure;
 
+/**
+ * Encodes and decodes one data structure type.
+ * <p>
+ * Implementations must be stateless, a single instance is shared by every
+ * {@link OpenWireFormat} that uses the same codec and version and all connection
+ * specific state is read from the wire format passed to each call.
+ */
 public interface DataStreamMarshaller {
 
     byte getDataStructureType();
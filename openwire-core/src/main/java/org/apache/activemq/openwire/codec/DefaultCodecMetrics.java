@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free {@link CodecMetrics} implementation that keeps, per operation and command
+ * type, a count, the total encoded bytes and a {@link LogLinearHistogram} of the latency.
+ * <p>
+ * The counters are striped {@link LongAdder} instances so that threads marshaling through
+ * their own {@link MarshalContext} do not contend on a shared cache line.  The counters of
+ * a command type are created the first time that type is recorded.
+ */
+public class DefaultCodecMetrics implements CodecMetrics {
+
+    private static final int TYPES = 256;
+    private static final CodecOperation[] OPERATIONS = CodecOperation.values();
+
+    private final AtomicReferenceArray<TypeMetrics> metrics = new AtomicReferenceArray<>(OPERATIONS.length * TYPES);
+
+    @Override
+    public void record(CodecOperation operation, byte dataType, int bytes, long nanos) {
+        TypeMetrics typeMetrics = getOrCreate(operation, dataType);
+        typeMetrics.count.increment();
+        if (bytes > 0) {
+            typeMetrics.bytes.add(bytes);
+        }
+        typeMetrics.latency.record(nanos);
+    }
+
+    /**
+     * @param operation
+     *      the codec operation.
+     * @param dataType
+     *      the command type.
+     *
+     * @return the number of times the operation completed for the given command type.
+     */
+    public long getCount(CodecOperation operation, byte dataType) {
+        TypeMetrics typeMetrics = metrics.get(slot(operation, dataType));
+        return typeMetrics == null ? 0 : typeMetrics.count.sum();
+    }
+
+    /**
+     * @param operation
+     *      the codec operation.
+     *
+     * @return the number of times the operation completed for all command types.
+     */
+    public long getCount(CodecOperation operation) {
+        long total = 0;
+        for (int type = 0; type < TYPES; type++) {
+            total += getCount(operation, (byte) type);
+        }
+        return total;
+    }
+
+    /**
+     * @param operation
+     *      the codec operation.
+     * @param dataType
+     *      the command type.
+     *
+     * @return the total encoded size of the commands of the given type the operation handled.
+     */
+    public long getBytes(CodecOperation operation, byte dataType) {
+        TypeMetrics typeMetrics = metrics.get(slot(operation, dataType));
+        return typeMetrics == null ? 0 : typeMetrics.bytes.sum();
+    }
+
+    /**
+     * @param operation
+     *      the codec operation.
+     * @param dataType
+     *      the command type.
+     *
+     * @return the latency histogram, in nanoseconds, of the operation for the given command
+     *         type or null if the operation never completed for that type.
+     */
+    public LogLinearHistogram getLatency(CodecOperation operation, byte dataType) {
+        TypeMetrics typeMetrics = metrics.get(slot(operation, dataType));
+        return typeMetrics == null ? null : typeMetrics.latency;
+    }
+
+    /**
+     * Resets all counters and histograms to zero.
+     */
+    public void reset() {
+        for (int i = 0; i < metrics.length(); i++) {
+            TypeMetrics typeMetrics = metrics.get(i);
+            if (typeMetrics != null) {
+                typeMetrics.count.reset();
+                typeMetrics.bytes.reset();
+                typeMetrics.latency.reset();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("DefaultCodecMetrics{");
+        boolean first = true;
+        for (CodecOperation operation : OPERATIONS) {
+            for (int type = 0; type < TYPES; type++) {
+                TypeMetrics typeMetrics = metrics.get(slot(operation, (byte) type));
+                if (typeMetrics != null) {
+                    if (!first) {
+                        builder.append(", ");
+                    }
+                    first = false;
+                    builder.append(operation).append('[').append(type).append("]={count=").append(typeMetrics.count.sum())
+                           .append(", bytes=").append(typeMetrics.bytes.sum()).append(", latency=").append(typeMetrics.latency).append('}');
+                }
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    private TypeMetrics getOrCreate(CodecOperation operation, byte dataType) {
+        int slot = slot(operation, dataType);
+        TypeMetrics typeMetrics = metrics.get(slot);
+        if (typeMetrics == null) {
+            typeMetrics = new TypeMetrics();
+            if (!metrics.compareAndSet(slot, null, typeMetrics)) {
+                typeMetrics = metrics.get(slot);
+            }
+        }
+        return typeMetrics;
+    }
+
+    private static int slot(CodecOperation operation, byte dataType) {
+        return operation.ordinal() * TYPES + (dataType & 0xFF);
+    }
+
+    private static final class TypeMetrics {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LogLinearHistogram latency = new LogLinearHistogram();
+
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * The fields a {@link FrameInspector} extracted from a single frame.
+ * <p>
+ * Instances may be reused across frames, each inspection starts by clearing the values
+ * left by the previous one.
+ */
+public final class FrameInfo {
+
+    private byte dataType;
+    private boolean command;
+    private int commandId;
+    private boolean responseRequired;
+    private byte destinationType;
+    private String destination;
+    private String messageId;
+    private boolean complete = true;
+
+    /**
+     * @return the data structure type of the frame, see {@link org.apache.activemq.openwire.commands.CommandTypes}.
+     */
+    public byte getDataType() {
+        return dataType;
+    }
+
+    /**
+     * @return true if the frame holds a command and so carries a command id and response flag.
+     */
+    public boolean isCommand() {
+        return command;
+    }
+
+    public int getCommandId() {
+        return commandId;
+    }
+
+    public boolean isResponseRequired() {
+        return responseRequired;
+    }
+
+    /**
+     * @return the data structure type of the destination, or zero if no destination was found.
+     */
+    public byte getDestinationType() {
+        return destinationType;
+    }
+
+    /**
+     * @return the physical name of the destination the frame is addressed to, or null if it has none.
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    /**
+     * @return the text form of the message id carried by the frame, or null if it has none.
+     */
+    public String getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * Returns false when a destination or message id was present in the frame but could not
+     * be recovered, which happens when it was sent as a reference into the marshal cache of
+     * the connection.  The value reported for such a field is null.
+     *
+     * @return true if every field that was present in the frame could be extracted.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void clear() {
+        dataType = 0;
+        command = false;
+        commandId = 0;
+        responseRequired = false;
+        destinationType = 0;
+        destination = null;
+        messageId = null;
+        complete = true;
+    }
+
+    void setDataType(byte dataType) {
+        this.dataType = dataType;
+    }
+
+    void setCommand(int commandId, boolean responseRequired) {
+        this.command = true;
+        this.commandId = commandId;
+        this.responseRequired = responseRequired;
+    }
+
+    void setDestination(byte destinationType, String destination) {
+        this.destinationType = destinationType;
+        this.destination = destination;
+    }
+
+    void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    void setIncomplete() {
+        this.complete = false;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameInfo {dataType = " + dataType + ", commandId = " + commandId + ", responseRequired = " + responseRequired +
+               ", destination = " + destination + ", messageId = " + messageId + ", complete = " + complete + "}";
+    }
+}
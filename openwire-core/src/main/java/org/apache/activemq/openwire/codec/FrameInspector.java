@@ -0,0 +1,449 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.codec.universal.BaseCommandMarshaller;
+import org.apache.activemq.openwire.codec.universal.MarshallerFactory;
+import org.apache.activemq.openwire.commands.CommandTypes;
+
+/**
+ * Extracts the routing fields of an encoded frame without unmarshaling it.
+ * <p>
+ * The inspector walks the leading properties of the frame, reading the values it reports
+ * and skipping over the others, no command objects are created.  It reports the type of the
+ * frame, the command id and response flag of commands, the destination of messages, message
+ * dispatches, acks, pulls and producer, consumer and destination infos and the message id of
+ * messages and acks.
+ * <p>
+ * The frame must be encoded with the settings of the given wire format, which are read on
+ * each call so that the inspector follows the settings negotiated for the connection.  A value
+ * sent as a reference into the marshal cache can only be recovered when it was added to the
+ * cache earlier in the same frame since the inspector does not track the cache contents of the
+ * connection, see {@link FrameInfo#isComplete()}.  For the same reason a message id is only
+ * recovered from its text view once the negotiated version delta encodes sequence ids.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class FrameInspector {
+
+    private static final boolean[] COMMAND_TYPES = new boolean[256];
+    private static final int FRAME_CACHE_SIZE = 8;
+
+    static {
+        for (int i = 0; i < COMMAND_TYPES.length; ++i) {
+            COMMAND_TYPES[i] = MarshallerFactory.getMarshaller(i) instanceof BaseCommandMarshaller;
+        }
+    }
+
+    private final OpenWireFormat wireFormat;
+    private final DataByteArrayInputStream dataIn = new DataByteArrayInputStream();
+    private final BooleanStream booleans = new BooleanStream();
+    private final BooleanStream nestedBooleans = new BooleanStream();
+
+    private boolean tight;
+    private boolean cacheEnabled;
+    private boolean compactNumerics;
+    private int version;
+
+    // Type of the last nested object read and whether a wanted value was a cache reference.
+    private byte nestedType;
+    private boolean unresolved;
+
+    // Cache entries decoded earlier in the current frame, a message id usually refers back
+    // to the producer id that was added to the cache ahead of it.
+    private final short[] frameCacheIndexes = new short[FRAME_CACHE_SIZE];
+    private final byte[] frameCacheTypes = new byte[FRAME_CACHE_SIZE];
+    private final String[] frameCacheValues = new String[FRAME_CACHE_SIZE];
+    private int frameCacheEntries;
+
+    public FrameInspector(OpenWireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
+    /**
+     * Inspects the given frame.
+     *
+     * @param frame
+     *      the encoded frame, including its size prefix unless that is disabled.
+     *
+     * @return the fields extracted from the frame.
+     *
+     * @throws IOException if the frame is truncated or holds a value that cannot be skipped.
+     */
+    public FrameInfo inspect(Buffer frame) throws IOException {
+        return inspect(frame, new FrameInfo());
+    }
+
+    /**
+     * Inspects the given frame, filling in a reusable result.
+     *
+     * @param frame
+     *      the encoded frame, including its size prefix unless that is disabled.
+     * @param info
+     *      the result to fill in, any values from a previous inspection are cleared.
+     *
+     * @return the given result.
+     *
+     * @throws IOException if the frame is truncated or holds a value that cannot be skipped.
+     */
+    public FrameInfo inspect(Buffer frame, FrameInfo info) throws IOException {
+        info.clear();
+
+        tight = wireFormat.isTightEncodingEnabled();
+        cacheEnabled = wireFormat.isCacheEnabled();
+        compactNumerics = wireFormat.isCompactNumericsEnabled();
+        version = wireFormat.getVersion();
+        frameCacheEntries = 0;
+
+        dataIn.restart(frame);
+        if (!wireFormat.isSizePrefixDisabled()) {
+            int size = readInt();
+            if (size < 0 || size > dataIn.available()) {
+                throw new EOFException("Frame size " + size + " exceeds the " + dataIn.available() + " bytes remaining in the buffer");
+            }
+            dataIn.setLength(dataIn.getPos() - frame.getOffset() + size);
+        }
+
+        byte dataType = readByte();
+        info.setDataType(dataType);
+        if (dataType != OpenWireFormat.NULL_TYPE && COMMAND_TYPES[dataType & 0xFF]) {
+            BooleanStream bs = tight ? readBooleans(booleans) : null;
+            info.setCommand(readInt(), readBoolean(bs));
+            inspectCommand(dataType, bs, info);
+        }
+
+        return info;
+    }
+
+    private void inspectCommand(byte dataType, BooleanStream bs, FrameInfo info) throws IOException {
+        boolean resolved = true;
+
+        switch (dataType) {
+            case CommandTypes.OPENWIRE_MESSAGE:
+            case CommandTypes.OPENWIRE_BYTES_MESSAGE:
+            case CommandTypes.OPENWIRE_MAP_MESSAGE:
+            case CommandTypes.OPENWIRE_OBJECT_MESSAGE:
+            case CommandTypes.OPENWIRE_STREAM_MESSAGE:
+            case CommandTypes.OPENWIRE_TEXT_MESSAGE:
+            case CommandTypes.OPENWIRE_BLOB_MESSAGE:
+                resolved = inspectMessage(bs, info);
+                break;
+            case CommandTypes.MESSAGE_DISPATCH:
+                readCachedObject(bs, false);
+                resolved = readDestination(bs, info);
+                if (readBoolean(bs)) {
+                    byte messageType = readByte();
+                    if (!isMessageType(messageType)) {
+                        break;
+                    }
+                    BooleanStream messageBooleans = bs;
+                    if (tight && bs.readBoolean()) {
+                        // The message was written as an embedded frame with its own booleans.
+                        readInt();
+                        readByte();
+                        messageBooleans = readBooleans(nestedBooleans);
+                    }
+                    readInt();
+                    readBoolean(messageBooleans);
+                    resolved &= inspectMessage(messageBooleans, info);
+                }
+                break;
+            case CommandTypes.MESSAGE_ACK:
+                resolved = readDestination(bs, info);
+                readCachedObject(bs, false);
+                readCachedObject(bs, false);
+                readByte();
+                readNestedObject(bs, false);
+                resolved &= readMessageId(bs, info);
+                break;
+            case CommandTypes.CONSUMER_INFO:
+                readCachedObject(bs, false);
+                readBoolean(bs);
+                resolved = readDestination(bs, info);
+                break;
+            case CommandTypes.PRODUCER_INFO:
+            case CommandTypes.MESSAGE_PULL:
+            case CommandTypes.DESTINATION_INFO:
+                readCachedObject(bs, false);
+                resolved = readDestination(bs, info);
+                break;
+            default:
+                break;
+        }
+
+        if (!resolved) {
+            info.setIncomplete();
+        }
+    }
+
+    private boolean inspectMessage(BooleanStream bs, FrameInfo info) throws IOException {
+        boolean resolved = true;
+
+        readCachedObject(bs, cacheEnabled);
+        if (info.getDestination() == null) {
+            resolved = readDestination(bs, info);
+        } else {
+            readCachedObject(bs, false);
+        }
+        readCachedObject(bs, false);
+        readCachedObject(bs, false);
+
+        return readMessageId(bs, info) && resolved;
+    }
+
+    private boolean readDestination(BooleanStream bs, FrameInfo info) throws IOException {
+        unresolved = false;
+        String physicalName = readCachedObject(bs, true);
+        if (physicalName != null) {
+            info.setDestination(nestedType, physicalName);
+        }
+        return !unresolved;
+    }
+
+    private boolean readMessageId(BooleanStream bs, FrameInfo info) throws IOException {
+        unresolved = false;
+        info.setMessageId(readNestedObject(bs, true));
+        return !unresolved;
+    }
+
+    //----- Nested object handling -------------------------------------------//
+
+    private String readCachedObject(BooleanStream bs, boolean decode) throws IOException {
+        if (!cacheEnabled) {
+            return readNestedObject(bs, decode);
+        }
+
+        boolean inline = readBoolean(bs);
+        short index = readShort();
+        if (inline) {
+            String value = readNestedObject(bs, decode);
+            if (value != null && frameCacheEntries < FRAME_CACHE_SIZE) {
+                frameCacheIndexes[frameCacheEntries] = index;
+                frameCacheTypes[frameCacheEntries] = nestedType;
+                frameCacheValues[frameCacheEntries++] = value;
+            }
+            return value;
+        }
+
+        nestedType = OpenWireFormat.NULL_TYPE;
+        if (decode) {
+            for (int i = frameCacheEntries - 1; i >= 0; --i) {
+                if (frameCacheIndexes[i] == index) {
+                    nestedType = frameCacheTypes[i];
+                    return frameCacheValues[i];
+                }
+            }
+            unresolved = true;
+        }
+        return null;
+    }
+
+    private String readNestedObject(BooleanStream bs, boolean decode) throws IOException {
+        if (!readBoolean(bs)) {
+            nestedType = OpenWireFormat.NULL_TYPE;
+            return null;
+        }
+
+        final byte type = readByte();
+        final String value;
+
+        switch (type) {
+            case CommandTypes.OPENWIRE_QUEUE:
+            case CommandTypes.OPENWIRE_TOPIC:
+            case CommandTypes.OPENWIRE_TEMP_QUEUE:
+            case CommandTypes.OPENWIRE_TEMP_TOPIC:
+            case CommandTypes.CONNECTION_ID:
+            case CommandTypes.BROKER_ID:
+                value = readString(bs, decode);
+                break;
+            case CommandTypes.SESSION_ID: {
+                String connectionId = readString(bs, decode);
+                long sessionId = readLong(bs);
+                value = decode ? connectionId + ":" + sessionId : null;
+                break;
+            }
+            case CommandTypes.CONSUMER_ID: {
+                String connectionId = readString(bs, decode);
+                long sessionId = readLong(bs);
+                long consumerId = readLong(bs);
+                value = decode ? connectionId + ":" + sessionId + ":" + consumerId : null;
+                break;
+            }
+            case CommandTypes.PRODUCER_ID: {
+                String connectionId = readString(bs, decode);
+                long producerId = readLong(bs);
+                long sessionId = readLong(bs);
+                value = decode ? connectionId + ":" + sessionId + ":" + producerId : null;
+                break;
+            }
+            case CommandTypes.MESSAGE_ID: {
+                String textView = version >= 10 ? readString(bs, decode) : null;
+                String producerId = readCachedObject(bs, decode && textView == null);
+                long producerSequenceId = readLong(bs);
+                readLong(bs);
+                if (!decode) {
+                    value = null;
+                } else if (textView != null) {
+                    value = textView.startsWith("ID:") ? textView : "ID:" + textView;
+                } else if (producerId != null && !compactNumerics) {
+                    value = producerId + ":" + producerSequenceId;
+                } else {
+                    // A delta encoded sequence id depends on frames that were not inspected
+                    unresolved |= producerId != null;
+                    value = null;
+                }
+                break;
+            }
+            case CommandTypes.OPENWIRE_LOCAL_TRANSACTION_ID:
+                readLong(bs);
+                readCachedObject(bs, false);
+                value = null;
+                break;
+            case CommandTypes.OPENWIRE_XA_TRANSACTION_ID:
+                readInt();
+                skipByteArray(bs);
+                skipByteArray(bs);
+                value = null;
+                break;
+            default:
+                // Step over any other structure using its generated skip routine
+                if (tight) {
+                    wireFormat.tightSkipObject(type, dataIn, bs);
+                } else {
+                    wireFormat.looseSkipObject(type, dataIn);
+                }
+                value = null;
+                break;
+        }
+
+        nestedType = type;
+        return value;
+    }
+
+    //----- Primitive readers ------------------------------------------------//
+
+    private BooleanStream readBooleans(BooleanStream target) throws IOException {
+        require(1);
+        int start = dataIn.getPos();
+        target.unmarshal(dataIn);
+        if (dataIn.getPos() - start != target.marshalledSize()) {
+            throw new EOFException("Frame truncated while reading its boolean stream");
+        }
+        return target;
+    }
+
+    private boolean readBoolean(BooleanStream bs) throws IOException {
+        if (tight) {
+            return bs.readBoolean();
+        }
+        require(1);
+        return dataIn.readBoolean();
+    }
+
+    private byte readByte() throws IOException {
+        require(1);
+        return dataIn.readByte();
+    }
+
+    private short readShort() throws IOException {
+        require(2);
+        return dataIn.readShort();
+    }
+
+    private int readInt() throws IOException {
+        require(4);
+        return dataIn.readInt();
+    }
+
+    private long readLong(BooleanStream bs) throws IOException {
+        if (compactNumerics) {
+            return CompactNumerics.read(dataIn);
+        }
+
+        if (!tight) {
+            require(8);
+            return dataIn.readLong();
+        }
+
+        if (bs.readBoolean()) {
+            if (bs.readBoolean()) {
+                require(8);
+                return dataIn.readLong();
+            } else {
+                return readInt() & 0xffffffffL;
+            }
+        } else if (bs.readBoolean()) {
+            return readShort() & 0xffffL;
+        } else {
+            return 0;
+        }
+    }
+
+    private String readString(BooleanStream bs, boolean decode) throws IOException {
+        if (!readBoolean(bs)) {
+            return null;
+        }
+
+        if (tight && bs.readBoolean()) {
+            int size = readShort();
+            require(size);
+            String value = decode ? new String(dataIn.getRawData(), dataIn.getPos(), size, StandardCharsets.ISO_8859_1) : null;
+            dataIn.skipBytes(size);
+            return value;
+        }
+
+        if (decode) {
+            require(2);
+            int start = dataIn.getPos();
+            int size = dataIn.readUnsignedShort();
+            require(size);
+            dataIn.setPos(start);
+            return dataIn.readUTF();
+        }
+
+        require(2);
+        skip(dataIn.readUnsignedShort());
+        return null;
+    }
+
+    private void skipByteArray(BooleanStream bs) throws IOException {
+        if (readBoolean(bs)) {
+            skip(readInt());
+        }
+    }
+
+    private void skip(int bytes) throws IOException {
+        require(bytes);
+        dataIn.skipBytes(bytes);
+    }
+
+    private void require(int bytes) throws EOFException {
+        if (bytes < 0 || dataIn.available() < bytes) {
+            throw new EOFException("Frame truncated, " + bytes + " bytes needed but only " + dataIn.available() + " remain");
+        }
+    }
+
+    private static boolean isMessageType(byte type) {
+        return type >= CommandTypes.OPENWIRE_MESSAGE && type <= CommandTypes.OPENWIRE_BLOB_MESSAGE;
+    }
+}
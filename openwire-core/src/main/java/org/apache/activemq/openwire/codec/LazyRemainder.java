@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.IOException;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+
+/**
+ * Holds the undecoded properties that follow the header of a lazily unmarshaled command
+ * along with everything needed to decode them later, including the marshaller and a copy of
+ * the wire format settings that the header was read with.
+ * <p>
+ * The remainder owns a copy of its bytes unless zero copy unmarshaling is enabled, in which
+ * case it is a view into the frame the command was read from and the same lifetime rules
+ * apply as for the zero copy content of a message.
+ */
+public final class LazyRemainder {
+
+    private final OpenWireFormat wireFormat;
+    private final LazyUnmarshaller marshaller;
+    private final Buffer data;
+    private final BooleanStream booleans;
+
+    LazyRemainder(OpenWireFormat wireFormat, LazyUnmarshaller marshaller, Buffer data, BooleanStream booleans) {
+        this.wireFormat = wireFormat;
+        this.marshaller = marshaller;
+        this.data = data;
+        this.booleans = booleans;
+    }
+
+    /**
+     * @return the number of encoded bytes that are still to be decoded.
+     */
+    public int getLength() {
+        return data.getLength();
+    }
+
+    /**
+     * Decodes the deferred properties into the given target, may only be called once.
+     *
+     * @param target
+     *      the command whose header was unmarshaled together with this remainder.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    public void unmarshal(Object target) throws IOException {
+        DataByteArrayInputStream dataIn = new DataByteArrayInputStream(data);
+        if (booleans != null) {
+            marshaller.tightUnmarshalRemainder(wireFormat, target, dataIn, booleans);
+        } else {
+            marshaller.looseUnmarshalRemainder(wireFormat, target, dataIn);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+/**
+ * Implemented by the generated marshallers of types that declare header properties, allowing
+ * the properties that follow the header to be unmarshaled separately and at a later time.
+ *
+ * @see org.apache.activemq.openwire.annotations.OpenWireType#headerProperties()
+ */
+public interface LazyUnmarshaller {
+
+    /**
+     * Tight un-marshals the header properties of the target, including the properties of
+     * its super types.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param target
+     *      the object to un-marshal.
+     * @param dataIn
+     *      the data input stream to build the object from.
+     * @param bs
+     *      the boolean stream where the type's booleans were marshaled.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    void tightUnmarshalHeader(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException;
+
+    /**
+     * Tight un-marshals the properties that follow the header of the target.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param target
+     *      the object to un-marshal.
+     * @param dataIn
+     *      the data input stream positioned just after the header properties.
+     * @param bs
+     *      the boolean stream positioned just after the booleans of the header properties.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    void tightUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException;
+
+    /**
+     * Loose un-marshals the header properties of the target, including the properties of
+     * its super types.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param target
+     *      the object to un-marshal.
+     * @param dataIn
+     *      the data input stream to build the object from.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    void looseUnmarshalHeader(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException;
+
+    /**
+     * Loose un-marshals the properties that follow the header of the target.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param target
+     *      the object to un-marshal.
+     * @param dataIn
+     *      the data input stream positioned just after the header properties.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    void looseUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException;
+
+}
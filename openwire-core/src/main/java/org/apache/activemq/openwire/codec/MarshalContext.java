@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+import org.apache.activemq.openwire.commands.DataStructure;
+
+/**
+ * Per-thread marshaling state for an {@link OpenWireFormat} instance.
+ * <p>
+ * A context owns its own byte array streams and {@link BooleanStream} while sharing
+ * the negotiated settings and marshaller table of the wire format that created it, so
+ * that many threads can encode commands for the same connection in parallel without
+ * contending on the wire format's lock.
+ * <p>
+ * The marshal and unmarshal caches and the bases of delta encoded values are part of the
+ * connection state that both peers must observe in the same order, when caching or compact
+ * numerics have been negotiated the context will hold the owning wire format's lock for
+ * the duration of each operation.
+ * <p>
+ * A MarshalContext is not thread safe, each thread should create its own instance
+ * using {@link OpenWireFormat#createMarshalContext()}.
+ */
+public final class MarshalContext {
+
+    private final OpenWireFormat wireFormat;
+    private final DataByteArrayOutputStream bytesOut = new DataByteArrayOutputStream();
+    private final DataByteArrayInputStream bytesIn = new DataByteArrayInputStream();
+    private final BooleanStream marshalBooleans = new BooleanStream();
+    private final BooleanStream unmarshalBooleans = new BooleanStream();
+
+    MarshalContext(OpenWireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
+    /**
+     * @return the OpenWireFormat that this context was created from.
+     */
+    public OpenWireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Marshals the given command into a new Buffer using this context's buffers.
+     *
+     * @param command
+     *      the command to marshal.
+     *
+     * @return a Buffer containing the encoded command.
+     *
+     * @throws IOException if an error occurs while marshaling the command.
+     */
+    public Buffer marshal(Object command) throws IOException {
+        if (wireFormat.hasConnectionState()) {
+            wireFormat.getLock().lock();
+            try {
+                return wireFormat.marshal(command, bytesOut, marshalBooleans);
+            } finally {
+                wireFormat.getLock().unlock();
+            }
+        }
+
+        return wireFormat.marshal(command, bytesOut, marshalBooleans);
+    }
+
+    /**
+     * Marshals the given command to the provided DataOutput using this context's buffers.
+     *
+     * @param command
+     *      the command to marshal.
+     * @param dataOut
+     *      the DataOutput where the encoded command is written.
+     *
+     * @throws IOException if an error occurs while marshaling the command.
+     */
+    public void marshal(Object command, DataOutput dataOut) throws IOException {
+        if (wireFormat.hasConnectionState()) {
+            wireFormat.getLock().lock();
+            try {
+                wireFormat.marshal(command, dataOut, bytesOut, marshalBooleans);
+            } finally {
+                wireFormat.getLock().unlock();
+            }
+        } else {
+            wireFormat.marshal(command, dataOut, bytesOut, marshalBooleans);
+        }
+    }
+
+    /**
+     * Marshals the given command directly into the provided ByteBuffer.
+     *
+     * @param command
+     *      the command to marshal.
+     * @param target
+     *      the buffer to write the command into, must use big endian byte order.
+     *
+     * @return the buffer that the command was written into, see {@link OpenWireFormat#marshal(Object, ByteBuffer)}.
+     *
+     * @throws IOException if an error occurs while marshaling the command.
+     */
+    public ByteBuffer marshal(Object command, ByteBuffer target) throws IOException {
+        if (wireFormat.hasConnectionState()) {
+            wireFormat.getLock().lock();
+            try {
+                return wireFormat.marshal(command, target, bytesOut, marshalBooleans);
+            } finally {
+                wireFormat.getLock().unlock();
+            }
+        }
+
+        return wireFormat.marshal(command, target, bytesOut, marshalBooleans);
+    }
+
+    /**
+     * Marshals the given commands back to back into a single new Buffer using this context's buffers.
+     *
+     * @param commands
+     *      the commands to marshal, in the order they are to be sent.
+     *
+     * @return the encoded batch, see {@link OpenWireFormat#marshalBatch(List)}.
+     *
+     * @throws IOException if an error occurs while marshaling one of the commands.
+     */
+    public MarshalledBatch marshalBatch(List<? extends DataStructure> commands) throws IOException {
+        if (wireFormat.hasConnectionState()) {
+            wireFormat.getLock().lock();
+            try {
+                return wireFormat.marshalBatch(commands, bytesOut, marshalBooleans);
+            } finally {
+                wireFormat.getLock().unlock();
+            }
+        }
+
+        return wireFormat.marshalBatch(commands, bytesOut, marshalBooleans);
+    }
+
+    /**
+     * Marshals the given commands back to back directly into the provided ByteBuffer.
+     *
+     * @param commands
+     *      the commands to marshal, in the order they are to be sent.
+     * @param target
+     *      the buffer to write the commands into, must use big endian byte order.
+     * @param frameOffsets
+     *      optional array that receives the position of each frame, see
+     *      {@link OpenWireFormat#marshalBatch(List, ByteBuffer, int[])}.
+     *
+     * @return the buffer that the commands were written into.
+     *
+     * @throws IOException if an error occurs while marshaling one of the commands.
+     */
+    public ByteBuffer marshalBatch(List<? extends DataStructure> commands, ByteBuffer target, int[] frameOffsets) throws IOException {
+        if (wireFormat.hasConnectionState()) {
+            wireFormat.getLock().lock();
+            try {
+                return wireFormat.marshalBatch(commands, target, frameOffsets, bytesOut, marshalBooleans);
+            } finally {
+                wireFormat.getLock().unlock();
+            }
+        }
+
+        return wireFormat.marshalBatch(commands, target, frameOffsets, bytesOut, marshalBooleans);
+    }
+
+    /**
+     * Unmarshals a command from the given Buffer using this context's buffers.
+     *
+     * @param sequence
+     *      the Buffer that contains the encoded command.
+     *
+     * @return the unmarshaled command.
+     *
+     * @throws IOException if an error occurs while unmarshaling the command.
+     */
+    public Object unmarshal(Buffer sequence) throws IOException {
+        if (wireFormat.hasConnectionState()) {
+            wireFormat.getLock().lock();
+            try {
+                return wireFormat.unmarshal(sequence, bytesIn, unmarshalBooleans);
+            } finally {
+                wireFormat.getLock().unlock();
+            }
+        }
+
+        return wireFormat.unmarshal(sequence, bytesIn, unmarshalBooleans);
+    }
+
+    /**
+     * Unmarshals a command from the given DataInput.
+     *
+     * @param dataIn
+     *      the DataInput to read the encoded command from.
+     *
+     * @return the unmarshaled command.
+     *
+     * @throws IOException if an error occurs while unmarshaling the command.
+     */
+    public Object unmarshal(DataInput dataIn) throws IOException {
+        return wireFormat.unmarshal(dataIn, unmarshalBooleans);
+    }
+
+    /**
+     * Unmarshals the next command from the given ByteBuffer.
+     *
+     * @param source
+     *      the buffer to read the command from, must use big endian byte order.
+     *
+     * @return the unmarshaled command.
+     *
+     * @throws IOException if an error occurs while unmarshaling the command.
+     */
+    public Object unmarshal(ByteBuffer source) throws IOException {
+        if (wireFormat.hasConnectionState()) {
+            wireFormat.getLock().lock();
+            try {
+                return wireFormat.unmarshal(source, bytesIn, unmarshalBooleans);
+            } finally {
+                wireFormat.getLock().unlock();
+            }
+        }
+
+        return wireFormat.unmarshal(source, bytesIn, unmarshalBooleans);
+    }
+}
@@ -0,0 +1,324 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import org.apache.activemq.openwire.commands.DataStructure;
+
+/**
+ * The sending side of the OpenWire value cache, maps cached data structures to the index
+ * that the remote peer stores them under.
+ * <p>
+ * Values are located with a linear probing open addressing table of primitive indexes
+ * using {@link Object#equals(Object)}, with a fast path for the same instance, so lookups
+ * do not allocate.  As with the map this replaces, null is a valid value.  Once every
+ * index is in use, adding a value replaces the entry chosen by the configured
+ * {@link MarshallCacheEvictionPolicy}.
+ * <p>
+ * The cache counts hits, misses and evictions along with the encoded bytes that cache
+ * references saved, and reports each of these events to an optional {@link MarshallCacheListener}.
+ * <p>
+ * This class is not thread safe, it is guarded by the owning {@link OpenWireFormat}.
+ */
+public final class MarshallCache {
+
+    private static final int LRU_SAMPLE_SIZE = 8;
+
+    private final MarshallCacheEvictionPolicy evictionPolicy;
+    private final DataStructure[] values;
+    private final int[] hashes;
+    private final int[] encodedSizes;
+    private final int[] table;
+    private final int tableMask;
+
+    private final boolean[] referenced;
+    private final long[] lastUsed;
+
+    private int size;
+    private int hand;
+    private long clock;
+    private int random = 0x2545F491;
+
+    private MarshallCacheListener listener;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long bytesSaved;
+
+    /**
+     * Creates a new cache that assigns the indexes 0 to capacity - 1.
+     *
+     * @param capacity
+     *      the number of cache indexes negotiated with the remote peer.
+     * @param evictionPolicy
+     *      the policy used to pick a value to replace when the cache is full.
+     */
+    public MarshallCache(int capacity, MarshallCacheEvictionPolicy evictionPolicy) {
+        if (capacity <= 0 || capacity > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid cache capacity: " + capacity);
+        }
+        if (evictionPolicy == null) {
+            throw new IllegalArgumentException("An eviction policy is required");
+        }
+
+        this.evictionPolicy = evictionPolicy;
+        this.values = new DataStructure[capacity];
+        this.hashes = new int[capacity];
+        this.encodedSizes = new int[capacity];
+        this.table = new int[Integer.highestOneBit(capacity) << 2];
+        this.tableMask = table.length - 1;
+        this.referenced = evictionPolicy == MarshallCacheEvictionPolicy.CLOCK ? new boolean[capacity] : null;
+        this.lastUsed = evictionPolicy == MarshallCacheEvictionPolicy.SAMPLED_LRU ? new long[capacity] : null;
+    }
+
+    /**
+     * Returns the index the given value is cached under and records the reference for
+     * the eviction policy.
+     *
+     * @param value
+     *      the value to look up.
+     *
+     * @return the cache index of the value or -1 if it is not cached.
+     */
+    public short get(DataStructure value) {
+        final int hash = hash(value);
+        for (int slot = hash & tableMask; ; slot = (slot + 1) & tableMask) {
+            final int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+
+            final int index = entry - 1;
+            if (hashes[index] == hash) {
+                final DataStructure cached = values[index];
+                if (cached == value || (cached != null && cached.equals(value))) {
+                    touch(index);
+                    hits++;
+                    bytesSaved += encodedSizes[index];
+                    if (listener != null) {
+                        listener.onCacheHit((short) index, cached, encodedSizes[index]);
+                    }
+                    return (short) index;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a value that is not currently cached, replacing an existing entry if every
+     * index is already in use.
+     *
+     * @param value
+     *      the value to add.
+     *
+     * @return the cache index assigned to the value.
+     */
+    public short put(DataStructure value) {
+        final int index;
+        if (size < values.length) {
+            index = size++;
+        } else {
+            index = selectVictim();
+            evictions++;
+            if (listener != null) {
+                listener.onCacheEviction((short) index, values[index]);
+            }
+            remove(index);
+        }
+
+        final int hash = hash(value);
+        int slot = hash & tableMask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & tableMask;
+        }
+
+        table[slot] = index + 1;
+        values[index] = value;
+        hashes[index] = hash;
+        encodedSizes[index] = 0;
+
+        if (referenced != null) {
+            referenced[index] = false;
+        } else if (lastUsed != null) {
+            lastUsed[index] = ++clock;
+        }
+
+        misses++;
+        if (listener != null) {
+            listener.onCacheMiss((short) index, value);
+        }
+
+        return (short) index;
+    }
+
+    /**
+     * Records the encoded size of the value held at the given index, each later hit on
+     * that value counts the size towards the bytes saved by the cache.
+     *
+     * @param index
+     *      the cache index returned when the value was added.
+     * @param encodedSize
+     *      the number of bytes the value occupied when it was sent in full.
+     */
+    public void setEncodedSize(short index, int encodedSize) {
+        encodedSizes[index] = encodedSize;
+    }
+
+    /**
+     * @return the number of indexes that currently hold a value.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of cache indexes available.
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * @return the number of lookups that found the value in the cache.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of values added because they were not found in the cache.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of values removed to make room for new ones.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the total encoded size of the values that were sent as cache references.
+     */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    /**
+     * Resets the hit, miss, eviction and bytes saved counters to zero.
+     */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        bytesSaved = 0;
+    }
+
+    /**
+     * @return the listener notified of cache activity, or null if none is set.
+     */
+    public MarshallCacheListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @param listener
+     *      the listener to notify of cache activity, or null to remove the current one.
+     */
+    public void setListener(MarshallCacheListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the policy used to select the entry replaced when the cache is full.
+     */
+    public MarshallCacheEvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    private void touch(int index) {
+        if (referenced != null) {
+            referenced[index] = true;
+        } else if (lastUsed != null) {
+            lastUsed[index] = ++clock;
+        }
+    }
+
+    private int selectVictim() {
+        final int capacity = values.length;
+        switch (evictionPolicy) {
+            case CLOCK:
+                while (referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = hand + 1 == capacity ? 0 : hand + 1;
+                }
+                // Fall through, the hand now points at an unreferenced entry.
+            case FIFO:
+                final int victim = hand;
+                hand = hand + 1 == capacity ? 0 : hand + 1;
+                return victim;
+            case SAMPLED_LRU:
+            default:
+                int oldest = nextRandom(capacity);
+                for (int i = 1; i < LRU_SAMPLE_SIZE; ++i) {
+                    int candidate = nextRandom(capacity);
+                    if (lastUsed[candidate] < lastUsed[oldest]) {
+                        oldest = candidate;
+                    }
+                }
+                return oldest;
+        }
+    }
+
+    /**
+     * Removes the value held at the given index from the lookup table, closing the gap
+     * with a backward shift so that no tombstones are needed.
+     */
+    private void remove(int index) {
+        int hole = hashes[index] & tableMask;
+        while (table[hole] != index + 1) {
+            hole = (hole + 1) & tableMask;
+        }
+
+        for (int slot = (hole + 1) & tableMask; table[slot] != 0; slot = (slot + 1) & tableMask) {
+            final int home = hashes[table[slot] - 1] & tableMask;
+            if (((slot - home) & tableMask) >= ((slot - hole) & tableMask)) {
+                table[hole] = table[slot];
+                hole = slot;
+            }
+        }
+
+        table[hole] = 0;
+        values[index] = null;
+    }
+
+    private int nextRandom(int bound) {
+        int x = random;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        random = x;
+        return (x & Integer.MAX_VALUE) % bound;
+    }
+
+    private static int hash(DataStructure value) {
+        // A null value is cached the same as any other, the peer then skips decoding it.
+        final int h = value != null ? value.hashCode() : 0;
+        return h ^ (h >>> 16);
+    }
+}
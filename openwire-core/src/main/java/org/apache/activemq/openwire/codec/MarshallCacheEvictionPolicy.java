@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * The policies that the marshal cache can use to pick the entry to replace once all
+ * of the cache indexes negotiated with the remote peer are in use.
+ * <p>
+ * Only the sending side of a connection makes eviction decisions, the receiver simply
+ * stores each value at the index it was sent with, so the policy can be chosen by each
+ * peer independently.
+ */
+public enum MarshallCacheEvictionPolicy {
+
+    /**
+     * Replaces entries in the order they were added, regardless of how often they
+     * have been used since.
+     */
+    FIFO,
+
+    /**
+     * The CLOCK approximation of least recently used, an entry that was referenced since
+     * the eviction hand last passed it is given another pass before it is replaced.
+     */
+    CLOCK,
+
+    /**
+     * Sampled least recently used, the least recently referenced of a small random
+     * sample of entries is replaced.
+     */
+    SAMPLED_LRU
+}
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import org.apache.activemq.openwire.commands.DataStructure;
+
+/**
+ * Receives notification of the activity of the marshal cache of an {@link OpenWireFormat}.
+ * <p>
+ * Callbacks are made on the marshaling thread while it holds the wire format lock, so an
+ * implementation should do no more than update its own counters.
+ */
+public interface MarshallCacheListener {
+
+    /**
+     * Called when a value is found in the cache and is sent as a cache reference.
+     *
+     * @param index
+     *      the cache index the value was sent as.
+     * @param value
+     *      the cached value.
+     * @param bytesSaved
+     *      the encoded size of the value that did not have to be sent, zero if unknown.
+     */
+    void onCacheHit(short index, DataStructure value, int bytesSaved);
+
+    /**
+     * Called when a value is not found in the cache and is sent in full.
+     *
+     * @param index
+     *      the cache index assigned to the value.
+     * @param value
+     *      the value that was added to the cache.
+     */
+    void onCacheMiss(short index, DataStructure value);
+
+    /**
+     * Called when a value is removed from a full cache to make room for a new value.
+     *
+     * @param index
+     *      the cache index that will be reused.
+     * @param value
+     *      the value that was evicted.
+     */
+    void onCacheEviction(short index, DataStructure value);
+
+}
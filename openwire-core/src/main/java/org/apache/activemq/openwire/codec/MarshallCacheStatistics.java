@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * A live view of the marshal cache statistics of an {@link OpenWireFormat}.
+ * <p>
+ * The view follows the wire format through renegotiation, the counters restart from zero
+ * whenever a new cache is created.  Each read briefly takes the wire format lock.
+ */
+public final class MarshallCacheStatistics implements MarshallCacheStatisticsMBean {
+
+    private final OpenWireFormat wireFormat;
+
+    MarshallCacheStatistics(OpenWireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
+    @Override
+    public boolean isCacheEnabled() {
+        return wireFormat.isCacheEnabled();
+    }
+
+    @Override
+    public long getHits() {
+        wireFormat.getLock().lock();
+        try {
+            MarshallCache cache = wireFormat.getMarshallCache();
+            return cache != null ? cache.getHits() : 0;
+        } finally {
+            wireFormat.getLock().unlock();
+        }
+    }
+
+    @Override
+    public long getMisses() {
+        wireFormat.getLock().lock();
+        try {
+            MarshallCache cache = wireFormat.getMarshallCache();
+            return cache != null ? cache.getMisses() : 0;
+        } finally {
+            wireFormat.getLock().unlock();
+        }
+    }
+
+    @Override
+    public double getHitRatio() {
+        wireFormat.getLock().lock();
+        try {
+            MarshallCache cache = wireFormat.getMarshallCache();
+            if (cache == null) {
+                return 0;
+            }
+
+            long lookups = cache.getHits() + cache.getMisses();
+            return lookups == 0 ? 0 : (double) cache.getHits() / lookups;
+        } finally {
+            wireFormat.getLock().unlock();
+        }
+    }
+
+    @Override
+    public long getEvictions() {
+        wireFormat.getLock().lock();
+        try {
+            MarshallCache cache = wireFormat.getMarshallCache();
+            return cache != null ? cache.getEvictions() : 0;
+        } finally {
+            wireFormat.getLock().unlock();
+        }
+    }
+
+    @Override
+    public int getOccupancy() {
+        wireFormat.getLock().lock();
+        try {
+            MarshallCache cache = wireFormat.getMarshallCache();
+            return cache != null ? cache.size() : 0;
+        } finally {
+            wireFormat.getLock().unlock();
+        }
+    }
+
+    @Override
+    public int getCacheSize() {
+        wireFormat.getLock().lock();
+        try {
+            MarshallCache cache = wireFormat.getMarshallCache();
+            return cache != null ? cache.capacity() : 0;
+        } finally {
+            wireFormat.getLock().unlock();
+        }
+    }
+
+    @Override
+    public long getBytesSaved() {
+        wireFormat.getLock().lock();
+        try {
+            MarshallCache cache = wireFormat.getMarshallCache();
+            return cache != null ? cache.getBytesSaved() : 0;
+        } finally {
+            wireFormat.getLock().unlock();
+        }
+    }
+
+    @Override
+    public String getEvictionPolicy() {
+        return wireFormat.getMarshallCacheEvictionPolicy().name();
+    }
+
+    @Override
+    public void resetStatistics() {
+        wireFormat.getLock().lock();
+        try {
+            MarshallCache cache = wireFormat.getMarshallCache();
+            if (cache != null) {
+                cache.resetStatistics();
+            }
+        } finally {
+            wireFormat.getLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MarshallCacheStatistics{hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() +
+               ", occupancy=" + getOccupancy() + ", cacheSize=" + getCacheSize() + ", bytesSaved=" + getBytesSaved() + "}";
+    }
+}
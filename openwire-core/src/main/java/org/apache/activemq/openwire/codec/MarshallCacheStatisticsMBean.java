@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * Management interface exposing the statistics of the marshal cache of an
+ * {@link OpenWireFormat}, suitable for registration as a JMX standard MBean.
+ */
+public interface MarshallCacheStatisticsMBean {
+
+    /**
+     * @return true if the value cache is enabled on the wire format.
+     */
+    boolean isCacheEnabled();
+
+    /**
+     * @return the number of values sent as a reference to a cached value.
+     */
+    long getHits();
+
+    /**
+     * @return the number of cacheable values that had to be sent in full.
+     */
+    long getMisses();
+
+    /**
+     * @return the fraction of cacheable values that were sent as a reference, between 0 and 1.
+     */
+    double getHitRatio();
+
+    /**
+     * @return the number of values evicted to make room for new ones.
+     */
+    long getEvictions();
+
+    /**
+     * @return the number of cache indexes that currently hold a value.
+     */
+    int getOccupancy();
+
+    /**
+     * @return the number of cache indexes negotiated with the remote peer.
+     */
+    int getCacheSize();
+
+    /**
+     * @return the encoded bytes that were not sent because a cache reference was sent instead.
+     */
+    long getBytesSaved();
+
+    /**
+     * @return the name of the eviction policy in use.
+     */
+    String getEvictionPolicy();
+
+    /**
+     * Resets the hit, miss, eviction and bytes saved counters to zero.
+     */
+    void resetStatistics();
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+
+/**
+ * The result of {@link OpenWireFormat#marshalBatch(java.util.List)}, a single buffer holding
+ * the frames of every command in the batch along with the offset of each frame.
+ */
+public final class MarshalledBatch {
+
+    private final Buffer buffer;
+    private final int[] frameOffsets;
+
+    MarshalledBatch(Buffer buffer, int[] frameOffsets) {
+        this.buffer = buffer;
+        this.frameOffsets = frameOffsets;
+    }
+
+    /**
+     * @return the buffer holding all the frames of the batch.
+     */
+    public Buffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the number of frames in the batch.
+     */
+    public int getFrameCount() {
+        return frameOffsets.length - 1;
+    }
+
+    /**
+     * @param index
+     *      the index of the frame, frames are in the order the commands were given.
+     *
+     * @return the offset in the batch buffer's data at which the frame starts.
+     */
+    public int getFrameOffset(int index) {
+        checkIndex(index);
+        return buffer.getOffset() + frameOffsets[index];
+    }
+
+    /**
+     * @param index
+     *      the index of the frame, frames are in the order the commands were given.
+     *
+     * @return the length of the frame including its size prefix.
+     */
+    public int getFrameLength(int index) {
+        checkIndex(index);
+        return frameOffsets[index + 1] - frameOffsets[index];
+    }
+
+    /**
+     * @param index
+     *      the index of the frame, frames are in the order the commands were given.
+     *
+     * @return a Buffer that shares the batch data and covers only the given frame.
+     */
+    public Buffer getFrame(int index) {
+        return new Buffer(buffer.getData(), getFrameOffset(index), getFrameLength(index));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= getFrameCount()) {
+            throw new IndexOutOfBoundsException("Frame " + index + " is outside a batch of " + getFrameCount() + " frames");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process wide registry of the marshaller tables installed by {@link OpenWireFormat}.
+ * <p>
+ * Marshallers hold no state of their own, everything specific to a connection is read
+ * from the OpenWireFormat passed to each call, so one table per codec and version is
+ * shared by every wire format.  A table is resolved from its MarshallerFactory the first
+ * time it is requested, later requests for the same codec and version are a map lookup.
+ * <p>
+ * The factories create each marshaller on the first use of its type, so a table starts
+ * out empty and is filled in through {@link Table#resolve(int)} as types are seen.  The
+ * marshallers have no fields, so a table entry is safe to publish without synchronization
+ * and concurrent first uses of a type at worst create an instance that is discarded.
+ * <p>
+ * The returned tables are shared and must never be modified.
+ */
+final class MarshallerRegistry {
+
+    /**
+     * The families of generated codecs that a marshaller table can be taken from.
+     */
+    enum Codec {
+        LEGACY,
+        SPECIALIZED,
+        UNIVERSAL
+    }
+
+    private static final String LEGACY_FACTORY = "org.apache.activemq.openwire.codec.v%d.MarshallerFactory";
+    private static final String SPECIALIZED_FACTORY = "org.apache.activemq.openwire.codec.specialized.MarshallerFactory";
+    private static final String UNIVERSAL_FACTORY = "org.apache.activemq.openwire.codec.universal.MarshallerFactory";
+
+    // The universal codec serves every version from the same table
+    private static final Integer UNIVERSAL_KEY = 0;
+
+    private static final ConcurrentMap<Integer, Table> LEGACY_TABLES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Integer, Table> SPECIALIZED_TABLES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Integer, Table> UNIVERSAL_TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * The shared marshaller table of one codec and version.
+     */
+    static final class Table {
+
+        private final DataStreamMarshaller[] marshallers;
+        private final Method resolver;
+        private final Object[] resolverPrefix;
+
+        Table(DataStreamMarshaller[] marshallers, Method resolver, Object... resolverPrefix) {
+            this.marshallers = marshallers;
+            this.resolver = resolver;
+            this.resolverPrefix = resolverPrefix;
+        }
+
+        /**
+         * @return the marshallers indexed by data structure type, types not yet used have no entry.
+         */
+        DataStreamMarshaller[] getMarshallers() {
+            return marshallers;
+        }
+
+        /**
+         * Creates the marshaller of a type that has no entry in the table yet.
+         *
+         * @param type
+         *      the data structure type, from 0 to 255.
+         *
+         * @return the marshaller that is now in the table, or null if the codec does not know the type.
+         */
+        DataStreamMarshaller resolve(int type) {
+            DataStreamMarshaller dsm = marshallers[type];
+            if (dsm != null || resolver == null) {
+                return dsm;
+            }
+
+            Object[] args = new Object[resolverPrefix.length + 1];
+            System.arraycopy(resolverPrefix, 0, args, 0, resolverPrefix.length);
+            args[resolverPrefix.length] = type;
+
+            try {
+                return (DataStreamMarshaller) resolver.invoke(null, args);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not create the marshaller of data type " + type, e);
+            }
+        }
+    }
+
+    private MarshallerRegistry() {
+    }
+
+    /**
+     * Returns the marshaller table of the given codec for an OpenWire version.
+     *
+     * @param codec
+     *      the codec family to take the marshallers from.
+     * @param version
+     *      the OpenWire version the marshallers must encode.
+     *
+     * @return the shared table of marshallers.
+     *
+     * @throws IllegalArgumentException if the codec has no marshallers for the version.
+     */
+    static Table getMarshallers(Codec codec, int version) {
+        final ConcurrentMap<Integer, Table> tables;
+        final Integer key;
+
+        switch (codec) {
+            case LEGACY:
+                tables = LEGACY_TABLES;
+                key = version;
+                break;
+            case SPECIALIZED:
+                tables = SPECIALIZED_TABLES;
+                key = version;
+                break;
+            default:
+                tables = UNIVERSAL_TABLES;
+                key = UNIVERSAL_KEY;
+                break;
+        }
+
+        Table table = tables.get(key);
+        if (table == null) {
+            table = loadMarshallers(codec, version);
+            Table existing = tables.putIfAbsent(key, table);
+            if (existing != null) {
+                table = existing;
+            }
+        }
+
+        return table;
+    }
+
+    private static Table loadMarshallers(Codec codec, int version) {
+        final String mfName;
+        switch (codec) {
+            case LEGACY:
+                mfName = String.format(LEGACY_FACTORY, version);
+                break;
+            case SPECIALIZED:
+                mfName = SPECIALIZED_FACTORY;
+                break;
+            default:
+                mfName = UNIVERSAL_FACTORY;
+                break;
+        }
+
+        Class<?> mfClass;
+        try {
+            mfClass = Class.forName(mfName, false, MarshallerRegistry.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Invalid version: " + version + ", could not load " + mfName, e);
+        }
+
+        final DataStreamMarshaller[] marshallers;
+        try {
+            // The factories keep their tables in static fields and ignore the wire format argument
+            if (codec == Codec.SPECIALIZED) {
+                Method method = mfClass.getMethod("createMarshallerMap", new Class[] { OpenWireFormat.class, int.class });
+                marshallers = (DataStreamMarshaller[]) method.invoke(null, new Object[] { null, version });
+            } else {
+                Method method = mfClass.getMethod("createMarshallerMap", new Class[] { OpenWireFormat.class });
+                marshallers = (DataStreamMarshaller[]) method.invoke(null, new Object[] { null });
+            }
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Invalid version: " + version + ", " + mfName
+                + " does not properly implement the createMarshallerMap method.", e);
+        }
+
+        // A factory without getMarshaller populates its table eagerly
+        try {
+            if (codec == Codec.SPECIALIZED) {
+                return new Table(marshallers, mfClass.getMethod("getMarshaller", int.class, int.class), version);
+            } else {
+                return new Table(marshallers, mfClass.getMethod("getMarshaller", int.class));
+            }
+        } catch (NoSuchMethodException e) {
+            return new Table(marshallers, null);
+        }
+    }
+}
@@ -18,14 +18,20 @@ package org.apache.activemq.openwire.codec;
 
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.EOFException;
 import java.io.IOException;
-import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.BufferAllocator;
 import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+import org.apache.activemq.openwire.buffer.DataByteBufferInputStream;
+import org.apache.activemq.openwire.buffer.HeapBufferAllocator;
 import org.apache.activemq.openwire.commands.CommandTypes;
 import org.apache.activemq.openwire.commands.DataStructure;
 import org.apache.activemq.openwire.commands.WireFormatInfo;
@@ -42,10 +48,13 @@ public final class OpenWireFormat {
 
     static final byte NULL_TYPE = CommandTypes.NULL;
     private static final int MARSHAL_CACHE_SIZE = Short.MAX_VALUE / 2;
-    private static final int MARSHAL_CACHE_FREE_SPACE = 100;
+    // Initial space reserved per command when a batch buffer is created
+    private static final int BATCH_FRAME_SIZE_HINT = 256;
 
+    private MarshallerRegistry.Table marshallerTable;
     private DataStreamMarshaller dataMarshallers[];
     private int version;
+    private boolean compactNumericsEnabled;
     private boolean stackTraceEnabled;
     private boolean tcpNoDelayEnabled;
     private boolean cacheEnabled;
@@ -54,16 +63,44 @@ public final class OpenWireFormat {
     private long maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
 
     private boolean useLegacyCodecs = false;
+    private boolean useVersionSpecializedCodecs = true;
 
     // The following fields are used for value caching
-    private short nextMarshallCacheIndex;
-    private short nextMarshallCacheEvictionIndex;
-    private Map<DataStructure, Short> marshallCacheMap = new HashMap<DataStructure, Short>();
-    private DataStructure marshallCache[] = null;
+    private MarshallCacheEvictionPolicy marshallCacheEvictionPolicy = MarshallCacheEvictionPolicy.FIFO;
+    private MarshallCache marshallCache = null;
+    private MarshallCacheListener marshallCacheListener;
+    private final MarshallCacheStatistics marshallCacheStatistics = new MarshallCacheStatistics(this);
     private DataStructure unmarshallCache[] = null;
+    // Cache indexes resolved by tightMarshal1 in the order tightMarshal2 writes them
+    private short marshallCacheIndexes[] = new short[16];
+    private int marshallCacheIndexCount;
+    private int marshallCacheIndexPosition;
+    // Previous value of each delta encoded property, indexed by the slot of the property,
+    // and the deltas computed by tightMarshal1 in the order tightMarshal2 writes them.  The
+    // bases of the frame being marshaled are staged and only replace the committed ones once
+    // the frame is complete, a failed frame leaves the bases where the peer's still are.
+    private long marshalDeltaBases[] = new long[8];
+    private long stagedMarshalDeltaBases[] = new long[8];
+    private long unmarshalDeltaBases[] = new long[8];
+    private long marshalDeltas[] = new long[8];
+    private int marshalDeltaCount;
+    private int marshalDeltaPosition;
+    // A ReentrantLock rather than the object monitor so that a virtual thread blocked in a
+    // write while holding it does not pin its carrier thread.
+    private final ReentrantLock lock = new ReentrantLock();
     private final DataByteArrayOutputStream bytesOut = new DataByteArrayOutputStream();
     private final DataByteArrayInputStream bytesIn = new DataByteArrayInputStream();
+    private final BooleanStream marshalBooleans = new BooleanStream();
+    private final BooleanStream unmarshalBooleans = new BooleanStream();
     private WireFormatInfo preferedWireFormatInfo;
+    private BufferAllocator bufferAllocator = HeapBufferAllocator.INSTANCE;
+    private boolean zeroCopyUnmarshalEnabled;
+    private AsciiStringCache stringCache;
+    private CodecMetrics codecMetrics;
+    private boolean lazyUnmarshalEnabled;
+    // Copy of the settings that lazily unmarshaled remainders are decoded with, replaced when
+    // the settings change so a remainder is decoded with those its header was read with.
+    private volatile OpenWireFormat lazyRemainderFormat;
 
     public OpenWireFormat() {
         this(DEFAULT_STORE_VERSION);
@@ -81,12 +118,19 @@ public final class OpenWireFormat {
 
     public OpenWireFormat copy() {
         OpenWireFormat answer = new OpenWireFormat(version);
+        answer.setUseVersionSpecializedCodecs(useVersionSpecializedCodecs);
         answer.stackTraceEnabled = stackTraceEnabled;
         answer.tcpNoDelayEnabled = tcpNoDelayEnabled;
         answer.cacheEnabled = cacheEnabled;
         answer.tightEncodingEnabled = tightEncodingEnabled;
         answer.sizePrefixDisabled = sizePrefixDisabled;
         answer.preferedWireFormatInfo = preferedWireFormatInfo;
+        answer.bufferAllocator = bufferAllocator;
+        answer.zeroCopyUnmarshalEnabled = zeroCopyUnmarshalEnabled;
+        answer.setStringCacheSize(getStringCacheSize());
+        answer.marshallCacheEvictionPolicy = marshallCacheEvictionPolicy;
+        answer.codecMetrics = codecMetrics;
+        answer.lazyUnmarshalEnabled = lazyUnmarshalEnabled;
         return answer;
     }
 
@@ -111,33 +155,59 @@ public final class OpenWireFormat {
         return version;
     }
 
-    public synchronized Buffer marshal(Object command) throws IOException {
-        if (cacheEnabled) {
-            runMarshallCacheEvictionSweep();
+    /**
+     * Creates a new {@link MarshalContext} that shares the negotiated settings of this
+     * wire format but owns its own marshaling buffers.  Each thread that encodes or
+     * decodes commands concurrently should obtain its own context.
+     *
+     * @return a new MarshalContext bound to this wire format.
+     */
+    public MarshalContext createMarshalContext() {
+        return new MarshalContext(this);
+    }
+
+    public Buffer marshal(Object command) throws IOException {
+        lock.lock();
+        try {
+            return marshal(command, bytesOut, marshalBooleans);
+        } finally {
+            lock.unlock();
         }
+    }
 
+    Buffer marshal(Object command, DataByteArrayOutputStream bytesOut, BooleanStream bs) throws IOException {
         Buffer sequence = null;
         int size = 1;
         if (command != null) {
+            final CodecMetrics metrics = codecMetrics;
+            final long start = metrics != null ? System.nanoTime() : 0;
+
             DataStructure c = (DataStructure) command;
             byte type = c.getDataStructureType();
-            DataStreamMarshaller dsm = dataMarshallers[type & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(type);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + type);
             }
+            stageMarshalDeltaBases();
             if (tightEncodingEnabled) {
-                BooleanStream bs = new BooleanStream();
+                bs.reset();
+                resetTightMarshalState();
                 size += dsm.tightMarshal1(this, c, bs);
                 size += bs.marshalledSize();
+                final long pass2Start = metrics != null ? System.nanoTime() : 0;
 
-                bytesOut.restart(size);
+                sequence = bufferAllocator.allocate(sizePrefixDisabled ? size : size + 4);
+                bytesOut.restart(sequence.data);
                 if (!sizePrefixDisabled) {
                     bytesOut.writeInt(size);
                 }
                 bytesOut.writeByte(type);
                 bs.marshal(bytesOut);
                 dsm.tightMarshal2(this, c, bytesOut, bs);
-                sequence = bytesOut.toBuffer();
+
+                if (metrics != null) {
+                    recordTightMarshal(metrics, type, size, start, pass2Start);
+                }
             } else {
                 bytesOut.restart();
                 if (!sizePrefixDisabled) {
@@ -150,10 +220,17 @@ public final class OpenWireFormat {
                 if (!sizePrefixDisabled) {
                     size = bytesOut.size() - 4;
                     bytesOut.writeInt(0, size);
+                } else {
+                    size = bytesOut.size();
                 }
 
                 sequence = bytesOut.toBuffer();
+
+                if (metrics != null) {
+                    metrics.record(CodecOperation.MARSHAL, type, size, System.nanoTime() - start);
+                }
             }
+            commitMarshalDeltaBases();
         } else {
             bytesOut.restart(5);
             bytesOut.writeInt(size);
@@ -164,39 +241,59 @@ public final class OpenWireFormat {
         return sequence;
     }
 
-    public synchronized Object unmarshal(Buffer sequence) throws IOException {
+    public Object unmarshal(Buffer sequence) throws IOException {
+        lock.lock();
+        try {
+            return unmarshal(sequence, bytesIn, unmarshalBooleans);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Object unmarshal(Buffer sequence, DataByteArrayInputStream bytesIn, BooleanStream bs) throws IOException {
         bytesIn.restart(sequence);
 
+        int size = sequence.getLength();
         if (!sizePrefixDisabled) {
-            int size = bytesIn.readInt();
+            size = bytesIn.readInt();
             if (size > maxFrameSize) {
                 throw new IOException("Frame size of " + (size / (1024 * 1024)) + " MB larger than max allowed " + (maxFrameSize / (1024 * 1024)) + " MB");
             }
         }
 
-        Object command = doUnmarshal(bytesIn);
+        Object command = doUnmarshal(bytesIn, bs, size);
         return command;
     }
 
-    public synchronized void marshal(Object o, DataOutput dataOut) throws IOException {
-        if (cacheEnabled) {
-            runMarshallCacheEvictionSweep();
+    public void marshal(Object o, DataOutput dataOut) throws IOException {
+        lock.lock();
+        try {
+            marshal(o, dataOut, bytesOut, marshalBooleans);
+        } finally {
+            lock.unlock();
         }
+    }
 
+    void marshal(Object o, DataOutput dataOut, DataByteArrayOutputStream bytesOut, BooleanStream bs) throws IOException {
         int size = 1;
         if (o != null) {
+            final CodecMetrics metrics = codecMetrics;
+            final long start = metrics != null ? System.nanoTime() : 0;
 
             DataStructure c = (DataStructure) o;
             byte type = c.getDataStructureType();
-            DataStreamMarshaller dsm = dataMarshallers[type & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(type);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + type);
             }
+            stageMarshalDeltaBases();
 
             if (tightEncodingEnabled) {
-                BooleanStream bs = new BooleanStream();
+                bs.reset();
+                resetTightMarshalState();
                 size += dsm.tightMarshal1(this, c, bs);
                 size += bs.marshalledSize();
+                final long pass2Start = metrics != null ? System.nanoTime() : 0;
 
                 if (!sizePrefixDisabled) {
                     dataOut.writeInt(size);
@@ -205,6 +302,25 @@ public final class OpenWireFormat {
                 dataOut.writeByte(type);
                 bs.marshal(dataOut);
                 dsm.tightMarshal2(this, c, dataOut, bs);
+
+                if (metrics != null) {
+                    recordTightMarshal(metrics, type, size, start, pass2Start);
+                }
+            } else if (!sizePrefixDisabled && dataOut instanceof DataByteArrayOutputStream) {
+                // Reserve the size prefix and fill it in afterwards instead of copying the
+                // encoded command out of the scratch buffer.
+                DataByteArrayOutputStream framedOut = (DataByteArrayOutputStream) dataOut;
+                int prefixPosition = framedOut.size();
+                framedOut.writeInt(0);
+                framedOut.writeByte(type);
+                dsm.looseMarshal(this, c, framedOut);
+
+                size = framedOut.size() - prefixPosition - 4;
+                framedOut.writeInt(prefixPosition, size);
+
+                if (metrics != null) {
+                    metrics.record(CodecOperation.MARSHAL, type, size, System.nanoTime() - start);
+                }
             } else {
                 DataOutput looseOut = dataOut;
 
@@ -220,8 +336,17 @@ public final class OpenWireFormat {
                     Buffer sequence = bytesOut.toBuffer();
                     dataOut.writeInt(sequence.getLength());
                     dataOut.write(sequence.getData(), sequence.getOffset(), sequence.getLength());
+                    size = sequence.getLength();
+                } else {
+                    // written straight through so the size is not known
+                    size = 0;
+                }
+
+                if (metrics != null) {
+                    metrics.record(CodecOperation.MARSHAL, type, size, System.nanoTime() - start);
                 }
             }
+            commitMarshalDeltaBases();
         } else {
             if (!sizePrefixDisabled) {
                 dataOut.writeInt(size);
@@ -231,15 +356,379 @@ public final class OpenWireFormat {
     }
 
     public Object unmarshal(DataInput dis) throws IOException {
+        return unmarshal(dis, new BooleanStream());
+    }
+
+    Object unmarshal(DataInput dis, BooleanStream bs) throws IOException {
         DataInput dataIn = dis;
+        int size = 0;
         if (!sizePrefixDisabled) {
-            int size = dis.readInt();
+            size = dis.readInt();
             if (size > maxFrameSize) {
                 throw new IOException("Frame size of " + (size / (1024 * 1024)) + " MB larger than max allowed " + (maxFrameSize / (1024 * 1024)) + " MB");
             }
         }
 
-        return doUnmarshal(dataIn);
+        return doUnmarshal(dataIn, bs, size);
+    }
+
+    /**
+     * Reads past the next command in the given input without unmarshaling it.  When the size
+     * prefix is enabled the frame is skipped as a whole, otherwise the command's properties are
+     * stepped over, see {@link SkippableMarshaller} for how skipping treats the marshal cache.
+     * <p>
+     * Once compact numerics are negotiated the values of a frame are relative to those of the
+     * frames before it, the command is then unmarshaled and discarded so that the frames which
+     * follow it decode correctly.
+     *
+     * @param dis
+     *      the DataInput positioned at the start of the encoded command.
+     *
+     * @throws IOException if an error occurs while reading past the command.
+     */
+    public void skip(DataInput dis) throws IOException {
+        if (compactNumericsEnabled) {
+            unmarshal(dis);
+        } else {
+            skipFrame(dis);
+        }
+    }
+
+    /**
+     * Reads past the next command in the given input without reading or updating any of the
+     * connection state, for finding the end of a frame that is unmarshaled afterwards.
+     */
+    void skipFrame(DataInput dis) throws IOException {
+        if (!sizePrefixDisabled) {
+            BaseDataStreamMarshaller.skipFully(dis, dis.readInt());
+            return;
+        }
+
+        byte dataType = dis.readByte();
+        if (dataType != NULL_TYPE) {
+            if (tightEncodingEnabled) {
+                BooleanStream bs = new BooleanStream();
+                bs.unmarshal(dis);
+                getSkippableMarshaller(dataType).tightSkip(this, dis, bs);
+            } else {
+                getSkippableMarshaller(dataType).looseSkip(this, dis);
+            }
+        }
+    }
+
+    /**
+     * Locates each property of the command encoded in the given frame without unmarshaling it.
+     * Properties are numbered as described by {@link SkippableMarshaller}, so the offset of a
+     * given property of a type can be found in the same slot for every version.
+     *
+     * @param frame
+     *      the encoded frame, including its size prefix unless that is disabled.
+     *
+     * @return the offset from the start of the frame of each property, or -1 for the properties
+     *         that are not marshaled in the negotiated version.  Empty for a null command.
+     *
+     * @throws IOException if an error occurs while reading past the properties.
+     */
+    public int[] fieldOffsets(Buffer frame) throws IOException {
+        DataByteArrayInputStream dis = new DataByteArrayInputStream(frame);
+        if (!sizePrefixDisabled) {
+            dis.readInt();
+        }
+
+        byte dataType = dis.readByte();
+        if (dataType == NULL_TYPE) {
+            return new int[0];
+        }
+
+        SkippableMarshaller dsm = getSkippableMarshaller(dataType);
+        int[] offsets = new int[dsm.getFieldCount()];
+        Arrays.fill(offsets, -1);
+
+        if (tightEncodingEnabled) {
+            BooleanStream bs = new BooleanStream();
+            bs.unmarshal(dis);
+            dsm.tightFieldOffsets(this, dis, bs, offsets);
+        } else {
+            dsm.looseFieldOffsets(this, dis, offsets);
+        }
+
+        for (int i = 0; i < offsets.length; ++i) {
+            if (offsets[i] >= 0) {
+                offsets[i] -= frame.getOffset();
+            }
+        }
+
+        return offsets;
+    }
+
+    /**
+     * Marshals the given command directly into the provided ByteBuffer starting at the
+     * buffer's current position.  With tight encoding a heap buffer is written in place
+     * through its backing array, a direct buffer receives the encoded command with a single
+     * bulk copy.
+     * <p>
+     * If the given buffer does not have enough space remaining for the encoded command a
+     * new buffer of the same kind (heap or direct) is allocated, any content written to the
+     * given buffer before its current position is copied into it, and the command is written
+     * into that new buffer.  Callers must always continue with the returned buffer.
+     *
+     * @param command
+     *      the command to marshal.
+     * @param target
+     *      the buffer to write the command into, must use big endian byte order.
+     *
+     * @return the buffer that the command was written into.
+     *
+     * @throws IOException if an error occurs while marshaling the command.
+     */
+    public ByteBuffer marshal(Object command, ByteBuffer target) throws IOException {
+        lock.lock();
+        try {
+            return marshal(command, target, bytesOut, marshalBooleans);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ByteBuffer marshal(Object command, ByteBuffer target, DataByteArrayOutputStream bytesOut, BooleanStream bs) throws IOException {
+        if (target.order() != ByteOrder.BIG_ENDIAN) {
+            throw new IllegalArgumentException("ByteBuffer must use big endian byte order");
+        }
+        final int prefixSize = sizePrefixDisabled ? 0 : 4;
+
+        if (command != null) {
+            final CodecMetrics metrics = codecMetrics;
+            final long start = metrics != null ? System.nanoTime() : 0;
+
+            DataStructure c = (DataStructure) command;
+            byte type = c.getDataStructureType();
+            DataStreamMarshaller dsm = getMarshaller(type);
+            if (dsm == null) {
+                throw new IOException("Unknown data type: " + type);
+            }
+            stageMarshalDeltaBases();
+
+            if (tightEncodingEnabled) {
+                bs.reset();
+                resetTightMarshalState();
+                int size = 1;
+                size += dsm.tightMarshal1(this, c, bs);
+                size += bs.marshalledSize();
+                final long pass2Start = metrics != null ? System.nanoTime() : 0;
+
+                // The command is always written through a DataByteArrayOutputStream so that the
+                // marshallers see the same stream type as they do for marshal(Object).
+                target = ensureRemaining(target, size + prefixSize);
+                final boolean inPlace = target.hasArray();
+                if (inPlace) {
+                    bytesOut.restart(target.array());
+                    bytesOut.position(target.arrayOffset() + target.position());
+                } else {
+                    bytesOut.restart(size + prefixSize);
+                }
+                if (!sizePrefixDisabled) {
+                    bytesOut.writeInt(size);
+                }
+                bytesOut.writeByte(type);
+                bs.marshal(bytesOut);
+                dsm.tightMarshal2(this, c, bytesOut, bs);
+
+                if (inPlace) {
+                    target.position(bytesOut.position() - target.arrayOffset());
+                } else {
+                    target.put(bytesOut.getData(), 0, bytesOut.position());
+                }
+
+                if (metrics != null) {
+                    recordTightMarshal(metrics, type, size, start, pass2Start);
+                }
+            } else {
+                bytesOut.restart();
+                bytesOut.writeByte(type);
+                dsm.looseMarshal(this, c, bytesOut);
+
+                int size = bytesOut.size();
+                target = ensureRemaining(target, size + prefixSize);
+                if (!sizePrefixDisabled) {
+                    target.putInt(size);
+                }
+                target.put(bytesOut.getData(), 0, size);
+
+                if (metrics != null) {
+                    metrics.record(CodecOperation.MARSHAL, type, size, System.nanoTime() - start);
+                }
+            }
+            commitMarshalDeltaBases();
+        } else {
+            target = ensureRemaining(target, 1 + prefixSize);
+            if (!sizePrefixDisabled) {
+                target.putInt(1);
+            }
+            target.put(NULL_TYPE);
+        }
+
+        return target;
+    }
+
+    /**
+     * Marshals the given commands back to back into a single new Buffer, each command is
+     * framed exactly as {@link #marshal(Object)} would frame it so the whole buffer can be
+     * written to the transport at once.
+     * <p>
+     * The wire format lock is taken once for the whole batch.
+     *
+     * @param commands
+     *      the commands to marshal, in the order they are to be sent.
+     *
+     * @return the encoded batch along with the offset of each frame.
+     *
+     * @throws IOException if an error occurs while marshaling one of the commands.
+     */
+    public MarshalledBatch marshalBatch(List<? extends DataStructure> commands) throws IOException {
+        lock.lock();
+        try {
+            return marshalBatch(commands, bytesOut, marshalBooleans);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    MarshalledBatch marshalBatch(List<? extends DataStructure> commands, DataByteArrayOutputStream bytesOut, BooleanStream bs) throws IOException {
+        final int count = commands.size();
+        final int[] frameOffsets = new int[count + 1];
+        final DataByteArrayOutputStream batchOut = new DataByteArrayOutputStream(Math.max(count * BATCH_FRAME_SIZE_HINT, BATCH_FRAME_SIZE_HINT));
+
+        // None of the frames are sent if one of them fails
+        final long[] savedDeltaBases = saveMarshalDeltaBases();
+        try {
+            for (int i = 0; i < count; ++i) {
+                frameOffsets[i] = batchOut.size();
+                marshal(commands.get(i), batchOut, bytesOut, bs);
+            }
+        } catch (IOException | RuntimeException e) {
+            restoreMarshalDeltaBases(savedDeltaBases);
+            throw e;
+        }
+        frameOffsets[count] = batchOut.size();
+
+        return new MarshalledBatch(batchOut.toBuffer(), frameOffsets);
+    }
+
+    /**
+     * Marshals the given commands back to back directly into the provided ByteBuffer starting
+     * at the buffer's current position, each command is framed exactly as
+     * {@link #marshal(Object, ByteBuffer)} would frame it.
+     * <p>
+     * The wire format lock is taken once for the whole batch.  As with the single command
+     * variant the buffer is replaced by a larger one when it runs out of space, callers must
+     * always continue with the returned buffer.
+     *
+     * @param commands
+     *      the commands to marshal, in the order they are to be sent.
+     * @param target
+     *      the buffer to write the commands into, must use big endian byte order.
+     * @param frameOffsets
+     *      optional array that receives the buffer position at which each frame starts followed
+     *      by the position after the last frame, must hold at least one more entry than there
+     *      are commands.
+     *
+     * @return the buffer that the commands were written into.
+     *
+     * @throws IOException if an error occurs while marshaling one of the commands.
+     */
+    public ByteBuffer marshalBatch(List<? extends DataStructure> commands, ByteBuffer target, int[] frameOffsets) throws IOException {
+        lock.lock();
+        try {
+            return marshalBatch(commands, target, frameOffsets, bytesOut, marshalBooleans);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ByteBuffer marshalBatch(List<? extends DataStructure> commands, ByteBuffer target, int[] frameOffsets, DataByteArrayOutputStream bytesOut, BooleanStream bs) throws IOException {
+        final int count = commands.size();
+        if (frameOffsets != null && frameOffsets.length <= count) {
+            throw new IllegalArgumentException("Frame offsets must hold " + (count + 1) + " entries for a batch of " + count + " commands");
+        }
+
+        final long[] savedDeltaBases = saveMarshalDeltaBases();
+        try {
+            for (int i = 0; i < count; ++i) {
+                if (frameOffsets != null) {
+                    frameOffsets[i] = target.position();
+                }
+                target = marshal(commands.get(i), target, bytesOut, bs);
+            }
+        } catch (IOException | RuntimeException e) {
+            restoreMarshalDeltaBases(savedDeltaBases);
+            throw e;
+        }
+        if (frameOffsets != null) {
+            frameOffsets[count] = target.position();
+        }
+
+        return target;
+    }
+
+    /**
+     * Unmarshals the next command from the given ByteBuffer starting at the buffer's current
+     * position, on return the position has been advanced past the command that was read.
+     * <p>
+     * When the size prefix is enabled a heap buffer is read in place through its backing
+     * array, so with zero copy unmarshal enabled the byte sequences of the command are views
+     * into that array.  A frame held in a direct buffer is first copied out into a new array.
+     *
+     * @param source
+     *      the buffer to read the command from, must use big endian byte order.
+     *
+     * @return the unmarshaled command.
+     *
+     * @throws IOException if an error occurs while unmarshaling the command.
+     */
+    public Object unmarshal(ByteBuffer source) throws IOException {
+        lock.lock();
+        try {
+            return unmarshal(source, bytesIn, unmarshalBooleans);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Object unmarshal(ByteBuffer source, DataByteArrayInputStream bytesIn, BooleanStream bs) throws IOException {
+        if (source.order() != ByteOrder.BIG_ENDIAN) {
+            throw new IllegalArgumentException("ByteBuffer must use big endian byte order");
+        }
+
+        if (sizePrefixDisabled) {
+            // The end of the frame is only found by reading it, which must fail at the buffer limit.
+            return unmarshal(new DataByteBufferInputStream(source), bs);
+        }
+
+        final int position = source.position();
+        if (source.remaining() < 4) {
+            throw new EOFException("Frame size prefix needs 4 bytes, " + source.remaining() + " bytes remain");
+        }
+        int size = source.getInt(position);
+        if (size < 0 || size > maxFrameSize) {
+            throw new IOException("Frame size of " + (size / (1024 * 1024)) + " MB larger than max allowed " + (maxFrameSize / (1024 * 1024)) + " MB");
+        }
+        if (size > source.remaining() - 4) {
+            throw new EOFException("Frame of " + size + " bytes, " + (source.remaining() - 4) + " bytes remain");
+        }
+
+        // The frame is read through a DataByteArrayInputStream as for unmarshal(Buffer) so that
+        // the marshallers only ever see that stream type.
+        Buffer frame;
+        if (source.hasArray()) {
+            frame = new Buffer(source.array(), source.arrayOffset() + position, size + 4);
+        } else {
+            frame = new Buffer(size + 4);
+            source.get(position, frame.data, 0, frame.length);
+        }
+
+        Object command = unmarshal(frame, bytesIn, bs);
+        source.position(position + frame.length);
+        return command;
     }
 
     /**
@@ -250,13 +739,22 @@ public final class OpenWireFormat {
         if (o != null) {
             DataStructure c = (DataStructure) o;
             byte type = c.getDataStructureType();
-            DataStreamMarshaller dsm = dataMarshallers[type & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(type);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + type);
             }
+            stageMarshalDeltaBases();
 
+            final CodecMetrics metrics = codecMetrics;
+            final long start = metrics != null ? System.nanoTime() : 0;
+
+            resetTightMarshalState();
             size += dsm.tightMarshal1(this, c, bs);
             size += bs.marshalledSize();
+
+            if (metrics != null) {
+                metrics.record(CodecOperation.TIGHT_MARSHAL1, type, size, System.nanoTime() - start);
+            }
         }
 
         return size;
@@ -266,44 +764,105 @@ public final class OpenWireFormat {
      * Used by NIO or AIO transports; note that the size is not written as part of this method.
      */
     public void tightMarshal2(Object o, DataOutput ds, BooleanStream bs) throws IOException {
-        if (cacheEnabled) {
-            runMarshallCacheEvictionSweep();
-        }
-
         if (o != null) {
             DataStructure c = (DataStructure) o;
             byte type = c.getDataStructureType();
-            DataStreamMarshaller dsm = dataMarshallers[type & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(type);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + type);
             }
+            final CodecMetrics metrics = codecMetrics;
+            final long start = metrics != null ? System.nanoTime() : 0;
+
             ds.writeByte(type);
             bs.marshal(ds);
             dsm.tightMarshal2(this, c, ds, bs);
+
+            if (metrics != null) {
+                metrics.record(CodecOperation.TIGHT_MARSHAL2, type, 0, System.nanoTime() - start);
+            }
+            commitMarshalDeltaBases();
         }
     }
 
     public Object doUnmarshal(DataInput dis) throws IOException {
+        return doUnmarshal(dis, new BooleanStream(), 0);
+    }
+
+    private Object doUnmarshal(DataInput dis, BooleanStream bs, int size) throws IOException {
+        final CodecMetrics metrics = codecMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0;
+        final int framePosition = dis instanceof DataByteArrayInputStream ? ((DataByteArrayInputStream) dis).getPos() : 0;
+
         byte dataType = dis.readByte();
         if (dataType != NULL_TYPE) {
-            DataStreamMarshaller dsm = dataMarshallers[dataType & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(dataType);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + dataType);
             }
             Object data = dsm.createObject();
-            if (this.tightEncodingEnabled) {
-                BooleanStream bs = new BooleanStream();
+            if (isLazyUnmarshal(dsm, data, dis, size)) {
+                lazyUnmarshal((LazyUnmarshaller) dsm, (LazyUnmarshalAware) data, (DataByteArrayInputStream) dis, bs, framePosition + size);
+            } else if (this.tightEncodingEnabled) {
                 bs.unmarshal(dis);
                 dsm.tightUnmarshal(this, data, dis, bs);
             } else {
                 dsm.looseUnmarshal(this, data, dis);
             }
+
+            if (metrics != null) {
+                metrics.record(CodecOperation.UNMARSHAL, dataType, size, System.nanoTime() - start);
+            }
             return data;
         } else {
             return null;
         }
     }
 
+    private boolean isLazyUnmarshal(DataStreamMarshaller dsm, Object data, DataInput dis, int size) {
+        // Deferred properties may reference or add cache entries or delta bases which must be resolved in
+        // frame order, and the end of the frame must be known to capture the undecoded remainder.
+        return lazyUnmarshalEnabled && !hasConnectionState() && size > 0 && dsm instanceof LazyUnmarshaller &&
+               data instanceof LazyUnmarshalAware && dis instanceof DataByteArrayInputStream;
+    }
+
+    private void lazyUnmarshal(LazyUnmarshaller dsm, LazyUnmarshalAware data, DataByteArrayInputStream dis, BooleanStream bs, int frameEnd) throws IOException {
+        BooleanStream remainderBooleans = null;
+        if (tightEncodingEnabled) {
+            bs.unmarshal(dis);
+            dsm.tightUnmarshalHeader(this, data, dis, bs);
+            remainderBooleans = bs.snapshot();
+        } else {
+            dsm.looseUnmarshalHeader(this, data, dis);
+        }
+
+        int length = frameEnd - dis.getPos();
+        if (length < 0 || length > dis.available()) {
+            throw new EOFException("Frame ends " + length + " bytes after the header, " + dis.available() + " bytes remain");
+        }
+
+        Buffer remainder;
+        if (zeroCopyUnmarshalEnabled) {
+            remainder = dis.readBuffer(length);
+        } else {
+            remainder = new Buffer(length);
+            dis.readFully(remainder.data, 0, length);
+        }
+
+        data.setLazyRemainder(new LazyRemainder(getLazyRemainderFormat(), dsm, remainder, remainderBooleans));
+    }
+
+    private OpenWireFormat getLazyRemainderFormat() {
+        OpenWireFormat settings = lazyRemainderFormat;
+        if (settings == null || !settings.equals(this) || settings.zeroCopyUnmarshalEnabled != zeroCopyUnmarshalEnabled ||
+            settings.useVersionSpecializedCodecs != useVersionSpecializedCodecs) {
+
+            settings = copy();
+            lazyRemainderFormat = settings;
+        }
+        return settings;
+    }
+
     public int tightMarshalNestedObject1(DataStructure o, BooleanStream bs) throws IOException {
         bs.writeBoolean(o != null);
         if (o == null) {
@@ -317,13 +876,38 @@ public final class OpenWireFormat {
         }
 
         byte type = o.getDataStructureType();
-        DataStreamMarshaller dsm = dataMarshallers[type & 0xFF];
+        DataStreamMarshaller dsm = getMarshaller(type);
         if (dsm == null) {
             throw new IOException("Unknown data type: " + type);
         }
+
+        if (o instanceof TightMarshalMemoAware) {
+            return 1 + tightMarshalMemoized(dsm, (TightMarshalMemoAware) o, bs);
+        }
+
         return 1 + dsm.tightMarshal1(this, o, bs);
     }
 
+    private int tightMarshalMemoized(DataStreamMarshaller dsm, TightMarshalMemoAware o, BooleanStream bs) throws IOException {
+        final Class<?> marshallerType = dsm.getClass();
+
+        TightMarshalMemo memo = o.getTightMarshalMemo();
+        if (memo != null && memo.matches(marshallerType, version)) {
+            bs.writeBooleans(memo.getBooleans(), memo.getBooleanCount());
+            return memo.getSize();
+        }
+
+        final int start = bs.writePosition();
+        final int size = dsm.tightMarshal1(this, o, bs);
+        final int count = bs.writePosition() - start;
+
+        if (count <= TightMarshalMemo.MAX_BOOLEANS) {
+            o.setTightMarshalMemo(new TightMarshalMemo(marshallerType, version, size, bs.peekBooleans(start, count), count));
+        }
+
+        return size;
+    }
+
     public void tightMarshalNestedObject2(DataStructure o, DataOutput ds, BooleanStream bs) throws IOException {
         if (!bs.readBoolean()) {
             return;
@@ -336,7 +920,7 @@ public final class OpenWireFormat {
             // We should not be doing any caching
             throw new IOException("Corrupted stream");
         } else {
-            DataStreamMarshaller dsm = dataMarshallers[type & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(type);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + type);
             }
@@ -348,7 +932,7 @@ public final class OpenWireFormat {
         if (bs.readBoolean()) {
 
             byte dataType = dis.readByte();
-            DataStreamMarshaller dsm = dataMarshallers[dataType & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(dataType);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + dataType);
             }
@@ -375,7 +959,7 @@ public final class OpenWireFormat {
     public DataStructure looseUnmarshalNestedObject(DataInput dis) throws IOException {
         if (dis.readBoolean()) {
             byte dataType = dis.readByte();
-            DataStreamMarshaller dsm = dataMarshallers[dataType & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(dataType);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + dataType);
             }
@@ -387,12 +971,59 @@ public final class OpenWireFormat {
         }
     }
 
+    public void tightSkipNestedObject(DataInput dis, BooleanStream bs) throws IOException {
+        if (bs.readBoolean()) {
+            tightSkipObject(dis.readByte(), dis, bs);
+        }
+    }
+
+    /**
+     * Tight skips a structure whose type has already been read.
+     */
+    void tightSkipObject(byte dataType, DataInput dis, BooleanStream bs) throws IOException {
+        SkippableMarshaller dsm = getSkippableMarshaller(dataType);
+        if (dsm.isMarshallAware() && bs.readBoolean()) {
+            dis.readInt();
+            dis.readByte();
+
+            BooleanStream bs2 = new BooleanStream();
+            bs2.unmarshal(dis);
+            dsm.tightSkip(this, dis, bs2);
+        } else {
+            dsm.tightSkip(this, dis, bs);
+        }
+    }
+
+    public void looseSkipNestedObject(DataInput dis) throws IOException {
+        if (dis.readBoolean()) {
+            looseSkipObject(dis.readByte(), dis);
+        }
+    }
+
+    /**
+     * Loose skips a structure whose type has already been read.
+     */
+    void looseSkipObject(byte dataType, DataInput dis) throws IOException {
+        getSkippableMarshaller(dataType).looseSkip(this, dis);
+    }
+
+    private SkippableMarshaller getSkippableMarshaller(byte dataType) throws IOException {
+        DataStreamMarshaller dsm = getMarshaller(dataType);
+        if (dsm == null) {
+            throw new IOException("Unknown data type: " + dataType);
+        }
+        if (!(dsm instanceof SkippableMarshaller)) {
+            throw new IOException("Data type " + dataType + " cannot be skipped by " + dsm.getClass().getName());
+        }
+        return (SkippableMarshaller) dsm;
+    }
+
     public void looseMarshalNestedObject(DataStructure o, DataOutput dataOut) throws IOException {
         dataOut.writeBoolean(o != null);
         if (o != null) {
             byte type = o.getDataStructureType();
             dataOut.writeByte(type);
-            DataStreamMarshaller dsm = dataMarshallers[type & 0xFF];
+            DataStreamMarshaller dsm = getMarshaller(type);
             if (dsm == null) {
                 throw new IOException("Unknown data type: " + type);
             }
@@ -400,39 +1031,224 @@ public final class OpenWireFormat {
         }
     }
 
+    /**
+     * Previously evicted entries from the marshal cache ahead of each command so that free
+     * indexes remained, the {@link MarshallCache} now replaces an entry when a value is added
+     * to a full cache.
+     *
+     * @deprecated no longer needed, eviction happens as values are added to the cache.
+     */
+    @Deprecated
     public void runMarshallCacheEvictionSweep() {
-        // Do we need to start evicting??
-        while (marshallCacheMap.size() > marshallCache.length - MARSHAL_CACHE_FREE_SPACE) {
-            marshallCacheMap.remove(marshallCache[nextMarshallCacheEvictionIndex]);
-            marshallCache[nextMarshallCacheEvictionIndex] = null;
-
-            nextMarshallCacheEvictionIndex++;
-            if (nextMarshallCacheEvictionIndex >= marshallCache.length) {
-                nextMarshallCacheEvictionIndex = 0;
-            }
-        }
     }
 
+    /**
+     * @deprecated use {@link #lookupMarshallCacheIndex(DataStructure)} which does not box the index.
+     */
+    @Deprecated
     public Short getMarshallCacheIndex(DataStructure o) {
-        return marshallCacheMap.get(o);
+        short index = lookupMarshallCacheIndex(o);
+        return index < 0 ? null : Short.valueOf(index);
     }
 
+    /**
+     * @deprecated use {@link #putMarshallCacheIndex(DataStructure)} which does not box the index.
+     */
+    @Deprecated
     public Short addToMarshallCache(DataStructure o) {
-        short i = nextMarshallCacheIndex++;
-        if (nextMarshallCacheIndex >= marshallCache.length) {
-            nextMarshallCacheIndex = 0;
+        return Short.valueOf(putMarshallCacheIndex(o));
+    }
+
+    /**
+     * Looks up the index a value was sent under in the marshal cache.
+     *
+     * @param o
+     *      the value to look up.
+     *
+     * @return the cache index of the value, or -1 if the value is not cached.
+     */
+    public short lookupMarshallCacheIndex(DataStructure o) {
+        return marshallCache.get(o);
+    }
+
+    /**
+     * Adds a value that is not already cached to the marshal cache, replacing an existing
+     * entry according to the configured {@link MarshallCacheEvictionPolicy} when full.
+     *
+     * @param o
+     *      the value to cache.
+     *
+     * @return the cache index assigned to the value.
+     */
+    public short putMarshallCacheIndex(DataStructure o) {
+        return marshallCache.put(o);
+    }
+
+    /**
+     * Reserves the next position in the sequence of cache indexes that tightMarshal2 will
+     * write, the index itself is provided later using {@link #setMarshallCacheIndex(int, short)}.
+     * This allows the index of a cached value to be resolved once, during tightMarshal1.
+     *
+     * @return the reserved position.
+     */
+    int reserveMarshallCacheIndex() {
+        if (marshallCacheIndexCount == marshallCacheIndexes.length) {
+            short[] grown = new short[marshallCacheIndexes.length << 1];
+            System.arraycopy(marshallCacheIndexes, 0, grown, 0, marshallCacheIndexCount);
+            marshallCacheIndexes = grown;
         }
+        return marshallCacheIndexCount++;
+    }
 
-        // We can only cache that item if there is space left.
-        if (marshallCacheMap.size() < marshallCache.length) {
-            marshallCache[i] = o;
-            Short index = new Short(i);
-            marshallCacheMap.put(o, index);
-            return index;
-        } else {
-            // Use -1 to indicate that the value was not cached due to cache being full.
-            return new Short((short) -1);
+    /**
+     * Records the encoded size of a value that was just added to the marshal cache so that
+     * later references to it can be counted towards the bytes saved by the cache.
+     */
+    void setMarshallCacheEncodedSize(short index, int encodedSize) {
+        marshallCache.setEncodedSize(index, encodedSize);
+    }
+
+    /**
+     * @return the lock that guards the shared marshaling state of this wire format.
+     */
+    ReentrantLock getLock() {
+        return lock;
+    }
+
+    /**
+     * @return the current marshal cache, or null if caching is not enabled.
+     */
+    MarshallCache getMarshallCache() {
+        return marshallCache;
+    }
+
+    void setMarshallCacheIndex(int position, short index) {
+        marshallCacheIndexes[position] = index;
+    }
+
+    /**
+     * @return the next cache index recorded during tightMarshal1.
+     */
+    short nextMarshallCacheIndex() throws IOException {
+        if (marshallCacheIndexPosition >= marshallCacheIndexCount) {
+            throw new IOException("Marshal cache index requested that was not resolved by tightMarshal1");
         }
+        return marshallCacheIndexes[marshallCacheIndexPosition++];
+    }
+
+    private void resetTightMarshalState() {
+        // Indexes and deltas are only recorded when there is connection state, which is also
+        // when a MarshalContext holds the lock, so contexts running unlocked never write here.
+        if (hasConnectionState()) {
+            marshallCacheIndexCount = 0;
+            marshallCacheIndexPosition = 0;
+            marshalDeltaCount = 0;
+            marshalDeltaPosition = 0;
+        }
+    }
+
+    /**
+     * Computes the difference between a value and the value of the same property in the
+     * previous frame, the value then becomes the base for the next frame.
+     *
+     * @param slot
+     *      the slot of the delta encoded property.
+     * @param value
+     *      the value being marshaled.
+     *
+     * @return the difference to encode.
+     */
+    long marshalDelta(int slot, long value) {
+        if (slot >= stagedMarshalDeltaBases.length) {
+            stagedMarshalDeltaBases = Arrays.copyOf(stagedMarshalDeltaBases, Math.max(slot + 1, stagedMarshalDeltaBases.length << 1));
+        }
+        long delta = value - stagedMarshalDeltaBases[slot];
+        stagedMarshalDeltaBases[slot] = value;
+        return delta;
+    }
+
+    /**
+     * Starts the bases of the frame about to be marshaled from those of the last complete frame.
+     */
+    private void stageMarshalDeltaBases() {
+        if (compactNumericsEnabled) {
+            if (stagedMarshalDeltaBases.length < marshalDeltaBases.length) {
+                stagedMarshalDeltaBases = new long[marshalDeltaBases.length];
+            }
+            System.arraycopy(marshalDeltaBases, 0, stagedMarshalDeltaBases, 0, marshalDeltaBases.length);
+            Arrays.fill(stagedMarshalDeltaBases, marshalDeltaBases.length, stagedMarshalDeltaBases.length, 0);
+        }
+    }
+
+    /**
+     * Makes the bases of the frame that was just marshaled the ones the next frame is relative to.
+     */
+    private void commitMarshalDeltaBases() {
+        if (compactNumericsEnabled) {
+            long[] committed = stagedMarshalDeltaBases;
+            stagedMarshalDeltaBases = marshalDeltaBases;
+            marshalDeltaBases = committed;
+        }
+    }
+
+    /**
+     * @return a copy of the committed bases for restoring if a batch of frames is abandoned,
+     *         or null when no values are delta encoded.
+     */
+    private long[] saveMarshalDeltaBases() {
+        return compactNumericsEnabled ? marshalDeltaBases.clone() : null;
+    }
+
+    private void restoreMarshalDeltaBases(long[] saved) {
+        if (saved != null) {
+            marshalDeltaBases = saved;
+        }
+    }
+
+    /**
+     * Records a difference computed during tightMarshal1 so that tightMarshal2 writes the same
+     * value without consulting the bases which have already moved on.
+     */
+    void recordMarshalDelta(long delta) {
+        if (marshalDeltaCount == marshalDeltas.length) {
+            marshalDeltas = Arrays.copyOf(marshalDeltas, marshalDeltas.length << 1);
+        }
+        marshalDeltas[marshalDeltaCount++] = delta;
+    }
+
+    /**
+     * @return the next difference recorded during tightMarshal1.
+     */
+    long nextMarshalDelta() throws IOException {
+        if (marshalDeltaPosition >= marshalDeltaCount) {
+            throw new IOException("Delta encoded value requested that was not computed by tightMarshal1");
+        }
+        return marshalDeltas[marshalDeltaPosition++];
+    }
+
+    /**
+     * Applies a decoded difference to the value of the same property in the previous frame.
+     *
+     * @param slot
+     *      the slot of the delta encoded property.
+     * @param delta
+     *      the difference that was read.
+     *
+     * @return the value of the property.
+     */
+    long unmarshalDelta(int slot, long delta) {
+        if (slot >= unmarshalDeltaBases.length) {
+            unmarshalDeltaBases = Arrays.copyOf(unmarshalDeltaBases, Math.max(slot + 1, unmarshalDeltaBases.length << 1));
+        }
+        long value = unmarshalDeltaBases[slot] + delta;
+        unmarshalDeltaBases[slot] = value;
+        return value;
+    }
+
+    private void resetDeltaBases() {
+        Arrays.fill(marshalDeltaBases, 0);
+        Arrays.fill(stagedMarshalDeltaBases, 0);
+        Arrays.fill(unmarshalDeltaBases, 0);
     }
 
     public void setInUnmarshallCache(short index, DataStructure o) {
@@ -470,7 +1286,7 @@ public final class OpenWireFormat {
 
     public void setCacheEnabled(boolean cacheEnabled) {
         if (cacheEnabled) {
-            marshallCache = new DataStructure[MARSHAL_CACHE_SIZE];
+            marshallCache = createMarshallCache(MARSHAL_CACHE_SIZE);
             unmarshallCache = new DataStructure[MARSHAL_CACHE_SIZE];
         }
         this.cacheEnabled = cacheEnabled;
@@ -526,35 +1342,222 @@ public final class OpenWireFormat {
     }
 
     /**
-     * Allows you to dynamically switch the version of the openwire protocol being used.
-     *
-     * @param version
+     * @return true if the marshallers specialized for the negotiated version are used.
      */
-    public void setVersion(int version) {
-        String mfName = null;
-        Class<?> mfClass;
+    public boolean isUseVersionSpecializedCodecs() {
+        return useVersionSpecializedCodecs;
+    }
 
-        if (!useLegacyCodecs) {
-            mfName = "org.apache.activemq.openwire.codec.universal.MarshallerFactory";
-        } else {
-            mfName = "org.apache.activemq.openwire.codec.v" + version + ".MarshallerFactory";
+    /**
+     * Sets whether the WireFormat uses the marshallers generated for the negotiated version,
+     * which do not check the version while encoding each property, instead of the universal
+     * marshallers for the types whose encoding differs between versions.  The setting has no
+     * effect when the legacy codecs are in use.
+     *
+     * @param useVersionSpecializedCodecs
+     *      true to install the version specialized marshallers, false to use the universal codec.
+     */
+    public void setUseVersionSpecializedCodecs(boolean useVersionSpecializedCodecs) {
+        if (this.useVersionSpecializedCodecs != useVersionSpecializedCodecs) {
+            this.useVersionSpecializedCodecs = useVersionSpecializedCodecs;
+            if (!useLegacyCodecs) {
+                setVersion(version);
+            }
         }
+    }
 
+    /**
+     * @return the BufferAllocator used for marshaled frames and unmarshaled byte sequences.
+     */
+    public BufferAllocator getBufferAllocator() {
+        return bufferAllocator;
+    }
+
+    /**
+     * Sets the BufferAllocator used to obtain the Buffer returned from tight encoded
+     * {@link #marshal(Object)} calls and the Buffers that hold unmarshaled message content
+     * and properties.  When a pooling allocator is configured the owner of such a Buffer
+     * should call {@link Buffer#release()} once it is done with it so that the backing
+     * array can be reused, unreleased Buffers are simply left to the garbage collector.
+     *
+     * @param bufferAllocator
+     *      the allocator to use, or null to restore the default heap allocator.
+     */
+    public void setBufferAllocator(BufferAllocator bufferAllocator) {
+        this.bufferAllocator = bufferAllocator != null ? bufferAllocator : HeapBufferAllocator.INSTANCE;
+    }
+
+    /**
+     * @return true if byte sequences unmarshaled from a Buffer are views into that Buffer.
+     */
+    public boolean isZeroCopyUnmarshalEnabled() {
+        return zeroCopyUnmarshalEnabled;
+    }
+
+    /**
+     * Sets whether commands unmarshaled from a {@link Buffer} reference their byte sequence
+     * fields, such as {@link org.apache.activemq.openwire.commands.Message#getContent()} and
+     * {@link org.apache.activemq.openwire.commands.Message#getMarshalledProperties()}, in place
+     * instead of copying them out of the frame.
+     * <p>
+     * When enabled the frame passed to {@link #unmarshal(Buffer)} must not be modified or
+     * reused while any command decoded from it is still in use, a Message that needs to outlive
+     * its frame should be detached using {@link org.apache.activemq.openwire.commands.Message#detach()}.
+     * Commands unmarshaled from other sources are always copied.
+     *
+     * @param zeroCopyUnmarshalEnabled
+     *      true if unmarshaled byte sequences should share the frame's backing array.
+     */
+    public void setZeroCopyUnmarshalEnabled(boolean zeroCopyUnmarshalEnabled) {
+        this.zeroCopyUnmarshalEnabled = zeroCopyUnmarshalEnabled;
+    }
+
+    /**
+     * @return the policy used to choose the marshal cache entry replaced when the cache is full.
+     */
+    public MarshallCacheEvictionPolicy getMarshallCacheEvictionPolicy() {
+        return marshallCacheEvictionPolicy;
+    }
+
+    /**
+     * Sets the policy used to choose which marshal cache entry is replaced once every
+     * negotiated cache index is in use.  The policy only affects the sending side of the
+     * connection and takes effect the next time the cache is created, that is when caching
+     * is enabled or the wire format is renegotiated.
+     *
+     * @param marshallCacheEvictionPolicy
+     *      the eviction policy to use, or null to restore the default FIFO policy.
+     */
+    public void setMarshallCacheEvictionPolicy(MarshallCacheEvictionPolicy marshallCacheEvictionPolicy) {
+        this.marshallCacheEvictionPolicy = marshallCacheEvictionPolicy != null ? marshallCacheEvictionPolicy : MarshallCacheEvictionPolicy.FIFO;
+    }
+
+    /**
+     * @return the listener notified of marshal cache activity, or null if none is set.
+     */
+    public MarshallCacheListener getMarshallCacheListener() {
+        return marshallCacheListener;
+    }
+
+    /**
+     * Sets a listener that is notified of every marshal cache hit, miss and eviction, the
+     * listener is retained when the cache is recreated by renegotiation.
+     *
+     * @param marshallCacheListener
+     *      the listener to notify, or null to remove the current listener.
+     */
+    public void setMarshallCacheListener(MarshallCacheListener marshallCacheListener) {
+        lock.lock();
         try {
-            mfClass = Class.forName(mfName, false, getClass().getClassLoader());
-        } catch (ClassNotFoundException e) {
-            throw new IllegalArgumentException("Invalid version: " + version + ", could not load " + mfName, e);
+            this.marshallCacheListener = marshallCacheListener;
+            if (marshallCache != null) {
+                marshallCache.setListener(marshallCacheListener);
+            }
+        } finally {
+            lock.unlock();
         }
+    }
 
-        try {
-            Method method = mfClass.getMethod("createMarshallerMap", new Class[] { OpenWireFormat.class });
-            dataMarshallers = (DataStreamMarshaller[]) method.invoke(null, new Object[] { this });
-        } catch (Throwable e) {
-            throw new IllegalArgumentException("Invalid version: " + version + ", " + mfName
-                + " does not properly implement the createMarshallerMap method.", e);
+    /**
+     * Returns a live view of the marshal cache statistics of this wire format: hits, misses,
+     * evictions, occupancy against the negotiated cache size and the bytes saved by sending
+     * cache references.  The returned object is a standard MBean that can be registered with
+     * an MBeanServer to monitor whether caching pays off for a connection.
+     *
+     * @return the marshal cache statistics of this wire format.
+     */
+    public MarshallCacheStatistics getMarshallCacheStatistics() {
+        return marshallCacheStatistics;
+    }
+
+    /**
+     * @return the number of slots in the cache used to reuse decoded String values, zero if disabled.
+     */
+    public int getStringCacheSize() {
+        return stringCache != null ? stringCache.size() : 0;
+    }
+
+    /**
+     * Configures a cache of decoded String values so that repeated ASCII strings such as
+     * the JMS type, group id or user id of a message are decoded into the same String
+     * instance instead of a new one for each command.  Only tight encoded strings of at
+     * most {@link AsciiStringCache#MAX_CACHED_LENGTH} bytes are cached.
+     *
+     * @param size
+     *      the number of slots in the cache, rounded up to a power of two, or zero to disable it.
+     */
+    public void setStringCacheSize(int size) {
+        this.stringCache = size > 0 ? new AsciiStringCache(size) : null;
+    }
+
+    /**
+     * @return the cache used to reuse decoded String values, or null if disabled.
+     */
+    public AsciiStringCache getStringCache() {
+        return stringCache;
+    }
+
+    /**
+     * Allows you to dynamically switch the version of the openwire protocol being used.
+     * <p>
+     * Unless disabled the marshallers generated for the given version are installed so
+     * that encoding a command does not need to check the version for each property.  The
+     * marshaller tables are shared by all instances, switching version is a table lookup,
+     * and each marshaller is only created when its type is first encoded or decoded.
+     *
+     * @param version
+     */
+    public void setVersion(int version) {
+        final MarshallerRegistry.Codec codec;
+        if (useLegacyCodecs) {
+            codec = MarshallerRegistry.Codec.LEGACY;
+        } else if (useVersionSpecializedCodecs) {
+            codec = MarshallerRegistry.Codec.SPECIALIZED;
+        } else {
+            codec = MarshallerRegistry.Codec.UNIVERSAL;
         }
 
+        marshallerTable = MarshallerRegistry.getMarshallers(codec, version);
+        dataMarshallers = marshallerTable.getMarshallers();
         this.version = version;
+        this.compactNumericsEnabled = version >= CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS;
+        resetDeltaBases();
+    }
+
+    /**
+     * Returns true if the negotiated version encodes numbers compactly.  Every long value
+     * is then written as a zig-zag varint, and timestamps and sequence ids are written as
+     * the difference from their value in the previous frame on the connection.  Like the
+     * marshal cache this makes each frame depend on the ones before it, frames must be
+     * unmarshaled in the order they were marshaled and by a single wire format per peer.
+     *
+     * @return true if numeric values are varint and delta encoded.
+     */
+    public boolean isCompactNumericsEnabled() {
+        return compactNumericsEnabled;
+    }
+
+    /**
+     * @return true if marshaling reads or updates state that is shared by all frames of the connection.
+     */
+    boolean hasConnectionState() {
+        return cacheEnabled || compactNumericsEnabled;
+    }
+
+    /**
+     * Returns the marshaller of a data structure type, creating it on the first use of the type.
+     *
+     * @param type
+     *      the data structure type.
+     *
+     * @return the marshaller, or null if the type is not known to the codec in use.
+     */
+    DataStreamMarshaller getMarshaller(byte type) {
+        DataStreamMarshaller dsm = dataMarshallers[type & 0xFF];
+        if (dsm == null) {
+            dsm = marshallerTable.resolve(type & 0xFF);
+        }
+        return dsm;
     }
 
     public void renegotiateWireFormat(WireFormatInfo info) throws IOException {
@@ -591,20 +1594,82 @@ public final class OpenWireFormat {
                 size = MARSHAL_CACHE_SIZE;
             }
 
-            marshallCache = new DataStructure[size];
+            marshallCache = createMarshallCache(size);
             unmarshallCache = new DataStructure[size];
-            nextMarshallCacheIndex = 0;
-            nextMarshallCacheEvictionIndex = 0;
-            marshallCacheMap = new HashMap<DataStructure, Short>();
         } else {
             marshallCache = null;
             unmarshallCache = null;
-            nextMarshallCacheIndex = 0;
-            nextMarshallCacheEvictionIndex = 0;
-            marshallCacheMap = null;
         }
     }
 
+    /**
+     * @return true if commands that support it are unmarshaled lazily.
+     */
+    public boolean isLazyUnmarshalEnabled() {
+        return lazyUnmarshalEnabled;
+    }
+
+    /**
+     * Enables lazy unmarshaling of commands whose type declares header properties, such as
+     * messages.  Only the header properties of such a command are decoded when its frame is
+     * read, the remainder of the frame is kept undecoded and is unmarshaled on first access
+     * to any of the deferred properties.
+     * <p>
+     * Lazy unmarshaling is only applied to commands that are the top level command of a frame
+     * read from a {@link Buffer}, and only while the marshal cache is disabled and the negotiated
+     * version does not delta encode values, other commands are unmarshaled in full as before.
+     *
+     * @param lazyUnmarshalEnabled
+     *      true to unmarshal commands lazily.
+     */
+    public void setLazyUnmarshalEnabled(boolean lazyUnmarshalEnabled) {
+        this.lazyUnmarshalEnabled = lazyUnmarshalEnabled;
+    }
+
+    /**
+     * @return the metrics instance that codec operations are reported to, or null if none.
+     */
+    public CodecMetrics getCodecMetrics() {
+        return codecMetrics;
+    }
+
+    /**
+     * Sets the metrics instance that the marshal, tight marshal and unmarshal operations of
+     * this wire format, and of the {@link MarshalContext} instances created from it, are
+     * reported to.  When null, the default, no timings are taken.
+     *
+     * @param codecMetrics
+     *      the metrics instance to report to, or null to disable metrics.
+     */
+    public void setCodecMetrics(CodecMetrics codecMetrics) {
+        this.codecMetrics = codecMetrics;
+    }
+
+    private static void recordTightMarshal(CodecMetrics metrics, byte type, int size, long start, long pass2Start) {
+        final long end = System.nanoTime();
+        metrics.record(CodecOperation.TIGHT_MARSHAL1, type, size, pass2Start - start);
+        metrics.record(CodecOperation.TIGHT_MARSHAL2, type, size, end - pass2Start);
+        metrics.record(CodecOperation.MARSHAL, type, size, end - start);
+    }
+
+    private MarshallCache createMarshallCache(int size) {
+        MarshallCache cache = new MarshallCache(size, marshallCacheEvictionPolicy);
+        cache.setListener(marshallCacheListener);
+        return cache;
+    }
+
+    private static ByteBuffer ensureRemaining(ByteBuffer buffer, int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+
+        int capacity = Math.max(buffer.capacity() << 1, buffer.position() + required);
+        ByteBuffer grown = buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
     protected int min(int version1, int version2) {
         if (version1 < version2 && version1 > 0 || version2 <= 0) {
             return version1;
@@ -0,0 +1,322 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteBufferInputStream;
+import org.apache.activemq.openwire.commands.CommandTypes;
+
+/**
+ * Reassembles OpenWire frames from the arbitrary chunks of data delivered by a non-blocking
+ * transport.
+ * <p>
+ * Data is handed to the decoder with {@link #feed(ByteBuffer)} as it arrives, complete frames
+ * are then taken out with {@link #pollCommand()} or, when the caller wants the encoded frame
+ * itself, with {@link #pollFrame()}.  Both return null once no complete frame is buffered.
+ * <p>
+ * The size prefix of each frame is checked against the maximum frame size of the wire format
+ * before any space is reserved for the frame.  When the wire format has the size prefix
+ * disabled the end of a frame can only be found by decoding it, each poll then attempts to
+ * decode the buffered data and waits for more when the frame turns out to be incomplete.  Once
+ * compact numerics are negotiated the buffered data is skipped over instead, so that a frame
+ * whose delta encoded values are relative to the previous one is only decoded when whole.  The
+ * {@link org.apache.activemq.openwire.commands.WireFormatInfo} that opens a connection is always
+ * sent with a size prefix, such a frame is recognized by its magic and delimited by its prefix
+ * regardless of the current setting.
+ * <p>
+ * The decoder follows the settings of the given wire format, including those negotiated after
+ * the decoder was created.  Instances are not thread safe, each connection needs its own.
+ */
+public final class OpenWireFrameDecoder {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 8192;
+    private static final int SIZE_PREFIX_LENGTH = 4;
+    private static final byte[] MAGIC = new byte[] { 'A', 'c', 't', 'i', 'v', 'e', 'M', 'Q' };
+
+    private final OpenWireFormat wireFormat;
+
+    private byte[] buffer;
+    private int readPosition;
+    private int writePosition;
+
+    // Bounds of the frame found by the last successful call to findFrame
+    private int frameOffset;
+    private int frameLength;
+    private int frameEnd;
+
+    // Set when the frame had to be decoded to find its end
+    private boolean frameDecoded;
+    private Object decodedCommand;
+
+    public OpenWireFrameDecoder(OpenWireFormat wireFormat) {
+        this(wireFormat, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public OpenWireFrameDecoder(OpenWireFormat wireFormat, int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid initial capacity: " + initialCapacity);
+        }
+
+        this.wireFormat = wireFormat;
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * @return the OpenWireFormat used to delimit and decode frames.
+     */
+    public OpenWireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Appends the remaining bytes of the given chunk to the buffered data, on return the
+     * chunk has been fully consumed.
+     *
+     * @param chunk
+     *      the data read from the transport.
+     */
+    public void feed(ByteBuffer chunk) {
+        final int length = chunk.remaining();
+        ensureCapacity(writePosition - readPosition + length);
+        chunk.get(buffer, writePosition, length);
+        writePosition += length;
+    }
+
+    /**
+     * Appends the given bytes to the buffered data.
+     *
+     * @param chunk
+     *      the data read from the transport.
+     */
+    public void feed(Buffer chunk) {
+        final int length = chunk.getLength();
+        ensureCapacity(writePosition - readPosition + length);
+        System.arraycopy(chunk.getData(), chunk.getOffset(), buffer, writePosition, length);
+        writePosition += length;
+    }
+
+    /**
+     * Takes the next complete frame out of the buffered data and decodes it.
+     * <p>
+     * When zero copy unmarshaling is enabled on the wire format the frame is copied before it
+     * is decoded so that the command does not share the decoder's buffer.
+     *
+     * @return the decoded command, or null if no complete frame is buffered.
+     *
+     * @throws IOException if the frame exceeds the maximum frame size or cannot be decoded.
+     */
+    public Object pollCommand() throws IOException {
+        if (!findFrame()) {
+            return null;
+        }
+
+        final Object command;
+        if (frameDecoded) {
+            command = decodedCommand;
+        } else if (wireFormat.isZeroCopyUnmarshalEnabled()) {
+            command = wireFormat.unmarshal(new Buffer(Arrays.copyOfRange(buffer, frameOffset, frameOffset + frameLength)));
+        } else {
+            command = wireFormat.unmarshal(new Buffer(buffer, frameOffset, frameLength));
+        }
+
+        consumeFrame();
+        return command;
+    }
+
+    /**
+     * Takes the next complete frame out of the buffered data without decoding it, unless the
+     * size prefix is disabled in which case the frame is decoded to find its end.
+     * <p>
+     * The frame is in the form {@link OpenWireFormat#unmarshal(Buffer)} expects, it includes
+     * the size prefix unless that is disabled.  The returned Buffer is a view into the decoder's
+     * buffer and is only valid until the next call to feed or poll.
+     *
+     * @return the next frame, or null if no complete frame is buffered.
+     *
+     * @throws IOException if the frame exceeds the maximum frame size or cannot be delimited.
+     */
+    public Buffer pollFrame() throws IOException {
+        if (!findFrame()) {
+            return null;
+        }
+
+        Buffer frame = new Buffer(buffer, frameOffset, frameLength);
+        consumeFrame();
+        return frame;
+    }
+
+    /**
+     * @return the number of bytes buffered that have not yet been taken out as frames.
+     */
+    public int getBufferedSize() {
+        return writePosition - readPosition;
+    }
+
+    /**
+     * Discards all buffered data.
+     */
+    public void reset() {
+        readPosition = 0;
+        writePosition = 0;
+        frameDecoded = false;
+        decodedCommand = null;
+    }
+
+    //----- Frame delimiting -------------------------------------------------//
+
+    private boolean findFrame() throws IOException {
+        final int available = writePosition - readPosition;
+        if (available == 0) {
+            return false;
+        }
+
+        if (!wireFormat.isSizePrefixDisabled()) {
+            return findPrefixedFrame(available, true);
+        }
+
+        // A frame can only start with a zero byte when it is the high byte of a size prefix.
+        if (buffer[readPosition] == 0) {
+            if (available < SIZE_PREFIX_LENGTH + 1 + 1 + MAGIC.length) {
+                return false;
+            }
+            if (isWireFormatInfo()) {
+                return findPrefixedFrame(available, false);
+            }
+        }
+
+        return findDecodedFrame(available);
+    }
+
+    private boolean findPrefixedFrame(int available, boolean includePrefix) throws IOException {
+        if (available < SIZE_PREFIX_LENGTH) {
+            return false;
+        }
+
+        final int size = readInt(readPosition);
+        final long maxFrameSize = wireFormat.getMaxFrameSize();
+        if (size < 0 || size > maxFrameSize) {
+            throw new IOException("Frame size of " + (size / (1024 * 1024)) + " MB larger than max allowed " + (maxFrameSize / (1024 * 1024)) + " MB");
+        }
+
+        if (available - SIZE_PREFIX_LENGTH < size) {
+            // Make room for the whole frame now that its size is known to be acceptable.
+            ensureCapacity(SIZE_PREFIX_LENGTH + size);
+            return false;
+        }
+
+        frameOffset = includePrefix ? readPosition : readPosition + SIZE_PREFIX_LENGTH;
+        frameEnd = readPosition + SIZE_PREFIX_LENGTH + size;
+        frameLength = frameEnd - frameOffset;
+        frameDecoded = false;
+        return true;
+    }
+
+    private boolean findDecodedFrame(int available) throws IOException {
+        final boolean skipped = wireFormat.isCompactNumericsEnabled();
+        ByteBuffer frame = ByteBuffer.wrap(buffer, readPosition, available);
+        Object command = null;
+        try {
+            if (skipped) {
+                wireFormat.skipFrame(new DataByteBufferInputStream(frame));
+            } else {
+                command = wireFormat.unmarshal(frame);
+            }
+        } catch (EOFException | BufferUnderflowException e) {
+            if (available > wireFormat.getMaxFrameSize()) {
+                throw new IOException("Frame larger than max allowed " + (wireFormat.getMaxFrameSize() / (1024 * 1024)) + " MB");
+            }
+            return false;
+        }
+
+        frameOffset = readPosition;
+        frameEnd = frame.position();
+        frameLength = frameEnd - frameOffset;
+        frameDecoded = !skipped;
+        decodedCommand = command;
+        return true;
+    }
+
+    private boolean isWireFormatInfo() {
+        final int type = readPosition + SIZE_PREFIX_LENGTH;
+        if (buffer[type] != CommandTypes.WIREFORMAT_INFO) {
+            return false;
+        }
+
+        // Loose encoding places the magic right after the type, tight encoding after the
+        // boolean stream that follows the type.
+        if (matchesMagic(type + 1)) {
+            return true;
+        }
+
+        final int booleans = buffer[type + 1] & 0xFF;
+        return booleans < 64 && matchesMagic(type + 2 + booleans);
+    }
+
+    private boolean matchesMagic(int offset) {
+        if (offset + MAGIC.length > writePosition) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; ++i) {
+            if (buffer[offset + i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void consumeFrame() {
+        readPosition = frameEnd;
+        if (readPosition == writePosition) {
+            // Nothing left over, the next chunk can start at the front of the buffer.
+            readPosition = 0;
+            writePosition = 0;
+        }
+        frameDecoded = false;
+        decodedCommand = null;
+    }
+
+    //----- Buffer management ------------------------------------------------//
+
+    private void ensureCapacity(int required) {
+        if (readPosition + required <= buffer.length) {
+            return;
+        }
+
+        final int buffered = writePosition - readPosition;
+        if (required <= buffer.length) {
+            System.arraycopy(buffer, readPosition, buffer, 0, buffered);
+        } else {
+            byte[] grown = new byte[Math.max(buffer.length << 1, required)];
+            System.arraycopy(buffer, readPosition, grown, 0, buffered);
+            buffer = grown;
+        }
+
+        readPosition = 0;
+        writePosition = buffered;
+    }
+
+    private int readInt(int offset) {
+        return ((buffer[offset] & 0xFF) << 24) | ((buffer[offset + 1] & 0xFF) << 16) |
+               ((buffer[offset + 2] & 0xFF) << 8) | (buffer[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+
+/**
+ * Implemented by the generated marshallers, allowing an encoded structure to be stepped over
+ * or the position of each of its properties to be located without creating the object that it
+ * describes.
+ * <p>
+ * Properties are numbered in the order they are marshaled starting with those of the root
+ * super type, a property keeps its number in every OpenWire version even when the negotiated
+ * version does not marshal it.
+ * <p>
+ * Skipping does not read or update the unmarshal cache, values that a skipped structure adds
+ * to the cache are not recorded.  When caching is enabled the structures that follow can then
+ * only be skipped, not unmarshaled.  The same holds for the delta encoded values of the
+ * compact numerics version, skipping does not move on the values they are relative to, which
+ * is why {@link OpenWireFormat#skip(java.io.DataInput)} unmarshals the frames of that version.
+ */
+public interface SkippableMarshaller {
+
+    /**
+     * @return true if the managed type is marshal aware, see
+     *         {@link org.apache.activemq.openwire.commands.DataStructure#isMarshallAware()}.
+     */
+    boolean isMarshallAware();
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types.
+     */
+    int getFieldCount();
+
+    /**
+     * Tight skips the properties of an encoded structure, including those of its super types.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param dataIn
+     *      the data input stream positioned at the first property of the structure.
+     * @param bs
+     *      the boolean stream where the type's booleans were marshaled.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException;
+
+    /**
+     * Loose skips the properties of an encoded structure, including those of its super types.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param dataIn
+     *      the data input stream positioned at the first property of the structure.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException;
+
+    /**
+     * Tight skips the properties of an encoded structure recording the position of each one.
+     * The booleans of a tight encoded property are read from the boolean stream, the recorded
+     * position is that of the bytes that the property writes to the data stream.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param dataIn
+     *      the data input stream positioned at the first property of the structure.
+     * @param bs
+     *      the boolean stream where the type's booleans were marshaled.
+     * @param offsets
+     *      array of at least {@link #getFieldCount()} entries that receives the position of each
+     *      property, entries of properties not marshaled in the negotiated version are unchanged.
+     *
+     * @return the number of properties of the structure.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException;
+
+    /**
+     * Loose skips the properties of an encoded structure recording the position of each one.
+     *
+     * @param wireFormat
+     *      the OpenWireFormat instance to use.
+     * @param dataIn
+     *      the data input stream positioned at the first property of the structure.
+     * @param offsets
+     *      array of at least {@link #getFieldCount()} entries that receives the position of each
+     *      property, entries of properties not marshaled in the negotiated version are unchanged.
+     *
+     * @return the number of properties of the structure.
+     *
+     * @throws IOException if an error occurs while reading the data.
+     */
+    int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException;
+
+}
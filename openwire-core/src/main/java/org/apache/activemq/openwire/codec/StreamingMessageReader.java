@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.activemq.openwire.commands.LastPartialCommand;
+import org.apache.activemq.openwire.commands.Message;
+import org.apache.activemq.openwire.commands.PartialCommand;
+
+/**
+ * Reads commands from a DataInput, exposing the content of messages written by a
+ * {@link StreamingMessageWriter} as an InputStream that decodes one chunk frame at a
+ * time so that the content is never held in memory as a whole.
+ * <p>
+ * The content stream of a streamed message is only valid until the next call to
+ * {@link #read()}, any content that was not consumed by then is skipped.
+ */
+public final class StreamingMessageReader {
+
+    private final OpenWireFormat wireFormat;
+    private final DataInput in;
+
+    private ContentInputStream content;
+
+    /**
+     * Creates a reader.
+     *
+     * @param wireFormat
+     *      the wire format used to decode the incoming frames.
+     * @param in
+     *      the input that the frames are read from.
+     */
+    public StreamingMessageReader(OpenWireFormat wireFormat, DataInput in) {
+        this.wireFormat = wireFormat;
+        this.in = in;
+    }
+
+    /**
+     * Reads the next command from the input.  When the command is a streamed message its
+     * content can then be read from {@link #getContent()}.
+     *
+     * @return the next command read from the input.
+     *
+     * @throws IOException if an error occurs while reading the command.
+     */
+    public Object read() throws IOException {
+        if (content != null) {
+            content.drain();
+            content = null;
+        }
+
+        Object command = wireFormat.unmarshal(in);
+        if (command instanceof Message && isStreamed((Message) command)) {
+            content = new ContentInputStream(((Message) command).getCommandId());
+        }
+
+        return command;
+    }
+
+    /**
+     * @return the content of the last streamed message returned from {@link #read()} or null
+     *         if the last command read was not a streamed message.
+     */
+    public InputStream getContent() {
+        return content;
+    }
+
+    /**
+     * @param message
+     *      the message to check.
+     *
+     * @return true if the given message is the header of a streamed message.
+     *
+     * @throws IOException if an error occurs while reading the message properties.
+     */
+    public static boolean isStreamed(Message message) throws IOException {
+        return Boolean.TRUE.equals(message.getProperty(StreamingMessageWriter.STREAMED_CONTENT_PROPERTY));
+    }
+
+    private final class ContentInputStream extends InputStream {
+
+        private final int commandId;
+
+        private byte[] chunk;
+        private int position;
+        private boolean last;
+
+        public ContentInputStream(int commandId) {
+            this.commandId = commandId;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+
+            return chunk[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            if (!fill()) {
+                return -1;
+            }
+
+            int count = Math.min(len, chunk.length - position);
+            System.arraycopy(chunk, position, b, off, count);
+            position += count;
+
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return chunk != null ? chunk.length - position : 0;
+        }
+
+        void drain() throws IOException {
+            while (fill()) {
+                position = chunk.length;
+            }
+        }
+
+        /*
+         * Ensures there are unread bytes in the current chunk, decoding the next chunk
+         * frame as needed, returns false once the content is exhausted.
+         */
+        private boolean fill() throws IOException {
+            while (chunk == null || position == chunk.length) {
+                if (last) {
+                    return false;
+                }
+
+                Object command = wireFormat.unmarshal(in);
+                if (!(command instanceof PartialCommand)) {
+                    throw new IOException("Expected the content of streamed message " + commandId + " but received: " + command);
+                }
+
+                PartialCommand partial = (PartialCommand) command;
+                if (partial.getCommandId() != commandId) {
+                    throw new IOException("Expected the content of streamed message " + commandId +
+                                          " but received content for: " + partial.getCommandId());
+                }
+
+                chunk = partial.getData();
+                position = 0;
+                last = partial instanceof LastPartialCommand;
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import org.apache.activemq.openwire.commands.LastPartialCommand;
+import org.apache.activemq.openwire.commands.Message;
+import org.apache.activemq.openwire.commands.PartialCommand;
+
+/**
+ * Writes a Message whose content is supplied by a stream without ever holding more
+ * than a single chunk of that content in memory.
+ * <p>
+ * The message is written as a header frame carrying everything but the content,
+ * marked with the {@link #STREAMED_CONTENT_PROPERTY} property, followed by the content
+ * split across {@link PartialCommand} frames and terminated by a {@link LastPartialCommand}.
+ * Each chunk frame carries the command id of the header message.  The stream carries the
+ * message content exactly as it would appear in {@link Message#getContent()}.
+ * <p>
+ * The frames of a streamed message must be written contiguously, callers are responsible
+ * for ensuring no other command is written to the same output until the write completes.
+ * The {@link StreamingMessageReader} decodes the frames written by this class.
+ */
+public final class StreamingMessageWriter {
+
+    /**
+     * Property set on the header frame of a message whose content follows as chunks.
+     */
+    public static final String STREAMED_CONTENT_PROPERTY = "OpenWireStreamedContent";
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final OpenWireFormat wireFormat;
+    private final byte[] chunk;
+
+    /**
+     * Creates a writer using the default chunk size.
+     *
+     * @param wireFormat
+     *      the wire format used to encode the header and chunk frames.
+     */
+    public StreamingMessageWriter(OpenWireFormat wireFormat) {
+        this(wireFormat, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param wireFormat
+     *      the wire format used to encode the header and chunk frames.
+     * @param chunkSize
+     *      the maximum number of content bytes carried by each chunk frame.
+     */
+    public StreamingMessageWriter(OpenWireFormat wireFormat, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+
+        this.wireFormat = wireFormat;
+        this.chunk = new byte[chunkSize];
+    }
+
+    /**
+     * @return the maximum number of content bytes carried by each chunk frame.
+     */
+    public int getChunkSize() {
+        return chunk.length;
+    }
+
+    /**
+     * Writes the given message followed by the content read from the given stream.
+     *
+     * @param header
+     *      the message to send, its content must not be set.
+     * @param content
+     *      the stream that supplies the message content, read until end of stream.
+     * @param out
+     *      the output that the frames are written to.
+     *
+     * @throws IOException if an error occurs reading the content or writing the frames.
+     */
+    public void write(Message header, InputStream content, DataOutput out) throws IOException {
+        writeHeader(header, out);
+
+        int count;
+        do {
+            count = 0;
+            while (count < chunk.length) {
+                int read = content.read(chunk, count, chunk.length - count);
+                if (read < 0) {
+                    break;
+                }
+                count += read;
+            }
+        } while (writeChunk(header, count, out));
+    }
+
+    /**
+     * Writes the given message followed by the content read from the given channel.
+     *
+     * @param header
+     *      the message to send, its content must not be set.
+     * @param content
+     *      the channel that supplies the message content, read until end of stream.
+     * @param out
+     *      the output that the frames are written to.
+     *
+     * @throws IOException if an error occurs reading the content or writing the frames.
+     */
+    public void write(Message header, ReadableByteChannel content, DataOutput out) throws IOException {
+        writeHeader(header, out);
+
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        do {
+            buffer.clear();
+            while (buffer.hasRemaining()) {
+                if (content.read(buffer) < 0) {
+                    break;
+                }
+            }
+        } while (writeChunk(header, buffer.position(), out));
+    }
+
+    private void writeHeader(Message header, DataOutput out) throws IOException {
+        if (header.getContent() != null) {
+            throw new IllegalArgumentException("A streamed message must not carry content of its own");
+        }
+
+        header.setProperty(STREAMED_CONTENT_PROPERTY, Boolean.TRUE);
+        wireFormat.marshal(header, out);
+    }
+
+    /*
+     * Writes a full chunk as a PartialCommand, anything less than a full chunk means the
+     * content is exhausted and is written as the LastPartialCommand.
+     */
+    private boolean writeChunk(Message header, int count, DataOutput out) throws IOException {
+        PartialCommand command;
+        if (count == chunk.length) {
+            command = new PartialCommand();
+            command.setData(chunk);
+        } else {
+            command = new LastPartialCommand();
+            command.setData(Arrays.copyOf(chunk, count));
+        }
+
+        command.setCommandId(header.getCommandId());
+        wireFormat.marshal(command, out);
+
+        return count == chunk.length;
+    }
+}
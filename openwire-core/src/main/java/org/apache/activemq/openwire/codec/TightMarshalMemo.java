@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * Immutable snapshot of the result of a tightMarshal1 pass over a data structure, the
+ * encoded size of the structure and the booleans it wrote into the BooleanStream.
+ * <p>
+ * A memo is only valid for the marshaller type and protocol version that produced it,
+ * the values of a structure's fields determine everything else that is recorded here.
+ */
+public final class TightMarshalMemo {
+
+    /**
+     * The largest number of booleans a memo can record.
+     */
+    public static final int MAX_BOOLEANS = Long.SIZE;
+
+    private final Class<?> marshallerType;
+    private final int version;
+    private final int size;
+    private final long booleans;
+    private final int booleanCount;
+
+    TightMarshalMemo(Class<?> marshallerType, int version, int size, long booleans, int booleanCount) {
+        this.marshallerType = marshallerType;
+        this.version = version;
+        this.size = size;
+        this.booleans = booleans;
+        this.booleanCount = booleanCount;
+    }
+
+    /**
+     * @return true if this memo was produced by the given marshaller type at the given version.
+     */
+    boolean matches(Class<?> marshallerType, int version) {
+        return this.marshallerType == marshallerType && this.version == version;
+    }
+
+    /**
+     * @return the number of bytes the structure occupies in the tight encoded output.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the booleans written by the structure, the first boolean in the lowest bit.
+     */
+    public long getBooleans() {
+        return booleans;
+    }
+
+    /**
+     * @return the number of booleans written by the structure.
+     */
+    public int getBooleanCount() {
+        return booleanCount;
+    }
+}
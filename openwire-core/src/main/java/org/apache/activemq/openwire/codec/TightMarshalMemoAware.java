@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+/**
+ * Implemented by data structures whose tight encoding depends only on their own field
+ * values, such as the id types and destinations.  Those values are not expected to change
+ * once the structure has been created, which allows the {@link OpenWireFormat} to size
+ * them once and replay the recorded result each time they are sent again.
+ * <p>
+ * Implementations must discard their memo whenever a marshaled field is modified.
+ */
+public interface TightMarshalMemoAware {
+
+    /**
+     * @return the memo recorded the last time this structure was sized, or null.
+     */
+    TightMarshalMemo getTightMarshalMemo();
+
+    /**
+     * @param memo
+     *      the memo to keep for this structure, or null to discard the current one.
+     */
+    void setTightMarshalMemo(TightMarshalMemo memo);
+
+}
@@ -0,0 +1,333 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec.specialized;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.codec.*;
+import org.apache.activemq.openwire.codec.universal.*;
+import org.apache.activemq.openwire.commands.*;
+
+/**
+ * Marshalling code for Open Wire for BrokerInfo
+ *
+ * Specialized for OpenWire version 2.
+ *
+ * NOTE!: This file is auto generated - do not modify!
+ *
+ */
+public class BrokerInfoMarshallerV2 extends BaseCommandMarshaller {
+
+    /**
+     * Return the type of Data Structure handled by this Marshaler
+     *
+     * @return short representation of the type data structure
+     */
+    public byte getDataStructureType() {
+        return BrokerInfo.DATA_STRUCTURE_TYPE;
+    }
+    
+    /**
+     * @return a new instance of the managed type.
+     */
+    public DataStructure createObject() {
+        return new BrokerInfo();
+    }
+
+    /**
+     * Un-marshal an object instance from the data input stream
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param target the object to un-marshal
+     * @param dataIn the data input stream to build the object from
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightUnmarshal(wireFormat, target, dataIn, bs);
+
+        BrokerInfo info = (BrokerInfo) target;
+
+        info.setBrokerId((BrokerId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
+        info.setBrokerURL(tightUnmarshalString(wireFormat, dataIn, bs));
+        if (bs.readBoolean()) {
+            short size = dataIn.readShort();
+            BrokerInfo value[] = new BrokerInfo[size];
+            for (int i = 0; i < size; i++) {
+                value[i] = (BrokerInfo) tightUnmarsalNestedObject(wireFormat,dataIn, bs);
+            }
+            info.setPeerBrokerInfos(value);
+        } else {
+            info.setPeerBrokerInfos(null);
+        }
+        info.setBrokerName(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setSlaveBroker(bs.readBoolean());
+        info.setMasterBroker(bs.readBoolean());
+        info.setFaultTolerantConfiguration(bs.readBoolean());
+        info.setDuplexConnection(bs.readBoolean());
+        info.setNetworkConnection(bs.readBoolean());
+        info.setConnectionId(tightUnmarshalLong(wireFormat, dataIn, bs));
+    }
+
+    /**
+     * Write the booleans that this object uses to a BooleanStream
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param source the object to marshal
+     * @param bs the boolean stream where the type's booleans are written
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public int tightMarshal1(OpenWireFormat wireFormat, Object source, BooleanStream bs) throws IOException {
+        BrokerInfo info = (BrokerInfo) source;
+
+        int rc = super.tightMarshal1(wireFormat, source, bs);
+        rc += tightMarshalCachedObject1(wireFormat, (DataStructure)info.getBrokerId(), bs);
+        rc += tightMarshalString1(info.getBrokerURL(), bs);
+        rc += tightMarshalObjectArray1(wireFormat, info.getPeerBrokerInfos(), bs);
+        rc += tightMarshalString1(info.getBrokerName(), bs);
+        bs.writeBoolean(info.isSlaveBroker());
+        bs.writeBoolean(info.isMasterBroker());
+        bs.writeBoolean(info.isFaultTolerantConfiguration());
+        bs.writeBoolean(info.isDuplexConnection());
+        bs.writeBoolean(info.isNetworkConnection());
+        rc += tightMarshalLong1(wireFormat, info.getConnectionId(), bs);
+
+        return rc + 0;
+    }
+
+    /**
+     * Write a object instance to data output stream
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param source the object to marshal
+     * @param dataOut the DataOut where the properties are written
+     * @param bs the boolean stream where the type's booleans are written
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public void tightMarshal2(OpenWireFormat wireFormat, Object source, DataOutput dataOut, BooleanStream bs) throws IOException {
+        super.tightMarshal2(wireFormat, source, dataOut, bs);
+
+        BrokerInfo info = (BrokerInfo) source;
+
+        tightMarshalCachedObject2(wireFormat, (DataStructure)info.getBrokerId(), dataOut, bs);
+        tightMarshalString2(info.getBrokerURL(), dataOut, bs);
+        tightMarshalObjectArray2(wireFormat, info.getPeerBrokerInfos(), dataOut, bs);
+        tightMarshalString2(info.getBrokerName(), dataOut, bs);
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        tightMarshalLong2(wireFormat, info.getConnectionId(), dataOut, bs);
+    }
+
+    /**
+     * Write the object to the output using loose marshaling.
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public void looseMarshal(OpenWireFormat wireFormat, Object source, DataOutput dataOut) throws IOException {
+        BrokerInfo info = (BrokerInfo) source;
+
+        super.looseMarshal(wireFormat, source, dataOut);
+        looseMarshalCachedObject(wireFormat, (DataStructure)info.getBrokerId(), dataOut);
+        looseMarshalString(info.getBrokerURL(), dataOut);
+        looseMarshalObjectArray(wireFormat, info.getPeerBrokerInfos(), dataOut);
+        looseMarshalString(info.getBrokerName(), dataOut);
+        dataOut.writeBoolean(info.isSlaveBroker());
+        dataOut.writeBoolean(info.isMasterBroker());
+        dataOut.writeBoolean(info.isFaultTolerantConfiguration());
+        dataOut.writeBoolean(info.isDuplexConnection());
+        dataOut.writeBoolean(info.isNetworkConnection());
+        looseMarshalLong(wireFormat, info.getConnectionId(), dataOut);
+    }
+
+    /**
+     * Un-marshal an object instance from the data input stream
+     *
+     * @param target the object to un-marshal
+     * @param dataIn the data input stream to build the object from
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public void looseUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {
+        super.looseUnmarshal(wireFormat, target, dataIn);
+
+        BrokerInfo info = (BrokerInfo) target;
+
+        info.setBrokerId((BrokerId) looseUnmarsalCachedObject(wireFormat, dataIn));
+        info.setBrokerURL(looseUnmarshalString(dataIn));
+        if (dataIn.readBoolean()) {
+            short size = dataIn.readShort();
+            BrokerInfo value[] = new BrokerInfo[size];
+            for (int i = 0; i < size; i++) {
+                value[i] = (BrokerInfo) looseUnmarsalNestedObject(wireFormat,dataIn);
+            }
+            info.setPeerBrokerInfos(value);
+        } else {
+            info.setPeerBrokerInfos(null);
+        }
+        info.setBrokerName(looseUnmarshalString(dataIn));
+        info.setSlaveBroker(dataIn.readBoolean());
+        info.setMasterBroker(dataIn.readBoolean());
+        info.setFaultTolerantConfiguration(dataIn.readBoolean());
+        info.setDuplexConnection(dataIn.readBoolean());
+        info.setNetworkConnection(dataIn.readBoolean());
+        info.setConnectionId(looseUnmarshalLong(wireFormat, dataIn));
+    }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 12;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipString(dataIn, bs);
+        tightSkipObjectArray(wireFormat, dataIn, bs);
+        tightSkipString(dataIn, bs);
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        tightSkipLong(wireFormat, dataIn, bs);
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipObjectArray(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        tightSkipLong(wireFormat, dataIn, bs);
+        field++;
+        field++;
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipString(dataIn);
+        looseSkipObjectArray(wireFormat, dataIn);
+        looseSkipString(dataIn);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        looseSkipLong(wireFormat, dataIn);
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipObjectArray(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        looseSkipLong(wireFormat, dataIn);
+        field++;
+        field++;
+
+        return field;
+    }
+}
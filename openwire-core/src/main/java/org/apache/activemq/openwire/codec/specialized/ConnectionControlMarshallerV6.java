@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec.specialized;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.codec.*;
+import org.apache.activemq.openwire.codec.universal.*;
+import org.apache.activemq.openwire.commands.*;
+
+/**
+ * Marshalling code for Open Wire for ConnectionControl
+ *
+ * Specialized for OpenWire version 6 and above.
+ *
+ * NOTE!: This file is auto generated - do not modify!
+ *
+ */
+public class ConnectionControlMarshallerV6 extends BaseCommandMarshaller {
+
+    /**
+     * Return the type of Data Structure handled by this Marshaler
+     *
+     * @return short representation of the type data structure
+     */
+    public byte getDataStructureType() {
+        return ConnectionControl.DATA_STRUCTURE_TYPE;
+    }
+    
+    /**
+     * @return a new instance of the managed type.
+     */
+    public DataStructure createObject() {
+        return new ConnectionControl();
+    }
+
+    /**
+     * Un-marshal an object instance from the data input stream
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param target the object to un-marshal
+     * @param dataIn the data input stream to build the object from
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightUnmarshal(wireFormat, target, dataIn, bs);
+
+        ConnectionControl info = (ConnectionControl) target;
+
+        info.setClose(bs.readBoolean());
+        info.setExit(bs.readBoolean());
+        info.setFaultTolerant(bs.readBoolean());
+        info.setResume(bs.readBoolean());
+        info.setSuspend(bs.readBoolean());
+        info.setConnectedBrokers(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setReconnectTo(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setRebalanceConnection(bs.readBoolean());
+        info.setToken(tightUnmarshalByteArray(dataIn, bs));
+    }
+
+    /**
+     * Write the booleans that this object uses to a BooleanStream
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param source the object to marshal
+     * @param bs the boolean stream where the type's booleans are written
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public int tightMarshal1(OpenWireFormat wireFormat, Object source, BooleanStream bs) throws IOException {
+        ConnectionControl info = (ConnectionControl) source;
+
+        int rc = super.tightMarshal1(wireFormat, source, bs);
+        bs.writeBoolean(info.isClose());
+        bs.writeBoolean(info.isExit());
+        bs.writeBoolean(info.isFaultTolerant());
+        bs.writeBoolean(info.isResume());
+        bs.writeBoolean(info.isSuspend());
+        rc += tightMarshalString1(info.getConnectedBrokers(), bs);
+        rc += tightMarshalString1(info.getReconnectTo(), bs);
+        bs.writeBoolean(info.isRebalanceConnection());
+        rc += tightMarshalByteArray1(info.getToken(), bs);
+
+        return rc + 0;
+    }
+
+    /**
+     * Write a object instance to data output stream
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param source the object to marshal
+     * @param dataOut the DataOut where the properties are written
+     * @param bs the boolean stream where the type's booleans are written
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public void tightMarshal2(OpenWireFormat wireFormat, Object source, DataOutput dataOut, BooleanStream bs) throws IOException {
+        super.tightMarshal2(wireFormat, source, dataOut, bs);
+
+        ConnectionControl info = (ConnectionControl) source;
+
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        tightMarshalString2(info.getConnectedBrokers(), dataOut, bs);
+        tightMarshalString2(info.getReconnectTo(), dataOut, bs);
+        bs.readBoolean();
+        tightMarshalByteArray2(info.getToken(), dataOut, bs);
+    }
+
+    /**
+     * Write the object to the output using loose marshaling.
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public void looseMarshal(OpenWireFormat wireFormat, Object source, DataOutput dataOut) throws IOException {
+        ConnectionControl info = (ConnectionControl) source;
+
+        super.looseMarshal(wireFormat, source, dataOut);
+        dataOut.writeBoolean(info.isClose());
+        dataOut.writeBoolean(info.isExit());
+        dataOut.writeBoolean(info.isFaultTolerant());
+        dataOut.writeBoolean(info.isResume());
+        dataOut.writeBoolean(info.isSuspend());
+        looseMarshalString(info.getConnectedBrokers(), dataOut);
+        looseMarshalString(info.getReconnectTo(), dataOut);
+        dataOut.writeBoolean(info.isRebalanceConnection());
+        looseMarshalByteArray(wireFormat, info.getToken(), dataOut);
+    }
+
+    /**
+     * Un-marshal an object instance from the data input stream
+     *
+     * @param target the object to un-marshal
+     * @param dataIn the data input stream to build the object from
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public void looseUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {
+        super.looseUnmarshal(wireFormat, target, dataIn);
+
+        ConnectionControl info = (ConnectionControl) target;
+
+        info.setClose(dataIn.readBoolean());
+        info.setExit(dataIn.readBoolean());
+        info.setFaultTolerant(dataIn.readBoolean());
+        info.setResume(dataIn.readBoolean());
+        info.setSuspend(dataIn.readBoolean());
+        info.setConnectedBrokers(looseUnmarshalString(dataIn));
+        info.setReconnectTo(looseUnmarshalString(dataIn));
+        info.setRebalanceConnection(dataIn.readBoolean());
+        info.setToken(looseUnmarshalByteArray(dataIn));
+    }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 9;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        tightSkipString(dataIn, bs);
+        tightSkipString(dataIn, bs);
+        bs.readBoolean();
+        tightSkipByteArray(dataIn, bs);
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        tightSkipByteArray(dataIn, bs);
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        looseSkipString(dataIn);
+        looseSkipString(dataIn);
+        skipFully(dataIn, 1);
+        looseSkipByteArray(dataIn);
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        looseSkipByteArray(dataIn);
+
+        return field;
+    }
+}
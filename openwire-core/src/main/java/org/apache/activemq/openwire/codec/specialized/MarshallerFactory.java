@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec.specialized;
+
+import org.apache.activemq.openwire.codec.DataStreamMarshaller;
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.commands.*;
+
+/**
+ * Marshalling Factory for the version specialized OpenWire Codec package.
+ *
+ * NOTE!: This file is auto generated - do not modify!
+ *
+ */
+public class MarshallerFactory{
+
+    /**
+     * The highest OpenWire version whose encoding differs from the version before it.
+     */
+    static final public int MAX_SPECIALIZED_VERSION = 11;
+
+    /**
+     * Map of command type -> Marshallers for each OpenWire version, populated as each type is first used
+     */
+    static final private DataStreamMarshaller marshaller[][] = new DataStreamMarshaller[MAX_SPECIALIZED_VERSION + 1][256];
+
+    /**
+     * Creates the marshaller of a command type, its class is only loaded once the type is used
+     */
+    static private DataStreamMarshaller createMarshaller(int version, int type) {
+        switch (type) {
+            case BrokerInfo.DATA_STRUCTURE_TYPE:
+                if (version >= 3) {
+                    return new BrokerInfoMarshallerV3();
+                } else if (version >= 2) {
+                    return new BrokerInfoMarshallerV2();
+                } else {
+                    return new BrokerInfoMarshallerV1();
+                }
+            case ConnectionControl.DATA_STRUCTURE_TYPE:
+                if (version >= 6) {
+                    return new ConnectionControlMarshallerV6();
+                } else {
+                    return new ConnectionControlMarshallerV1();
+                }
+            case ConnectionInfo.DATA_STRUCTURE_TYPE:
+                if (version >= 8) {
+                    return new ConnectionInfoMarshallerV8();
+                } else if (version >= 6) {
+                    return new ConnectionInfoMarshallerV6();
+                } else if (version >= 2) {
+                    return new ConnectionInfoMarshallerV2();
+                } else {
+                    return new ConnectionInfoMarshallerV1();
+                }
+            case ConsumerControl.DATA_STRUCTURE_TYPE:
+                if (version >= 6) {
+                    return new ConsumerControlMarshallerV6();
+                } else if (version >= 2) {
+                    return new ConsumerControlMarshallerV2();
+                } else {
+                    return new ConsumerControlMarshallerV1();
+                }
+            case ConsumerInfo.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new ConsumerInfoMarshallerV10();
+                } else if (version >= 4) {
+                    return new ConsumerInfoMarshallerV4();
+                } else {
+                    return new ConsumerInfoMarshallerV1();
+                }
+            case MessageAck.DATA_STRUCTURE_TYPE:
+                if (version >= 7) {
+                    return new MessageAckMarshallerV7();
+                } else {
+                    return new MessageAckMarshallerV1();
+                }
+            case MessageId.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new MessageIdMarshallerV10();
+                } else {
+                    return new MessageIdMarshallerV1();
+                }
+            case MessagePull.DATA_STRUCTURE_TYPE:
+                if (version >= 4) {
+                    return new MessagePullMarshallerV4();
+                } else if (version >= 3) {
+                    return new MessagePullMarshallerV3();
+                } else {
+                    return new MessagePullMarshallerV1();
+                }
+            case NetworkBridgeFilter.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new NetworkBridgeFilterMarshallerV10();
+                } else {
+                    return new NetworkBridgeFilterMarshallerV1();
+                }
+            case OpenWireBlobMessage.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new OpenWireBlobMessageMarshallerV10();
+                } else if (version >= 3) {
+                    return new OpenWireBlobMessageMarshallerV3();
+                } else if (version >= 2) {
+                    return new OpenWireBlobMessageMarshallerV2();
+                } else {
+                    return new OpenWireBlobMessageMarshallerV1();
+                }
+            case OpenWireBytesMessage.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new OpenWireBytesMessageMarshallerV10();
+                } else if (version >= 3) {
+                    return new OpenWireBytesMessageMarshallerV3();
+                } else if (version >= 2) {
+                    return new OpenWireBytesMessageMarshallerV2();
+                } else {
+                    return new OpenWireBytesMessageMarshallerV1();
+                }
+            case OpenWireMapMessage.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new OpenWireMapMessageMarshallerV10();
+                } else if (version >= 3) {
+                    return new OpenWireMapMessageMarshallerV3();
+                } else if (version >= 2) {
+                    return new OpenWireMapMessageMarshallerV2();
+                } else {
+                    return new OpenWireMapMessageMarshallerV1();
+                }
+            case OpenWireMessage.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new OpenWireMessageMarshallerV10();
+                } else if (version >= 3) {
+                    return new OpenWireMessageMarshallerV3();
+                } else if (version >= 2) {
+                    return new OpenWireMessageMarshallerV2();
+                } else {
+                    return new OpenWireMessageMarshallerV1();
+                }
+            case OpenWireObjectMessage.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new OpenWireObjectMessageMarshallerV10();
+                } else if (version >= 3) {
+                    return new OpenWireObjectMessageMarshallerV3();
+                } else if (version >= 2) {
+                    return new OpenWireObjectMessageMarshallerV2();
+                } else {
+                    return new OpenWireObjectMessageMarshallerV1();
+                }
+            case OpenWireStreamMessage.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new OpenWireStreamMessageMarshallerV10();
+                } else if (version >= 3) {
+                    return new OpenWireStreamMessageMarshallerV3();
+                } else if (version >= 2) {
+                    return new OpenWireStreamMessageMarshallerV2();
+                } else {
+                    return new OpenWireStreamMessageMarshallerV1();
+                }
+            case OpenWireTextMessage.DATA_STRUCTURE_TYPE:
+                if (version >= 10) {
+                    return new OpenWireTextMessageMarshallerV10();
+                } else if (version >= 3) {
+                    return new OpenWireTextMessageMarshallerV3();
+                } else if (version >= 2) {
+                    return new OpenWireTextMessageMarshallerV2();
+                } else {
+                    return new OpenWireTextMessageMarshallerV1();
+                }
+            case ProducerAck.DATA_STRUCTURE_TYPE:
+                if (version >= 3) {
+                    return new ProducerAckMarshallerV3();
+                } else {
+                    return new ProducerAckMarshallerV1();
+                }
+            case ProducerInfo.DATA_STRUCTURE_TYPE:
+                if (version >= 3) {
+                    return new ProducerInfoMarshallerV3();
+                } else if (version >= 2) {
+                    return new ProducerInfoMarshallerV2();
+                } else {
+                    return new ProducerInfoMarshallerV1();
+                }
+            case RemoveInfo.DATA_STRUCTURE_TYPE:
+                if (version >= 5) {
+                    return new RemoveInfoMarshallerV5();
+                } else {
+                    return new RemoveInfoMarshallerV1();
+                }
+            case SubscriptionInfo.DATA_STRUCTURE_TYPE:
+                if (version >= 11) {
+                    return new SubscriptionInfoMarshallerV11();
+                } else if (version >= 3) {
+                    return new SubscriptionInfoMarshallerV3();
+                } else {
+                    return new SubscriptionInfoMarshallerV1();
+                }
+            default:
+                return org.apache.activemq.openwire.codec.universal.MarshallerFactory.getMarshaller(type);
+        }
+    }
+
+    /**
+     * Returns the marshaller of a command type for an OpenWire version, creating it on first use
+     */
+    static public DataStreamMarshaller getMarshaller(int version, int type) {
+        final DataStreamMarshaller[] map = createMarshallerMap(null, version);
+        DataStreamMarshaller dsm = map[type];
+        if (dsm == null) {
+            dsm = createMarshaller(version, type);
+            if (dsm != null) {
+                map[type] = dsm;
+            }
+        }
+        return dsm;
+    }
+
+    static public DataStreamMarshaller[] createMarshallerMap(OpenWireFormat wireFormat, int version) {
+        return marshaller[Math.max(1, Math.min(version, MAX_SPECIALIZED_VERSION))];
+    }
+}
@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.codec.*;
 import org.apache.activemq.openwire.commands.*;
 
@@ -64,7 +65,7 @@ public class BrokerInfoMarshaller extends BaseCommandMarshaller {
         int version = wireFormat.getVersion();
 
         info.setBrokerId((BrokerId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setBrokerURL(tightUnmarshalString(dataIn, bs));
+        info.setBrokerURL(tightUnmarshalString(wireFormat, dataIn, bs));
         if (bs.readBoolean()) {
             short size = dataIn.readShort();
             BrokerInfo value[] = new BrokerInfo[size];
@@ -75,7 +76,7 @@ public class BrokerInfoMarshaller extends BaseCommandMarshaller {
         } else {
             info.setPeerBrokerInfos(null);
         }
-        info.setBrokerName(tightUnmarshalString(dataIn, bs));
+        info.setBrokerName(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setSlaveBroker(bs.readBoolean());
         info.setMasterBroker(bs.readBoolean());
         info.setFaultTolerantConfiguration(bs.readBoolean());
@@ -89,10 +90,10 @@ public class BrokerInfoMarshaller extends BaseCommandMarshaller {
             info.setConnectionId(tightUnmarshalLong(wireFormat, dataIn, bs));
         }
         if (version >= 3) {
-            info.setBrokerUploadUrl(tightUnmarshalString(dataIn, bs));
+            info.setBrokerUploadUrl(tightUnmarshalString(wireFormat, dataIn, bs));
         }
         if (version >= 3) {
-            info.setNetworkProperties(tightUnmarshalString(dataIn, bs));
+            info.setNetworkProperties(tightUnmarshalString(wireFormat, dataIn, bs));
         }
     }
 
@@ -256,4 +257,201 @@ public class BrokerInfoMarshaller extends BaseCommandMarshaller {
             info.setNetworkProperties(looseUnmarshalString(dataIn));
         }
     }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 12;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+        int version = wireFormat.getVersion();
+
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipString(dataIn, bs);
+        tightSkipObjectArray(wireFormat, dataIn, bs);
+        tightSkipString(dataIn, bs);
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        if (version >= 2) {
+            bs.readBoolean();
+        }
+        if (version >= 2) {
+            bs.readBoolean();
+        }
+        if (version >= 2) {
+            tightSkipLong(wireFormat, dataIn, bs);
+        }
+        if (version >= 3) {
+            tightSkipString(dataIn, bs);
+        }
+        if (version >= 3) {
+            tightSkipString(dataIn, bs);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+        int version = wireFormat.getVersion();
+
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipObjectArray(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            tightSkipLong(wireFormat, dataIn, bs);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            tightSkipString(dataIn, bs);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            tightSkipString(dataIn, bs);
+        }
+        field++;
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+        int version = wireFormat.getVersion();
+
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipString(dataIn);
+        looseSkipObjectArray(wireFormat, dataIn);
+        looseSkipString(dataIn);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        if (version >= 2) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 2) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 2) {
+            looseSkipLong(wireFormat, dataIn);
+        }
+        if (version >= 3) {
+            looseSkipString(dataIn);
+        }
+        if (version >= 3) {
+            looseSkipString(dataIn);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+        int version = wireFormat.getVersion();
+
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipObjectArray(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            looseSkipLong(wireFormat, dataIn);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            looseSkipString(dataIn);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            looseSkipString(dataIn);
+        }
+        field++;
+
+        return field;
+    }
 }
@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.codec.*;
 import org.apache.activemq.openwire.commands.*;
 
@@ -69,16 +70,16 @@ public class ConnectionControlMarshaller extends BaseCommandMarshaller {
         info.setResume(bs.readBoolean());
         info.setSuspend(bs.readBoolean());
         if (version >= 6) {
-            info.setConnectedBrokers(tightUnmarshalString(dataIn, bs));
+            info.setConnectedBrokers(tightUnmarshalString(wireFormat, dataIn, bs));
         }
         if (version >= 6) {
-            info.setReconnectTo(tightUnmarshalString(dataIn, bs));
+            info.setReconnectTo(tightUnmarshalString(wireFormat, dataIn, bs));
         }
         if (version >= 6) {
             info.setRebalanceConnection(bs.readBoolean());
         }
         if (version >= 6) {
-            info.setToken(tightUnmarshalConstByteArray(dataIn, bs, 0));
+            info.setToken(tightUnmarshalByteArray(dataIn, bs));
         }
     }
 
@@ -213,4 +214,173 @@ public class ConnectionControlMarshaller extends BaseCommandMarshaller {
             info.setToken(looseUnmarshalByteArray(dataIn));
         }
     }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 9;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+        int version = wireFormat.getVersion();
+
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        bs.readBoolean();
+        if (version >= 6) {
+            tightSkipString(dataIn, bs);
+        }
+        if (version >= 6) {
+            tightSkipString(dataIn, bs);
+        }
+        if (version >= 6) {
+            bs.readBoolean();
+        }
+        if (version >= 6) {
+            tightSkipByteArray(dataIn, bs);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+        int version = wireFormat.getVersion();
+
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            tightSkipString(dataIn, bs);
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            tightSkipString(dataIn, bs);
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            tightSkipByteArray(dataIn, bs);
+        }
+        field++;
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+        int version = wireFormat.getVersion();
+
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        if (version >= 6) {
+            looseSkipString(dataIn);
+        }
+        if (version >= 6) {
+            looseSkipString(dataIn);
+        }
+        if (version >= 6) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 6) {
+            looseSkipByteArray(dataIn);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+        int version = wireFormat.getVersion();
+
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            looseSkipString(dataIn);
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            looseSkipString(dataIn);
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            looseSkipByteArray(dataIn);
+        }
+        field++;
+
+        return field;
+    }
 }
@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.codec.*;
 import org.apache.activemq.openwire.commands.*;
 
@@ -64,9 +65,9 @@ public class ConnectionInfoMarshaller extends BaseCommandMarshaller {
         int version = wireFormat.getVersion();
 
         info.setConnectionId((ConnectionId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setClientId(tightUnmarshalString(dataIn, bs));
-        info.setPassword(tightUnmarshalString(dataIn, bs));
-        info.setUserName(tightUnmarshalString(dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setPassword(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setUserName(tightUnmarshalString(wireFormat, dataIn, bs));
         if (bs.readBoolean()) {
             short size = dataIn.readShort();
             BrokerId value[] = new BrokerId[size];
@@ -89,7 +90,7 @@ public class ConnectionInfoMarshaller extends BaseCommandMarshaller {
             info.setFailoverReconnect(bs.readBoolean());
         }
         if (version >= 8) {
-            info.setClientIp(tightUnmarshalString(dataIn, bs));
+            info.setClientIp(tightUnmarshalString(wireFormat, dataIn, bs));
         }
     }
 
@@ -241,4 +242,185 @@ public class ConnectionInfoMarshaller extends BaseCommandMarshaller {
             info.setClientIp(looseUnmarshalString(dataIn));
         }
     }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 11;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+        int version = wireFormat.getVersion();
+
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipString(dataIn, bs);
+        tightSkipString(dataIn, bs);
+        tightSkipString(dataIn, bs);
+        tightSkipObjectArray(wireFormat, dataIn, bs);
+        bs.readBoolean();
+        bs.readBoolean();
+        if (version >= 2) {
+            bs.readBoolean();
+        }
+        if (version >= 6) {
+            bs.readBoolean();
+        }
+        if (version >= 6) {
+            bs.readBoolean();
+        }
+        if (version >= 8) {
+            tightSkipString(dataIn, bs);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+        int version = wireFormat.getVersion();
+
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipObjectArray(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 8) {
+            offsets[field] = dataIn.getPos();
+            tightSkipString(dataIn, bs);
+        }
+        field++;
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+        int version = wireFormat.getVersion();
+
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipString(dataIn);
+        looseSkipString(dataIn);
+        looseSkipString(dataIn);
+        looseSkipObjectArray(wireFormat, dataIn);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 1);
+        if (version >= 2) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 6) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 6) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 8) {
+            looseSkipString(dataIn);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+        int version = wireFormat.getVersion();
+
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipObjectArray(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 8) {
+            offsets[field] = dataIn.getPos();
+            looseSkipString(dataIn);
+        }
+        field++;
+
+        return field;
+    }
 }
@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.codec.*;
 import org.apache.activemq.openwire.commands.*;
 
@@ -202,4 +203,161 @@ public class ConsumerControlMarshaller extends BaseCommandMarshaller {
             info.setStop(dataIn.readBoolean());
         }
     }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 7;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+        int version = wireFormat.getVersion();
+
+        if (version >= 6) {
+            tightSkipNestedObject(wireFormat, dataIn, bs);
+        }
+        bs.readBoolean();
+        tightSkipNestedObject(wireFormat, dataIn, bs);
+        skipFully(dataIn, 4);
+        if (version >= 2) {
+            bs.readBoolean();
+        }
+        if (version >= 2) {
+            bs.readBoolean();
+        }
+        if (version >= 2) {
+            bs.readBoolean();
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+        int version = wireFormat.getVersion();
+
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            tightSkipNestedObject(wireFormat, dataIn, bs);
+        }
+        field++;
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        tightSkipNestedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 4);
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+        int version = wireFormat.getVersion();
+
+        if (version >= 6) {
+            looseSkipNestedObject(wireFormat, dataIn);
+        }
+        skipFully(dataIn, 1);
+        looseSkipNestedObject(wireFormat, dataIn);
+        skipFully(dataIn, 4);
+        if (version >= 2) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 2) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 2) {
+            skipFully(dataIn, 1);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+        int version = wireFormat.getVersion();
+
+        if (version >= 6) {
+            offsets[field] = dataIn.getPos();
+            looseSkipNestedObject(wireFormat, dataIn);
+        }
+        field++;
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        looseSkipNestedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 4);
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+
+        return field;
+    }
 }
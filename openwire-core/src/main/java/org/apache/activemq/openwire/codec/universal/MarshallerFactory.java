@@ -18,6 +18,7 @@ package org.apache.activemq.openwire.codec.universal;
 
 import org.apache.activemq.openwire.codec.DataStreamMarshaller;
 import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.commands.*;
 
 /**
  * Marshalling Factory for the Universal OpenWire Codec package.
@@ -28,72 +29,146 @@ import org.apache.activemq.openwire.codec.OpenWireFormat;
 public class MarshallerFactory{
 
     /**
-     * Creates a Map of command type -> Marshallers
+     * Map of command type -> Marshallers, populated as each type is first used
      */
     static final private DataStreamMarshaller marshaller[] = new DataStreamMarshaller[256];
-    static {
 
-        add(new BrokerIdMarshaller());
-        add(new BrokerInfoMarshaller());
-        add(new BrokerSubscriptionInfoMarshaller());
-        add(new ConnectionControlMarshaller());
-        add(new ConnectionErrorMarshaller());
-        add(new ConnectionIdMarshaller());
-        add(new ConnectionInfoMarshaller());
-        add(new ConsumerControlMarshaller());
-        add(new ConsumerIdMarshaller());
-        add(new ConsumerInfoMarshaller());
-        add(new ControlCommandMarshaller());
-        add(new DataArrayResponseMarshaller());
-        add(new DataResponseMarshaller());
-        add(new DestinationInfoMarshaller());
-        add(new DiscoveryEventMarshaller());
-        add(new ExceptionResponseMarshaller());
-        add(new FlushCommandMarshaller());
-        add(new IntegerResponseMarshaller());
-        add(new JournalQueueAckMarshaller());
-        add(new JournalTopicAckMarshaller());
-        add(new JournalTraceMarshaller());
-        add(new JournalTransactionMarshaller());
-        add(new KeepAliveInfoMarshaller());
-        add(new LastPartialCommandMarshaller());
-        add(new LocalTransactionIdMarshaller());
-        add(new MessageAckMarshaller());
-        add(new MessageDispatchMarshaller());
-        add(new MessageDispatchNotificationMarshaller());
-        add(new MessageIdMarshaller());
-        add(new MessagePullMarshaller());
-        add(new NetworkBridgeFilterMarshaller());
-        add(new OpenWireBlobMessageMarshaller());
-        add(new OpenWireBytesMessageMarshaller());
-        add(new OpenWireMapMessageMarshaller());
-        add(new OpenWireMessageMarshaller());
-        add(new OpenWireObjectMessageMarshaller());
-        add(new OpenWireQueueMarshaller());
-        add(new OpenWireStreamMessageMarshaller());
-        add(new OpenWireTempQueueMarshaller());
-        add(new OpenWireTempTopicMarshaller());
-        add(new OpenWireTextMessageMarshaller());
-        add(new OpenWireTopicMarshaller());
-        add(new PartialCommandMarshaller());
-        add(new ProducerAckMarshaller());
-        add(new ProducerIdMarshaller());
-        add(new ProducerInfoMarshaller());
-        add(new RemoveInfoMarshaller());
-        add(new RemoveSubscriptionInfoMarshaller());
-        add(new ReplayCommandMarshaller());
-        add(new ResponseMarshaller());
-        add(new SessionIdMarshaller());
-        add(new SessionInfoMarshaller());
-        add(new ShutdownInfoMarshaller());
-        add(new SubscriptionInfoMarshaller());
-        add(new TransactionInfoMarshaller());
-        add(new WireFormatInfoMarshaller());
-        add(new XATransactionIdMarshaller());
+    /**
+     * Creates the marshaller of a command type, its class is only loaded once the type is used
+     */
+    static private DataStreamMarshaller createMarshaller(int type) {
+        switch (type) {
+            case BrokerId.DATA_STRUCTURE_TYPE:
+                return new BrokerIdMarshaller();
+            case BrokerInfo.DATA_STRUCTURE_TYPE:
+                return new BrokerInfoMarshaller();
+            case BrokerSubscriptionInfo.DATA_STRUCTURE_TYPE:
+                return new BrokerSubscriptionInfoMarshaller();
+            case ConnectionControl.DATA_STRUCTURE_TYPE:
+                return new ConnectionControlMarshaller();
+            case ConnectionError.DATA_STRUCTURE_TYPE:
+                return new ConnectionErrorMarshaller();
+            case ConnectionId.DATA_STRUCTURE_TYPE:
+                return new ConnectionIdMarshaller();
+            case ConnectionInfo.DATA_STRUCTURE_TYPE:
+                return new ConnectionInfoMarshaller();
+            case ConsumerControl.DATA_STRUCTURE_TYPE:
+                return new ConsumerControlMarshaller();
+            case ConsumerId.DATA_STRUCTURE_TYPE:
+                return new ConsumerIdMarshaller();
+            case ConsumerInfo.DATA_STRUCTURE_TYPE:
+                return new ConsumerInfoMarshaller();
+            case ControlCommand.DATA_STRUCTURE_TYPE:
+                return new ControlCommandMarshaller();
+            case DataArrayResponse.DATA_STRUCTURE_TYPE:
+                return new DataArrayResponseMarshaller();
+            case DataResponse.DATA_STRUCTURE_TYPE:
+                return new DataResponseMarshaller();
+            case DestinationInfo.DATA_STRUCTURE_TYPE:
+                return new DestinationInfoMarshaller();
+            case DiscoveryEvent.DATA_STRUCTURE_TYPE:
+                return new DiscoveryEventMarshaller();
+            case ExceptionResponse.DATA_STRUCTURE_TYPE:
+                return new ExceptionResponseMarshaller();
+            case FlushCommand.DATA_STRUCTURE_TYPE:
+                return new FlushCommandMarshaller();
+            case IntegerResponse.DATA_STRUCTURE_TYPE:
+                return new IntegerResponseMarshaller();
+            case JournalQueueAck.DATA_STRUCTURE_TYPE:
+                return new JournalQueueAckMarshaller();
+            case JournalTopicAck.DATA_STRUCTURE_TYPE:
+                return new JournalTopicAckMarshaller();
+            case JournalTrace.DATA_STRUCTURE_TYPE:
+                return new JournalTraceMarshaller();
+            case JournalTransaction.DATA_STRUCTURE_TYPE:
+                return new JournalTransactionMarshaller();
+            case KeepAliveInfo.DATA_STRUCTURE_TYPE:
+                return new KeepAliveInfoMarshaller();
+            case LastPartialCommand.DATA_STRUCTURE_TYPE:
+                return new LastPartialCommandMarshaller();
+            case LocalTransactionId.DATA_STRUCTURE_TYPE:
+                return new LocalTransactionIdMarshaller();
+            case MessageAck.DATA_STRUCTURE_TYPE:
+                return new MessageAckMarshaller();
+            case MessageDispatch.DATA_STRUCTURE_TYPE:
+                return new MessageDispatchMarshaller();
+            case MessageDispatchNotification.DATA_STRUCTURE_TYPE:
+                return new MessageDispatchNotificationMarshaller();
+            case MessageId.DATA_STRUCTURE_TYPE:
+                return new MessageIdMarshaller();
+            case MessagePull.DATA_STRUCTURE_TYPE:
+                return new MessagePullMarshaller();
+            case NetworkBridgeFilter.DATA_STRUCTURE_TYPE:
+                return new NetworkBridgeFilterMarshaller();
+            case OpenWireBlobMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireBlobMessageMarshaller();
+            case OpenWireBytesMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireBytesMessageMarshaller();
+            case OpenWireMapMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireMapMessageMarshaller();
+            case OpenWireMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireMessageMarshaller();
+            case OpenWireObjectMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireObjectMessageMarshaller();
+            case OpenWireQueue.DATA_STRUCTURE_TYPE:
+                return new OpenWireQueueMarshaller();
+            case OpenWireStreamMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireStreamMessageMarshaller();
+            case OpenWireTempQueue.DATA_STRUCTURE_TYPE:
+                return new OpenWireTempQueueMarshaller();
+            case OpenWireTempTopic.DATA_STRUCTURE_TYPE:
+                return new OpenWireTempTopicMarshaller();
+            case OpenWireTextMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireTextMessageMarshaller();
+            case OpenWireTopic.DATA_STRUCTURE_TYPE:
+                return new OpenWireTopicMarshaller();
+            case PartialCommand.DATA_STRUCTURE_TYPE:
+                return new PartialCommandMarshaller();
+            case ProducerAck.DATA_STRUCTURE_TYPE:
+                return new ProducerAckMarshaller();
+            case ProducerId.DATA_STRUCTURE_TYPE:
+                return new ProducerIdMarshaller();
+            case ProducerInfo.DATA_STRUCTURE_TYPE:
+                return new ProducerInfoMarshaller();
+            case RemoveInfo.DATA_STRUCTURE_TYPE:
+                return new RemoveInfoMarshaller();
+            case RemoveSubscriptionInfo.DATA_STRUCTURE_TYPE:
+                return new RemoveSubscriptionInfoMarshaller();
+            case ReplayCommand.DATA_STRUCTURE_TYPE:
+                return new ReplayCommandMarshaller();
+            case Response.DATA_STRUCTURE_TYPE:
+                return new ResponseMarshaller();
+            case SessionId.DATA_STRUCTURE_TYPE:
+                return new SessionIdMarshaller();
+            case SessionInfo.DATA_STRUCTURE_TYPE:
+                return new SessionInfoMarshaller();
+            case ShutdownInfo.DATA_STRUCTURE_TYPE:
+                return new ShutdownInfoMarshaller();
+            case SubscriptionInfo.DATA_STRUCTURE_TYPE:
+                return new SubscriptionInfoMarshaller();
+            case TransactionInfo.DATA_STRUCTURE_TYPE:
+                return new TransactionInfoMarshaller();
+            case WireFormatInfo.DATA_STRUCTURE_TYPE:
+                return new WireFormatInfoMarshaller();
+            case XATransactionId.DATA_STRUCTURE_TYPE:
+                return new XATransactionIdMarshaller();
+            default:
+                return null;
+        }
     }
 
-    static private void add(DataStreamMarshaller dsm) {
-        marshaller[dsm.getDataStructureType()] = dsm;
+    /**
+     * Returns the marshaller of a command type, creating it on first use
+     */
+    static public DataStreamMarshaller getMarshaller(int type) {
+        DataStreamMarshaller dsm = marshaller[type];
+        if (dsm == null) {
+            dsm = createMarshaller(type);
+            if (dsm != null) {
+                marshaller[type] = dsm;
+            }
+        }
+        return dsm;
     }
 
     static public DataStreamMarshaller[] createMarshallerMap(OpenWireFormat wireFormat) {
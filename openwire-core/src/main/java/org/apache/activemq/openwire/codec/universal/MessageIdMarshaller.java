@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.codec.*;
 import org.apache.activemq.openwire.commands.*;
 
@@ -29,7 +30,7 @@ import org.apache.activemq.openwire.commands.*;
  * NOTE!: This file is auto generated - do not modify!
  *
  */
-public class MessageIdMarshaller extends BaseDataStreamMarshaller {
+public class MessageIdMarshaller extends BaseDataStreamMarshaller implements SkippableMarshaller {
 
     /**
      * Return the type of Data Structure handled by this Marshaler
@@ -64,11 +65,11 @@ public class MessageIdMarshaller extends BaseDataStreamMarshaller {
         int version = wireFormat.getVersion();
 
         if (version >= 10) {
-            info.setTextView(tightUnmarshalString(dataIn, bs));
+            info.setTextView(tightUnmarshalString(wireFormat, dataIn, bs));
         }
         info.setProducerId((ProducerId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setProducerSequenceId(tightUnmarshalLong(wireFormat, dataIn, bs));
-        info.setBrokerSequenceId(tightUnmarshalLong(wireFormat, dataIn, bs));
+        info.setProducerSequenceId(tightUnmarshalDeltaLong(wireFormat, 5, dataIn, bs));
+        info.setBrokerSequenceId(tightUnmarshalDeltaLong(wireFormat, 6, dataIn, bs));
     }
 
     /**
@@ -89,8 +90,8 @@ public class MessageIdMarshaller extends BaseDataStreamMarshaller {
             rc += tightMarshalString1(info.getTextView(), bs);
         }
         rc += tightMarshalCachedObject1(wireFormat, (DataStructure)info.getProducerId(), bs);
-        rc += tightMarshalLong1(wireFormat, info.getProducerSequenceId(), bs);
-        rc += tightMarshalLong1(wireFormat, info.getBrokerSequenceId(), bs);
+        rc += tightMarshalDeltaLong1(wireFormat, 5, info.getProducerSequenceId(), bs);
+        rc += tightMarshalDeltaLong1(wireFormat, 6, info.getBrokerSequenceId(), bs);
 
         return rc + 0;
     }
@@ -115,8 +116,8 @@ public class MessageIdMarshaller extends BaseDataStreamMarshaller {
             tightMarshalString2(info.getTextView(), dataOut, bs);
         }
         tightMarshalCachedObject2(wireFormat, (DataStructure)info.getProducerId(), dataOut, bs);
-        tightMarshalLong2(wireFormat, info.getProducerSequenceId(), dataOut, bs);
-        tightMarshalLong2(wireFormat, info.getBrokerSequenceId(), dataOut, bs);
+        tightMarshalDeltaLong2(wireFormat, 5, info.getProducerSequenceId(), dataOut, bs);
+        tightMarshalDeltaLong2(wireFormat, 6, info.getBrokerSequenceId(), dataOut, bs);
     }
 
     /**
@@ -133,8 +134,8 @@ public class MessageIdMarshaller extends BaseDataStreamMarshaller {
             looseMarshalString(info.getTextView(), dataOut);
         }
         looseMarshalCachedObject(wireFormat, (DataStructure)info.getProducerId(), dataOut);
-        looseMarshalLong(wireFormat, info.getProducerSequenceId(), dataOut);
-        looseMarshalLong(wireFormat, info.getBrokerSequenceId(), dataOut);
+        looseMarshalDeltaLong(wireFormat, 5, info.getProducerSequenceId(), dataOut);
+        looseMarshalDeltaLong(wireFormat, 6, info.getBrokerSequenceId(), dataOut);
     }
 
     /**
@@ -155,7 +156,121 @@ public class MessageIdMarshaller extends BaseDataStreamMarshaller {
             info.setTextView(looseUnmarshalString(dataIn));
         }
         info.setProducerId((ProducerId) looseUnmarsalCachedObject(wireFormat, dataIn));
-        info.setProducerSequenceId(looseUnmarshalLong(wireFormat, dataIn));
-        info.setBrokerSequenceId(looseUnmarshalLong(wireFormat, dataIn));
+        info.setProducerSequenceId(looseUnmarshalDeltaLong(wireFormat, 5, dataIn));
+        info.setBrokerSequenceId(looseUnmarshalDeltaLong(wireFormat, 6, dataIn));
+    }
+
+    /**
+     * @return true if the managed type is marshal aware
+     */
+    public boolean isMarshallAware() {
+        return false;
+    }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return 4;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        int version = wireFormat.getVersion();
+
+        if (version >= 10) {
+            tightSkipString(dataIn, bs);
+        }
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipLong(wireFormat, dataIn, bs);
+        tightSkipLong(wireFormat, dataIn, bs);
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = 0;
+        int version = wireFormat.getVersion();
+
+        if (version >= 10) {
+            offsets[field] = dataIn.getPos();
+            tightSkipString(dataIn, bs);
+        }
+        field++;
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipLong(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipLong(wireFormat, dataIn, bs);
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        int version = wireFormat.getVersion();
+
+        if (version >= 10) {
+            looseSkipString(dataIn);
+        }
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipLong(wireFormat, dataIn);
+        looseSkipLong(wireFormat, dataIn);
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = 0;
+        int version = wireFormat.getVersion();
+
+        if (version >= 10) {
+            offsets[field] = dataIn.getPos();
+            looseSkipString(dataIn);
+        }
+        field++;
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipLong(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipLong(wireFormat, dataIn);
+
+        return field;
     }
 }
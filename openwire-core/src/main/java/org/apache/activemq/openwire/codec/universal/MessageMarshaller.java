@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.codec.*;
 import org.apache.activemq.openwire.commands.*;
 
@@ -29,7 +30,7 @@ import org.apache.activemq.openwire.commands.*;
  * NOTE!: This file is auto generated - do not modify!
  *
  */
-public abstract class MessageMarshaller extends BaseCommandMarshaller {
+public abstract class MessageMarshaller extends BaseCommandMarshaller implements LazyUnmarshaller {
 
     /**
      * Un-marshal an object instance from the data input stream
@@ -42,10 +43,24 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
      * @throws IOException if an error occurs while reading the data
      */
     public void tightUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {
+        tightUnmarshalHeader(wireFormat, target, dataIn, bs);
+        tightUnmarshalRemainder(wireFormat, target, dataIn, bs);
+    }
+
+    /**
+     * Un-marshal the header properties of an object instance from the data input stream
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param target the object to un-marshal
+     * @param dataIn the data input stream to build the object from
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightUnmarshalHeader(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {
         super.tightUnmarshal(wireFormat, target, dataIn, bs);
 
         Message info = (Message) target;
-        int version = wireFormat.getVersion();
 
         info.beforeUnmarshall(wireFormat);
         info.setProducerId((ProducerId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
@@ -54,17 +69,33 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         info.setOriginalDestination((OpenWireDestination) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
         info.setMessageId((MessageId) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
         info.setOriginalTransactionId((TransactionId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setGroupID(tightUnmarshalString(dataIn, bs));
+        info.setGroupID(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setGroupSequence(dataIn.readInt());
-        info.setCorrelationId(tightUnmarshalString(dataIn, bs));
+        info.setCorrelationId(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setPersistent(bs.readBoolean());
-        info.setExpiration(tightUnmarshalLong(wireFormat, dataIn, bs));
+        info.setExpiration(tightUnmarshalDeltaLong(wireFormat, 0, dataIn, bs));
         info.setPriority(dataIn.readByte());
+    }
+
+    /**
+     * Un-marshal the properties that follow the header of an object instance from the data input stream
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param target the object to un-marshal
+     * @param dataIn the data input stream to build the object from
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {
+        Message info = (Message) target;
+        int version = wireFormat.getVersion();
+
         info.setReplyTo((OpenWireDestination) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
-        info.setTimestamp(tightUnmarshalLong(wireFormat, dataIn, bs));
-        info.setType(tightUnmarshalString(dataIn, bs));
-        info.setContent(tightUnmarshalByteSequence(dataIn, bs));
-        info.setMarshalledProperties(tightUnmarshalByteSequence(dataIn, bs));
+        info.setTimestamp(tightUnmarshalDeltaLong(wireFormat, 1, dataIn, bs));
+        info.setType(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setContent(tightUnmarshalByteSequence(wireFormat, dataIn, bs));
+        info.setMarshalledProperties(tightUnmarshalByteSequence(wireFormat, dataIn, bs));
         info.setDataStructure((DataStructure) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
         info.setTargetConsumerId((ConsumerId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
         info.setCompressed(bs.readBoolean());
@@ -79,8 +110,8 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         } else {
             info.setBrokerPath(null);
         }
-        info.setArrival(tightUnmarshalLong(wireFormat, dataIn, bs));
-        info.setUserId(tightUnmarshalString(dataIn, bs));
+        info.setArrival(tightUnmarshalDeltaLong(wireFormat, 2, dataIn, bs));
+        info.setUserId(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setRecievedByDFBridge(bs.readBoolean());
         if (version >= 2) {
             info.setDroppable(bs.readBoolean());
@@ -98,10 +129,10 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
             }
         }
         if (version >= 3) {
-            info.setBrokerInTime(tightUnmarshalLong(wireFormat, dataIn, bs));
+            info.setBrokerInTime(tightUnmarshalDeltaLong(wireFormat, 3, dataIn, bs));
         }
         if (version >= 3) {
-            info.setBrokerOutTime(tightUnmarshalLong(wireFormat, dataIn, bs));
+            info.setBrokerOutTime(tightUnmarshalDeltaLong(wireFormat, 4, dataIn, bs));
         }
         if (version >= 10) {
             info.setJMSXGroupFirstForConsumer(bs.readBoolean());
@@ -135,9 +166,9 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         rc += tightMarshalString1(info.getGroupId(), bs);
         rc += tightMarshalString1(info.getCorrelationId(), bs);
         bs.writeBoolean(info.isPersistent());
-        rc += tightMarshalLong1(wireFormat, info.getExpiration(), bs);
+        rc += tightMarshalDeltaLong1(wireFormat, 0, info.getExpiration(), bs);
         rc += tightMarshalNestedObject1(wireFormat, (DataStructure)info.getReplyTo(), bs);
-        rc += tightMarshalLong1(wireFormat, info.getTimestamp(), bs);
+        rc += tightMarshalDeltaLong1(wireFormat, 1, info.getTimestamp(), bs);
         rc += tightMarshalString1(info.getType(), bs);
         rc += tightMarshalByteSequence1(info.getContent(), bs);
         rc += tightMarshalByteSequence1(info.getMarshalledProperties(), bs);
@@ -145,7 +176,7 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         rc += tightMarshalCachedObject1(wireFormat, (DataStructure)info.getTargetConsumerId(), bs);
         bs.writeBoolean(info.isCompressed());
         rc += tightMarshalObjectArray1(wireFormat, info.getBrokerPath(), bs);
-        rc += tightMarshalLong1(wireFormat, info.getArrival(), bs);
+        rc += tightMarshalDeltaLong1(wireFormat, 2, info.getArrival(), bs);
         rc += tightMarshalString1(info.getUserId(), bs);
         bs.writeBoolean(info.isRecievedByDFBridge());
         if (version >= 2) {
@@ -155,10 +186,10 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
             rc += tightMarshalObjectArray1(wireFormat, info.getCluster(), bs);
         }
         if (version >= 3) {
-            rc += tightMarshalLong1(wireFormat, info.getBrokerInTime(), bs);
+            rc += tightMarshalDeltaLong1(wireFormat, 3, info.getBrokerInTime(), bs);
         }
         if (version >= 3) {
-            rc += tightMarshalLong1(wireFormat, info.getBrokerOutTime(), bs);
+            rc += tightMarshalDeltaLong1(wireFormat, 4, info.getBrokerOutTime(), bs);
         }
         if (version >= 10) {
             bs.writeBoolean(info.isJMSXGroupFirstForConsumer());
@@ -193,10 +224,10 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         dataOut.writeInt(info.getGroupSequence());
         tightMarshalString2(info.getCorrelationId(), dataOut, bs);
         bs.readBoolean();
-        tightMarshalLong2(wireFormat, info.getExpiration(), dataOut, bs);
+        tightMarshalDeltaLong2(wireFormat, 0, info.getExpiration(), dataOut, bs);
         dataOut.writeByte(info.getPriority());
         tightMarshalNestedObject2(wireFormat, (DataStructure)info.getReplyTo(), dataOut, bs);
-        tightMarshalLong2(wireFormat, info.getTimestamp(), dataOut, bs);
+        tightMarshalDeltaLong2(wireFormat, 1, info.getTimestamp(), dataOut, bs);
         tightMarshalString2(info.getType(), dataOut, bs);
         tightMarshalByteSequence2(info.getContent(), dataOut, bs);
         tightMarshalByteSequence2(info.getMarshalledProperties(), dataOut, bs);
@@ -205,7 +236,7 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         bs.readBoolean();
         dataOut.writeInt(info.getRedeliveryCounter());
         tightMarshalObjectArray2(wireFormat, info.getBrokerPath(), dataOut, bs);
-        tightMarshalLong2(wireFormat, info.getArrival(), dataOut, bs);
+        tightMarshalDeltaLong2(wireFormat, 2, info.getArrival(), dataOut, bs);
         tightMarshalString2(info.getUserId(), dataOut, bs);
         bs.readBoolean();
         if (version >= 2) {
@@ -215,10 +246,10 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
             tightMarshalObjectArray2(wireFormat, info.getCluster(), dataOut, bs);
         }
         if (version >= 3) {
-            tightMarshalLong2(wireFormat, info.getBrokerInTime(), dataOut, bs);
+            tightMarshalDeltaLong2(wireFormat, 3, info.getBrokerInTime(), dataOut, bs);
         }
         if (version >= 3) {
-            tightMarshalLong2(wireFormat, info.getBrokerOutTime(), dataOut, bs);
+            tightMarshalDeltaLong2(wireFormat, 4, info.getBrokerOutTime(), dataOut, bs);
         }
         if (version >= 10) {
             bs.readBoolean();
@@ -248,10 +279,10 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         dataOut.writeInt(info.getGroupSequence());
         looseMarshalString(info.getCorrelationId(), dataOut);
         dataOut.writeBoolean(info.isPersistent());
-        looseMarshalLong(wireFormat, info.getExpiration(), dataOut);
+        looseMarshalDeltaLong(wireFormat, 0, info.getExpiration(), dataOut);
         dataOut.writeByte(info.getPriority());
         looseMarshalNestedObject(wireFormat, (DataStructure)info.getReplyTo(), dataOut);
-        looseMarshalLong(wireFormat, info.getTimestamp(), dataOut);
+        looseMarshalDeltaLong(wireFormat, 1, info.getTimestamp(), dataOut);
         looseMarshalString(info.getType(), dataOut);
         looseMarshalByteSequence(wireFormat, info.getContent(), dataOut);
         looseMarshalByteSequence(wireFormat, info.getMarshalledProperties(), dataOut);
@@ -260,7 +291,7 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         dataOut.writeBoolean(info.isCompressed());
         dataOut.writeInt(info.getRedeliveryCounter());
         looseMarshalObjectArray(wireFormat, info.getBrokerPath(), dataOut);
-        looseMarshalLong(wireFormat, info.getArrival(), dataOut);
+        looseMarshalDeltaLong(wireFormat, 2, info.getArrival(), dataOut);
         looseMarshalString(info.getUserId(), dataOut);
         dataOut.writeBoolean(info.isRecievedByDFBridge());
         if (version >= 2) {
@@ -270,10 +301,10 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
             looseMarshalObjectArray(wireFormat, info.getCluster(), dataOut);
         }
         if (version >= 3) {
-            looseMarshalLong(wireFormat, info.getBrokerInTime(), dataOut);
+            looseMarshalDeltaLong(wireFormat, 3, info.getBrokerInTime(), dataOut);
         }
         if (version >= 3) {
-            looseMarshalLong(wireFormat, info.getBrokerOutTime(), dataOut);
+            looseMarshalDeltaLong(wireFormat, 4, info.getBrokerOutTime(), dataOut);
         }
         if (version >= 10) {
             dataOut.writeBoolean(info.isJMSXGroupFirstForConsumer());
@@ -291,10 +322,22 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
      * @throws IOException if an error occurs while writing the data
      */
     public void looseUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {
+        looseUnmarshalHeader(wireFormat, target, dataIn);
+        looseUnmarshalRemainder(wireFormat, target, dataIn);
+    }
+
+    /**
+     * Un-marshal the header properties of an object instance from the data input stream
+     *
+     * @param target the object to un-marshal
+     * @param dataIn the data input stream to build the object from
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public void looseUnmarshalHeader(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {
         super.looseUnmarshal(wireFormat, target, dataIn);
 
         Message info = (Message) target;
-        int version = wireFormat.getVersion();
 
         info.beforeUnmarshall(wireFormat);
         info.setProducerId((ProducerId) looseUnmarsalCachedObject(wireFormat, dataIn));
@@ -307,13 +350,27 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         info.setGroupSequence(dataIn.readInt());
         info.setCorrelationId(looseUnmarshalString(dataIn));
         info.setPersistent(dataIn.readBoolean());
-        info.setExpiration(looseUnmarshalLong(wireFormat, dataIn));
+        info.setExpiration(looseUnmarshalDeltaLong(wireFormat, 0, dataIn));
         info.setPriority(dataIn.readByte());
+    }
+
+    /**
+     * Un-marshal the properties that follow the header of an object instance from the data input stream
+     *
+     * @param target the object to un-marshal
+     * @param dataIn the data input stream to build the object from
+     *
+     * @throws IOException if an error occurs while writing the data
+     */
+    public void looseUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {
+        Message info = (Message) target;
+        int version = wireFormat.getVersion();
+
         info.setReplyTo((OpenWireDestination) looseUnmarsalNestedObject(wireFormat, dataIn));
-        info.setTimestamp(looseUnmarshalLong(wireFormat, dataIn));
+        info.setTimestamp(looseUnmarshalDeltaLong(wireFormat, 1, dataIn));
         info.setType(looseUnmarshalString(dataIn));
-        info.setContent(looseUnmarshalByteSequence(dataIn));
-        info.setMarshalledProperties(looseUnmarshalByteSequence(dataIn));
+        info.setContent(looseUnmarshalByteSequence(wireFormat, dataIn));
+        info.setMarshalledProperties(looseUnmarshalByteSequence(wireFormat, dataIn));
         info.setDataStructure((DataStructure) looseUnmarsalNestedObject(wireFormat, dataIn));
         info.setTargetConsumerId((ConsumerId) looseUnmarsalCachedObject(wireFormat, dataIn));
         info.setCompressed(dataIn.readBoolean());
@@ -328,7 +385,7 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
         } else {
             info.setBrokerPath(null);
         }
-        info.setArrival(looseUnmarshalLong(wireFormat, dataIn));
+        info.setArrival(looseUnmarshalDeltaLong(wireFormat, 2, dataIn));
         info.setUserId(looseUnmarshalString(dataIn));
         info.setRecievedByDFBridge(dataIn.readBoolean());
         if (version >= 2) {
@@ -347,10 +404,10 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
             }
         }
         if (version >= 3) {
-            info.setBrokerInTime(looseUnmarshalLong(wireFormat, dataIn));
+            info.setBrokerInTime(looseUnmarshalDeltaLong(wireFormat, 3, dataIn));
         }
         if (version >= 3) {
-            info.setBrokerOutTime(looseUnmarshalLong(wireFormat, dataIn));
+            info.setBrokerOutTime(looseUnmarshalDeltaLong(wireFormat, 4, dataIn));
         }
         if (version >= 10) {
             info.setJMSXGroupFirstForConsumer(dataIn.readBoolean());
@@ -358,4 +415,316 @@ public abstract class MessageMarshaller extends BaseCommandMarshaller {
 
         info.afterUnmarshall(wireFormat);
     }
+
+    /**
+     * @return true if the managed type is marshal aware
+     */
+    public boolean isMarshallAware() {
+        return true;
+    }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 30;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+        int version = wireFormat.getVersion();
+
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipNestedObject(wireFormat, dataIn, bs);
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        tightSkipString(dataIn, bs);
+        skipFully(dataIn, 4);
+        tightSkipString(dataIn, bs);
+        bs.readBoolean();
+        tightSkipLong(wireFormat, dataIn, bs);
+        skipFully(dataIn, 1);
+        tightSkipNestedObject(wireFormat, dataIn, bs);
+        tightSkipLong(wireFormat, dataIn, bs);
+        tightSkipString(dataIn, bs);
+        tightSkipByteSequence(dataIn, bs);
+        tightSkipByteSequence(dataIn, bs);
+        tightSkipNestedObject(wireFormat, dataIn, bs);
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        bs.readBoolean();
+        skipFully(dataIn, 4);
+        tightSkipObjectArray(wireFormat, dataIn, bs);
+        tightSkipLong(wireFormat, dataIn, bs);
+        tightSkipString(dataIn, bs);
+        bs.readBoolean();
+        if (version >= 2) {
+            bs.readBoolean();
+        }
+        if (version >= 3) {
+            tightSkipObjectArray(wireFormat, dataIn, bs);
+        }
+        if (version >= 3) {
+            tightSkipLong(wireFormat, dataIn, bs);
+        }
+        if (version >= 3) {
+            tightSkipLong(wireFormat, dataIn, bs);
+        }
+        if (version >= 10) {
+            bs.readBoolean();
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+        int version = wireFormat.getVersion();
+
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipNestedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 4);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        tightSkipLong(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        tightSkipNestedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipLong(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipByteSequence(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipByteSequence(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipNestedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipCachedObject(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 4);
+        offsets[field++] = dataIn.getPos();
+        tightSkipObjectArray(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipLong(wireFormat, dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        tightSkipString(dataIn, bs);
+        offsets[field++] = dataIn.getPos();
+        bs.readBoolean();
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            tightSkipObjectArray(wireFormat, dataIn, bs);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            tightSkipLong(wireFormat, dataIn, bs);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            tightSkipLong(wireFormat, dataIn, bs);
+        }
+        field++;
+        if (version >= 10) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+        int version = wireFormat.getVersion();
+
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipNestedObject(wireFormat, dataIn);
+        looseSkipCachedObject(wireFormat, dataIn);
+        looseSkipString(dataIn);
+        skipFully(dataIn, 4);
+        looseSkipString(dataIn);
+        skipFully(dataIn, 1);
+        looseSkipLong(wireFormat, dataIn);
+        skipFully(dataIn, 1);
+        looseSkipNestedObject(wireFormat, dataIn);
+        looseSkipLong(wireFormat, dataIn);
+        looseSkipString(dataIn);
+        looseSkipByteSequence(dataIn);
+        looseSkipByteSequence(dataIn);
+        looseSkipNestedObject(wireFormat, dataIn);
+        looseSkipCachedObject(wireFormat, dataIn);
+        skipFully(dataIn, 1);
+        skipFully(dataIn, 4);
+        looseSkipObjectArray(wireFormat, dataIn);
+        looseSkipLong(wireFormat, dataIn);
+        looseSkipString(dataIn);
+        skipFully(dataIn, 1);
+        if (version >= 2) {
+            skipFully(dataIn, 1);
+        }
+        if (version >= 3) {
+            looseSkipObjectArray(wireFormat, dataIn);
+        }
+        if (version >= 3) {
+            looseSkipLong(wireFormat, dataIn);
+        }
+        if (version >= 3) {
+            looseSkipLong(wireFormat, dataIn);
+        }
+        if (version >= 10) {
+            skipFully(dataIn, 1);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+        int version = wireFormat.getVersion();
+
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipNestedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 4);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        looseSkipLong(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        looseSkipNestedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipLong(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipByteSequence(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipByteSequence(dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipNestedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipCachedObject(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 4);
+        offsets[field++] = dataIn.getPos();
+        looseSkipObjectArray(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipLong(wireFormat, dataIn);
+        offsets[field++] = dataIn.getPos();
+        looseSkipString(dataIn);
+        offsets[field++] = dataIn.getPos();
+        skipFully(dataIn, 1);
+        if (version >= 2) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            looseSkipObjectArray(wireFormat, dataIn);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            looseSkipLong(wireFormat, dataIn);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            looseSkipLong(wireFormat, dataIn);
+        }
+        field++;
+        if (version >= 10) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+
+        return field;
+    }
 }
@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.codec.*;
 import org.apache.activemq.openwire.commands.*;
 
@@ -48,7 +49,7 @@ public class OpenWireBlobMessageMarshaller extends OpenWireMessageMarshaller {
     }
 
     /**
-     * Un-marshal an object instance from the data input stream
+     * Un-marshal the properties that follow the header of an object instance from the data input stream
      *
      * @param wireFormat the OpenWireFormat instance to use
      * @param target the object to un-marshal
@@ -57,17 +58,17 @@ public class OpenWireBlobMessageMarshaller extends OpenWireMessageMarshaller {
      *
      * @throws IOException if an error occurs while reading the data
      */
-    public void tightUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {
-        super.tightUnmarshal(wireFormat, target, dataIn, bs);
+    public void tightUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightUnmarshalRemainder(wireFormat, target, dataIn, bs);
 
         OpenWireBlobMessage info = (OpenWireBlobMessage) target;
         int version = wireFormat.getVersion();
 
         if (version >= 3) {
-            info.setRemoteBlobUrl(tightUnmarshalString(dataIn, bs));
+            info.setRemoteBlobUrl(tightUnmarshalString(wireFormat, dataIn, bs));
         }
         if (version >= 3) {
-            info.setMimeType(tightUnmarshalString(dataIn, bs));
+            info.setMimeType(tightUnmarshalString(wireFormat, dataIn, bs));
         }
         if (version >= 3) {
             info.setDeletedByBroker(bs.readBoolean());
@@ -150,15 +151,15 @@ public class OpenWireBlobMessageMarshaller extends OpenWireMessageMarshaller {
     }
 
     /**
-     * Un-marshal an object instance from the data input stream
+     * Un-marshal the properties that follow the header of an object instance from the data input stream
      *
      * @param target the object to un-marshal
      * @param dataIn the data input stream to build the object from
      *
      * @throws IOException if an error occurs while writing the data
      */
-    public void looseUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {
-        super.looseUnmarshal(wireFormat, target, dataIn);
+    public void looseUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {
+        super.looseUnmarshalRemainder(wireFormat, target, dataIn);
 
         OpenWireBlobMessage info = (OpenWireBlobMessage) target;
         int version = wireFormat.getVersion();
@@ -173,4 +174,127 @@ public class OpenWireBlobMessageMarshaller extends OpenWireMessageMarshaller {
             info.setDeletedByBroker(dataIn.readBoolean());
         }
     }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 3;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+        int version = wireFormat.getVersion();
+
+        if (version >= 3) {
+            tightSkipString(dataIn, bs);
+        }
+        if (version >= 3) {
+            tightSkipString(dataIn, bs);
+        }
+        if (version >= 3) {
+            bs.readBoolean();
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+        int version = wireFormat.getVersion();
+
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            tightSkipString(dataIn, bs);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            tightSkipString(dataIn, bs);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            bs.readBoolean();
+        }
+        field++;
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+        int version = wireFormat.getVersion();
+
+        if (version >= 3) {
+            looseSkipString(dataIn);
+        }
+        if (version >= 3) {
+            looseSkipString(dataIn);
+        }
+        if (version >= 3) {
+            skipFully(dataIn, 1);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+        int version = wireFormat.getVersion();
+
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            looseSkipString(dataIn);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            looseSkipString(dataIn);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 1);
+        }
+        field++;
+
+        return field;
+    }
 }
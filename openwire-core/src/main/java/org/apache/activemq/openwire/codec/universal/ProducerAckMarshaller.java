@@ -20,6 +20,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.codec.*;
 import org.apache.activemq.openwire.commands.*;
 
@@ -89,9 +90,10 @@ public class ProducerAckMarshaller extends BaseCommandMarshaller {
             rc += tightMarshalNestedObject1(wireFormat, (DataStructure)info.getProducerId(), bs);
         }
         if (version >= 3) {
+            rc += 4;
         }
 
-        return rc + 4;
+        return rc + 0;
     }
 
     /**
@@ -157,4 +159,111 @@ public class ProducerAckMarshaller extends BaseCommandMarshaller {
             info.setSize(dataIn.readInt());
         }
     }
+
+    /**
+     * @return the number of properties of the managed type, including those of its super types
+     */
+    public int getFieldCount() {
+        return super.getFieldCount() + 2;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {
+        super.tightSkip(wireFormat, dataIn, bs);
+        int version = wireFormat.getVersion();
+
+        if (version >= 3) {
+            tightSkipNestedObject(wireFormat, dataIn, bs);
+        }
+        if (version >= 3) {
+            skipFully(dataIn, 4);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param bs the boolean stream where the type's booleans were marshaled
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {
+        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);
+        int version = wireFormat.getVersion();
+
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            tightSkipNestedObject(wireFormat, dataIn, bs);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 4);
+        }
+        field++;
+
+        return field;
+    }
+
+    /**
+     * Skip an object instance in the data input stream without creating it
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {
+        super.looseSkip(wireFormat, dataIn);
+        int version = wireFormat.getVersion();
+
+        if (version >= 3) {
+            looseSkipNestedObject(wireFormat, dataIn);
+        }
+        if (version >= 3) {
+            skipFully(dataIn, 4);
+        }
+    }
+
+    /**
+     * Skip an object instance in the data input stream recording the position of each property
+     *
+     * @param wireFormat the OpenWireFormat instance to use
+     * @param dataIn the data input stream positioned at the object's properties
+     * @param offsets the array that receives the position of each property
+     *
+     * @return the number of properties of the managed type
+     *
+     * @throws IOException if an error occurs while reading the data
+     */
+    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {
+        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);
+        int version = wireFormat.getVersion();
+
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            looseSkipNestedObject(wireFormat, dataIn);
+        }
+        field++;
+        if (version >= 3) {
+            offsets[field] = dataIn.getPos();
+            skipFully(dataIn, 4);
+        }
+        field++;
+
+        return field;
+    }
 }
@@ -21,7 +21,7 @@ package org.apache.activemq.openwire.commands;
  */
 public interface CommandTypes {
 
-    // What is the latest version of the openwire protocol
+    // What is the preferred version of the openwire protocol, later versions must be asked for
     byte PROTOCOL_VERSION = 12;
 
     // What is the latest version of the openwire protocol used in the stores
@@ -33,6 +33,10 @@ public interface CommandTypes {
     // What is the first version that BROKER_SUBSCRIPTION_INFO is supported
     byte PROTOCOL_VERSION_DURABLE_SYNC = 12;
 
+    // What is the first version that encodes numbers as varints and deltas, not preferred by
+    // default as every frame then depends on the frames before it
+    byte PROTOCOL_VERSION_COMPACT_NUMERICS = 13;
+
     // A marshaling layer can use this type to specify a null object.
     byte NULL = 0;
 
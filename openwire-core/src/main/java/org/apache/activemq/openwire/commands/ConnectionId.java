@@ -16,20 +16,26 @@
  */
 package org.apache.activemq.openwire.commands;
 
+import org.apache.activemq.openwire.annotations.OpenWireExtension;
 import org.apache.activemq.openwire.annotations.OpenWireType;
 import org.apache.activemq.openwire.annotations.OpenWireProperty;
+import org.apache.activemq.openwire.codec.TightMarshalMemo;
+import org.apache.activemq.openwire.codec.TightMarshalMemoAware;
 
 /**
  * @openwire:marshaller code="120"
  */
 @OpenWireType(typeCode = 120)
-public class ConnectionId implements DataStructure, Comparable<ConnectionId> {
+public class ConnectionId implements DataStructure, TightMarshalMemoAware, Comparable<ConnectionId> {
 
     public static final byte DATA_STRUCTURE_TYPE = CommandTypes.CONNECTION_ID;
 
     @OpenWireProperty(version = 1, sequence = 1)
     protected String value;
 
+    @OpenWireExtension
+    protected transient TightMarshalMemo tightMarshalMemo;
+
     public ConnectionId() {
     }
 
@@ -89,6 +95,17 @@ public class ConnectionId implements DataStructure, Comparable<ConnectionId> {
 
     public void setValue(String connectionId) {
         this.value = connectionId;
+        this.tightMarshalMemo = null;
+    }
+
+    @Override
+    public TightMarshalMemo getTightMarshalMemo() {
+        return tightMarshalMemo;
+    }
+
+    @Override
+    public void setTightMarshalMemo(TightMarshalMemo memo) {
+        this.tightMarshalMemo = memo;
     }
 
     @Override
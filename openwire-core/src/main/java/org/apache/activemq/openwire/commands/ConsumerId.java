@@ -19,12 +19,14 @@ package org.apache.activemq.openwire.commands;
 import org.apache.activemq.openwire.annotations.OpenWireType;
 import org.apache.activemq.openwire.annotations.OpenWireExtension;
 import org.apache.activemq.openwire.annotations.OpenWireProperty;
+import org.apache.activemq.openwire.codec.TightMarshalMemo;
+import org.apache.activemq.openwire.codec.TightMarshalMemoAware;
 
 /**
  * @openwire:marshaller code="122"
  */
 @OpenWireType(typeCode = 122)
-public class ConsumerId implements DataStructure {
+public class ConsumerId implements DataStructure, TightMarshalMemoAware {
 
     public static final byte DATA_STRUCTURE_TYPE = CommandTypes.CONSUMER_ID;
 
@@ -46,6 +48,9 @@ public class ConsumerId implements DataStructure {
     @OpenWireExtension
     protected transient SessionId parentId;
 
+    @OpenWireExtension
+    protected transient TightMarshalMemo tightMarshalMemo;
+
     public ConsumerId() {
     }
 
@@ -121,6 +126,7 @@ public class ConsumerId implements DataStructure {
 
     public void setConnectionId(String connectionId) {
         this.connectionId = connectionId;
+        this.tightMarshalMemo = null;
     }
 
     /**
@@ -132,6 +138,7 @@ public class ConsumerId implements DataStructure {
 
     public void setSessionId(long sessionId) {
         this.sessionId = sessionId;
+        this.tightMarshalMemo = null;
     }
 
     /**
@@ -143,6 +150,17 @@ public class ConsumerId implements DataStructure {
 
     public void setValue(long consumerId) {
         this.value = consumerId;
+        this.tightMarshalMemo = null;
+    }
+
+    @Override
+    public TightMarshalMemo getTightMarshalMemo() {
+        return tightMarshalMemo;
+    }
+
+    @Override
+    public void setTightMarshalMemo(TightMarshalMemo memo) {
+        this.tightMarshalMemo = memo;
     }
 
     @Override
@@ -23,9 +23,14 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterInputStream;
 
@@ -36,15 +41,18 @@ import org.apache.activemq.openwire.buffer.Buffer;
 import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
 import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
 import org.apache.activemq.openwire.buffer.UTF8Buffer;
+import org.apache.activemq.openwire.codec.LazyRemainder;
+import org.apache.activemq.openwire.codec.LazyUnmarshalAware;
 import org.apache.activemq.openwire.codec.OpenWireFormat;
 import org.apache.activemq.openwire.utils.IOExceptionSupport;
 import org.apache.activemq.openwire.utils.OpenWireMarshallingSupport;
+import org.apache.activemq.openwire.utils.PropertiesView;
 
 /**
  * Represents an ActiveMQ message
  */
-@OpenWireType(typeCode = 0, marshalAware = true)
-public abstract class Message extends BaseCommand implements MarshallAware {
+@OpenWireType(typeCode = 0, marshalAware = true, headerProperties = 12)
+public abstract class Message extends BaseCommand implements MarshallAware, LazyUnmarshalAware {
 
     public static final String ORIGINAL_EXPIRATION = "originalExpiration";
 
@@ -83,7 +91,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     @OpenWireProperty(version = 1, sequence = 10)
     protected boolean persistent;
 
-    @OpenWireProperty(version = 1, sequence = 11)
+    @OpenWireProperty(version = 1, sequence = 11, deltaEncoded = true)
     protected long expiration;
 
     @OpenWireProperty(version = 1, sequence = 12)
@@ -92,7 +100,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     @OpenWireProperty(version = 1, sequence = 13)
     protected OpenWireDestination replyTo;
 
-    @OpenWireProperty(version = 1, sequence = 14)
+    @OpenWireProperty(version = 1, sequence = 14, deltaEncoded = true)
     protected long timestamp;
 
     @OpenWireProperty(version = 1, sequence = 15)
@@ -119,7 +127,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     @OpenWireProperty(version = 1, sequence = 22, cached = true)
     private BrokerId[] brokerPath;
 
-    @OpenWireProperty(version = 1, sequence = 23)
+    @OpenWireProperty(version = 1, sequence = 23, deltaEncoded = true)
     protected long arrival;
 
     @OpenWireProperty(version = 1, sequence = 24)
@@ -134,10 +142,10 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     @OpenWireProperty(version = 3, sequence = 27, cached = true)
     private BrokerId[] cluster;
 
-    @OpenWireProperty(version = 3, sequence = 28)
+    @OpenWireProperty(version = 3, sequence = 28, deltaEncoded = true)
     protected long brokerInTime;
 
-    @OpenWireProperty(version = 3, sequence = 29)
+    @OpenWireProperty(version = 3, sequence = 29, deltaEncoded = true)
     protected long brokerOutTime;
 
     @OpenWireProperty(version = 10, sequence = 30)
@@ -149,6 +157,18 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     @OpenWireExtension(serialized = true)
     protected Map<String, Object> properties;
 
+    @OpenWireExtension
+    protected transient volatile LazyRemainder lazyRemainder;
+
+    private transient boolean unmarshallingRemainder;
+
+    private transient PropertiesView propertiesView;
+
+    // Changes made to marshaled properties that have not been unmarshaled, they are spliced
+    // into the marshaled properties when the message is marshaled.
+    private transient Map<String, Object> propertyUpdates;
+    private transient Set<String> propertyRemovals;
+
     public abstract Message copy();
     public abstract void clearBody() throws IOException;
     public abstract void storeContent();
@@ -159,7 +179,117 @@ public abstract class Message extends BaseCommand implements MarshallAware {
         properties = null;
     }
 
+    /**
+     * Releases this message's reference to the content and marshaled properties Buffers
+     * so that pooled Buffers can be recycled by the allocator that created them.  Once
+     * released the message no longer holds any content or marshaled properties, any
+     * properties that were already unmarshaled remain accessible.
+     */
+    public void release() {
+        materialize();
+        if (hasPropertyPatch()) {
+            try {
+                getProperties();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error during properties unmarshal, reason: " + e.getMessage(), e);
+            }
+        }
+
+        Buffer content = this.content;
+        Buffer marshalledProperties = this.marshalledProperties;
+
+        this.content = null;
+        this.compressed = false;
+        this.marshalledProperties = null;
+
+        if (content != null) {
+            content.release();
+        }
+        if (marshalledProperties != null) {
+            marshalledProperties.release();
+        }
+    }
+
+    /**
+     * Ensures that this message's content and marshaled properties no longer share the
+     * backing array of the frame they were unmarshaled from, copying them only when they
+     * are a view into a larger array.  Must be called before a message that was unmarshaled
+     * with zero copy unmarshaling enabled outlives the frame that it was decoded from.
+     */
+    public void detach() {
+        materialize();
+        content = detach(content);
+        marshalledProperties = detach(marshalledProperties);
+    }
+
+    private static Buffer detach(Buffer buffer) {
+        if (buffer == null || buffer.getAllocator() != null) {
+            return buffer;
+        }
+
+        if (buffer.offset == 0 && buffer.length == buffer.data.length) {
+            return buffer;
+        }
+
+        return new Buffer(Arrays.copyOfRange(buffer.data, buffer.offset, buffer.offset + buffer.length));
+    }
+
+    @Override
+    public void setLazyRemainder(LazyRemainder remainder) {
+        this.lazyRemainder = remainder;
+    }
+
+    /**
+     * @return true if this message was unmarshaled lazily and the fields that follow the
+     *         message header have not been decoded yet.
+     */
+    public boolean isHeaderOnly() {
+        return lazyRemainder != null;
+    }
+
+    /**
+     * Decodes the fields that follow the message header if this message was unmarshaled
+     * lazily, does nothing otherwise.  Accessing any of those fields decodes them implicitly,
+     * calling this method allows a decode failure to be handled as an IOException instead.
+     *
+     * @throws IOException if an error occurs while decoding the deferred fields.
+     */
+    public void unmarshalRemainder() throws IOException {
+        if (lazyRemainder != null) {
+            doUnmarshalRemainder();
+        }
+    }
+
+    /**
+     * Decodes the fields that follow the message header if they were deferred, must be called
+     * before any of those fields are read or written directly.
+     */
+    protected final void materialize() {
+        if (lazyRemainder != null) {
+            try {
+                doUnmarshalRemainder();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error during unmarshal of deferred message fields, reason: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private synchronized void doUnmarshalRemainder() throws IOException {
+        LazyRemainder remainder = lazyRemainder;
+        // The remainder is decoded through the setters which land back here.
+        if (remainder != null && !unmarshallingRemainder) {
+            unmarshallingRemainder = true;
+            try {
+                remainder.unmarshal(this);
+                lazyRemainder = null;
+            } finally {
+                unmarshallingRemainder = false;
+            }
+        }
+    }
+
     protected void copy(Message copy) {
+        materialize();
         super.copy(copy);
         copy.producerId = producerId;
         copy.transactionId = transactionId;
@@ -189,8 +319,10 @@ public abstract class Message extends BaseCommand implements MarshallAware {
             copy.properties = properties;
         }
 
-        copy.content = content;
-        copy.marshalledProperties = marshalledProperties;
+        copy.content = retain(content);
+        copy.marshalledProperties = retain(marshalledProperties);
+        copy.propertyUpdates = propertyUpdates != null ? new LinkedHashMap<String, Object>(propertyUpdates) : null;
+        copy.propertyRemovals = propertyRemovals != null ? new HashSet<String>(propertyRemovals) : null;
         copy.dataStructure = dataStructure;
         copy.compressed = compressed;
         copy.recievedByDFBridge = recievedByDFBridge;
@@ -204,32 +336,58 @@ public abstract class Message extends BaseCommand implements MarshallAware {
 
     @SuppressWarnings("unchecked")
     public Map<String, Object> getProperties() throws IOException {
+        materialize();
         if (properties == null) {
             if (marshalledProperties == null) {
                 return Collections.EMPTY_MAP;
             }
+            mergePropertyPatch();
             properties = unmarsallProperties(marshalledProperties);
         }
         return Collections.unmodifiableMap(properties);
     }
 
     public void clearProperties() throws IOException {
+        materialize();
         marshalledProperties = null;
         properties = null;
+        clearPropertyPatch();
     }
 
+    /**
+     * Returns the value of a single message property.  When the properties have not been
+     * unmarshaled yet only the requested value is decoded from the marshaled properties,
+     * the full property map is created once the properties are modified.
+     *
+     * @param name
+     *      the name of the property to return.
+     *
+     * @return the value of the named property or null if it is not set.
+     *
+     * @throws IOException if an error occurs while decoding the marshaled properties.
+     */
     public Object getProperty(String name) throws IOException {
+        materialize();
+        Object result;
         if (properties == null) {
             if (marshalledProperties == null) {
                 return null;
             }
+            if (propertyRemovals != null && propertyRemovals.contains(name)) {
+                return null;
+            }
+            if (propertyUpdates != null && propertyUpdates.containsKey(name)) {
+                return propertyUpdates.get(name);
+            }
             try {
-                properties = unmarsallProperties(marshalledProperties);
+                result = getPropertiesView().get(name);
             } catch (Exception e) {
                 throw IOExceptionSupport.create("Error during properties unmarshal, reason: " + e.getMessage(), e);
             }
+        } else {
+            result = properties.get(name);
         }
-        Object result = properties.get(name);
+
         if (result instanceof UTF8Buffer) {
             result = result.toString();
         }
@@ -237,22 +395,99 @@ public abstract class Message extends BaseCommand implements MarshallAware {
         return result;
     }
 
+    /**
+     * @param name
+     *      the name of the property to look for.
+     *
+     * @return true if the message has a property with the given name, even if its value is null.
+     *
+     * @throws IOException if an error occurs while decoding the marshaled properties.
+     */
+    public boolean containsProperty(String name) throws IOException {
+        materialize();
+        if (properties == null) {
+            if (marshalledProperties == null) {
+                return false;
+            }
+            if (propertyRemovals != null && propertyRemovals.contains(name)) {
+                return false;
+            }
+            if (propertyUpdates != null && propertyUpdates.containsKey(name)) {
+                return true;
+            }
+            try {
+                return getPropertiesView().containsKey(name);
+            } catch (Exception e) {
+                throw IOExceptionSupport.create("Error during properties unmarshal, reason: " + e.getMessage(), e);
+            }
+        }
+
+        return properties.containsKey(name);
+    }
+
+    /**
+     * Sets a message property.  When the properties are still marshaled the change is
+     * recorded and later spliced into the marshaled properties, so adding a property to
+     * a message that is being forwarded does not unmarshal and re-encode the others.
+     *
+     * @param name
+     *      the name of the property to set.
+     * @param value
+     *      the new value of the property.
+     *
+     * @throws IOException if an error occurs while unmarshaling the existing properties.
+     */
     public void setProperty(String name, Object value) throws IOException {
+        materialize();
+        if (properties == null && marshalledProperties != null) {
+            if (propertyRemovals != null) {
+                propertyRemovals.remove(name);
+            }
+            if (propertyUpdates == null) {
+                propertyUpdates = new LinkedHashMap<String, Object>();
+            }
+            propertyUpdates.put(name, value);
+            return;
+        }
+
         lazyCreateProperties();
         properties.put(name, value);
     }
 
+    /**
+     * Removes a message property, recording the removal when the properties are still
+     * marshaled in the same way as {@link #setProperty(String, Object)}.
+     *
+     * @param name
+     *      the name of the property to remove.
+     *
+     * @throws IOException if an error occurs while unmarshaling the existing properties.
+     */
     public void removeProperty(String name) throws IOException {
+        materialize();
+        if (properties == null && marshalledProperties != null) {
+            if (propertyUpdates != null) {
+                propertyUpdates.remove(name);
+            }
+            if (propertyRemovals == null) {
+                propertyRemovals = new HashSet<String>();
+            }
+            propertyRemovals.add(name);
+            return;
+        }
+
         lazyCreateProperties();
         properties.remove(name);
     }
 
     protected void lazyCreateProperties() throws IOException {
+        materialize();
         if (properties == null) {
             if (marshalledProperties == null) {
                 properties = new HashMap<String, Object>();
             } else {
                 try {
+                    mergePropertyPatch();
                     properties = unmarsallProperties(marshalledProperties);
                 } catch (Exception e) {
                     throw IOExceptionSupport.create(
@@ -265,12 +500,47 @@ public abstract class Message extends BaseCommand implements MarshallAware {
         }
     }
 
+    private PropertiesView getPropertiesView() {
+        // The view is tied to the Buffer it indexes, replacing, detaching or releasing the
+        // marshaled properties leaves a stale view that is discarded here.
+        PropertiesView view = propertiesView;
+        if (view == null || view.getBuffer() != marshalledProperties) {
+            view = new PropertiesView(marshalledProperties);
+            propertiesView = view;
+        }
+        return view;
+    }
+
+    private boolean hasPropertyPatch() {
+        return (propertyUpdates != null && !propertyUpdates.isEmpty()) ||
+               (propertyRemovals != null && !propertyRemovals.isEmpty());
+    }
+
+    private void clearPropertyPatch() {
+        propertyUpdates = null;
+        propertyRemovals = null;
+    }
+
+    /**
+     * Splices any recorded property changes into the marshaled properties.
+     */
+    private void mergePropertyPatch() throws IOException {
+        if (hasPropertyPatch()) {
+            if (marshalledProperties != null) {
+                marshalledProperties = getPropertiesView().merge(propertyUpdates, propertyRemovals);
+            }
+            clearPropertyPatch();
+        }
+    }
+
     private Map<String, Object> unmarsallProperties(Buffer marshalledProperties) throws IOException {
         return OpenWireMarshallingSupport.unmarshalPrimitiveMap(new DataInputStream(new DataByteArrayInputStream(marshalledProperties)));
     }
 
     @Override
     public void beforeMarshall(OpenWireFormat wireFormat) throws IOException {
+        materialize();
+        mergePropertyPatch();
         // Need to marshal the properties.
         if (marshalledProperties == null && properties != null) {
             DataByteArrayOutputStream baos = new DataByteArrayOutputStream();
@@ -439,10 +709,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public OpenWireDestination getReplyTo() {
+        materialize();
         return replyTo;
     }
 
     public void setReplyTo(OpenWireDestination replyTo) {
+        materialize();
         this.replyTo = replyTo;
     }
 
@@ -450,10 +722,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public long getTimestamp() {
+        materialize();
         return timestamp;
     }
 
     public void setTimestamp(long timestamp) {
+        materialize();
         this.timestamp = timestamp;
     }
 
@@ -461,10 +735,19 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public String getType() {
+        materialize();
         return type;
     }
 
+    private static Buffer retain(Buffer buffer) {
+        if (buffer != null && buffer.getAllocator() != null) {
+            buffer.retain();
+        }
+        return buffer;
+    }
+
     public void setType(String type) {
+        materialize();
         this.type = type;
     }
 
@@ -472,10 +755,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public Buffer getContent() {
+        materialize();
         return content;
     }
 
     public void setContent(Buffer content) {
+        materialize();
         this.content = content;
         if (content == null) {
             compressed = false;
@@ -486,21 +771,31 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public Buffer getMarshalledProperties() {
+        materialize();
+        try {
+            mergePropertyPatch();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error during properties marshal, reason: " + e.getMessage(), e);
+        }
         return marshalledProperties;
     }
 
     public void setMarshalledProperties(Buffer marshalledProperties) {
+        materialize();
         this.marshalledProperties = marshalledProperties;
+        clearPropertyPatch();
     }
 
     /**
      * @openwire:property version=1
      */
     public DataStructure getDataStructure() {
+        materialize();
         return dataStructure;
     }
 
     public void setDataStructure(DataStructure data) {
+        materialize();
         this.dataStructure = data;
     }
 
@@ -514,10 +809,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1 cache=true
      */
     public ConsumerId getTargetConsumerId() {
+        materialize();
         return targetConsumerId;
     }
 
     public void setTargetConsumerId(ConsumerId targetConsumerId) {
+        materialize();
         this.targetConsumerId = targetConsumerId;
     }
 
@@ -527,6 +824,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     }
 
     public boolean isAdvisory() {
+        materialize();
         return type != null && type.equals(ADIVSORY_MESSAGE_TYPE);
     }
 
@@ -534,14 +832,17 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public boolean isCompressed() {
+        materialize();
         return compressed;
     }
 
     public void setCompressed(boolean compressed) {
+        materialize();
         this.compressed = compressed;
     }
 
     public boolean isRedelivered() {
+        materialize();
         return redeliveryCounter > 0;
     }
 
@@ -561,10 +862,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public int getRedeliveryCounter() {
+        materialize();
         return redeliveryCounter;
     }
 
     public void setRedeliveryCounter(int deliveryCounter) {
+        materialize();
         this.redeliveryCounter = deliveryCounter;
     }
 
@@ -574,10 +877,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1 cache=true
      */
     public BrokerId[] getBrokerPath() {
+        materialize();
         return brokerPath;
     }
 
     public void setBrokerPath(BrokerId[] brokerPath) {
+        materialize();
         this.brokerPath = brokerPath;
     }
 
@@ -589,10 +894,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public long getArrival() {
+        materialize();
         return arrival;
     }
 
     public void setArrival(long arrival) {
+        materialize();
         this.arrival = arrival;
     }
 
@@ -604,10 +911,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=1
      */
     public String getUserId() {
+        materialize();
         return userId;
     }
 
     public void setUserId(String jmsxUserId) {
+        materialize();
         this.userId = jmsxUserId;
     }
 
@@ -617,6 +926,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     }
 
     public int getSize() {
+        materialize();
         int minimumMessageSize = DEFAULT_MINIMUM_MESSAGE_SIZE;
         if (size < minimumMessageSize || size == 0) {
             size = minimumMessageSize;
@@ -635,6 +945,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @return Returns the recievedByDFBridge.
      */
     public boolean isRecievedByDFBridge() {
+        materialize();
         return recievedByDFBridge;
     }
 
@@ -642,6 +953,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @param recievedByDFBridge The recievedByDFBridge to set.
      */
     public void setRecievedByDFBridge(boolean recievedByDFBridge) {
+        materialize();
         this.recievedByDFBridge = recievedByDFBridge;
     }
 
@@ -649,10 +961,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=2 cache=true
      */
     public boolean isDroppable() {
+        materialize();
         return droppable;
     }
 
     public void setDroppable(boolean droppable) {
+        materialize();
         this.droppable = droppable;
     }
 
@@ -663,10 +977,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=3 cache=true
      */
     public BrokerId[] getCluster() {
+        materialize();
         return cluster;
     }
 
     public void setCluster(BrokerId[] cluster) {
+        materialize();
         this.cluster = cluster;
     }
 
@@ -679,10 +995,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=3
      */
     public long getBrokerInTime() {
+        materialize();
         return this.brokerInTime;
     }
 
     public void setBrokerInTime(long brokerInTime) {
+        materialize();
         this.brokerInTime = brokerInTime;
     }
 
@@ -690,10 +1008,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=3
      */
     public long getBrokerOutTime() {
+        materialize();
         return this.brokerOutTime;
     }
 
     public void setBrokerOutTime(long brokerOutTime) {
+        materialize();
         this.brokerOutTime = brokerOutTime;
     }
 
@@ -701,10 +1021,12 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @openwire:property version=10
      */
     public boolean isJMSXGroupFirstForConsumer() {
+        materialize();
         return jmsXGroupFirstForConsumer;
     }
 
     public void setJMSXGroupFirstForConsumer(boolean val) {
+        materialize();
         jmsXGroupFirstForConsumer = val;
     }
 
@@ -734,6 +1056,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
      * @throws IOException if an error occurs during decompression of the message contents.
      */
     public Buffer decompress() throws IOException {
+        materialize();
         if (isCompressed()) {
             return doDecompress();
         } else {
@@ -742,6 +1065,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     }
 
     protected Buffer doDecompress() throws IOException {
+        materialize();
 
         // TODO
 
@@ -764,6 +1088,7 @@ public abstract class Message extends BaseCommand implements MarshallAware {
     }
 
     protected void doCompress() throws IOException {
+        materialize();
         compressed = true;
         Buffer bytes = getContent();
         DataByteArrayOutputStream bytesOut = new DataByteArrayOutputStream();
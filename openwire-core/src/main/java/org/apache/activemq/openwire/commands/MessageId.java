@@ -34,10 +34,10 @@ public class MessageId implements DataStructure, Comparable<MessageId> {
     @OpenWireProperty(version = 1, sequence = 2, cached = true)
     protected ProducerId producerId;
 
-    @OpenWireProperty(version = 1, sequence = 3)
+    @OpenWireProperty(version = 1, sequence = 3, deltaEncoded = true)
     protected long producerSequenceId;
 
-    @OpenWireProperty(version = 1, sequence = 4)
+    @OpenWireProperty(version = 1, sequence = 4, deltaEncoded = true)
     protected long brokerSequenceId;
 
     @OpenWireExtension
@@ -73,10 +73,12 @@ public class OpenWireBlobMessage extends OpenWireMessage {
      * @openwire:property version=3 cache=false
      */
     public String getRemoteBlobUrl() {
+        materialize();
         return remoteBlobUrl;
     }
 
     public void setRemoteBlobUrl(String remoteBlobUrl) {
+        materialize();
         this.remoteBlobUrl = remoteBlobUrl;
         url = null;
     }
@@ -88,6 +90,7 @@ public class OpenWireBlobMessage extends OpenWireMessage {
      */
     @Override
     public String getMimeType() {
+        materialize();
         if (mimeType == null) {
             return BINARY_MIME_TYPE;
         }
@@ -95,6 +98,7 @@ public class OpenWireBlobMessage extends OpenWireMessage {
     }
 
     public void setMimeType(String mimeType) {
+        materialize();
         this.mimeType = mimeType;
     }
 
@@ -114,14 +118,17 @@ public class OpenWireBlobMessage extends OpenWireMessage {
      * @openwire:property version=3 cache=false
      */
     public boolean isDeletedByBroker() {
+        materialize();
         return deletedByBroker;
     }
 
     public void setDeletedByBroker(boolean deletedByBroker) {
+        materialize();
         this.deletedByBroker = deletedByBroker;
     }
 
     public URL getURL() throws IOException {
+        materialize();
         if (url == null && remoteBlobUrl != null) {
             try {
                 url = new URL(remoteBlobUrl);
@@ -133,6 +140,7 @@ public class OpenWireBlobMessage extends OpenWireMessage {
     }
 
     public void setURL(URL url) {
+        materialize();
         this.url = url;
         remoteBlobUrl = url != null ? url.toExternalForm() : null;
     }
@@ -17,9 +17,6 @@
 package org.apache.activemq.openwire.commands;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.zip.Deflater;
-import java.util.zip.Inflater;
 
 import org.apache.activemq.openwire.annotations.OpenWireType;
 import org.apache.activemq.openwire.buffer.Buffer;
@@ -71,6 +68,7 @@ public class OpenWireBytesMessage extends OpenWireMessage {
      * @throws IOException if there is an error in retrieving the body length value.
      */
     public long getBodyLength() throws IOException {
+        materialize();
         if (compressed) {
             return getBodyBytes().length;
         } else if (content != null) {
@@ -141,53 +139,45 @@ public class OpenWireBytesMessage extends OpenWireMessage {
 
     @Override
     protected Buffer doDecompress() throws IOException {
-        Buffer compressed = getContent();
-        Inflater inflater = new Inflater();
-        DataByteArrayOutputStream decompressed = new DataByteArrayOutputStream();
-        try {
-            // Copy to avoid race on concurrent reads of compressed message payload.
-            compressed = new Buffer(compressed);
-            DataByteArrayInputStream compressedIn = new DataByteArrayInputStream(compressed);
-            int length = compressedIn.readInt();
-            compressedIn.close();
-            byte[] data = Arrays.copyOfRange(compressed.getData(), 4, compressed.getLength());
-            inflater.setInput(data);
-            byte[] buffer = new byte[length];
-            int count = inflater.inflate(buffer);
-            decompressed.write(buffer, 0, count);
-            return decompressed.toBuffer();
-        } catch (Exception e) {
-            throw new IOException(e);
-        } finally {
-            inflater.end();
-            decompressed.close();
+        // Copy to avoid race on concurrent reads of compressed message payload.
+        Buffer compressed = new Buffer(getContent());
+        if (compressed.getLength() < 4) {
+            throw new IOException("Compressed message body is missing its length prefix");
+        }
+
+        DataByteArrayInputStream compressedIn = new DataByteArrayInputStream(compressed);
+        int length = compressedIn.readInt();
+        compressedIn.close();
+
+        if (length < 0 || length > getMaxDecompressedSize()) {
+            throw new IOException("Compressed message body length " + length + " is invalid or exceeds the maximum size of " + getMaxDecompressedSize() + " bytes");
         }
+
+        // Bodies compressed by some clients inflate to more than the recorded length, the
+        // extra bytes are never produced.
+        Buffer decompressed = decompressPayload(new Buffer(compressed.getData(), compressed.getOffset() + 4, compressed.getLength() - 4), length);
+        if (decompressed.getLength() < length) {
+            throw new IOException("Decompressed message body length " + decompressed.getLength() + " is less than expected length " + length);
+        }
+
+        return decompressed;
     }
 
     @Override
     protected void doCompress() throws IOException {
-        compressed = true;
         Buffer bytes = getContent();
         if (bytes != null) {
-            int length = bytes.getLength();
-            DataByteArrayOutputStream compressed = new DataByteArrayOutputStream();
-            compressed.write(new byte[4]);
-            Deflater deflater = new Deflater();
+            Buffer body = compressPayload(bytes);
+            DataByteArrayOutputStream compressed = new DataByteArrayOutputStream(body.getLength() + 4);
             try {
-                deflater.setInput(bytes.data);
-                deflater.finish();
-                byte[] buffer = new byte[1024];
-                while (!deflater.finished()) {
-                    int count = deflater.deflate(buffer);
-                    compressed.write(buffer, 0, count);
-                }
-
-                compressed.writeInt(0, length);
+                compressed.writeInt(bytes.getLength());
+                compressed.write(body.getData(), body.getOffset(), body.getLength());
                 setContent(compressed.toBuffer());
             } finally {
-                deflater.end();
                 compressed.close();
             }
+        } else {
+            compressed = true;
         }
     }
 }
@@ -29,13 +29,15 @@ import java.util.StringTokenizer;
 import org.apache.activemq.openwire.annotations.OpenWireExtension;
 import org.apache.activemq.openwire.annotations.OpenWireProperty;
 import org.apache.activemq.openwire.annotations.OpenWireType;
+import org.apache.activemq.openwire.codec.TightMarshalMemo;
+import org.apache.activemq.openwire.codec.TightMarshalMemoAware;
 
 /**
  * Base Destination class used to provide most of the utilities necessary to deal
  * with incoming and outgoing destination processing.
  */
 @OpenWireType(typeCode = 0)
-public abstract class OpenWireDestination implements DataStructure, Comparable<OpenWireDestination> {
+public abstract class OpenWireDestination implements DataStructure, TightMarshalMemoAware, Comparable<OpenWireDestination> {
 
     public static final String PATH_SEPERATOR = ".";
     public static final char COMPOSITE_SEPERATOR = ',';
@@ -71,6 +73,9 @@ public abstract class OpenWireDestination implements DataStructure, Comparable<O
     @OpenWireExtension(serialized = true)
     protected Map<String, String> options;
 
+    @OpenWireExtension
+    protected transient TightMarshalMemo tightMarshalMemo;
+
     public OpenWireDestination() {
     }
 
@@ -146,6 +151,7 @@ public abstract class OpenWireDestination implements DataStructure, Comparable<O
         this.compositeDestinations = destinations;
         this.destinationPaths = null;
         this.hashValue = 0;
+        this.tightMarshalMemo = null;
         this.isPattern = false;
 
         StringBuffer sb = new StringBuffer();
@@ -218,6 +224,7 @@ public abstract class OpenWireDestination implements DataStructure, Comparable<O
         this.physicalName = physicalName;
         this.destinationPaths = null;
         this.hashValue = 0;
+        this.tightMarshalMemo = null;
         if (composite) {
             // Check to see if it is a composite.
             Set<String> l = new HashSet<String>();
@@ -323,6 +330,16 @@ public abstract class OpenWireDestination implements DataStructure, Comparable<O
         return options;
     }
 
+    @Override
+    public TightMarshalMemo getTightMarshalMemo() {
+        return tightMarshalMemo;
+    }
+
+    @Override
+    public void setTightMarshalMemo(TightMarshalMemo memo) {
+        this.tightMarshalMemo = memo;
+    }
+
     @Override
     public boolean isMarshallAware() {
         return false;
@@ -21,13 +21,10 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectStreamException;
-import java.io.OutputStream;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterInputStream;
 
 import org.apache.activemq.openwire.annotations.OpenWireExtension;
 import org.apache.activemq.openwire.annotations.OpenWireType;
@@ -72,8 +69,9 @@ public class OpenWireMapMessage extends OpenWireMessage {
     // We only need to marshal the content if we are hitting the wire.
     @Override
     public void beforeMarshall(OpenWireFormat wireFormat) throws IOException {
-        super.beforeMarshall(wireFormat);
+        // Store first so a codec property set during compression is marshalled with the others.
         storeContent();
+        super.beforeMarshall(wireFormat);
     }
 
     @Override
@@ -93,15 +91,14 @@ public class OpenWireMapMessage extends OpenWireMessage {
         try {
             if (getContent() == null && !map.isEmpty()) {
                 DataByteArrayOutputStream bytesOut = new DataByteArrayOutputStream();
-                OutputStream os = bytesOut;
-                if (isUseCompression()) {
-                    compressed = true;
-                    os = new DeflaterOutputStream(os);
-                }
-                DataOutputStream dataOut = new DataOutputStream(os);
+                DataOutputStream dataOut = new DataOutputStream(bytesOut);
                 OpenWireMarshallingSupport.marshalPrimitiveMap(map, dataOut);
                 dataOut.close();
-                setContent(bytesOut.toBuffer());
+                Buffer body = bytesOut.toBuffer();
+                if (isCompressionRequired(body)) {
+                    body = compressPayload(body);
+                }
+                setContent(body);
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -117,10 +114,10 @@ public class OpenWireMapMessage extends OpenWireMessage {
         try {
             if (getContent() != null && map.isEmpty()) {
                 Buffer content = getContent();
-                InputStream is = new DataByteArrayInputStream(content);
                 if (isCompressed()) {
-                    is = new InflaterInputStream(is);
+                    content = decompressPayload(content);
                 }
+                InputStream is = new DataByteArrayInputStream(content);
                 DataInputStream dataIn = new DataInputStream(is);
                 map = OpenWireMarshallingSupport.unmarshalPrimitiveMap(dataIn);
                 dataIn.close();
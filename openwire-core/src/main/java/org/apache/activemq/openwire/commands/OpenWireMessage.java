@@ -18,7 +18,9 @@ package org.apache.activemq.openwire.commands;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
@@ -27,6 +29,8 @@ import org.apache.activemq.openwire.annotations.OpenWireExtension;
 import org.apache.activemq.openwire.annotations.OpenWireType;
 import org.apache.activemq.openwire.buffer.Buffer;
 import org.apache.activemq.openwire.buffer.UTF8Buffer;
+import org.apache.activemq.openwire.compression.CompressionCodec;
+import org.apache.activemq.openwire.compression.CompressionCodecs;
 import org.apache.activemq.openwire.utils.IOExceptionSupport;
 
 /**
@@ -39,9 +43,23 @@ public class OpenWireMessage extends Message {
 
     public static final byte DATA_STRUCTURE_TYPE = CommandTypes.OPENWIRE_MESSAGE;
 
+    /**
+     * Default limit on the size of a decompressed payload, 64 MB.
+     */
+    public static final int DEFAULT_MAX_DECOMPRESSED_SIZE = 64 * 1024 * 1024;
+
     @OpenWireExtension
     protected transient boolean useCompression;
 
+    @OpenWireExtension
+    protected transient CompressionCodec compressionCodec = CompressionCodecs.DEFLATE;
+
+    @OpenWireExtension
+    protected transient int compressionThreshold;
+
+    @OpenWireExtension
+    protected transient int maxDecompressedSize = DEFAULT_MAX_DECOMPRESSED_SIZE;
+
     @OpenWireExtension
     protected transient boolean nestedMapAndListAllowed;
 
@@ -66,6 +84,9 @@ public class OpenWireMessage extends Message {
 
     protected void copy(OpenWireMessage copy) {
         copy.useCompression = useCompression;
+        copy.compressionCodec = compressionCodec;
+        copy.compressionThreshold = compressionThreshold;
+        copy.maxDecompressedSize = maxDecompressedSize;
         copy.nestedMapAndListAllowed = nestedMapAndListAllowed;
 
         super.copy(copy);
@@ -185,7 +206,7 @@ public class OpenWireMessage extends Message {
     public void setPayload(Buffer buffer) throws IOException {
         try {
             setContent(buffer);
-            if (isUseCompression()) {
+            if (isCompressionRequired(buffer)) {
                 doCompress();
             }
         } catch (Exception ex) {
@@ -240,7 +261,7 @@ public class OpenWireMessage extends Message {
 
     public boolean propertyExists(String name) throws IOException {
         try {
-            return (this.getProperties().containsKey(name) || getProperty(name)!= null);
+            return containsProperty(name);
         } catch (Exception e) {
             throw IOExceptionSupport.create(e);
         }
@@ -256,6 +277,51 @@ public class OpenWireMessage extends Message {
         }
     }
 
+    /**
+     * Returns the application visible properties, the compression codec property that
+     * is carried for the payload is not included.
+     */
+    @Override
+    public Map<String, Object> getProperties() throws IOException {
+        Map<String, Object> properties = super.getProperties();
+        if (!properties.containsKey(CompressionCodecs.CODEC_PROPERTY)) {
+            return properties;
+        }
+
+        Map<String, Object> filtered = new HashMap<String, Object>(properties);
+        filtered.remove(CompressionCodecs.CODEC_PROPERTY);
+        return Collections.unmodifiableMap(filtered);
+    }
+
+    @Override
+    public Object getProperty(String name) throws IOException {
+        if (CompressionCodecs.CODEC_PROPERTY.equals(name)) {
+            return null;
+        }
+        return super.getProperty(name);
+    }
+
+    @Override
+    public boolean containsProperty(String name) throws IOException {
+        if (CompressionCodecs.CODEC_PROPERTY.equals(name)) {
+            return false;
+        }
+        return super.containsProperty(name);
+    }
+
+    /**
+     * Clears the application properties, the compression codec property is kept so that
+     * a compressed payload can still be read.
+     */
+    @Override
+    public void clearProperties() throws IOException {
+        Object codecId = super.getProperty(CompressionCodecs.CODEC_PROPERTY);
+        super.clearProperties();
+        if (codecId != null) {
+            super.setProperty(CompressionCodecs.CODEC_PROPERTY, codecId);
+        }
+    }
+
     @Override
     public void setProperty(String name, Object value) throws IOException {
         setProperty(name, value, true);
@@ -290,7 +356,8 @@ public class OpenWireMessage extends Message {
      * @param value
      *        the new value to assigned to the named property.
      * @param checkValid
-     *        indicates if a type validity check should be performed on the given object.
+     *        indicates if a type validity check should be performed on the given object,
+     *        and if reserved property names are rejected.
      *
      * @throws IOException if an error occurs while attempting to set the property value.
      */
@@ -299,6 +366,10 @@ public class OpenWireMessage extends Message {
             throw new IllegalArgumentException("Property name cannot be empty or null");
         }
 
+        if (checkValid && CompressionCodecs.CODEC_PROPERTY.equals(name)) {
+            throw new IllegalArgumentException("Property name " + name + " is reserved");
+        }
+
         if (value instanceof UTF8Buffer) {
             value = value.toString();
         }
@@ -346,6 +417,169 @@ public class OpenWireMessage extends Message {
         return useCompression;
     }
 
+    /**
+     * @return the codec used to compress the payload of this Message.
+     */
+    public CompressionCodec getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    /**
+     * Sets the codec used when the payload of this Message is compressed, a received
+     * Message is always decompressed with the codec it was compressed with.
+     *
+     * @param compressionCodec
+     *        the codec to use, or null to use the default deflate codec.
+     */
+    public void setCompressionCodec(CompressionCodec compressionCodec) {
+        this.compressionCodec = compressionCodec != null ? compressionCodec : CompressionCodecs.DEFLATE;
+    }
+
+    /**
+     * @return the payload size in bytes below which the payload is not compressed.
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Sets the smallest payload that is compressed when compression is enabled, small
+     * payloads rarely shrink enough to pay for the time spent compressing them.
+     *
+     * @param compressionThreshold
+     *        the minimum payload size in bytes to compress, zero compresses every payload.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * @return the largest payload size in bytes that a compressed payload may expand to.
+     */
+    public int getMaxDecompressedSize() {
+        return maxDecompressedSize;
+    }
+
+    /**
+     * Sets the largest size a compressed payload may expand to, reading a payload that
+     * expands to more fails instead of allocating the whole expanded payload.
+     *
+     * @param maxDecompressedSize
+     *        the maximum decompressed payload size in bytes.
+     */
+    public void setMaxDecompressedSize(int maxDecompressedSize) {
+        this.maxDecompressedSize = maxDecompressedSize;
+    }
+
+    /**
+     * @param payload
+     *        the uncompressed payload that is about to be stored.
+     *
+     * @return true if compression is enabled and the payload is large enough to compress.
+     */
+    protected boolean isCompressionRequired(Buffer payload) {
+        return useCompression && payload != null && payload.getLength() >= compressionThreshold;
+    }
+
+    /**
+     * Compresses the given payload with the configured codec, marks the Message as
+     * compressed and records the codec in the Message properties.
+     *
+     * @param payload
+     *        the uncompressed payload.
+     *
+     * @return the compressed payload.
+     *
+     * @throws IOException if an error occurs while compressing the payload.
+     */
+    protected Buffer compressPayload(Buffer payload) throws IOException {
+        CompressionCodec codec = compressionCodec;
+        if (codec.getId() != CompressionCodecs.DEFLATE.getId()) {
+            super.setProperty(CompressionCodecs.CODEC_PROPERTY, codec.getId());
+        } else if (super.getProperty(CompressionCodecs.CODEC_PROPERTY) != null) {
+            super.removeProperty(CompressionCodecs.CODEC_PROPERTY);
+        }
+
+        compressed = true;
+        return codec.compress(payload);
+    }
+
+    /**
+     * Decompresses the given payload with the codec recorded in the Message properties,
+     * deflate when none was recorded.
+     *
+     * @param payload
+     *        the compressed payload.
+     *
+     * @return the uncompressed payload.
+     *
+     * @throws IOException if the codec is unknown, the payload cannot be decompressed or
+     *         it expands to more than the maximum decompressed size.
+     */
+    protected Buffer decompressPayload(Buffer payload) throws IOException {
+        int limit = maxDecompressedSize < Integer.MAX_VALUE ? maxDecompressedSize + 1 : maxDecompressedSize;
+        Buffer decompressed = decompressPayload(payload, limit);
+        if (decompressed.getLength() > maxDecompressedSize) {
+            throw new IOException("Decompressed message body exceeds the maximum size of " + maxDecompressedSize + " bytes");
+        }
+
+        return decompressed;
+    }
+
+    /**
+     * Decompresses the given payload with the codec recorded in the Message properties,
+     * producing no more than the given number of bytes.
+     *
+     * @param payload
+     *        the compressed payload.
+     * @param maxLength
+     *        the maximum number of decompressed bytes to produce.
+     *
+     * @return the uncompressed payload, cut short at maxLength bytes.
+     *
+     * @throws IOException if the codec is unknown or the payload cannot be decompressed.
+     */
+    protected Buffer decompressPayload(Buffer payload, int maxLength) throws IOException {
+        return lookupPayloadCompressionCodec().decompress(payload, maxLength);
+    }
+
+    /**
+     * @return the codec that the payload of this Message was compressed with, or null if
+     *         the payload is not compressed.
+     *
+     * @throws IOException if the Message records a codec id that is unknown.
+     */
+    public CompressionCodec getPayloadCompressionCodec() throws IOException {
+        return isCompressed() ? lookupPayloadCompressionCodec() : null;
+    }
+
+    private CompressionCodec lookupPayloadCompressionCodec() throws IOException {
+        Object id = super.getProperty(CompressionCodecs.CODEC_PROPERTY);
+        if (id == null) {
+            return CompressionCodecs.DEFLATE;
+        }
+        if (!(id instanceof Byte)) {
+            throw new IOException("Invalid compression codec id: " + id);
+        }
+
+        CompressionCodec codec = CompressionCodecs.lookup((Byte) id);
+        if (codec == null) {
+            throw new IOException("No compression codec registered with id: " + id);
+        }
+
+        return codec;
+    }
+
+    @Override
+    protected Buffer doDecompress() throws IOException {
+        return decompressPayload(getContent());
+    }
+
+    @Override
+    protected void doCompress() throws IOException {
+        setContent(compressPayload(getContent()));
+    }
+
     @Override
     public Response visit(CommandVisitor visitor) throws Exception {
         return visitor.processMessage(this);
@@ -21,10 +21,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.io.Serializable;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterInputStream;
 
 import org.apache.activemq.openwire.annotations.OpenWireExtension;
 import org.apache.activemq.openwire.annotations.OpenWireType;
@@ -72,18 +69,17 @@ public class OpenWireObjectMessage extends OpenWireMessage {
         if (bodyAsBytes == null && object != null) {
             try {
                 DataByteArrayOutputStream bytesOut = new DataByteArrayOutputStream();
-                OutputStream os = bytesOut;
-                if (isUseCompression()) {
-                    compressed = true;
-                    os = new DeflaterOutputStream(os);
-                }
-                DataOutputStream dataOut = new DataOutputStream(os);
+                DataOutputStream dataOut = new DataOutputStream(bytesOut);
                 ObjectOutputStream objOut = new ObjectOutputStream(dataOut);
                 objOut.writeObject(object);
                 objOut.flush();
                 objOut.reset();
                 objOut.close();
-                setContent(bytesOut.toBuffer());
+                Buffer body = bytesOut.toBuffer();
+                if (isCompressionRequired(body)) {
+                    body = compressPayload(body);
+                }
+                setContent(body);
             } catch (IOException ioe) {
                 throw new RuntimeException(ioe.getMessage(), ioe);
             }
@@ -147,10 +143,10 @@ public class OpenWireObjectMessage extends OpenWireMessage {
         if (object == null && getContent() != null) {
             try {
                 Buffer content = getContent();
-                InputStream is = new DataByteArrayInputStream(content);
                 if (isCompressed()) {
-                    is = new InflaterInputStream(is);
+                    content = decompressPayload(content);
                 }
+                InputStream is = new DataByteArrayInputStream(content);
                 DataInputStream dataIn = new DataInputStream(is);
                 ObjectMessageInputStream objIn = new ObjectMessageInputStream(dataIn);
                 try {
@@ -170,8 +166,9 @@ public class OpenWireObjectMessage extends OpenWireMessage {
 
     @Override
     public void beforeMarshall(OpenWireFormat wireFormat) throws IOException {
-        super.beforeMarshall(wireFormat);
+        // Store first so a codec property set during compression is marshalled with the others.
         storeContent();
+        super.beforeMarshall(wireFormat);
     }
 
     @Override
@@ -100,8 +100,9 @@ public class OpenWireTextMessage extends OpenWireMessage {
 
     @Override
     public void beforeMarshall(OpenWireFormat wireFormat) throws IOException {
-        super.beforeMarshall(wireFormat);
+        // Store first so a codec property set during compression is marshalled with the others.
         storeContent();
+        super.beforeMarshall(wireFormat);
     }
 
     @Override
@@ -152,6 +153,7 @@ public class OpenWireTextMessage extends OpenWireMessage {
 
     @Override
     public int getSize() {
+        materialize();
         if (size == 0 && content == null && text != null) {
             size = DEFAULT_MINIMUM_MESSAGE_SIZE;
             if (marshalledProperties != null) {
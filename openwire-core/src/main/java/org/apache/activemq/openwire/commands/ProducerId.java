@@ -19,13 +19,15 @@ package org.apache.activemq.openwire.commands;
 import org.apache.activemq.openwire.annotations.OpenWireType;
 import org.apache.activemq.openwire.annotations.OpenWireExtension;
 import org.apache.activemq.openwire.annotations.OpenWireProperty;
+import org.apache.activemq.openwire.codec.TightMarshalMemo;
+import org.apache.activemq.openwire.codec.TightMarshalMemoAware;
 
 /**
  * @openwire:marshaller code="123"
  *
  */
 @OpenWireType(typeCode = 123)
-public class ProducerId implements DataStructure {
+public class ProducerId implements DataStructure, TightMarshalMemoAware {
 
     public static final byte DATA_STRUCTURE_TYPE = CommandTypes.PRODUCER_ID;
 
@@ -47,6 +49,9 @@ public class ProducerId implements DataStructure {
     @OpenWireExtension
     protected transient SessionId parentId;
 
+    @OpenWireExtension
+    protected transient TightMarshalMemo tightMarshalMemo;
+
     public ProducerId() {
     }
 
@@ -135,6 +140,7 @@ public class ProducerId implements DataStructure {
 
     public void setConnectionId(String connectionId) {
         this.connectionId = connectionId;
+        this.tightMarshalMemo = null;
     }
 
     /**
@@ -146,6 +152,7 @@ public class ProducerId implements DataStructure {
 
     public void setValue(long producerId) {
         this.value = producerId;
+        this.tightMarshalMemo = null;
     }
 
     /**
@@ -157,6 +164,17 @@ public class ProducerId implements DataStructure {
 
     public void setSessionId(long sessionId) {
         this.sessionId = sessionId;
+        this.tightMarshalMemo = null;
+    }
+
+    @Override
+    public TightMarshalMemo getTightMarshalMemo() {
+        return tightMarshalMemo;
+    }
+
+    @Override
+    public void setTightMarshalMemo(TightMarshalMemo memo) {
+        this.tightMarshalMemo = memo;
     }
 
     @Override
@@ -19,12 +19,14 @@ package org.apache.activemq.openwire.commands;
 import org.apache.activemq.openwire.annotations.OpenWireType;
 import org.apache.activemq.openwire.annotations.OpenWireExtension;
 import org.apache.activemq.openwire.annotations.OpenWireProperty;
+import org.apache.activemq.openwire.codec.TightMarshalMemo;
+import org.apache.activemq.openwire.codec.TightMarshalMemoAware;
 
 /**
  * @openwire:marshaller code="121"
  */
 @OpenWireType(typeCode = 121)
-public class SessionId implements DataStructure {
+public class SessionId implements DataStructure, TightMarshalMemoAware {
 
     public static final byte DATA_STRUCTURE_TYPE = CommandTypes.SESSION_ID;
 
@@ -43,6 +45,9 @@ public class SessionId implements DataStructure {
     @OpenWireExtension
     protected transient ConnectionId parentId;
 
+    @OpenWireExtension
+    protected transient TightMarshalMemo tightMarshalMemo;
+
     public SessionId() {
     }
 
@@ -107,6 +112,7 @@ public class SessionId implements DataStructure {
 
     public void setConnectionId(String connectionId) {
         this.connectionId = connectionId;
+        this.tightMarshalMemo = null;
     }
 
     /**
@@ -118,6 +124,7 @@ public class SessionId implements DataStructure {
 
     public void setValue(long sessionId) {
         this.value = sessionId;
+        this.tightMarshalMemo = null;
     }
 
     @Override
@@ -128,6 +135,16 @@ public class SessionId implements DataStructure {
         return key;
     }
 
+    @Override
+    public TightMarshalMemo getTightMarshalMemo() {
+        return tightMarshalMemo;
+    }
+
+    @Override
+    public void setTightMarshalMemo(TightMarshalMemo memo) {
+        this.tightMarshalMemo = memo;
+    }
+
     @Override
     public boolean isMarshallAware() {
         return false;
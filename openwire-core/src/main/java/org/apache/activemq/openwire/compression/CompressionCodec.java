@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.compression;
+
+import java.io.IOException;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+
+/**
+ * Compresses and decompresses message bodies.
+ * <p>
+ * A single codec instance is shared by every message that uses it so implementations must
+ * be thread safe.  Each codec has an id that is sent along with a compressed message so
+ * that the receiver can select the matching codec, codecs are registered by id with
+ * {@link CompressionCodecs}.
+ */
+public interface CompressionCodec {
+
+    /**
+     * @return the id that identifies this codec on the wire.
+     */
+    byte getId();
+
+    /**
+     * @return a descriptive name for this codec.
+     */
+    String getName();
+
+    /**
+     * Compresses the given data.
+     *
+     * @param data
+     *      the bytes to compress, the buffer is not modified.
+     *
+     * @return a Buffer holding the compressed form of the data.
+     *
+     * @throws IOException if an error occurs while compressing.
+     */
+    Buffer compress(Buffer data) throws IOException;
+
+    /**
+     * Decompresses data that was produced by {@link #compress(Buffer)}.
+     *
+     * @param data
+     *      the compressed bytes, the buffer is not modified.
+     *
+     * @return a Buffer holding the original data.
+     *
+     * @throws IOException if the data is not valid for this codec.
+     */
+    Buffer decompress(Buffer data) throws IOException;
+
+    /**
+     * Decompresses data that was produced by {@link #compress(Buffer)}, stopping once the given
+     * number of bytes have been produced so that a small input cannot expand without bound.
+     *
+     * @param data
+     *      the compressed bytes, the buffer is not modified.
+     * @param maxLength
+     *      the largest number of bytes to produce, data that expands to more is cut short.
+     *
+     * @return a Buffer holding at most maxLength bytes of the original data.
+     *
+     * @throws IOException if the data is not valid for this codec.
+     */
+    Buffer decompress(Buffer data, int maxLength) throws IOException;
+}
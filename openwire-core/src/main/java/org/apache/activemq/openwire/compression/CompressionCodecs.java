@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.compression;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Registry of the known {@link CompressionCodec} implementations.
+ * <p>
+ * Deflate is the default codec and the only one understood by other ActiveMQ clients, a
+ * message compressed with deflate is sent exactly as before.  Messages compressed with any
+ * other codec carry the codec id in the {@link #CODEC_PROPERTY} message property, a
+ * receiver must have a codec registered with that id to read the message body.
+ */
+public final class CompressionCodecs {
+
+    /**
+     * Message property that holds the id of the codec used to compress the message body,
+     * the name uses the JMS provider reserved prefix and is hidden from applications.
+     */
+    public static final String CODEC_PROPERTY = "JMS_AMQ_OpenWireCompressionCodec";
+
+    public static final CompressionCodec DEFLATE = new DeflateCompressionCodec();
+    public static final CompressionCodec LZ4 = new Lz4CompressionCodec();
+    public static final CompressionCodec NONE = new NoopCompressionCodec();
+
+    private static final AtomicReferenceArray<CompressionCodec> CODECS = new AtomicReferenceArray<>(256);
+
+    static {
+        register(DEFLATE);
+        register(LZ4);
+        register(NONE);
+    }
+
+    private CompressionCodecs() {
+    }
+
+    /**
+     * Registers a codec so that messages compressed with it can be decompressed.
+     *
+     * @param codec
+     *      the codec to register.
+     *
+     * @throws IllegalArgumentException if another codec is registered with the same id.
+     */
+    public static void register(CompressionCodec codec) {
+        if (!CODECS.compareAndSet(codec.getId() & 0xFF, null, codec)) {
+            CompressionCodec existing = CODECS.get(codec.getId() & 0xFF);
+            if (existing != codec) {
+                throw new IllegalArgumentException(
+                    "Codec id " + codec.getId() + " of " + codec.getName() + " is already used by " + existing.getName());
+            }
+        }
+    }
+
+    /**
+     * @param id
+     *      the id of the codec to find.
+     *
+     * @return the codec registered with the given id, or null if there is none.
+     */
+    public static CompressionCodec lookup(byte id) {
+        return CODECS.get(id & 0xFF);
+    }
+}
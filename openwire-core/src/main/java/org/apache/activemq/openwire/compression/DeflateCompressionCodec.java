@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.compression;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+
+/**
+ * Compresses using the zlib format of {@link Deflater}, which is what ActiveMQ clients use.
+ * <p>
+ * Creating a Deflater or Inflater allocates native zlib state, so instances are reset and
+ * kept in a small pool rather than being created and ended for every message.
+ */
+public final class DeflateCompressionCodec implements CompressionCodec {
+
+    public static final byte ID = 0;
+
+    private static final int MAX_POOLED = 16;
+    private static final int MIN_OUTPUT_SIZE = 64;
+    private static final int MAX_OUTPUT_GUESS = 64 * 1024 * 1024;
+
+    private final int level;
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(MAX_POOLED);
+    private final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    public DeflateCompressionCodec() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param level
+     *      the Deflater compression level, from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public DeflateCompressionCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "deflate";
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public Buffer compress(Buffer data) throws IOException {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level);
+        }
+
+        try {
+            deflater.setInput(data.getData(), data.getOffset(), data.getLength());
+            deflater.finish();
+
+            byte[] output = new byte[Math.max(MIN_OUTPUT_SIZE, data.getLength() / 2)];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                size += deflater.deflate(output, size, output.length - size);
+            }
+
+            return new Buffer(output, 0, size);
+        } finally {
+            deflater.reset();
+            if (!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    @Override
+    public Buffer decompress(Buffer data) throws IOException {
+        return decompress(data, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Buffer decompress(Buffer data, int maxLength) throws IOException {
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+
+        try {
+            inflater.setInput(data.getData(), data.getOffset(), data.getLength());
+
+            long guess = Math.max(MIN_OUTPUT_SIZE, Math.min(MAX_OUTPUT_GUESS, data.getLength() * 4L));
+            byte[] output = new byte[(int) Math.min(maxLength, guess)];
+            int size = 0;
+            while (!inflater.finished() && size < maxLength) {
+                if (size == output.length) {
+                    output = Arrays.copyOf(output, (int) Math.min(maxLength, output.length * 2L));
+                }
+
+                int count = inflater.inflate(output, size, output.length - size);
+                if (count == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Deflate compressed data is truncated");
+                }
+                size += count;
+            }
+
+            return new Buffer(output, 0, size);
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid deflate compressed data: " + e.getMessage(), e);
+        } finally {
+            inflater.reset();
+            if (!inflaters.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+}
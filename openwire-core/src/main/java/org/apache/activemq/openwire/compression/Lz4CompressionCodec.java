@@ -0,0 +1,288 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.compression;
+
+import java.io.IOException;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+
+/**
+ * A pure Java codec that writes the LZ4 block format, trading compression ratio for speed.
+ * <p>
+ * The compressed form is the big endian length of the original data followed by a single
+ * LZ4 block.  Matches are found with a hash table of recently seen 4 byte sequences, the
+ * table is kept per thread and is not cleared between calls since every candidate match
+ * is verified against the input before it is used.
+ */
+public final class Lz4CompressionCodec implements CompressionCodec {
+
+    public static final byte ID = 2;
+
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int HASH_LOG = 12;
+
+    // The last match must start at least 12 bytes before the end of the input and the
+    // last 5 bytes are always literals.
+    private static final int MF_LIMIT = 12;
+    private static final int LAST_LITERALS = 5;
+
+    // Skips ahead faster the longer no match has been found, as LZ4 does for incompressible data.
+    private static final int SKIP_TRIGGER = 6;
+
+    private static final ThreadLocal<int[]> HASH_TABLES = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "lz4";
+    }
+
+    @Override
+    public Buffer compress(Buffer data) {
+        final byte[] src = data.getData();
+        final int offset = data.getOffset();
+        final int length = data.getLength();
+        final int end = offset + length;
+
+        final byte[] dst = new byte[4 + length + length / 255 + 16];
+        writeInt(dst, 0, length);
+        int dp = 4;
+
+        int anchor = offset;
+        if (length > MF_LIMIT) {
+            final int[] table = HASH_TABLES.get();
+            final int matchLimit = end - MF_LIMIT;
+            final int copyLimit = end - LAST_LITERALS;
+
+            int i = offset;
+            while (i < matchLimit) {
+                final int sequence = readInt(src, i);
+                final int hash = hash(sequence);
+                int ref = table[hash];
+                table[hash] = i;
+
+                if (ref < offset || ref >= i || i - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    i += 1 + ((i - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+
+                while (i > anchor && ref > offset && src[i - 1] == src[ref - 1]) {
+                    i--;
+                    ref--;
+                }
+
+                int matchLength = MIN_MATCH;
+                while (i + matchLength < copyLimit && src[i + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+
+                dp = writeSequence(src, anchor, i - anchor, i - ref, matchLength, dst, dp);
+                i += matchLength;
+                anchor = i;
+
+                if (i < matchLimit) {
+                    table[hash(readInt(src, i - 2))] = i - 2;
+                }
+            }
+        }
+
+        dp = writeLastLiterals(src, anchor, end - anchor, dst, dp);
+        return new Buffer(dst, 0, dp);
+    }
+
+    @Override
+    public Buffer decompress(Buffer data) throws IOException {
+        return decompress(data, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Buffer decompress(Buffer data, int maxLength) throws IOException {
+        final byte[] src = data.getData();
+        final int end = data.getOffset() + data.getLength();
+        int sp = data.getOffset();
+
+        if (data.getLength() < 5) {
+            throw new IOException("LZ4 compressed data is truncated");
+        }
+
+        final int size = readInt(src, sp);
+        sp += 4;
+        // Each compressed byte can expand to at most 255 bytes, reject lengths that no valid
+        // block could produce before allocating the output.
+        if (size < 0 || size > (end - sp) * 255L) {
+            throw new IOException("Invalid LZ4 uncompressed length: " + size);
+        }
+
+        // Only the first limit bytes are kept, decoding stops once they have been produced
+        final int limit = Math.min(size, maxLength);
+        final byte[] dst = new byte[limit];
+        int dp = 0;
+
+        while (true) {
+            if (sp >= end) {
+                throw new IOException("LZ4 compressed data is truncated");
+            }
+
+            final int token = src[sp++] & 0xFF;
+
+            int literals = token >>> 4;
+            if (literals == 15) {
+                int value;
+                do {
+                    if (sp >= end) {
+                        throw new IOException("LZ4 compressed data is truncated");
+                    }
+                    value = src[sp++] & 0xFF;
+                    literals += value;
+                } while (value == 255);
+            }
+
+            if (literals < 0 || literals > end - sp || literals > size - dp) {
+                throw new IOException("Invalid LZ4 literal length: " + literals);
+            }
+            System.arraycopy(src, sp, dst, dp, Math.min(literals, limit - dp));
+            sp += literals;
+            dp += literals;
+            if (dp >= limit && limit < size) {
+                break;
+            }
+
+            if (sp == end) {
+                break;
+            }
+
+            if (end - sp < 2) {
+                throw new IOException("LZ4 compressed data is truncated");
+            }
+            final int distance = (src[sp] & 0xFF) | ((src[sp + 1] & 0xFF) << 8);
+            sp += 2;
+            if (distance == 0 || distance > dp) {
+                throw new IOException("Invalid LZ4 match offset: " + distance);
+            }
+
+            int matchLength = token & 0x0F;
+            if (matchLength == 15) {
+                int value;
+                do {
+                    if (sp >= end) {
+                        throw new IOException("LZ4 compressed data is truncated");
+                    }
+                    value = src[sp++] & 0xFF;
+                    matchLength += value;
+                } while (value == 255);
+            }
+            matchLength += MIN_MATCH;
+
+            if (matchLength < 0 || matchLength > size - dp) {
+                throw new IOException("Invalid LZ4 match length: " + matchLength);
+            }
+
+            final int ref = dp - distance;
+            final int copy = Math.min(matchLength, limit - dp);
+            if (distance >= copy) {
+                System.arraycopy(dst, ref, dst, dp, copy);
+            } else {
+                // Overlapping match, repeats the last distance bytes.
+                for (int i = 0; i < copy; ++i) {
+                    dst[dp + i] = dst[ref + i];
+                }
+            }
+            dp += matchLength;
+            if (dp >= limit && limit < size) {
+                break;
+            }
+        }
+
+        if (limit < size) {
+            return new Buffer(dst, 0, limit);
+        }
+        if (dp != size) {
+            throw new IOException("LZ4 data decompressed to " + dp + " bytes, expected " + size);
+        }
+
+        return new Buffer(dst, 0, size);
+    }
+
+    private static int writeSequence(byte[] src, int anchor, int literals, int distance, int matchLength, byte[] dst, int dp) {
+        final int token = dp++;
+
+        if (literals >= 15) {
+            dst[token] = (byte) (15 << 4);
+            dp = writeLength(literals - 15, dst, dp);
+        } else {
+            dst[token] = (byte) (literals << 4);
+        }
+
+        System.arraycopy(src, anchor, dst, dp, literals);
+        dp += literals;
+
+        dst[dp++] = (byte) distance;
+        dst[dp++] = (byte) (distance >>> 8);
+
+        final int remaining = matchLength - MIN_MATCH;
+        if (remaining >= 15) {
+            dst[token] |= 15;
+            dp = writeLength(remaining - 15, dst, dp);
+        } else {
+            dst[token] |= (byte) remaining;
+        }
+
+        return dp;
+    }
+
+    private static int writeLastLiterals(byte[] src, int anchor, int literals, byte[] dst, int dp) {
+        if (literals >= 15) {
+            dst[dp++] = (byte) (15 << 4);
+            dp = writeLength(literals - 15, dst, dp);
+        } else {
+            dst[dp++] = (byte) (literals << 4);
+        }
+
+        System.arraycopy(src, anchor, dst, dp, literals);
+        return dp + literals;
+    }
+
+    private static int writeLength(int length, byte[] dst, int dp) {
+        while (length >= 255) {
+            dst[dp++] = (byte) 255;
+            length -= 255;
+        }
+        dst[dp++] = (byte) length;
+        return dp;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] data, int index) {
+        return ((data[index] & 0xFF) << 24) | ((data[index + 1] & 0xFF) << 16) |
+               ((data[index + 2] & 0xFF) << 8) | (data[index + 3] & 0xFF);
+    }
+
+    private static void writeInt(byte[] data, int index, int value) {
+        data[index] = (byte) (value >>> 24);
+        data[index + 1] = (byte) (value >>> 16);
+        data[index + 2] = (byte) (value >>> 8);
+        data[index + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.compression;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+
+/**
+ * A codec that leaves the data unchanged, useful as a baseline when measuring the other codecs.
+ */
+public final class NoopCompressionCodec implements CompressionCodec {
+
+    public static final byte ID = 1;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "none";
+    }
+
+    @Override
+    public Buffer compress(Buffer data) {
+        return data;
+    }
+
+    @Override
+    public Buffer decompress(Buffer data) {
+        return data;
+    }
+
+    @Override
+    public Buffer decompress(Buffer data, int maxLength) {
+        if (data.getLength() <= maxLength) {
+            return data;
+        }
+        return new Buffer(data.getData(), data.getOffset(), maxLength);
+    }
+}
@@ -0,0 +1,354 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.utils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+
+/**
+ * Read only view over a primitive map encoded by
+ * {@link OpenWireMarshallingSupport#marshalPrimitiveMap(java.util.Map, java.io.DataOutput)}
+ * that decodes only the values that are asked for.
+ * <p>
+ * The first lookup scans the encoded map once and records where each key and value
+ * starts, later lookups compare the requested name against the encoded keys in place
+ * and decode just the matching value.  This makes reading a few properties of a message,
+ * as a selector does, much cheaper than unmarshaling the whole map.
+ * <p>
+ * Values are returned as {@link OpenWireMarshallingSupport#unmarshalPrimitive(java.io.DataInput)}
+ * returns them, strings are returned as {@link org.apache.activemq.openwire.buffer.UTF8Buffer}
+ * instances.  The view does not copy the encoded map, the Buffer it wraps must not be
+ * modified or recycled while the view is in use.  A PropertiesView is not thread safe.
+ */
+public final class PropertiesView {
+
+    private final Buffer encoded;
+
+    private int size = -1;
+    private int[] keyOffsets;
+    private int[] keyLengths;
+    private int[] valueOffsets;
+    private int entriesEnd;
+
+    /**
+     * @param encoded
+     *      the encoded primitive map to read properties from.
+     */
+    public PropertiesView(Buffer encoded) {
+        this.encoded = encoded;
+    }
+
+    /**
+     * @return the encoded primitive map that this view reads from.
+     */
+    public Buffer getBuffer() {
+        return encoded;
+    }
+
+    /**
+     * @return the number of properties in the encoded map.
+     *
+     * @throws IOException if the encoded map is malformed.
+     */
+    public int size() throws IOException {
+        index();
+        return size;
+    }
+
+    /**
+     * @param name
+     *      the name of the property to look for.
+     *
+     * @return true if the encoded map contains a property with the given name.
+     *
+     * @throws IOException if the encoded map is malformed.
+     */
+    public boolean containsKey(String name) throws IOException {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * Decodes the value of the named property without decoding any other value.
+     *
+     * @param name
+     *      the name of the property to return.
+     *
+     * @return the value of the property or null if there is no property with that name.
+     *
+     * @throws IOException if the encoded map is malformed.
+     */
+    public Object get(String name) throws IOException {
+        int index = indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+
+        DataByteArrayInputStream in = new DataByteArrayInputStream(encoded);
+        in.setPos(valueOffsets[index]);
+        return OpenWireMarshallingSupport.unmarshalPrimitive(in);
+    }
+
+    /**
+     * @return the names of the properties in the order they are encoded.
+     *
+     * @throws IOException if the encoded map is malformed.
+     */
+    public Set<String> keySet() throws IOException {
+        index();
+
+        Set<String> names = new LinkedHashSet<String>(size * 2);
+        DataByteArrayInputStream in = new DataByteArrayInputStream(encoded);
+        for (int i = 0; i < size; ++i) {
+            in.setPos(keyOffsets[i] - 2);
+            names.add(in.readUTF());
+        }
+        return names;
+    }
+
+    /**
+     * Encodes a new primitive map with the given changes applied to this one.
+     * <p>
+     * The encoded bytes of every entry that is neither updated nor removed are copied
+     * as they are, only the updated values are encoded, so the cost of a change does
+     * not depend on the size of the values that were left alone.
+     *
+     * @param updates
+     *      the properties to add or replace, may be null.
+     * @param removals
+     *      the names of the properties to remove, may be null.
+     *
+     * @return a Buffer holding the merged encoded primitive map.
+     *
+     * @throws IOException if the encoded map is malformed or an updated value is not a primitive.
+     */
+    public Buffer merge(Map<String, ?> updates, Set<String> removals) throws IOException {
+        index();
+
+        if (updates == null) {
+            updates = Collections.emptyMap();
+        }
+        if (removals == null) {
+            removals = Collections.emptySet();
+        }
+
+        final byte[] data = encoded.getData();
+        final DataByteArrayOutputStream out = new DataByteArrayOutputStream(encoded.getLength() + 16 * updates.size() + 4);
+        out.writeInt(0);
+
+        int count = 0;
+        int runStart = -1;
+        for (int i = 0; i < size; ++i) {
+            int entryStart = keyOffsets[i] - 2;
+            if (isChanged(i, updates.keySet(), data) || isChanged(i, removals, data)) {
+                if (runStart >= 0) {
+                    out.write(data, runStart, entryStart - runStart);
+                    runStart = -1;
+                }
+            } else {
+                if (runStart < 0) {
+                    runStart = entryStart;
+                }
+                count++;
+            }
+        }
+        if (runStart >= 0) {
+            out.write(data, runStart, entriesEnd - runStart);
+        }
+
+        for (Map.Entry<String, ?> entry : updates.entrySet()) {
+            out.writeUTF(entry.getKey());
+            OpenWireMarshallingSupport.marshalPrimitive(out, entry.getValue());
+            count++;
+        }
+
+        out.writeInt(0, count);
+        return out.toBuffer();
+    }
+
+    private boolean isChanged(int index, Set<String> names, byte[] data) {
+        for (String name : names) {
+            if (matches(name, name.length(), data, keyOffsets[index], keyLengths[index])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int indexOf(String name) throws IOException {
+        index();
+
+        final byte[] data = encoded.getData();
+        final int nameLength = name.length();
+
+        // Searches from the end so a repeated key resolves to the value a HashMap would keep.
+        for (int i = size - 1; i >= 0; --i) {
+            if (matches(name, nameLength, data, keyOffsets[i], keyLengths[i])) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Compares a name with a key in the modified UTF-8 encoding written by
+     * {@link java.io.DataOutput#writeUTF(String)} without decoding the key.
+     */
+    private static boolean matches(String name, int nameLength, byte[] data, int offset, int length) {
+        if (length < nameLength || length > nameLength * 3) {
+            return false;
+        }
+
+        int position = offset;
+        final int end = offset + length;
+        for (int i = 0; i < nameLength; ++i) {
+            char c = name.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                if (position >= end || data[position++] != (byte) c) {
+                    return false;
+                }
+            } else if (c <= 0x07FF) {
+                if (end - position < 2 ||
+                    data[position++] != (byte) (0xC0 | ((c >> 6) & 0x1F)) ||
+                    data[position++] != (byte) (0x80 | (c & 0x3F))) {
+                    return false;
+                }
+            } else {
+                if (end - position < 3 ||
+                    data[position++] != (byte) (0xE0 | ((c >> 12) & 0x0F)) ||
+                    data[position++] != (byte) (0x80 | ((c >> 6) & 0x3F)) ||
+                    data[position++] != (byte) (0x80 | (c & 0x3F))) {
+                    return false;
+                }
+            }
+        }
+
+        return position == end;
+    }
+
+    private void index() throws IOException {
+        if (size >= 0) {
+            return;
+        }
+
+        final byte[] data = encoded.getData();
+        final int end = encoded.getOffset() + encoded.getLength();
+        int position = encoded.getOffset();
+
+        int count = readInt(data, position, end);
+        position += 4;
+        if (count < 0) {
+            count = 0;
+        }
+        if (count > (end - position) / 3) {
+            throw new IOException("Primitive map size " + count + " exceeds the encoded data");
+        }
+
+        int[] keyOffsets = new int[count];
+        int[] keyLengths = new int[count];
+        int[] valueOffsets = new int[count];
+
+        for (int i = 0; i < count; ++i) {
+            int keyLength = readUnsignedShort(data, position, end);
+            position += 2;
+            checkAvailable(position, keyLength, end);
+
+            keyOffsets[i] = position;
+            keyLengths[i] = keyLength;
+            position += keyLength;
+
+            valueOffsets[i] = position;
+            position = skipPrimitive(data, position, end);
+        }
+
+        this.keyOffsets = keyOffsets;
+        this.keyLengths = keyLengths;
+        this.valueOffsets = valueOffsets;
+        this.entriesEnd = position;
+        this.size = count;
+    }
+
+    private static int skipPrimitive(byte[] data, int position, int end) throws IOException {
+        checkAvailable(position, 1, end);
+        byte type = data[position++];
+        switch (type) {
+            case OpenWireMarshallingSupport.NULL:
+                return position;
+            case OpenWireMarshallingSupport.BOOLEAN_TYPE:
+            case OpenWireMarshallingSupport.BYTE_TYPE:
+                return checkAvailable(position, 1, end);
+            case OpenWireMarshallingSupport.CHAR_TYPE:
+            case OpenWireMarshallingSupport.SHORT_TYPE:
+                return checkAvailable(position, 2, end);
+            case OpenWireMarshallingSupport.INTEGER_TYPE:
+            case OpenWireMarshallingSupport.FLOAT_TYPE:
+                return checkAvailable(position, 4, end);
+            case OpenWireMarshallingSupport.LONG_TYPE:
+            case OpenWireMarshallingSupport.DOUBLE_TYPE:
+                return checkAvailable(position, 8, end);
+            case OpenWireMarshallingSupport.STRING_TYPE:
+                return checkAvailable(position + 2, readUnsignedShort(data, position, end), end);
+            case OpenWireMarshallingSupport.BYTE_ARRAY_TYPE:
+            case OpenWireMarshallingSupport.BIG_STRING_TYPE:
+                return checkAvailable(position + 4, Math.max(0, readInt(data, position, end)), end);
+            case OpenWireMarshallingSupport.MAP_TYPE: {
+                int count = readInt(data, position, end);
+                position += 4;
+                for (int i = 0; i < count; ++i) {
+                    position = checkAvailable(position + 2, readUnsignedShort(data, position, end), end);
+                    position = skipPrimitive(data, position, end);
+                }
+                return position;
+            }
+            case OpenWireMarshallingSupport.LIST_TYPE: {
+                int count = readInt(data, position, end);
+                position += 4;
+                for (int i = 0; i < count; ++i) {
+                    position = skipPrimitive(data, position, end);
+                }
+                return position;
+            }
+            default:
+                throw new IOException("Unknown primitive type: " + type);
+        }
+    }
+
+    private static int checkAvailable(int position, int length, int end) throws IOException {
+        if (length < 0 || position > end || end - position < length) {
+            throw new IOException("Primitive map is truncated");
+        }
+        return position + length;
+    }
+
+    private static int readUnsignedShort(byte[] data, int position, int end) throws IOException {
+        checkAvailable(position, 2, end);
+        return ((data[position] & 0xFF) << 8) | (data[position + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] data, int position, int end) throws IOException {
+        checkAvailable(position, 4, end);
+        return ((data[position] & 0xFF) << 24) | ((data[position + 1] & 0xFF) << 16) |
+               ((data[position + 2] & 0xFF) << 8) | (data[position + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Tests for the PooledBufferAllocator and Buffer reference counting.
+ */
+public class PooledBufferAllocatorTest {
+
+    @Test
+    public void testAllocateUsesSizeClasses() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator(64, 1024, 4);
+
+        Buffer small = allocator.allocate(10);
+        assertEquals(0, small.offset);
+        assertEquals(10, small.length);
+        assertEquals(64, small.data.length);
+        assertSame(allocator, small.getAllocator());
+
+        Buffer exact = allocator.allocate(256);
+        assertEquals(256, exact.data.length);
+
+        Buffer rounded = allocator.allocate(257);
+        assertEquals(512, rounded.data.length);
+    }
+
+    @Test
+    public void testOversizedRequestsAreNotPooled() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator(64, 1024, 4);
+
+        Buffer large = allocator.allocate(4096);
+        assertEquals(4096, large.length);
+        assertNull(large.getAllocator());
+        assertTrue(large.release());
+        assertEquals(0, allocator.getPooledCount());
+    }
+
+    @Test
+    public void testReleasedArraysAreReused() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator(64, 1024, 4);
+
+        Buffer first = allocator.allocate(100);
+        byte[] data = first.data;
+        assertTrue(first.release());
+        assertEquals(1, allocator.getPooledCount());
+
+        Buffer second = allocator.allocate(120);
+        assertSame(data, second.data);
+        assertEquals(120, second.length);
+        assertEquals(0, allocator.getPooledCount());
+
+        Buffer third = allocator.allocate(600);
+        assertNotSame(data, third.data);
+    }
+
+    @Test
+    public void testPoolDepthIsBounded() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator(64, 1024, 2);
+
+        Buffer[] buffers = new Buffer[4];
+        for (int i = 0; i < buffers.length; ++i) {
+            buffers[i] = allocator.allocate(64);
+        }
+        for (Buffer buffer : buffers) {
+            buffer.release();
+        }
+
+        assertEquals(2, allocator.getPooledCount());
+    }
+
+    @Test
+    public void testRetainDefersRecycle() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator(64, 1024, 4);
+
+        Buffer buffer = allocator.allocate(64);
+        assertEquals(1, buffer.getReferenceCount());
+        assertSame(buffer, buffer.retain());
+        assertEquals(2, buffer.getReferenceCount());
+
+        assertFalse(buffer.release());
+        assertEquals(0, allocator.getPooledCount());
+        assertTrue(buffer.release());
+        assertEquals(1, allocator.getPooledCount());
+    }
+
+    @Test
+    public void testReleaseAfterFinalReleaseFails() {
+        Buffer buffer = new PooledBufferAllocator().allocate(32);
+        buffer.release();
+
+        try {
+            buffer.release();
+            fail("Should not be able to release twice");
+        } catch (IllegalStateException expected) {
+        }
+
+        try {
+            buffer.retain();
+            fail("Should not be able to retain a released buffer");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
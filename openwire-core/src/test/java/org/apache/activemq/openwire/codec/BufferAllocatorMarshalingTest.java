@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.buffer.HeapBufferAllocator;
+import org.apache.activemq.openwire.buffer.PooledBufferAllocator;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireBytesMessage;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.junit.Test;
+
+/**
+ * Tests that marshaling honors the BufferAllocator configured on the wire format.
+ */
+public class BufferAllocatorMarshalingTest {
+
+    @Test
+    public void testDefaultAllocatorIsHeap() {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        assertSame(HeapBufferAllocator.INSTANCE, wireFormat.getBufferAllocator());
+
+        wireFormat.setBufferAllocator(new PooledBufferAllocator());
+        wireFormat.setBufferAllocator(null);
+        assertSame(HeapBufferAllocator.INSTANCE, wireFormat.getBufferAllocator());
+    }
+
+    @Test
+    public void testCopyRetainsAllocator() {
+        PooledBufferAllocator allocator = new PooledBufferAllocator();
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setBufferAllocator(allocator);
+        assertSame(allocator, wireFormat.copy().getBufferAllocator());
+    }
+
+    @Test
+    public void testTightFrameIsAllocatedExactly() throws Exception {
+        PooledBufferAllocator allocator = new PooledBufferAllocator();
+        OpenWireFormat wireFormat = createWireFormat(true, allocator);
+
+        Buffer frame = wireFormat.marshal(createMessage(1024));
+        assertSame(allocator, frame.getAllocator());
+        assertEquals(frame.length, new DataByteArrayInputStream(frame).readInt() + 4);
+
+        OpenWireBytesMessage decoded = (OpenWireBytesMessage) wireFormat.unmarshal(frame);
+        assertEquals(1024, decoded.getBodyLength());
+
+        assertTrue(frame.release());
+        assertEquals(1, allocator.getPooledCount());
+    }
+
+    @Test
+    public void testTightRoundTripUsesPooledContent() throws Exception {
+        doTestRoundTripUsesPooledContent(true);
+    }
+
+    @Test
+    public void testLooseRoundTripUsesPooledContent() throws Exception {
+        doTestRoundTripUsesPooledContent(false);
+    }
+
+    @Test
+    public void testCopiedMessageSharesContentReference() throws Exception {
+        PooledBufferAllocator allocator = new PooledBufferAllocator();
+        OpenWireFormat wireFormat = createWireFormat(true, allocator);
+
+        OpenWireBytesMessage decoded = (OpenWireBytesMessage) wireFormat.unmarshal(
+            createWireFormat(true, null).marshal(createMessage(512)));
+        OpenWireBytesMessage copy = (OpenWireBytesMessage) decoded.copy();
+
+        Buffer content = decoded.getContent();
+        assertSame(content, copy.getContent());
+        assertEquals(2, content.getReferenceCount());
+
+        int pooled = allocator.getPooledCount();
+        decoded.release();
+        assertEquals(pooled, allocator.getPooledCount());
+        assertEquals(512, copy.getBodyLength());
+
+        copy.release();
+        assertTrue(allocator.getPooledCount() > pooled);
+    }
+
+    private void doTestRoundTripUsesPooledContent(boolean tight) throws Exception {
+        PooledBufferAllocator allocator = new PooledBufferAllocator();
+        OpenWireFormat wireFormat = createWireFormat(tight, allocator);
+        OpenWireBytesMessage message = createMessage(2048);
+
+        Buffer frame = createWireFormat(tight, null).marshal(message);
+
+        OpenWireBytesMessage decoded = (OpenWireBytesMessage) wireFormat.unmarshal(frame);
+        Buffer content = decoded.getContent();
+        assertSame(allocator, content.getAllocator());
+        assertSame(allocator, decoded.getMarshalledProperties().getAllocator());
+        assertEquals(2048, decoded.getBodyLength());
+
+        assertTrue(Arrays.equals(message.getBodyBytes(), decoded.getBodyBytes()));
+
+        decoded.release();
+        assertNull(decoded.getContent());
+        assertNull(decoded.getMarshalledProperties());
+        assertEquals(2, allocator.getPooledCount());
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight, PooledBufferAllocator allocator) {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setBufferAllocator(allocator);
+        return wireFormat;
+    }
+
+    private OpenWireBytesMessage createMessage(int payloadSize) throws Exception {
+        byte[] payload = new byte[payloadSize];
+        for (int i = 0; i < payloadSize; ++i) {
+            payload[i] = (byte) i;
+        }
+
+        ProducerId producerId = new ProducerId("connection:1:1:1");
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, 1));
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        message.setProperty("property", "value");
+        message.setBodyBytes(payload);
+        return message;
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionControl;
+import org.apache.activemq.openwire.commands.PartialCommand;
+import org.apache.activemq.openwire.commands.XATransactionId;
+import org.junit.Test;
+
+/**
+ * Tests that variable length byte array fields survive a round trip in both encodings.
+ */
+public class ByteArrayFieldMarshalingTest {
+
+    @Test
+    public void testTightEncoding() throws Exception {
+        doTestRoundTrip(true);
+    }
+
+    @Test
+    public void testLooseEncoding() throws Exception {
+        doTestRoundTrip(false);
+    }
+
+    private void doTestRoundTrip(boolean tight) throws Exception {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(tight);
+
+        XATransactionId xid = new XATransactionId();
+        xid.setFormatId(7);
+        xid.setGlobalTransactionId(new byte[] { 1, 2, 3 });
+        xid.setBranchQualifier(new byte[] { 4, 5 });
+
+        XATransactionId decodedXid = (XATransactionId) wireFormat.unmarshal(wireFormat.marshal(xid));
+        assertEquals(7, decodedXid.getFormatId());
+        assertArrayEquals(xid.getGlobalTransactionId(), decodedXid.getGlobalTransactionId());
+        assertArrayEquals(xid.getBranchQualifier(), decodedXid.getBranchQualifier());
+
+        ConnectionControl control = new ConnectionControl();
+        control.setToken(new byte[] { 9, 8, 7, 6 });
+
+        ConnectionControl decodedControl = (ConnectionControl) wireFormat.unmarshal(wireFormat.marshal(control));
+        assertArrayEquals(control.getToken(), decodedControl.getToken());
+
+        PartialCommand partial = new PartialCommand();
+        partial.setCommandId(3);
+        partial.setData(new byte[] { 10, 11, 12 });
+
+        PartialCommand decodedPartial = (PartialCommand) wireFormat.unmarshal(wireFormat.marshal(partial));
+        assertEquals(3, decodedPartial.getCommandId());
+        assertArrayEquals(partial.getData(), decodedPartial.getData());
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireBytesMessage;
+import org.apache.activemq.openwire.commands.OpenWireTopic;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.junit.Test;
+
+/**
+ * Tests for marshaling commands directly to and from ByteBuffer instances.
+ */
+public class ByteBufferMarshalingTest {
+
+    @Test
+    public void testTightHeapRoundTrip() throws Exception {
+        doTestRoundTrip(createWireFormat(true, false), ByteBuffer.allocate(8192));
+    }
+
+    @Test
+    public void testTightDirectRoundTrip() throws Exception {
+        doTestRoundTrip(createWireFormat(true, false), ByteBuffer.allocateDirect(8192));
+    }
+
+    @Test
+    public void testLooseDirectRoundTrip() throws Exception {
+        doTestRoundTrip(createWireFormat(false, false), ByteBuffer.allocateDirect(8192));
+    }
+
+    @Test
+    public void testSizePrefixDisabledRoundTrip() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, true);
+        wireFormat.setSizePrefixDisabled(true);
+        doTestRoundTrip(wireFormat, ByteBuffer.allocateDirect(8192));
+    }
+
+    @Test
+    public void testEncodingMatchesBufferMarshal() throws Exception {
+        OpenWireBytesMessage message = createMessage(1, 128);
+
+        // Each encoding starts from a fresh connection so that delta encoded values match
+        Buffer expected = createWireFormat(true, false).marshal(message);
+        ByteBuffer target = createWireFormat(true, false).marshal(message, ByteBuffer.allocateDirect(1024));
+        target.flip();
+
+        byte[] actual = new byte[target.remaining()];
+        target.get(actual);
+
+        assertTrue(Arrays.equals(expected.toByteArray(), actual));
+    }
+
+    @Test
+    public void testTightHeapSliceRoundTrip() throws Exception {
+        ByteBuffer backing = ByteBuffer.allocate(8192);
+        backing.position(100);
+        ByteBuffer slice = backing.slice();
+        assertEquals(100, slice.arrayOffset());
+
+        doTestRoundTrip(createWireFormat(true, false), slice);
+    }
+
+    @Test
+    public void testHeapEncodingMatchesBufferMarshal() throws Exception {
+        OpenWireBytesMessage message = createMessage(1, 128);
+
+        Buffer expected = createWireFormat(true, false).marshal(message);
+        ByteBuffer target = ByteBuffer.allocate(1024);
+        target.put((byte) 0x7F);
+        target = createWireFormat(true, false).marshal(message, target.slice());
+        target.flip();
+
+        byte[] actual = new byte[target.remaining()];
+        target.get(actual);
+
+        assertTrue(Arrays.equals(expected.toByteArray(), actual));
+    }
+
+    @Test
+    public void testTruncatedFrameLeavesPosition() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+        ByteBuffer encoded = wireFormat.marshal(createMessage(1, 64), ByteBuffer.allocate(1024));
+        encoded.flip();
+
+        for (ByteBuffer source : new ByteBuffer[] { ByteBuffer.allocate(1024), ByteBuffer.allocateDirect(1024) }) {
+            ByteBuffer truncated = encoded.duplicate();
+            truncated.limit(truncated.limit() - 1);
+            source.put(truncated);
+            source.flip();
+
+            try {
+                wireFormat.unmarshal(source);
+                fail("Should not unmarshal a truncated frame");
+            } catch (EOFException expected) {
+            }
+            assertEquals(0, source.position());
+        }
+    }
+
+    @Test
+    public void testLittleEndianBufferRejected() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+        try {
+            wireFormat.marshal(createMessage(1, 16), ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN));
+            fail("Should not marshal into a little endian buffer");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            wireFormat.unmarshal(ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN));
+            fail("Should not unmarshal from a little endian buffer");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testBufferGrowsWhenTooSmall() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+
+        ByteBuffer initial = ByteBuffer.allocateDirect(16);
+        initial.putInt(0xCAFEBABE);
+
+        ByteBuffer result = wireFormat.marshal(createMessage(1, 4096), initial);
+        assertNotSame(initial, result);
+        assertTrue(result.isDirect());
+
+        result.flip();
+        assertEquals(0xCAFEBABE, result.getInt());
+
+        OpenWireBytesMessage decoded = (OpenWireBytesMessage) wireFormat.unmarshal(result);
+        assertEquals(4096, decoded.getBodyLength());
+        assertFalse(result.hasRemaining());
+    }
+
+    @Test
+    public void testNullCommand() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+        ByteBuffer target = wireFormat.marshal(null, ByteBuffer.allocate(16));
+        target.flip();
+        assertNull(wireFormat.unmarshal(target));
+        assertFalse(target.hasRemaining());
+    }
+
+    private void doTestRoundTrip(OpenWireFormat wireFormat, ByteBuffer buffer) throws Exception {
+        final int count = 10;
+
+        for (int i = 0; i < count; ++i) {
+            buffer = wireFormat.marshal(createMessage(i, i * 10), buffer);
+        }
+
+        buffer.flip();
+
+        for (int i = 0; i < count; ++i) {
+            OpenWireBytesMessage message = (OpenWireBytesMessage) wireFormat.unmarshal(buffer);
+            assertEquals(i, message.getMessageId().getProducerSequenceId());
+            assertEquals(i * 10, message.getBodyLength());
+            assertEquals(new OpenWireTopic("TEST.TOPIC"), message.getDestination());
+        }
+
+        assertFalse(buffer.hasRemaining());
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight, boolean cache) {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setCacheEnabled(cache);
+        return wireFormat;
+    }
+
+    private OpenWireBytesMessage createMessage(int sequence, int payloadSize) throws Exception {
+        byte[] payload = new byte[payloadSize];
+        Arrays.fill(payload, (byte) sequence);
+
+        ProducerId producerId = new ProducerId("connection:1:1:1");
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, sequence));
+        message.setDestination(new OpenWireTopic("TEST.TOPIC"));
+        message.setBodyBytes(payload);
+        return message;
+    }
+}
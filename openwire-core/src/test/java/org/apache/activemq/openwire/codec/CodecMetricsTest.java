@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.junit.Test;
+
+/**
+ * Tests the codec metrics reported by the OpenWireFormat.
+ */
+public class CodecMetricsTest {
+
+    private static final byte TEXT_TYPE = CommandTypes.OPENWIRE_TEXT_MESSAGE;
+
+    @Test
+    public void testTightMarshalAndUnmarshalAreRecorded() throws Exception {
+        DefaultCodecMetrics metrics = new DefaultCodecMetrics();
+        OpenWireFormat wireFormat = createWireFormat(true, metrics);
+
+        Buffer encoded = wireFormat.marshal(createMessage());
+        wireFormat.unmarshal(encoded);
+
+        assertEquals(1, metrics.getCount(CodecOperation.MARSHAL, TEXT_TYPE));
+        assertEquals(1, metrics.getCount(CodecOperation.TIGHT_MARSHAL1, TEXT_TYPE));
+        assertEquals(1, metrics.getCount(CodecOperation.TIGHT_MARSHAL2, TEXT_TYPE));
+        assertEquals(1, metrics.getCount(CodecOperation.UNMARSHAL, TEXT_TYPE));
+        assertEquals(encoded.getLength() - 4, metrics.getBytes(CodecOperation.MARSHAL, TEXT_TYPE));
+        assertEquals(encoded.getLength() - 4, metrics.getBytes(CodecOperation.UNMARSHAL, TEXT_TYPE));
+        assertEquals(1, metrics.getLatency(CodecOperation.MARSHAL, TEXT_TYPE).getCount());
+        assertNull(metrics.getLatency(CodecOperation.MARSHAL, CommandTypes.OPENWIRE_BYTES_MESSAGE));
+    }
+
+    @Test
+    public void testLooseMarshalIsRecorded() throws Exception {
+        DefaultCodecMetrics metrics = new DefaultCodecMetrics();
+        OpenWireFormat wireFormat = createWireFormat(false, metrics);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        wireFormat.marshal(createMessage(), new DataOutputStream(bytes));
+        wireFormat.unmarshal(new Buffer(bytes.toByteArray()));
+
+        assertEquals(1, metrics.getCount(CodecOperation.MARSHAL, TEXT_TYPE));
+        assertEquals(0, metrics.getCount(CodecOperation.TIGHT_MARSHAL1));
+        assertEquals(bytes.size() - 4, metrics.getBytes(CodecOperation.MARSHAL, TEXT_TYPE));
+        assertEquals(1, metrics.getCount(CodecOperation.UNMARSHAL, TEXT_TYPE));
+    }
+
+    @Test
+    public void testMarshalContextReportsToWireFormatMetrics() throws Exception {
+        DefaultCodecMetrics metrics = new DefaultCodecMetrics();
+        OpenWireFormat wireFormat = createWireFormat(true, metrics);
+
+        MarshalContext context = wireFormat.createMarshalContext();
+        context.unmarshal(context.marshal(createMessage()));
+
+        assertEquals(1, metrics.getCount(CodecOperation.MARSHAL));
+        assertEquals(1, metrics.getCount(CodecOperation.UNMARSHAL));
+
+        metrics.reset();
+        assertEquals(0, metrics.getCount(CodecOperation.MARSHAL));
+        assertEquals(0, metrics.getLatency(CodecOperation.MARSHAL, TEXT_TYPE).getCount());
+    }
+
+    @Test
+    public void testMetricsAreDisabledByDefault() throws Exception {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        assertNull(wireFormat.getCodecMetrics());
+
+        DefaultCodecMetrics metrics = new DefaultCodecMetrics();
+        wireFormat.setCodecMetrics(metrics);
+        assertNotNull(wireFormat.copy().getCodecMetrics());
+
+        wireFormat.setCodecMetrics(null);
+        wireFormat.unmarshal(wireFormat.marshal(createMessage()));
+        assertEquals(0, metrics.getCount(CodecOperation.MARSHAL));
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long value = 0; value < 100000; value++) {
+            int index = LogLinearHistogram.bucketIndex(value);
+            long lower = LogLinearHistogram.bucketLowerBound(index);
+            assertTrue(lower <= value);
+            assertTrue(index + 1 == LogLinearHistogram.BUCKETS || LogLinearHistogram.bucketLowerBound(index + 1) > value);
+        }
+
+        assertEquals(LogLinearHistogram.BUCKETS - 1, LogLinearHistogram.bucketIndex(Long.MAX_VALUE));
+        for (int i = 1; i < LogLinearHistogram.BUCKETS; i++) {
+            assertTrue(LogLinearHistogram.bucketLowerBound(i) > LogLinearHistogram.bucketLowerBound(i - 1));
+            assertEquals(i, LogLinearHistogram.bucketIndex(LogLinearHistogram.bucketLowerBound(i)));
+        }
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+
+        assertEquals(1001, histogram.getCount());
+        assertEquals(500500, histogram.getSum());
+        assertEquals(0, histogram.getValueAtPercentile(0));
+
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue(median <= 500 && median >= 500 * 7 / 8);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 <= 990 && p99 >= 990 * 7 / 8);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight, CodecMetrics metrics) {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setCodecMetrics(metrics);
+        return wireFormat;
+    }
+
+    private OpenWireTextMessage createMessage() throws Exception {
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        message.setText("metrics");
+        return message;
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConsumerId;
+import org.apache.activemq.openwire.commands.DataStructure;
+import org.apache.activemq.openwire.commands.MessageAck;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests the varint and delta encoding of numeric values in the compact numerics version.
+ */
+public class CompactNumericEncodingTest {
+
+    private static final long BASE_TIME = 1_700_000_000_000L;
+
+    private final ProducerId producerId = new ProducerId("ID:producer-1:1:1");
+    private final OpenWireQueue queue = new OpenWireQueue("compact");
+
+    @Test
+    public void testVarintRoundTrip() throws Exception {
+        long[] values = new long[] { 0, 1, -1, 63, -64, 64, -65, 8191, 8192, Integer.MAX_VALUE,
+                                     Integer.MIN_VALUE, BASE_TIME, Long.MAX_VALUE, Long.MIN_VALUE };
+
+        for (long value : values) {
+            DataByteArrayOutputStream output = new DataByteArrayOutputStream();
+            CompactNumerics.write(output, value);
+            assertEquals("size of " + value, CompactNumerics.encodedSize(value), output.size());
+
+            assertEquals(value, CompactNumerics.read(new DataByteArrayInputStream(output.toBuffer())));
+
+            DataByteArrayInputStream input = new DataByteArrayInputStream(output.toBuffer());
+            CompactNumerics.skip(input);
+            assertEquals(output.size(), input.getPos());
+        }
+
+        assertEquals(1, CompactNumerics.encodedSize(-64));
+        assertEquals(10, CompactNumerics.encodedSize(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testTruncatedVarintFails() throws Exception {
+        DataByteArrayOutputStream output = new DataByteArrayOutputStream();
+        CompactNumerics.write(output, BASE_TIME);
+        Buffer encoded = output.toBuffer();
+
+        try {
+            CompactNumerics.read(new DataByteArrayInputStream(new Buffer(encoded.getData(), 0, encoded.getLength() - 1)));
+            fail("Should not decode a truncated value");
+        } catch (EOFException expected) {
+        }
+    }
+
+    @Test
+    public void testTightFramesRoundTrip() throws Exception {
+        doTestFramesRoundTrip(true, true);
+        doTestFramesRoundTrip(true, false);
+    }
+
+    @Test
+    public void testLooseFramesRoundTrip() throws Exception {
+        doTestFramesRoundTrip(false, true);
+        doTestFramesRoundTrip(false, false);
+    }
+
+    private void doTestFramesRoundTrip(boolean tight, boolean specialized) throws Exception {
+        OpenWireFormat writer = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, tight, specialized);
+        OpenWireFormat reader = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, tight, !specialized);
+        assertTrue(writer.isCompactNumericsEnabled());
+
+        List<DataStructure> commands = createCommands();
+        List<Buffer> frames = new ArrayList<>();
+        for (DataStructure command : commands) {
+            frames.add(writer.marshal(command));
+        }
+
+        for (int i = 0; i < commands.size(); ++i) {
+            String context = "frame " + i + (tight ? " tight" : " loose");
+            DataStructure decoded = (DataStructure) reader.unmarshal(frames.get(i));
+
+            if (decoded instanceof OpenWireTextMessage) {
+                assertMessageEquals(context, (OpenWireTextMessage) commands.get(i), (OpenWireTextMessage) decoded);
+            } else {
+                MessageAck expected = (MessageAck) commands.get(i);
+                MessageAck ack = (MessageAck) decoded;
+                assertMessageIdEquals(context, expected.getFirstMessageId(), ack.getFirstMessageId());
+                assertMessageIdEquals(context, expected.getLastMessageId(), ack.getLastMessageId());
+                assertEquals(context, expected.getMessageCount(), ack.getMessageCount());
+            }
+        }
+    }
+
+    @Test
+    public void testFramesAreSmallerThanPreviousVersion() throws Exception {
+        for (boolean tight : new boolean[] { true, false }) {
+            OpenWireFormat previous = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS - 1, tight, true);
+            OpenWireFormat compact = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, tight, true);
+
+            int previousSize = 0;
+            int compactSize = 0;
+            for (DataStructure command : createCommands()) {
+                previousSize += previous.marshal(command).getLength();
+                compactSize += compact.marshal(command).getLength();
+            }
+
+            assertTrue(compactSize + " < " + previousSize, compactSize < previousSize);
+        }
+    }
+
+    @Test
+    public void testRepeatedValuesEncodeAsZeroDeltas() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+
+        Buffer first = wireFormat.marshal(createMessage(1, BASE_TIME));
+        Buffer second = wireFormat.marshal(createMessage(1, BASE_TIME));
+        Buffer third = wireFormat.marshal(createMessage(2, BASE_TIME + 1));
+
+        assertTrue(second.getLength() < first.getLength());
+        assertEquals(second.getLength(), third.getLength());
+    }
+
+    @Test
+    public void testSetVersionResetsDeltaState() throws Exception {
+        OpenWireFormat writer = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+        writer.marshal(createMessage(1, BASE_TIME));
+        writer.setVersion(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS);
+
+        OpenWireTextMessage message = createMessage(2, BASE_TIME + 5);
+        OpenWireFormat reader = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+        assertMessageEquals("after reset", message, (OpenWireTextMessage) reader.unmarshal(writer.marshal(message)));
+    }
+
+    @Test
+    public void testSkipKeepsDeltaState() throws Exception {
+        doTestSkipKeepsDeltaState(false);
+    }
+
+    @Test
+    public void testSkipKeepsDeltaStateWithoutSizePrefix() throws Exception {
+        doTestSkipKeepsDeltaState(true);
+    }
+
+    private void doTestSkipKeepsDeltaState(boolean sizePrefixDisabled) throws Exception {
+        OpenWireFormat writer = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+        writer.setSizePrefixDisabled(sizePrefixDisabled);
+
+        OpenWireTextMessage second = createMessage(2, BASE_TIME + 25);
+        DataByteArrayOutputStream output = new DataByteArrayOutputStream();
+        writer.marshal(createMessage(1, BASE_TIME), output);
+        int end = output.size();
+        writer.marshal(second, output);
+
+        OpenWireFormat reader = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+        reader.setSizePrefixDisabled(sizePrefixDisabled);
+
+        DataByteArrayInputStream input = new DataByteArrayInputStream(output.toBuffer());
+        reader.skip(input);
+        assertEquals(end, input.getPos());
+
+        // The deltas of the second frame are relative to the values of the skipped one
+        assertMessageEquals("after skip", second, (OpenWireTextMessage) reader.unmarshal(input));
+    }
+
+    @Test
+    public void testFailedMarshalDoesNotMoveDeltaState() throws Exception {
+        OpenWireFormat writer = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+
+        DataOutputStream failing = new DataOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Connection lost");
+            }
+        });
+
+        try {
+            writer.marshal(createMessage(1, BASE_TIME), failing);
+            fail("Should not marshal to a failing output");
+        } catch (IOException expected) {
+        }
+
+        // The failed frame never reached the peer so the next one must not depend on it
+        OpenWireTextMessage message = createMessage(2, BASE_TIME + 5);
+        OpenWireFormat reader = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+        assertMessageEquals("after failure", message, (OpenWireTextMessage) reader.unmarshal(writer.marshal(message)));
+    }
+
+    @Test
+    public void testFailedBatchDoesNotMoveDeltaState() throws Exception {
+        OpenWireFormat writer = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+
+        List<DataStructure> batch = new ArrayList<>();
+        batch.add(createMessage(1, BASE_TIME));
+        batch.add(new DataStructure() {
+            @Override
+            public byte getDataStructureType() {
+                return (byte) 127;
+            }
+
+            @Override
+            public boolean isMarshallAware() {
+                return false;
+            }
+        });
+
+        try {
+            writer.marshalBatch(batch);
+            fail("Should not marshal a batch holding an unknown type");
+        } catch (IOException expected) {
+        }
+
+        OpenWireTextMessage message = createMessage(2, BASE_TIME + 5);
+        OpenWireFormat reader = createWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, true, true);
+        assertMessageEquals("after failed batch", message, (OpenWireTextMessage) reader.unmarshal(writer.marshal(message)));
+    }
+
+    @Test
+    public void testNegotiationFallsBackForOlderPeers() throws Exception {
+        // Compact numerics must be asked for, the default preferred version predates them
+        OpenWireFormatFactory factory = new OpenWireFormatFactory();
+        assertFalse(factory.createWireFormat().isCompactNumericsEnabled());
+        factory.setVersion(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS);
+
+        OpenWireFormat wireFormat = factory.createWireFormat();
+        assertEquals(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS, wireFormat.getVersion());
+        assertTrue(wireFormat.isCompactNumericsEnabled());
+
+        WireFormatInfo peerInfo = new WireFormatInfo();
+        peerInfo.setVersion(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS - 1);
+        wireFormat.renegotiateWireFormat(peerInfo);
+
+        assertEquals(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS - 1, wireFormat.getVersion());
+        assertFalse(wireFormat.isCompactNumericsEnabled());
+
+        // An older peer reads the fallback encoding with its own settings
+        OpenWireTextMessage message = createMessage(1, BASE_TIME);
+        OpenWireFormat peer = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS - 1);
+        peer.setTightEncodingEnabled(wireFormat.isTightEncodingEnabled());
+        peer.setCacheEnabled(wireFormat.isCacheEnabled());
+        assertMessageEquals("fallback", message, (OpenWireTextMessage) peer.unmarshal(wireFormat.marshal(message)));
+
+        peerInfo = new WireFormatInfo();
+        peerInfo.setVersion(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS);
+        wireFormat = factory.createWireFormat();
+        wireFormat.renegotiateWireFormat(peerInfo);
+        assertTrue(wireFormat.isCompactNumericsEnabled());
+    }
+
+    private void assertMessageEquals(String context, OpenWireTextMessage expected, OpenWireTextMessage actual) throws Exception {
+        assertMessageIdEquals(context, expected.getMessageId(), actual.getMessageId());
+        assertEquals(context, expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(context, expected.getExpiration(), actual.getExpiration());
+        assertEquals(context, expected.getArrival(), actual.getArrival());
+        assertEquals(context, expected.getBrokerInTime(), actual.getBrokerInTime());
+        assertEquals(context, expected.getBrokerOutTime(), actual.getBrokerOutTime());
+        assertEquals(context, expected.getText(), actual.getText());
+    }
+
+    private void assertMessageIdEquals(String context, MessageId expected, MessageId actual) {
+        assertEquals(context, expected.getProducerId(), actual.getProducerId());
+        assertEquals(context, expected.getProducerSequenceId(), actual.getProducerSequenceId());
+        assertEquals(context, expected.getBrokerSequenceId(), actual.getBrokerSequenceId());
+    }
+
+    private OpenWireFormat createWireFormat(int version, boolean tight, boolean specialized) {
+        OpenWireFormat wireFormat = new OpenWireFormat(version);
+        wireFormat.setUseVersionSpecializedCodecs(specialized);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setCacheEnabled(false);
+        return wireFormat;
+    }
+
+    private OpenWireTextMessage createMessage(long sequence, long timestamp) throws Exception {
+        MessageId messageId = new MessageId(producerId, sequence);
+        messageId.setBrokerSequenceId(1000 + sequence);
+
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setMessageId(messageId);
+        message.setProducerId(producerId);
+        message.setDestination(queue);
+        message.setTimestamp(timestamp);
+        message.setExpiration(timestamp + 30_000);
+        message.setBrokerInTime(timestamp + 2);
+        message.setBrokerOutTime(timestamp + 3);
+        message.setText("message-" + sequence);
+        return message;
+    }
+
+    private List<DataStructure> createCommands() throws Exception {
+        List<DataStructure> commands = new ArrayList<>();
+        for (int i = 1; i <= 5; ++i) {
+            commands.add(createMessage(i, BASE_TIME + i * 7));
+        }
+
+        // Values that go backwards encode as negative deltas
+        OpenWireTextMessage earlier = createMessage(3, BASE_TIME - 100);
+        earlier.setExpiration(0);
+        commands.add(earlier);
+
+        // Both message ids of an ack are relative to the one encoded before them
+        MessageAck ack = new MessageAck();
+        ack.setConsumerId(new ConsumerId(new SessionId(new ConnectionId("ID:connection-1"), 1), 1));
+        ack.setDestination(queue);
+        ack.setFirstMessageId(((OpenWireTextMessage) commands.get(0)).getMessageId());
+        ack.setLastMessageId(((OpenWireTextMessage) commands.get(4)).getMessageId());
+        ack.setMessageCount(5);
+        commands.add(ack);
+
+        commands.add(createMessage(6, BASE_TIME + 50));
+        return commands;
+    }
+}
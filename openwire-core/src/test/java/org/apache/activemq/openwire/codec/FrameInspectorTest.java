@@ -0,0 +1,251 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConsumerId;
+import org.apache.activemq.openwire.commands.ConsumerInfo;
+import org.apache.activemq.openwire.commands.LocalTransactionId;
+import org.apache.activemq.openwire.commands.MessageAck;
+import org.apache.activemq.openwire.commands.MessageDispatch;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.OpenWireTopic;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests for extracting the routing fields of a frame without unmarshaling it.
+ */
+public class FrameInspectorTest {
+
+    @Test
+    public void testMessageTight() throws Exception {
+        doTestMessage(createWireFormat(true));
+    }
+
+    @Test
+    public void testMessageLoose() throws Exception {
+        doTestMessage(createWireFormat(false));
+    }
+
+    @Test
+    public void testMessageWithoutSizePrefix() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        wireFormat.setSizePrefixDisabled(true);
+        doTestMessage(wireFormat);
+    }
+
+    @Test
+    public void testMessageBeforeVersion10() throws Exception {
+        doTestMessage(new OpenWireFormat(9));
+    }
+
+    private void doTestMessage(OpenWireFormat wireFormat) throws Exception {
+        OpenWireTextMessage message = createMessage();
+        message.setTransactionId(new LocalTransactionId(new ConnectionId("ID:connection:1"), 7));
+
+        FrameInfo info = new FrameInspector(wireFormat).inspect(wireFormat.marshal(message));
+        assertEquals(CommandTypes.OPENWIRE_TEXT_MESSAGE, info.getDataType());
+        assertTrue(info.isCommand());
+        assertEquals(12, info.getCommandId());
+        assertTrue(info.isResponseRequired());
+        assertEquals(CommandTypes.OPENWIRE_TOPIC, info.getDestinationType());
+        assertEquals("TEST.TOPIC", info.getDestination());
+        assertEquals(message.getMessageId().toString(), info.getMessageId());
+        assertTrue(info.isComplete());
+    }
+
+    @Test
+    public void testMessageIdTextView() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        OpenWireTextMessage message = createMessage();
+        message.getMessageId().setTextView("custom-id");
+
+        FrameInfo info = new FrameInspector(wireFormat).inspect(wireFormat.marshal(message));
+        assertEquals("ID:custom-id", info.getMessageId());
+    }
+
+    @Test
+    public void testDeltaEncodedMessageIdIsIncomplete() throws Exception {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS);
+        wireFormat.setTightEncodingEnabled(true);
+        FrameInspector inspector = new FrameInspector(wireFormat);
+
+        FrameInfo info = inspector.inspect(wireFormat.marshal(createMessage()));
+        assertEquals(12, info.getCommandId());
+        assertEquals("TEST.TOPIC", info.getDestination());
+        assertNull(info.getMessageId());
+        assertFalse(info.isComplete());
+
+        // The text view does not depend on earlier frames
+        OpenWireTextMessage message = createMessage();
+        message.getMessageId().setTextView("custom-id");
+        info = inspector.inspect(wireFormat.marshal(message));
+        assertEquals("ID:custom-id", info.getMessageId());
+        assertTrue(info.isComplete());
+    }
+
+    @Test
+    public void testMessageDispatchTight() throws Exception {
+        doTestMessageDispatch(createWireFormat(true));
+    }
+
+    @Test
+    public void testMessageDispatchLoose() throws Exception {
+        doTestMessageDispatch(createWireFormat(false));
+    }
+
+    private void doTestMessageDispatch(OpenWireFormat wireFormat) throws Exception {
+        OpenWireTextMessage message = createMessage();
+
+        MessageDispatch dispatch = new MessageDispatch();
+        dispatch.setCommandId(3);
+        dispatch.setConsumerId(new ConsumerId(new SessionId(new ConnectionId("ID:connection:1"), 1), 2));
+        dispatch.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        dispatch.setMessage(message);
+
+        FrameInfo info = new FrameInspector(wireFormat).inspect(wireFormat.marshal(dispatch));
+        assertEquals(CommandTypes.MESSAGE_DISPATCH, info.getDataType());
+        assertEquals(3, info.getCommandId());
+        assertFalse(info.isResponseRequired());
+        assertEquals(CommandTypes.OPENWIRE_QUEUE, info.getDestinationType());
+        assertEquals("TEST.QUEUE", info.getDestination());
+        assertEquals(message.getMessageId().toString(), info.getMessageId());
+        assertTrue(info.isComplete());
+    }
+
+    @Test
+    public void testMessageAck() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        ProducerId producerId = new ProducerId("ID:producer:1:1:1");
+
+        MessageAck ack = new MessageAck();
+        ack.setCommandId(5);
+        ack.setResponseRequired(true);
+        ack.setAckType(MessageAck.STANDARD_ACK_TYPE);
+        ack.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        ack.setConsumerId(new ConsumerId(new SessionId(new ConnectionId("ID:connection:1"), 1), 2));
+        ack.setFirstMessageId(new MessageId(producerId, 1));
+        ack.setLastMessageId(new MessageId(producerId, 10));
+        ack.setMessageCount(10);
+
+        FrameInfo info = new FrameInspector(wireFormat).inspect(wireFormat.marshal(ack));
+        assertEquals(CommandTypes.MESSAGE_ACK, info.getDataType());
+        assertEquals(5, info.getCommandId());
+        assertTrue(info.isResponseRequired());
+        assertEquals("TEST.QUEUE", info.getDestination());
+        assertEquals(ack.getLastMessageId().toString(), info.getMessageId());
+    }
+
+    @Test
+    public void testConsumerInfo() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(false);
+
+        ConsumerInfo consumerInfo = new ConsumerInfo();
+        consumerInfo.setCommandId(9);
+        consumerInfo.setConsumerId(new ConsumerId(new SessionId(new ConnectionId("ID:connection:1"), 1), 2));
+        consumerInfo.setBrowser(true);
+        consumerInfo.setDestination(new OpenWireTopic("TEST.TOPIC"));
+
+        FrameInfo info = new FrameInspector(wireFormat).inspect(wireFormat.marshal(consumerInfo));
+        assertEquals(CommandTypes.CONSUMER_INFO, info.getDataType());
+        assertEquals(9, info.getCommandId());
+        assertEquals("TEST.TOPIC", info.getDestination());
+        assertNull(info.getMessageId());
+    }
+
+    @Test
+    public void testNonCommandFrame() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+
+        FrameInfo info = new FrameInspector(wireFormat).inspect(wireFormat.marshal(new WireFormatInfo()));
+        assertEquals(CommandTypes.WIREFORMAT_INFO, info.getDataType());
+        assertFalse(info.isCommand());
+        assertNull(info.getDestination());
+    }
+
+    @Test
+    public void testCacheReferencesAreReportedIncomplete() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        wireFormat.setCacheEnabled(true);
+        FrameInspector inspector = new FrameInspector(wireFormat);
+        FrameInfo info = new FrameInfo();
+
+        assertSame(info, inspector.inspect(wireFormat.marshal(createMessage()), info));
+        assertEquals("TEST.TOPIC", info.getDestination());
+        assertEquals("ID:producer:1:1:1:42", info.getMessageId());
+        assertTrue(info.isComplete());
+
+        OpenWireTextMessage second = createMessage();
+        second.setMessageId(new MessageId(second.getProducerId(), 43));
+
+        inspector.inspect(wireFormat.marshal(second), info);
+        assertEquals(12, info.getCommandId());
+        assertNull(info.getDestination());
+        assertNull(info.getMessageId());
+        assertFalse(info.isComplete());
+    }
+
+    @Test
+    public void testTruncatedFrame() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        wireFormat.setSizePrefixDisabled(true);
+        Buffer frame = wireFormat.marshal(createMessage());
+
+        FrameInspector inspector = new FrameInspector(wireFormat);
+        try {
+            inspector.inspect(new Buffer(frame.data, frame.offset, 20));
+            fail("Should have failed on the truncated frame");
+        } catch (EOFException expected) {
+        }
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight) {
+        // Message ids can only be recovered before sequence ids were delta encoded
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS - 1);
+        wireFormat.setTightEncodingEnabled(tight);
+        return wireFormat;
+    }
+
+    private OpenWireTextMessage createMessage() throws Exception {
+        ProducerId producerId = new ProducerId("ID:producer:1:1:1");
+
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setCommandId(12);
+        message.setResponseRequired(true);
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, 42));
+        message.setDestination(new OpenWireTopic("TEST.TOPIC"));
+        message.setText("text");
+        return message;
+    }
+}
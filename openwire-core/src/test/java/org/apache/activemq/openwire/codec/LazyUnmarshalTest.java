@@ -0,0 +1,274 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.commands.BrokerId;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.MessageDispatch;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireBlobMessage;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.OpenWireTopic;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.junit.Test;
+
+/**
+ * Tests for lazy header only unmarshaling of messages.
+ */
+public class LazyUnmarshalTest {
+
+    @Test
+    public void testHeaderIsDecodedFirstTight() throws Exception {
+        doTestHeaderIsDecodedFirst(true);
+    }
+
+    @Test
+    public void testHeaderIsDecodedFirstLoose() throws Exception {
+        doTestHeaderIsDecodedFirst(false);
+    }
+
+    private void doTestHeaderIsDecodedFirst(boolean tight) throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(tight);
+        OpenWireTextMessage message = createMessage();
+        Buffer frame = wireFormat.marshal(message);
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(frame);
+        assertTrue(decoded.isHeaderOnly());
+
+        assertEquals(message.getDestination(), decoded.getDestination());
+        assertEquals(message.getProducerId(), decoded.getProducerId());
+        assertEquals(message.getMessageId(), decoded.getMessageId());
+        assertEquals(message.getPriority(), decoded.getPriority());
+        assertEquals(message.getExpiration(), decoded.getExpiration());
+        assertEquals(message.isPersistent(), decoded.isPersistent());
+        assertEquals(message.getCorrelationId(), decoded.getCorrelationId());
+        assertTrue(decoded.isHeaderOnly());
+
+        // Reuse of the frame must not affect the deferred fields
+        Arrays.fill(frame.data, (byte) 0);
+
+        assertEquals("text", decoded.getText());
+        assertFalse(decoded.isHeaderOnly());
+        assertEquals(message.getReplyTo(), decoded.getReplyTo());
+        assertEquals(message.getType(), decoded.getType());
+        assertEquals(message.getTimestamp(), decoded.getTimestamp());
+        assertEquals(message.getUserId(), decoded.getUserId());
+        assertEquals(message.getRedeliveryCounter(), decoded.getRedeliveryCounter());
+        assertArrayEquals(message.getBrokerPath(), decoded.getBrokerPath());
+        assertEquals("value", decoded.getProperty("property"));
+    }
+
+    @Test
+    public void testRemarshalOfLazyMessageIsIdentical() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        Buffer frame = wireFormat.marshal(createMessage());
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(frame);
+        assertTrue(decoded.isHeaderOnly());
+
+        assertEquals(frame, wireFormat.marshal(decoded));
+    }
+
+    @Test
+    public void testSetterIsNotOverwrittenByDeferredFields() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(wireFormat.marshal(createMessage()));
+
+        decoded.setRedeliveryCounter(5);
+        assertFalse(decoded.isHeaderOnly());
+        assertEquals(5, decoded.getRedeliveryCounter());
+        assertEquals("text", decoded.getText());
+    }
+
+    @Test
+    public void testRemainderDecodedWithSettingsOfHeader() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        wireFormat.setUseVersionSpecializedCodecs(false);
+        OpenWireTextMessage message = createMessage();
+        message.setBrokerInTime(1000L);
+        message.setBrokerOutTime(2000L);
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(wireFormat.marshal(message));
+        assertTrue(decoded.isHeaderOnly());
+
+        // Renegotiated after the header was read, the remainder was encoded before that
+        wireFormat.setVersion(1);
+        wireFormat.setTightEncodingEnabled(false);
+
+        assertEquals("text", decoded.getText());
+        assertEquals(1000L, decoded.getBrokerInTime());
+        assertEquals(2000L, decoded.getBrokerOutTime());
+        assertEquals(message.getReplyTo(), decoded.getReplyTo());
+        assertEquals(message.getUserId(), decoded.getUserId());
+        assertArrayEquals(message.getBrokerPath(), decoded.getBrokerPath());
+        assertEquals("value", decoded.getProperty("property"));
+    }
+
+    @Test
+    public void testCopyOfLazyMessageIsComplete() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(false);
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(wireFormat.marshal(createMessage()));
+
+        OpenWireTextMessage copy = (OpenWireTextMessage) decoded.copy();
+        assertFalse(copy.isHeaderOnly());
+        assertEquals("text", copy.getText());
+        assertEquals("custom", copy.getType());
+    }
+
+    @Test
+    public void testZeroCopyRemainderSharesFrame() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        wireFormat.setZeroCopyUnmarshalEnabled(true);
+        Buffer frame = wireFormat.marshal(createMessage());
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(frame);
+        decoded.unmarshalRemainder();
+        assertSame(frame.data, decoded.getContent().data);
+        assertEquals("text", decoded.getText());
+    }
+
+    @Test
+    public void testNestedMessageIsDecodedInFull() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+
+        MessageDispatch dispatch = new MessageDispatch();
+        dispatch.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        dispatch.setMessage(createMessage());
+        dispatch.setRedeliveryCounter(3);
+
+        MessageDispatch decoded = (MessageDispatch) wireFormat.unmarshal(wireFormat.marshal(dispatch));
+        assertFalse(decoded.getMessage().isHeaderOnly());
+        assertEquals(3, decoded.getRedeliveryCounter());
+        assertEquals("text", ((OpenWireTextMessage) decoded.getMessage()).getText());
+    }
+
+    @Test
+    public void testDecodedInFullWhenCacheEnabled() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        wireFormat.setCacheEnabled(true);
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(wireFormat.marshal(createMessage()));
+        assertFalse(decoded.isHeaderOnly());
+        assertEquals("text", decoded.getText());
+    }
+
+    @Test
+    public void testDecodedInFullWhenDisabled() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        wireFormat.setLazyUnmarshalEnabled(false);
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(wireFormat.marshal(createMessage()));
+        assertFalse(decoded.isHeaderOnly());
+    }
+
+    @Test
+    public void testDecodedInFullWhenDeltaEncoded() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        wireFormat.setVersion(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS);
+
+        OpenWireTextMessage message = createMessage();
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(wireFormat.marshal(message));
+        assertFalse(decoded.isHeaderOnly());
+        assertEquals(message.getTimestamp(), decoded.getTimestamp());
+    }
+
+    @Test
+    public void testBlobFieldsDecodedWithRemainderTight() throws Exception {
+        doTestBlobFieldsDecodedWithRemainder(true, false);
+    }
+
+    @Test
+    public void testBlobFieldsDecodedWithRemainderLoose() throws Exception {
+        doTestBlobFieldsDecodedWithRemainder(false, false);
+    }
+
+    @Test
+    public void testBlobFieldsDecodedWithRemainderSpecializedTight() throws Exception {
+        doTestBlobFieldsDecodedWithRemainder(true, true);
+    }
+
+    @Test
+    public void testBlobFieldsDecodedWithRemainderSpecializedLoose() throws Exception {
+        doTestBlobFieldsDecodedWithRemainder(false, true);
+    }
+
+    private void doTestBlobFieldsDecodedWithRemainder(boolean tight, boolean specialized) throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(tight);
+        wireFormat.setUseVersionSpecializedCodecs(specialized);
+
+        ProducerId producerId = new ProducerId("ID:producer:1:1:1");
+        OpenWireBlobMessage message = new OpenWireBlobMessage();
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, 7));
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        message.setType("blob");
+        message.setRemoteBlobUrl("http://localhost/blob");
+        message.setMimeType("text/plain");
+        message.setDeletedByBroker(true);
+
+        OpenWireBlobMessage decoded = (OpenWireBlobMessage) wireFormat.unmarshal(wireFormat.marshal(message));
+        assertTrue(decoded.isHeaderOnly());
+        assertEquals(message.getMessageId(), decoded.getMessageId());
+        assertTrue(decoded.isHeaderOnly());
+
+        assertEquals("http://localhost/blob", decoded.getRemoteBlobUrl());
+        assertFalse(decoded.isHeaderOnly());
+        assertEquals("text/plain", decoded.getMimeType());
+        assertTrue(decoded.isDeletedByBroker());
+        assertEquals("blob", decoded.getType());
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight) {
+        // Messages are decoded in full once values are delta encoded
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS - 1);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setLazyUnmarshalEnabled(true);
+        return wireFormat;
+    }
+
+    private OpenWireTextMessage createMessage() throws Exception {
+        ProducerId producerId = new ProducerId("ID:producer:1:1:1");
+
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, 42));
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        message.setReplyTo(new OpenWireTopic("TEST.REPLY"));
+        message.setCorrelationId("correlation");
+        message.setPersistent(true);
+        message.setPriority((byte) 7);
+        message.setExpiration(123456789L);
+        message.setTimestamp(987654321L);
+        message.setType("custom");
+        message.setUserId("user");
+        message.setRedeliveryCounter(2);
+        message.setBrokerPath(new BrokerId[] { new BrokerId("broker-1"), new BrokerId("broker-2") });
+        message.setProperty("property", "value");
+        message.setText("text");
+        return message;
+    }
+}
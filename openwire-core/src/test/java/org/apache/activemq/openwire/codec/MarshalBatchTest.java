@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.commands.BaseCommand;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConsumerId;
+import org.apache.activemq.openwire.commands.DataStructure;
+import org.apache.activemq.openwire.commands.MessageAck;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.ProducerAck;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.junit.Test;
+
+/**
+ * Tests for marshaling many commands into a single buffer.
+ */
+public class MarshalBatchTest {
+
+    @Test
+    public void testTightBatchMatchesSingleFrames() throws Exception {
+        doTestBatchMatchesSingleFrames(true, false, false);
+    }
+
+    @Test
+    public void testLooseBatchMatchesSingleFrames() throws Exception {
+        doTestBatchMatchesSingleFrames(false, false, false);
+    }
+
+    @Test
+    public void testBatchWithCacheEnabled() throws Exception {
+        doTestBatchMatchesSingleFrames(true, true, false);
+    }
+
+    @Test
+    public void testBatchWithoutSizePrefix() throws Exception {
+        doTestBatchMatchesSingleFrames(false, false, true);
+    }
+
+    private void doTestBatchMatchesSingleFrames(boolean tight, boolean cache, boolean sizePrefixDisabled) throws Exception {
+        List<DataStructure> commands = createCommands(20);
+
+        OpenWireFormat batchFormat = createWireFormat(tight, cache, sizePrefixDisabled);
+        OpenWireFormat singleFormat = createWireFormat(tight, cache, sizePrefixDisabled);
+
+        MarshalledBatch batch = batchFormat.marshalBatch(commands);
+        assertEquals(commands.size(), batch.getFrameCount());
+
+        int expectedOffset = 0;
+        for (int i = 0; i < commands.size(); ++i) {
+            Buffer single = singleFormat.marshal(commands.get(i));
+            assertEquals(expectedOffset, batch.getFrameOffset(i));
+            assertEquals(single, batch.getFrame(i));
+            expectedOffset += single.getLength();
+        }
+        assertEquals(expectedOffset, batch.getBuffer().getLength());
+
+        OpenWireFormat reader = createWireFormat(tight, cache, sizePrefixDisabled);
+        for (int i = 0; i < commands.size(); ++i) {
+            assertSameCommand(commands.get(i), reader.unmarshal(batch.getFrame(i)));
+        }
+    }
+
+    @Test
+    public void testByteBufferBatchGrowsTarget() throws Exception {
+        List<DataStructure> commands = createCommands(20);
+        OpenWireFormat wireFormat = createWireFormat(true, false, false);
+        int[] frameOffsets = new int[commands.size() + 1];
+
+        ByteBuffer target = ByteBuffer.allocate(16);
+        target.put((byte) 1);
+        target = wireFormat.marshalBatch(commands, target, frameOffsets);
+
+        assertEquals(1, frameOffsets[0]);
+        assertEquals(target.position(), frameOffsets[commands.size()]);
+
+        target.flip();
+        assertEquals(1, target.get());
+        for (int i = 0; i < commands.size(); ++i) {
+            assertEquals(frameOffsets[i], target.position());
+            assertSameCommand(commands.get(i), wireFormat.unmarshal(target));
+        }
+    }
+
+    @Test
+    public void testMarshalContextBatch() throws Exception {
+        List<DataStructure> commands = createCommands(5);
+        OpenWireFormat wireFormat = createWireFormat(true, true, false);
+
+        MarshalledBatch batch = wireFormat.createMarshalContext().marshalBatch(commands);
+
+        OpenWireFormat reader = createWireFormat(true, true, false);
+        for (int i = 0; i < commands.size(); ++i) {
+            assertSameCommand(commands.get(i), reader.unmarshal(batch.getFrame(i)));
+        }
+    }
+
+    @Test
+    public void testEmptyBatch() throws Exception {
+        MarshalledBatch batch = createWireFormat(true, false, false).marshalBatch(new ArrayList<DataStructure>());
+        assertEquals(0, batch.getFrameCount());
+        assertEquals(0, batch.getBuffer().getLength());
+    }
+
+    @Test
+    public void testFrameOffsetsTooShort() throws Exception {
+        List<DataStructure> commands = createCommands(3);
+        try {
+            createWireFormat(true, false, false).marshalBatch(commands, ByteBuffer.allocate(64), new int[commands.size()]);
+            fail("Should not accept an offsets array without room for the end position");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private void assertSameCommand(DataStructure expected, Object actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(((BaseCommand) expected).getCommandId(), ((BaseCommand) actual).getCommandId());
+        if (expected instanceof MessageAck) {
+            assertEquals(((MessageAck) expected).getLastMessageId(), ((MessageAck) actual).getLastMessageId());
+        } else {
+            assertEquals(((ProducerAck) expected).getSize(), ((ProducerAck) actual).getSize());
+        }
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight, boolean cache, boolean sizePrefixDisabled) {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setCacheEnabled(cache);
+        wireFormat.setSizePrefixDisabled(sizePrefixDisabled);
+        return wireFormat;
+    }
+
+    private List<DataStructure> createCommands(int count) {
+        ProducerId producerId = new ProducerId("ID:producer:1:1:1");
+        ConsumerId consumerId = new ConsumerId(new SessionId(new ConnectionId("ID:connection:1"), 1), 1);
+
+        List<DataStructure> commands = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            if (i % 2 == 0) {
+                MessageAck ack = new MessageAck();
+                ack.setCommandId(i);
+                ack.setAckType(MessageAck.STANDARD_ACK_TYPE);
+                ack.setDestination(new OpenWireQueue("TEST.QUEUE"));
+                ack.setConsumerId(consumerId);
+                ack.setLastMessageId(new MessageId(producerId, i));
+                ack.setMessageCount(1);
+                commands.add(ack);
+            } else {
+                ProducerAck ack = new ProducerAck(producerId, i * 100);
+                ack.setCommandId(i);
+                commands.add(ack);
+            }
+        }
+        return commands;
+    }
+}
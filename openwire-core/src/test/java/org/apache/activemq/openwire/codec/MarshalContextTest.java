@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.junit.Test;
+
+/**
+ * Tests for the per-thread MarshalContext
+ */
+public class MarshalContextTest {
+
+    private static final int THREADS = 4;
+    private static final int MESSAGES_PER_THREAD = 500;
+
+    @Test
+    public void testTightRoundTrip() throws Exception {
+        doTestRoundTrip(createWireFormat(true, false));
+    }
+
+    @Test
+    public void testLooseRoundTrip() throws Exception {
+        doTestRoundTrip(createWireFormat(false, false));
+    }
+
+    @Test
+    public void testRoundTripWithCacheEnabled() throws Exception {
+        doTestRoundTrip(createWireFormat(true, true));
+    }
+
+    @Test
+    public void testContextsAreIndependent() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+        MarshalContext context1 = wireFormat.createMarshalContext();
+        MarshalContext context2 = wireFormat.createMarshalContext();
+
+        assertNotSame(context1, context2);
+        assertTrue(context1.getWireFormat() == context2.getWireFormat());
+
+        Buffer first = context1.marshal(createMessage(1, 1));
+        Buffer second = context2.marshal(createMessage(2, 2));
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) context1.unmarshal(first);
+        assertEquals("message-1-1", decoded.getText());
+        decoded = (OpenWireTextMessage) context2.unmarshal(second);
+        assertEquals("message-2-2", decoded.getText());
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentMarshalProducesValidFrames() throws Exception {
+        final OpenWireFormat wireFormat = createWireFormat(true, false);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<List<Buffer>>> results = new ArrayList<Future<List<Buffer>>>();
+        for (int i = 0; i < THREADS; ++i) {
+            final int producer = i;
+            results.add(executor.submit(new Callable<List<Buffer>>() {
+
+                @Override
+                public List<Buffer> call() throws Exception {
+                    MarshalContext context = wireFormat.createMarshalContext();
+                    List<Buffer> frames = new ArrayList<Buffer>(MESSAGES_PER_THREAD);
+                    for (int j = 0; j < MESSAGES_PER_THREAD; ++j) {
+                        frames.add(context.marshal(createMessage(producer, j)));
+                    }
+                    return frames;
+                }
+            }));
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        MarshalContext reader = wireFormat.createMarshalContext();
+        for (int i = 0; i < THREADS; ++i) {
+            List<Buffer> frames = results.get(i).get();
+            assertEquals(MESSAGES_PER_THREAD, frames.size());
+            for (int j = 0; j < MESSAGES_PER_THREAD; ++j) {
+                OpenWireTextMessage message = (OpenWireTextMessage) reader.unmarshal(frames.get(j));
+                assertEquals("message-" + i + "-" + j, message.getText());
+                assertEquals(j, message.getMessageId().getProducerSequenceId());
+            }
+        }
+    }
+
+    private void doTestRoundTrip(OpenWireFormat wireFormat) throws Exception {
+        MarshalContext context = wireFormat.createMarshalContext();
+
+        for (int i = 0; i < 10; ++i) {
+            OpenWireTextMessage message = createMessage(0, i);
+            Buffer frame = context.marshal(message);
+
+            OpenWireTextMessage decoded = (OpenWireTextMessage) context.unmarshal(frame);
+            assertEquals(message.getText(), decoded.getText());
+            assertEquals(message.getMessageId(), decoded.getMessageId());
+            assertEquals(message.getDestination(), decoded.getDestination());
+
+            // Frames from a context must also be readable by the wire format itself
+            decoded = (OpenWireTextMessage) wireFormat.unmarshal(context.marshal(message));
+            assertEquals(message.getText(), decoded.getText());
+        }
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight, boolean cache) {
+        // Frames are decoded in another order than they were encoded, which delta encoding prevents
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS - 1);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setCacheEnabled(cache);
+        return wireFormat;
+    }
+
+    private OpenWireTextMessage createMessage(int producer, int sequence) throws Exception {
+        ProducerId producerId = new ProducerId("connection:" + producer + ":1:1");
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, sequence));
+        message.setDestination(new OpenWireQueue("TEST.QUEUE." + producer));
+        message.setText("message-" + producer + "-" + sequence);
+        return message;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.DataStructure;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests the statistics and listener notifications of the marshal cache.
+ */
+public class MarshallCacheStatisticsTest {
+
+    @Test
+    public void testTightEncodingCounters() throws Exception {
+        doTestCounters(true);
+    }
+
+    @Test
+    public void testLooseEncodingCounters() throws Exception {
+        doTestCounters(false);
+    }
+
+    private void doTestCounters(boolean tight) throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(tight, 4);
+        MarshallCacheStatistics statistics = wireFormat.getMarshallCacheStatistics();
+
+        assertTrue(statistics.isCacheEnabled());
+        assertEquals(4, statistics.getCacheSize());
+        assertEquals(0, statistics.getOccupancy());
+
+        OpenWireQueue destination = new OpenWireQueue("TEST.QUEUE");
+        wireFormat.marshal(createMessage(destination));
+        long missesAfterFirst = statistics.getMisses();
+        long hitsAfterFirst = statistics.getHits();
+        long savedAfterFirst = statistics.getBytesSaved();
+        assertTrue(missesAfterFirst > 0);
+
+        wireFormat.marshal(createMessage(destination));
+        assertEquals(missesAfterFirst, statistics.getMisses());
+        assertTrue(statistics.getHits() > hitsAfterFirst);
+        assertTrue(statistics.getBytesSaved() - savedAfterFirst > destination.getPhysicalName().length());
+        assertTrue(statistics.getHitRatio() > 0);
+
+        for (int i = 0; i < 10; ++i) {
+            wireFormat.marshal(createMessage(new OpenWireQueue("TEST.QUEUE." + i)));
+        }
+        assertTrue(statistics.getEvictions() > 0);
+        assertEquals(4, statistics.getOccupancy());
+
+        statistics.resetStatistics();
+        assertEquals(0, statistics.getHits());
+        assertEquals(0, statistics.getMisses());
+        assertEquals(0, statistics.getEvictions());
+        assertEquals(0, statistics.getBytesSaved());
+    }
+
+    @Test
+    public void testListenerIsNotified() throws Exception {
+        final AtomicInteger hits = new AtomicInteger();
+        final AtomicInteger misses = new AtomicInteger();
+        final AtomicInteger evictions = new AtomicInteger();
+
+        OpenWireFormat wireFormat = createWireFormat(true, 2);
+        wireFormat.setMarshallCacheListener(new MarshallCacheListener() {
+
+            @Override
+            public void onCacheHit(short index, DataStructure value, int bytesSaved) {
+                hits.incrementAndGet();
+            }
+
+            @Override
+            public void onCacheMiss(short index, DataStructure value) {
+                misses.incrementAndGet();
+            }
+
+            @Override
+            public void onCacheEviction(short index, DataStructure value) {
+                evictions.incrementAndGet();
+            }
+        });
+
+        OpenWireQueue destination = new OpenWireQueue("TEST.QUEUE");
+        wireFormat.marshal(createMessage(destination));
+        wireFormat.marshal(createMessage(destination));
+        wireFormat.marshal(createMessage(new OpenWireQueue("TEST.OTHER")));
+
+        MarshallCacheStatistics statistics = wireFormat.getMarshallCacheStatistics();
+        assertEquals(statistics.getHits(), hits.get());
+        assertEquals(statistics.getMisses(), misses.get());
+        assertEquals(statistics.getEvictions(), evictions.get());
+        assertTrue(evictions.get() > 0);
+    }
+
+    @Test
+    public void testDisabledCacheReportsZero() throws Exception {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.marshal(createMessage(new OpenWireQueue("TEST.QUEUE")));
+
+        MarshallCacheStatistics statistics = wireFormat.getMarshallCacheStatistics();
+        assertFalse(statistics.isCacheEnabled());
+        assertEquals(0, statistics.getHits());
+        assertEquals(0, statistics.getCacheSize());
+        assertEquals(0.0, statistics.getHitRatio(), 0.0);
+    }
+
+    @Test
+    public void testRegistersAsStandardMBean() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, 16);
+        wireFormat.marshal(createMessage(new OpenWireQueue("TEST.QUEUE")));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.apache.activemq.openwire:type=MarshallCacheStatistics,name=test");
+        server.registerMBean(wireFormat.getMarshallCacheStatistics(), name);
+        try {
+            assertEquals(16, server.getAttribute(name, "CacheSize"));
+            assertEquals(wireFormat.getMarshallCacheStatistics().getMisses(), server.getAttribute(name, "Misses"));
+            assertEquals("FIFO", server.getAttribute(name, "EvictionPolicy"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight, int cacheSize) throws Exception {
+        WireFormatInfo info = new WireFormatInfo();
+        info.setVersion(CommandTypes.PROTOCOL_VERSION);
+        info.setCacheEnabled(true);
+        info.setCacheSize(cacheSize);
+        info.setMaxFrameSize(OpenWireFormat.DEFAULT_MAX_FRAME_SIZE);
+        info.setTightEncodingEnabled(tight);
+
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setPreferedWireFormatInfo(info);
+        wireFormat.renegotiateWireFormat(info);
+        return wireFormat;
+    }
+
+    private OpenWireTextMessage createMessage(OpenWireQueue destination) throws Exception {
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setDestination(destination);
+        message.setText("body");
+        return message;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests for the open addressing marshal cache and its eviction policies.
+ */
+public class MarshallCacheTest {
+
+    @Test
+    public void testLookupMatchesEqualValues() {
+        MarshallCache cache = new MarshallCache(16, MarshallCacheEvictionPolicy.FIFO);
+
+        short index = cache.put(new OpenWireQueue("TEST"));
+        assertEquals(0, index);
+        assertEquals(index, cache.get(new OpenWireQueue("TEST")));
+        assertEquals(-1, cache.get(new OpenWireQueue("OTHER")));
+
+        assertEquals(1, cache.put(null));
+        assertEquals(1, cache.get(null));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testFifoReplacesOldestEntry() {
+        MarshallCache cache = new MarshallCache(3, MarshallCacheEvictionPolicy.FIFO);
+        cache.put(queue(0));
+        cache.put(queue(1));
+        cache.put(queue(2));
+
+        cache.get(queue(0));
+        assertEquals(0, cache.put(queue(3)));
+        assertEquals(-1, cache.get(queue(0)));
+        assertEquals(1, cache.get(queue(1)));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testClockKeepsReferencedEntries() {
+        MarshallCache cache = new MarshallCache(3, MarshallCacheEvictionPolicy.CLOCK);
+        cache.put(queue(0));
+        cache.put(queue(1));
+        cache.put(queue(2));
+
+        cache.get(queue(0));
+        assertEquals(1, cache.put(queue(3)));
+        assertEquals(0, cache.get(queue(0)));
+        assertEquals(-1, cache.get(queue(1)));
+    }
+
+    @Test
+    public void testSampledLruKeepsRecentEntries() {
+        MarshallCache cache = new MarshallCache(2, MarshallCacheEvictionPolicy.SAMPLED_LRU);
+        cache.put(queue(0));
+        cache.put(queue(1));
+
+        // With only two entries the sample always includes the older one.
+        cache.get(queue(0));
+        assertEquals(1, cache.put(queue(2)));
+        assertEquals(0, cache.get(queue(0)));
+        assertEquals(-1, cache.get(queue(1)));
+    }
+
+    @Test
+    public void testAgainstReferenceMapWithChurn() {
+        for (MarshallCacheEvictionPolicy policy : MarshallCacheEvictionPolicy.values()) {
+            MarshallCache cache = new MarshallCache(61, policy);
+            Map<Integer, Short> indexes = new HashMap<Integer, Short>();
+            Integer[] holders = new Integer[61];
+            Random random = new Random(42);
+
+            for (int i = 0; i < 20000; ++i) {
+                int key = random.nextInt(200);
+                short index = cache.get(queue(key));
+                Short expected = indexes.get(key);
+                assertEquals(policy + " lookup of " + key, expected == null ? -1 : expected.shortValue(), index);
+
+                if (index < 0) {
+                    index = cache.put(queue(key));
+                    assertTrue(index >= 0 && index < 61);
+                    if (holders[index] != null) {
+                        indexes.remove(holders[index]);
+                    }
+                    holders[index] = key;
+                    indexes.put(key, index);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTripWithSmallNegotiatedCache() throws Exception {
+        for (MarshallCacheEvictionPolicy policy : MarshallCacheEvictionPolicy.values()) {
+            doTestRoundTrip(policy, true);
+            doTestRoundTrip(policy, false);
+        }
+    }
+
+    private void doTestRoundTrip(MarshallCacheEvictionPolicy policy, boolean tight) throws Exception {
+        OpenWireFormat sender = createWireFormat(policy, tight);
+        OpenWireFormat receiver = createWireFormat(policy, tight);
+        assertEquals(policy, sender.getMarshallCacheEvictionPolicy());
+
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; ++i) {
+            int producer = random.nextInt(40);
+            ProducerId producerId = new ProducerId(new SessionId(new ConnectionId("ID:host-" + producer), 1), producer);
+
+            OpenWireTextMessage message = new OpenWireTextMessage();
+            message.setProducerId(producerId);
+            message.setMessageId(new MessageId(producerId, i));
+            message.setDestination(queue(random.nextInt(10)));
+            message.setText("message-" + i);
+
+            OpenWireTextMessage decoded = (OpenWireTextMessage) receiver.unmarshal(sender.marshal(message));
+            assertEquals(producerId, decoded.getProducerId());
+            assertEquals(message.getMessageId(), decoded.getMessageId());
+            assertEquals(message.getDestination(), decoded.getDestination());
+            assertEquals("message-" + i, decoded.getText());
+        }
+    }
+
+    private OpenWireFormat createWireFormat(MarshallCacheEvictionPolicy policy, boolean tight) throws Exception {
+        WireFormatInfo info = new WireFormatInfo();
+        info.setVersion(CommandTypes.PROTOCOL_VERSION);
+        info.setCacheEnabled(true);
+        info.setCacheSize(16);
+        info.setMaxFrameSize(OpenWireFormat.DEFAULT_MAX_FRAME_SIZE);
+        info.setTightEncodingEnabled(tight);
+
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setMarshallCacheEvictionPolicy(policy);
+        wireFormat.setPreferedWireFormatInfo(info);
+        wireFormat.renegotiateWireFormat(info);
+        return wireFormat;
+    }
+
+    private static OpenWireQueue queue(int id) {
+        return new OpenWireQueue("TEST.QUEUE." + id);
+    }
+}
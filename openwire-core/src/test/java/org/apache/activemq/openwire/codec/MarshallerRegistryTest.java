@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Field;
+
+import org.apache.activemq.openwire.codec.MarshallerRegistry.Codec;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests that marshaller tables are shared between OpenWireFormat instances.
+ */
+public class MarshallerRegistryTest {
+
+    @Test
+    public void testWireFormatsShareMarshallerTables() throws Exception {
+        OpenWireFormat first = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        OpenWireFormat second = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        assertSame(marshallersOf(first), marshallersOf(second));
+        assertSame(MarshallerRegistry.getMarshallers(Codec.SPECIALIZED, CommandTypes.PROTOCOL_VERSION).getMarshallers(), marshallersOf(first));
+
+        first.setVersion(6);
+        assertNotSame(marshallersOf(first), marshallersOf(second));
+        second.setVersion(6);
+        assertSame(marshallersOf(first), marshallersOf(second));
+    }
+
+    @Test
+    public void testRenegotiationInstallsSharedTable() throws Exception {
+        OpenWireFormatFactory factory = new OpenWireFormatFactory();
+        OpenWireFormat wireFormat = factory.createWireFormat();
+
+        WireFormatInfo peerInfo = new WireFormatInfo();
+        peerInfo.setVersion(9);
+        wireFormat.renegotiateWireFormat(peerInfo);
+
+        assertEquals(9, wireFormat.getVersion());
+        assertSame(MarshallerRegistry.getMarshallers(Codec.SPECIALIZED, 9).getMarshallers(), marshallersOf(wireFormat));
+        assertSame(marshallersOf(new OpenWireFormat(9)), marshallersOf(wireFormat));
+    }
+
+    @Test
+    public void testUniversalTableSharedByAllVersions() throws Exception {
+        OpenWireFormat wireFormat = new OpenWireFormat(1);
+        wireFormat.setUseVersionSpecializedCodecs(false);
+        DataStreamMarshaller[] table = marshallersOf(wireFormat);
+
+        wireFormat.setVersion(CommandTypes.PROTOCOL_VERSION);
+        assertSame(table, marshallersOf(wireFormat));
+        assertSame(table, MarshallerRegistry.getMarshallers(Codec.UNIVERSAL, 5).getMarshallers());
+    }
+
+    @Test
+    public void testMarshallersCreatedOnFirstUse() throws Exception {
+        for (boolean specialized : new boolean[] { true, false }) {
+            OpenWireFormat wireFormat = new OpenWireFormat(7);
+            wireFormat.setUseVersionSpecializedCodecs(specialized);
+            DataStreamMarshaller[] table = marshallersOf(wireFormat);
+
+            DataStreamMarshaller marshaller = wireFormat.getMarshaller(CommandTypes.CONNECTION_INFO);
+            assertNotNull(marshaller);
+            assertSame(marshaller, table[CommandTypes.CONNECTION_INFO]);
+            assertSame(marshaller, wireFormat.getMarshaller(CommandTypes.CONNECTION_INFO));
+            assertEquals(CommandTypes.CONNECTION_INFO, marshaller.getDataStructureType());
+
+            // Types the codec does not know are never given an entry
+            assertNull(wireFormat.getMarshaller((byte) 200));
+            assertNull(table[200]);
+        }
+    }
+
+    @Test
+    public void testUnknownLegacyVersionRejected() throws Exception {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setUseLegacyCodecs(true);
+
+        try {
+            wireFormat.setVersion(Integer.MAX_VALUE);
+            fail("Should not be able to select a version with no legacy codec");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // A failed lookup must leave the previous table in place
+        assertEquals(CommandTypes.PROTOCOL_VERSION, wireFormat.getVersion());
+        assertSame(MarshallerRegistry.getMarshallers(Codec.SPECIALIZED, CommandTypes.PROTOCOL_VERSION).getMarshallers(), marshallersOf(wireFormat));
+    }
+
+    private DataStreamMarshaller[] marshallersOf(OpenWireFormat wireFormat) throws Exception {
+        Field field = OpenWireFormat.class.getDeclaredField("dataMarshallers");
+        field.setAccessible(true);
+        return (DataStreamMarshaller[]) field.get(wireFormat);
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.junit.Test;
+
+/**
+ * Tests for reassembling frames from partial reads.
+ */
+public class OpenWireFrameDecoderTest {
+
+    private static final int MESSAGES = 10;
+
+    @Test
+    public void testTightFramesFedOneByteAtATime() throws Exception {
+        doTestFramesFedInChunks(createWireFormat(true, false), 1);
+    }
+
+    @Test
+    public void testLooseFramesFedInOddChunks() throws Exception {
+        doTestFramesFedInChunks(createWireFormat(false, false), 37);
+    }
+
+    @Test
+    public void testFramesFedAllAtOnce() throws Exception {
+        doTestFramesFedInChunks(createWireFormat(true, false), Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testSizePrefixDisabledFedOneByteAtATime() throws Exception {
+        doTestFramesFedInChunks(createWireFormat(true, true), 1);
+    }
+
+    @Test
+    public void testSizePrefixDisabledFedInOddChunks() throws Exception {
+        doTestFramesFedInChunks(createWireFormat(false, true), 53);
+    }
+
+    private void doTestFramesFedInChunks(OpenWireFormat wireFormat, int chunkSize) throws Exception {
+        OpenWireFormat sender = wireFormat.copy();
+        DataByteArrayOutputStream stream = new DataByteArrayOutputStream();
+        for (int i = 0; i < MESSAGES; ++i) {
+            stream.write(sender.marshal(createMessage(i)));
+        }
+
+        OpenWireFrameDecoder decoder = new OpenWireFrameDecoder(wireFormat, 16);
+        List<Object> received = feed(decoder, stream.toBuffer(), chunkSize);
+
+        assertEquals(MESSAGES, received.size());
+        for (int i = 0; i < MESSAGES; ++i) {
+            OpenWireTextMessage message = (OpenWireTextMessage) received.get(i);
+            assertEquals("message-" + i, message.getText());
+            assertEquals(i, message.getMessageId().getProducerSequenceId());
+        }
+        assertEquals(0, decoder.getBufferedSize());
+    }
+
+    @Test
+    public void testPollFrameReturnsEncodedFrames() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+        Buffer first = wireFormat.marshal(createMessage(1));
+        Buffer second = wireFormat.marshal(createMessage(2));
+
+        OpenWireFrameDecoder decoder = new OpenWireFrameDecoder(wireFormat);
+        decoder.feed(first);
+        decoder.feed(new Buffer(second.getData(), second.getOffset(), 10));
+
+        assertEquals(first, decoder.pollFrame());
+        assertNull(decoder.pollFrame());
+        assertEquals(10, decoder.getBufferedSize());
+
+        decoder.feed(new Buffer(second.getData(), second.getOffset() + 10, second.getLength() - 10));
+        assertEquals(second, decoder.pollFrame());
+        assertNull(decoder.pollFrame());
+    }
+
+    @Test
+    public void testMaxFrameSizeCheckedBeforeFrameIsBuffered() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+        wireFormat.setMaxFrameSize(1024);
+
+        ByteBuffer header = ByteBuffer.allocate(5);
+        header.putInt(1024 * 1024).put(CommandTypes.OPENWIRE_TEXT_MESSAGE).flip();
+
+        OpenWireFrameDecoder decoder = new OpenWireFrameDecoder(wireFormat);
+        decoder.feed(header);
+        try {
+            decoder.pollCommand();
+            fail("Should have rejected the oversized frame");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("larger than max allowed"));
+        }
+    }
+
+    @Test
+    public void testPrefixedWireFormatInfoWithSizePrefixDisabled() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(false, true);
+
+        // The opening WireFormatInfo is written before the size prefix is negotiated away.
+        OpenWireFormat handshake = createWireFormat(false, false);
+        DataByteArrayOutputStream stream = new DataByteArrayOutputStream();
+        stream.write(handshake.marshal(new WireFormatInfo()));
+        stream.write(wireFormat.marshal(createMessage(1)));
+
+        OpenWireFrameDecoder decoder = new OpenWireFrameDecoder(wireFormat);
+        List<Object> received = feed(decoder, stream.toBuffer(), 3);
+
+        assertEquals(2, received.size());
+        assertTrue(((WireFormatInfo) received.get(0)).isValid());
+        assertEquals("message-1", ((OpenWireTextMessage) received.get(1)).getText());
+    }
+
+    @Test
+    public void testZeroCopyCommandDoesNotShareDecoderBuffer() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+        wireFormat.setZeroCopyUnmarshalEnabled(true);
+
+        OpenWireFrameDecoder decoder = new OpenWireFrameDecoder(wireFormat);
+        decoder.feed(wireFormat.marshal(createMessage(1)));
+        OpenWireTextMessage message = (OpenWireTextMessage) decoder.pollCommand();
+
+        // Overwrite the decoder's buffer with the next frame before reading the content.
+        decoder.feed(wireFormat.marshal(createMessage(2)));
+        assertEquals("message-1", message.getText());
+        assertEquals("message-2", ((OpenWireTextMessage) decoder.pollCommand()).getText());
+    }
+
+    private List<Object> feed(OpenWireFrameDecoder decoder, Buffer data, int chunkSize) throws IOException {
+        List<Object> received = new ArrayList<>();
+        for (int offset = 0; offset < data.getLength(); offset += chunkSize) {
+            int length = Math.min(chunkSize, data.getLength() - offset);
+            decoder.feed(ByteBuffer.wrap(data.getData(), data.getOffset() + offset, length));
+
+            Object command;
+            while ((command = decoder.pollCommand()) != null) {
+                received.add(command);
+            }
+        }
+        return received;
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight, boolean sizePrefixDisabled) {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setSizePrefixDisabled(sizePrefixDisabled);
+        return wireFormat;
+    }
+
+    private OpenWireTextMessage createMessage(int sequence) throws Exception {
+        ProducerId producerId = new ProducerId("ID:producer:1:1:1");
+
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, sequence));
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        message.setText("message-" + sequence);
+        return message;
+    }
+}
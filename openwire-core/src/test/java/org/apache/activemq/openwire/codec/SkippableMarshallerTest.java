@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+import org.apache.activemq.openwire.commands.BrokerId;
+import org.apache.activemq.openwire.commands.BrokerInfo;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConnectionInfo;
+import org.apache.activemq.openwire.commands.ConsumerId;
+import org.apache.activemq.openwire.commands.ConsumerInfo;
+import org.apache.activemq.openwire.commands.DataStructure;
+import org.apache.activemq.openwire.commands.ExceptionResponse;
+import org.apache.activemq.openwire.commands.LocalTransactionId;
+import org.apache.activemq.openwire.commands.MessageAck;
+import org.apache.activemq.openwire.commands.MessageDispatch;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.junit.Test;
+
+/**
+ * Tests skipping encoded commands and locating their properties without unmarshaling them.
+ */
+public class SkippableMarshallerTest {
+
+    private static final int CLIENT_ID_FIELD = 3;
+    private static final int CLIENT_IP_FIELD = 12;
+
+    @Test
+    public void testTightSkipStopsAtEndOfEachCommand() throws Exception {
+        doTestSkipStopsAtEndOfEachCommand(true, false);
+        doTestSkipStopsAtEndOfEachCommand(true, true);
+    }
+
+    @Test
+    public void testLooseSkipStopsAtEndOfEachCommand() throws Exception {
+        doTestSkipStopsAtEndOfEachCommand(false, false);
+        doTestSkipStopsAtEndOfEachCommand(false, true);
+    }
+
+    private void doTestSkipStopsAtEndOfEachCommand(boolean tight, boolean cacheEnabled) throws Exception {
+        for (int version = 1; version <= CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS; ++version) {
+            for (boolean universal : new boolean[] { false, true }) {
+                OpenWireFormat writer = createWireFormat(version, tight, universal);
+                writer.setCacheEnabled(cacheEnabled);
+                writer.setSizePrefixDisabled(true);
+
+                DataByteArrayOutputStream output = new DataByteArrayOutputStream();
+                List<Integer> boundaries = new ArrayList<>();
+                for (DataStructure command : createCommands()) {
+                    writer.marshal(command, output);
+                    boundaries.add(output.size());
+                }
+
+                // Skipping never consults the cache so a fresh wire format must do
+                OpenWireFormat reader = createWireFormat(version, tight, universal);
+                reader.setCacheEnabled(cacheEnabled);
+                reader.setSizePrefixDisabled(true);
+
+                DataByteArrayInputStream input = new DataByteArrayInputStream(output.toBuffer());
+                for (int i = 0; i < boundaries.size(); ++i) {
+                    reader.skip(input);
+                    assertEquals("command " + i + " at version " + version, (int) boundaries.get(i), input.getPos());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSkipUsesSizePrefix() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(CommandTypes.PROTOCOL_VERSION, true, false);
+
+        DataByteArrayOutputStream output = new DataByteArrayOutputStream();
+        for (DataStructure command : createCommands()) {
+            wireFormat.marshal(command, output);
+        }
+        wireFormat.marshal(createConnectionInfo(), output);
+        int end = output.size();
+
+        DataByteArrayInputStream input = new DataByteArrayInputStream(output.toBuffer());
+        for (int i = 0; i < createCommands().size(); ++i) {
+            wireFormat.skip(input);
+        }
+
+        assertTrue(wireFormat.unmarshal(input) instanceof ConnectionInfo);
+        assertEquals(end, input.getPos());
+    }
+
+    @Test
+    public void testSkipTruncatedFrameFails() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(CommandTypes.PROTOCOL_VERSION, true, false);
+        Buffer frame = wireFormat.marshal(createConnectionInfo());
+
+        try {
+            wireFormat.skip(new DataByteArrayInputStream(new Buffer(frame.getData(), frame.getOffset(), frame.getLength() - 1)));
+            fail("Should not be able to skip a truncated frame");
+        } catch (EOFException expected) {
+        }
+    }
+
+    @Test
+    public void testTightFieldOffsetsLocateProperties() throws Exception {
+        doTestFieldOffsetsLocateProperties(true);
+    }
+
+    @Test
+    public void testLooseFieldOffsetsLocateProperties() throws Exception {
+        doTestFieldOffsetsLocateProperties(false);
+    }
+
+    private void doTestFieldOffsetsLocateProperties(boolean tight) throws Exception {
+        for (int version = 1; version <= CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS; ++version) {
+            for (boolean universal : new boolean[] { false, true }) {
+                OpenWireFormat wireFormat = createWireFormat(version, tight, universal);
+                ConnectionInfo info = createConnectionInfo();
+
+                // Place the frame inside a larger array to check offsets are frame relative
+                Buffer encoded = wireFormat.marshal(info);
+                byte[] data = new byte[encoded.getLength() + 10];
+                System.arraycopy(encoded.getData(), encoded.getOffset(), data, 5, encoded.getLength());
+                Buffer frame = new Buffer(data, 5, encoded.getLength());
+
+                int[] offsets = wireFormat.fieldOffsets(frame);
+                String context = "version " + version + (tight ? " tight" : " loose");
+
+                assertEquals(context, 13, offsets.length);
+
+                DataByteArrayInputStream input = new DataByteArrayInputStream(encoded);
+                input.skip(offsets[0]);
+                assertEquals(context, info.getCommandId(), input.readInt());
+
+                if (!tight) {
+                    input = new DataByteArrayInputStream(encoded);
+                    input.skip(offsets[CLIENT_ID_FIELD]);
+                    assertTrue(context, input.readBoolean());
+                    assertEquals(context, info.getClientId(), input.readUTF());
+                }
+
+                if (version >= 8) {
+                    assertTrue(context, offsets[CLIENT_IP_FIELD] > offsets[CLIENT_ID_FIELD]);
+                    if (!tight) {
+                        input = new DataByteArrayInputStream(encoded);
+                        input.skip(offsets[CLIENT_IP_FIELD]);
+                        assertTrue(context, input.readBoolean());
+                        assertEquals(context, info.getClientIp(), input.readUTF());
+                    }
+                } else {
+                    assertEquals(context, -1, offsets[CLIENT_IP_FIELD]);
+                }
+
+                for (int i = 1; i < offsets.length; ++i) {
+                    assertTrue(context, offsets[i] == -1 || offsets[i] >= offsets[i - 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFieldCountIncludesSuperTypes() throws Exception {
+        for (boolean universal : new boolean[] { false, true }) {
+            OpenWireFormat wireFormat = createWireFormat(1, true, universal);
+            int[] offsets = wireFormat.fieldOffsets(wireFormat.marshal(createConnectionInfo()));
+
+            // Properties added in later versions still have a slot
+            assertEquals(13, offsets.length);
+            assertEquals(-1, offsets[CLIENT_IP_FIELD]);
+        }
+    }
+
+    @Test
+    public void testFieldOffsetsOfNullCommand() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(CommandTypes.PROTOCOL_VERSION, true, false);
+        assertEquals(0, wireFormat.fieldOffsets(wireFormat.marshal(null)).length);
+    }
+
+    private OpenWireFormat createWireFormat(int version, boolean tight, boolean universal) {
+        OpenWireFormat wireFormat = new OpenWireFormat(version);
+        wireFormat.setUseVersionSpecializedCodecs(!universal);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setCacheEnabled(false);
+        return wireFormat;
+    }
+
+    private ConnectionInfo createConnectionInfo() {
+        ConnectionInfo connectionInfo = new ConnectionInfo(new ConnectionId("ID:connection-1"));
+        connectionInfo.setCommandId(17);
+        connectionInfo.setClientId("client");
+        connectionInfo.setUserName("user");
+        connectionInfo.setClientMaster(true);
+        connectionInfo.setClientIp("127.0.0.1");
+        return connectionInfo;
+    }
+
+    private List<DataStructure> createCommands() throws Exception {
+        List<DataStructure> commands = new ArrayList<>();
+
+        ConnectionId connectionId = new ConnectionId("ID:connection-1");
+        ProducerId producerId = new ProducerId("ID:producer-1:1:1");
+        ConsumerId consumerId = new ConsumerId(new SessionId(connectionId, 1), 1);
+        OpenWireQueue queue = new OpenWireQueue("skip");
+
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setMessageId(new MessageId(producerId, 1));
+        message.setProducerId(producerId);
+        message.setDestination(queue);
+        message.setTransactionId(new LocalTransactionId(connectionId, 5));
+        message.setText("text");
+        message.setProperty("key", "value");
+        commands.add(message);
+
+        MessageDispatch dispatch = new MessageDispatch();
+        dispatch.setConsumerId(consumerId);
+        dispatch.setDestination(queue);
+        dispatch.setMessage(message);
+        dispatch.setRedeliveryCounter(2);
+        commands.add(dispatch);
+
+        MessageAck ack = new MessageAck();
+        ack.setConsumerId(consumerId);
+        ack.setDestination(queue);
+        ack.setFirstMessageId(message.getMessageId());
+        ack.setLastMessageId(message.getMessageId());
+        ack.setMessageCount(1);
+        commands.add(ack);
+
+        ConsumerInfo consumerInfo = new ConsumerInfo(consumerId);
+        consumerInfo.setDestination(queue);
+        consumerInfo.setBrokerPath(new BrokerId[] { new BrokerId("a"), new BrokerId("b") });
+        commands.add(consumerInfo);
+
+        BrokerInfo brokerInfo = new BrokerInfo();
+        brokerInfo.setBrokerId(new BrokerId("broker"));
+        brokerInfo.setPeerBrokerInfos(new BrokerInfo[] { new BrokerInfo() });
+        commands.add(brokerInfo);
+
+        ExceptionResponse response = new ExceptionResponse(new IllegalStateException("failed"));
+        response.setCorrelationId(3);
+        commands.add(response);
+
+        commands.add(createConnectionInfo());
+        commands.add(null);
+
+        return commands;
+    }
+}
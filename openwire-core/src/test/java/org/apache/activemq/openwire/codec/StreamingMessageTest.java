@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.KeepAliveInfo;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireBytesMessage;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.junit.Test;
+
+/**
+ * Tests for streaming message content as a sequence of chunk frames.
+ */
+public class StreamingMessageTest {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    @Test
+    public void testTightRoundTrip() throws Exception {
+        doTestRoundTrip(true, 10 * CHUNK_SIZE + 17);
+    }
+
+    @Test
+    public void testLooseRoundTrip() throws Exception {
+        doTestRoundTrip(false, 10 * CHUNK_SIZE + 17);
+    }
+
+    @Test
+    public void testContentIsExactMultipleOfChunkSize() throws Exception {
+        doTestRoundTrip(true, 4 * CHUNK_SIZE);
+    }
+
+    @Test
+    public void testEmptyContent() throws Exception {
+        doTestRoundTrip(true, 0);
+    }
+
+    @Test
+    public void testWriteFromChannel() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+        byte[] payload = createPayload(3 * CHUNK_SIZE + 5);
+
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        StreamingMessageWriter writer = new StreamingMessageWriter(wireFormat, CHUNK_SIZE);
+        writer.write(createHeader(1), Channels.newChannel(new ByteArrayInputStream(payload)), new DataOutputStream(frames));
+
+        StreamingMessageReader reader = createReader(wireFormat, frames);
+        reader.read();
+        assertTrue(Arrays.equals(payload, readFully(reader.getContent())));
+    }
+
+    @Test
+    public void testUnreadContentIsSkipped() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(frames);
+        StreamingMessageWriter writer = new StreamingMessageWriter(wireFormat, CHUNK_SIZE);
+        writer.write(createHeader(1), new ByteArrayInputStream(createPayload(5 * CHUNK_SIZE)), out);
+        wireFormat.marshal(new KeepAliveInfo(), out);
+        writer.write(createHeader(2), new ByteArrayInputStream(createPayload(10)), out);
+
+        StreamingMessageReader reader = createReader(wireFormat, frames);
+
+        OpenWireBytesMessage first = (OpenWireBytesMessage) reader.read();
+        assertEquals(1, first.getCommandId());
+        assertEquals(0, reader.getContent().read());
+
+        assertTrue(reader.read() instanceof KeepAliveInfo);
+        assertNull(reader.getContent());
+
+        OpenWireBytesMessage second = (OpenWireBytesMessage) reader.read();
+        assertEquals(2, second.getCommandId());
+        assertEquals(10, readFully(reader.getContent()).length);
+    }
+
+    @Test
+    public void testHeaderWithContentIsRejected() throws Exception {
+        OpenWireBytesMessage header = createHeader(1);
+        header.setBodyBytes(new byte[1]);
+
+        try {
+            new StreamingMessageWriter(createWireFormat(true)).write(
+                header, new ByteArrayInputStream(new byte[1]), new DataOutputStream(new ByteArrayOutputStream()));
+            fail("Should not allow streaming a message that has content");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testMismatchedChunkIsRejected() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true);
+
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(frames);
+        OpenWireBytesMessage header = createHeader(1);
+        header.setProperty(StreamingMessageWriter.STREAMED_CONTENT_PROPERTY, Boolean.TRUE);
+        wireFormat.marshal(header, out);
+        wireFormat.marshal(new KeepAliveInfo(), out);
+
+        StreamingMessageReader reader = createReader(wireFormat, frames);
+        reader.read();
+        try {
+            reader.getContent().read();
+            fail("Should detect a missing content chunk");
+        } catch (IOException expected) {
+        }
+    }
+
+    private void doTestRoundTrip(boolean tight, int size) throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(tight);
+        byte[] payload = createPayload(size);
+
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        StreamingMessageWriter writer = new StreamingMessageWriter(wireFormat, CHUNK_SIZE);
+        writer.write(createHeader(42), new ByteArrayInputStream(payload), new DataOutputStream(frames));
+
+        StreamingMessageReader reader = createReader(wireFormat, frames);
+        OpenWireBytesMessage header = (OpenWireBytesMessage) reader.read();
+        assertTrue(StreamingMessageReader.isStreamed(header));
+        assertEquals(42, header.getCommandId());
+        assertNull(header.getContent());
+        assertEquals(new OpenWireQueue("TEST.QUEUE"), header.getDestination());
+
+        InputStream content = reader.getContent();
+        assertTrue(Arrays.equals(payload, readFully(content)));
+        assertEquals(-1, content.read());
+    }
+
+    private StreamingMessageReader createReader(OpenWireFormat wireFormat, ByteArrayOutputStream frames) {
+        OpenWireFormat readFormat = wireFormat.copy();
+        return new StreamingMessageReader(readFormat, new DataInputStream(new ByteArrayInputStream(frames.toByteArray())));
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight) {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(tight);
+        return wireFormat;
+    }
+
+    private OpenWireBytesMessage createHeader(int commandId) {
+        ProducerId producerId = new ProducerId("connection:1:1:1");
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setCommandId(commandId);
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, commandId));
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        return message;
+    }
+
+    private byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[333];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] createPayload(int size) {
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            payload[i] = (byte) (i * 31);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.nio.ByteBuffer;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.junit.Test;
+
+/**
+ * Tests the tight encoding of String fields and the decoded string cache.
+ */
+public class StringMarshalingTest {
+
+    @Test
+    public void testAsciiAndUnicodeRoundTrip() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(0);
+
+        OpenWireTextMessage message = createMessage();
+        message.setType("plain-ascii-type");
+        message.setGroupID("gr\u00f6up-\u20ac-\u0000");
+        message.setUserId("");
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(wireFormat.marshal(message));
+        assertEquals("plain-ascii-type", decoded.getType());
+        assertEquals("gr\u00f6up-\u20ac-\u0000", decoded.getGroupId());
+        assertEquals("", decoded.getUserId());
+
+        ByteBuffer buffer = wireFormat.marshal(message, ByteBuffer.allocate(16));
+        buffer.flip();
+        decoded = (OpenWireTextMessage) wireFormat.unmarshal(buffer);
+        assertEquals("plain-ascii-type", decoded.getType());
+        assertEquals("gr\u00f6up-\u20ac-\u0000", decoded.getGroupId());
+    }
+
+    @Test
+    public void testStringCacheReusesDecodedValues() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(64);
+        assertEquals(64, wireFormat.getStringCacheSize());
+
+        OpenWireTextMessage message = createMessage();
+        message.setType("cached-type");
+        message.setUserId("cached-user");
+
+        Buffer frame = wireFormat.marshal(message);
+        OpenWireTextMessage first = (OpenWireTextMessage) wireFormat.unmarshal(frame);
+        OpenWireTextMessage second = (OpenWireTextMessage) wireFormat.unmarshal(frame);
+
+        assertEquals("cached-type", first.getType());
+        assertSame(first.getType(), second.getType());
+        assertSame(first.getUserId(), second.getUserId());
+    }
+
+    @Test
+    public void testStringCacheSkipsLongValues() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(64);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i <= AsciiStringCache.MAX_CACHED_LENGTH; ++i) {
+            builder.append('x');
+        }
+
+        OpenWireTextMessage message = createMessage();
+        message.setType(builder.toString());
+
+        Buffer frame = wireFormat.marshal(message);
+        OpenWireTextMessage first = (OpenWireTextMessage) wireFormat.unmarshal(frame);
+        OpenWireTextMessage second = (OpenWireTextMessage) wireFormat.unmarshal(frame);
+
+        assertEquals(builder.toString(), first.getType());
+        assertNotSame(first.getType(), second.getType());
+    }
+
+    @Test
+    public void testCacheCollisionReplacesEntry() throws Exception {
+        AsciiStringCache cache = new AsciiStringCache(1);
+        byte[] first = "first".getBytes("US-ASCII");
+        byte[] second = "second".getBytes("US-ASCII");
+
+        String value = cache.intern(first, 0, first.length);
+        assertSame(value, cache.intern(first, 0, first.length));
+        assertEquals("second", cache.intern(second, 0, second.length));
+        assertNotSame(value, cache.intern(first, 0, first.length));
+    }
+
+    private OpenWireFormat createWireFormat(int stringCacheSize) {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(true);
+        wireFormat.setStringCacheSize(stringCacheSize);
+        return wireFormat;
+    }
+
+    private OpenWireTextMessage createMessage() throws Exception {
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        message.setText("body");
+        return message;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConsumerId;
+import org.apache.activemq.openwire.commands.MessageAck;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that memoized sizing of id types and destinations produces the same encoding.
+ */
+public class TightMarshalMemoTest {
+
+    private OpenWireFormat wireFormat;
+
+    @Before
+    public void setUp() {
+        // Repeated frames only encode identically before timestamps were delta encoded
+        wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS - 1);
+        wireFormat.setTightEncodingEnabled(true);
+    }
+
+    @Test
+    public void testMemoIsRecordedAndReused() throws Exception {
+        OpenWireQueue destination = new OpenWireQueue("TEST.QUEUE");
+        ProducerId producerId = new ProducerId("ID:host-1234-1:1:1");
+
+        OpenWireTextMessage message = createMessage(destination, producerId, 1);
+        Buffer first = wireFormat.marshal(message);
+
+        TightMarshalMemo destinationMemo = destination.getTightMarshalMemo();
+        assertNotNull(destinationMemo);
+        assertNotNull(producerId.getTightMarshalMemo());
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(first);
+        assertEquals(destination, decoded.getDestination());
+        assertEquals(producerId, decoded.getProducerId());
+
+        Buffer second = wireFormat.marshal(createMessage(destination, producerId, 1));
+        assertSame(destinationMemo, destination.getTightMarshalMemo());
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+    }
+
+    @Test
+    public void testMemoDiscardedWhenFieldChanges() throws Exception {
+        ProducerId producerId = new ProducerId("ID:host-1234-1:1:1");
+        OpenWireQueue destination = new OpenWireQueue("TEST.QUEUE");
+
+        wireFormat.marshal(createMessage(destination, producerId, 1));
+        assertNotNull(producerId.getTightMarshalMemo());
+
+        producerId.setConnectionId("ID:a-much-longer-connection-id-\u00e9-1234-1");
+        assertNull(producerId.getTightMarshalMemo());
+        destination.setPhysicalName("TEST.OTHER.QUEUE");
+        assertNull(destination.getTightMarshalMemo());
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(
+            wireFormat.marshal(createMessage(destination, producerId, 2)));
+
+        assertEquals(producerId, decoded.getProducerId());
+        assertEquals("TEST.OTHER.QUEUE", decoded.getDestination().getPhysicalName());
+    }
+
+    @Test
+    public void testMemoNotSharedAcrossVersions() throws Exception {
+        ConsumerId consumerId = new ConsumerId(new SessionId(new ConnectionId("ID:host-1234-1"), 1), 1);
+        MessageAck ack = new MessageAck();
+        ack.setConsumerId(consumerId);
+        ack.setDestination(new OpenWireQueue("TEST.QUEUE"));
+
+        wireFormat.marshal(ack);
+        TightMarshalMemo memo = consumerId.getTightMarshalMemo();
+        assertNotNull(memo);
+
+        OpenWireFormat older = new OpenWireFormat(1);
+        older.setTightEncodingEnabled(true);
+
+        MessageAck decoded = (MessageAck) older.unmarshal(older.marshal(ack));
+        assertEquals(consumerId, decoded.getConsumerId());
+        assertNotSame(memo, consumerId.getTightMarshalMemo());
+    }
+
+    private OpenWireTextMessage createMessage(OpenWireQueue destination, ProducerId producerId, long sequence) throws Exception {
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setDestination(destination);
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, sequence));
+        message.setText("hello");
+        return message;
+    }
+}
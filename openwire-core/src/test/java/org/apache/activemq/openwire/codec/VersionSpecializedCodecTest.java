@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.codec.specialized.ConsumerInfoMarshallerV1;
+import org.apache.activemq.openwire.codec.specialized.ConsumerInfoMarshallerV10;
+import org.apache.activemq.openwire.codec.specialized.ConsumerInfoMarshallerV4;
+import org.apache.activemq.openwire.codec.specialized.OpenWireTextMessageMarshallerV10;
+import org.apache.activemq.openwire.codec.universal.BrokerIdMarshaller;
+import org.apache.activemq.openwire.commands.BrokerId;
+import org.apache.activemq.openwire.commands.BrokerInfo;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConnectionInfo;
+import org.apache.activemq.openwire.commands.ConsumerId;
+import org.apache.activemq.openwire.commands.ConsumerInfo;
+import org.apache.activemq.openwire.commands.DataStructure;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.MessagePull;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.apache.activemq.openwire.commands.ProducerInfo;
+import org.apache.activemq.openwire.commands.RemoveInfo;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.junit.Test;
+
+/**
+ * Tests that the version specialized marshallers encode exactly as the universal codec.
+ */
+public class VersionSpecializedCodecTest {
+
+    @Test
+    public void testSpecializedMarshallersAreInstalledByDefault() throws Exception {
+        OpenWireFormat wireFormat = new OpenWireFormat(1);
+        assertTrue(wireFormat.isUseVersionSpecializedCodecs());
+        assertTrue(marshallerFor(wireFormat, ConsumerInfo.DATA_STRUCTURE_TYPE) instanceof ConsumerInfoMarshallerV1);
+
+        wireFormat.setVersion(4);
+        assertTrue(marshallerFor(wireFormat, ConsumerInfo.DATA_STRUCTURE_TYPE) instanceof ConsumerInfoMarshallerV4);
+
+        wireFormat.setVersion(9);
+        assertTrue(marshallerFor(wireFormat, ConsumerInfo.DATA_STRUCTURE_TYPE) instanceof ConsumerInfoMarshallerV4);
+
+        wireFormat.setVersion(CommandTypes.PROTOCOL_VERSION);
+        assertTrue(marshallerFor(wireFormat, ConsumerInfo.DATA_STRUCTURE_TYPE) instanceof ConsumerInfoMarshallerV10);
+        assertTrue(marshallerFor(wireFormat, OpenWireTextMessage.DATA_STRUCTURE_TYPE) instanceof OpenWireTextMessageMarshallerV10);
+
+        // Types whose encoding never changes keep using the universal marshaller
+        assertTrue(marshallerFor(wireFormat, BrokerId.DATA_STRUCTURE_TYPE) instanceof BrokerIdMarshaller);
+    }
+
+    @Test
+    public void testUniversalMarshallersUsedWhenDisabled() throws Exception {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setUseVersionSpecializedCodecs(false);
+
+        DataStreamMarshaller marshaller = marshallerFor(wireFormat, ConsumerInfo.DATA_STRUCTURE_TYPE);
+        assertEquals("org.apache.activemq.openwire.codec.universal", marshaller.getClass().getPackage().getName());
+        assertEquals(CommandTypes.PROTOCOL_VERSION, wireFormat.getVersion());
+
+        OpenWireFormat copy = wireFormat.copy();
+        assertFalse(copy.isUseVersionSpecializedCodecs());
+    }
+
+    @Test
+    public void testTightEncodingMatchesUniversalForAllVersions() throws Exception {
+        doTestEncodingMatchesUniversalForAllVersions(true);
+    }
+
+    @Test
+    public void testLooseEncodingMatchesUniversalForAllVersions() throws Exception {
+        doTestEncodingMatchesUniversalForAllVersions(false);
+    }
+
+    private void doTestEncodingMatchesUniversalForAllVersions(boolean tight) throws Exception {
+        for (int version = 1; version <= CommandTypes.PROTOCOL_VERSION_COMPACT_NUMERICS; ++version) {
+            for (DataStructure command : createCommands()) {
+                // Every encoding starts from a fresh connection so that delta encoded values match
+                OpenWireFormat specialized = createWireFormat(version, tight, true);
+                OpenWireFormat universal = createWireFormat(version, tight, false);
+
+                Buffer expected = universal.marshal(command);
+                Buffer actual = specialized.marshal(command);
+
+                String context = command.getClass().getSimpleName() + " at version " + version;
+                assertArrayEquals(context, expected.toByteArray(), actual.toByteArray());
+
+                // The size prefix must cover exactly the encoded command
+                assertEquals(context, actual.getLength() - 4, new DataByteArrayInputStream(actual).readInt());
+
+                // Each codec must be able to read what the other one wrote
+                Object decoded = specialized.unmarshal(expected);
+                assertEquals(context, command.getClass(), decoded.getClass());
+                assertArrayEquals(context, expected.toByteArray(), createWireFormat(version, tight, false).marshal(decoded).toByteArray());
+                assertArrayEquals(context, expected.toByteArray(), createWireFormat(version, tight, true).marshal(universal.unmarshal(actual)).toByteArray());
+            }
+        }
+    }
+
+    private DataStreamMarshaller marshallerFor(OpenWireFormat wireFormat, byte type) throws Exception {
+        return wireFormat.getMarshaller(type);
+    }
+
+    private OpenWireFormat createWireFormat(int version, boolean tight, boolean specialized) {
+        OpenWireFormat wireFormat = new OpenWireFormat(version);
+        wireFormat.setUseVersionSpecializedCodecs(specialized);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setCacheEnabled(false);
+        return wireFormat;
+    }
+
+    private List<DataStructure> createCommands() throws Exception {
+        List<DataStructure> commands = new ArrayList<>();
+
+        ProducerId producerId = new ProducerId("ID:producer-1:1:1");
+        OpenWireQueue queue = new OpenWireQueue("specialized");
+
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setMessageId(new MessageId(producerId, 1));
+        message.setProducerId(producerId);
+        message.setDestination(queue);
+        message.setText("text");
+        message.setBrokerInTime(1000);
+        message.setBrokerOutTime(2000);
+        message.setDroppable(true);
+        message.setJMSXGroupFirstForConsumer(true);
+        commands.add(message);
+
+        ConnectionId connectionId = new ConnectionId("ID:connection-1");
+        ConsumerInfo consumerInfo = new ConsumerInfo(new ConsumerId(new SessionId(connectionId, 1), 1));
+        consumerInfo.setDestination(queue);
+        consumerInfo.setClientId("client");
+        consumerInfo.setNoRangeAcks(true);
+        commands.add(consumerInfo);
+
+        ConnectionInfo connectionInfo = new ConnectionInfo(connectionId);
+        connectionInfo.setClientId("client");
+        connectionInfo.setClientMaster(true);
+        connectionInfo.setFaultTolerant(true);
+        connectionInfo.setFailoverReconnect(true);
+        connectionInfo.setClientIp("127.0.0.1");
+        commands.add(connectionInfo);
+
+        BrokerInfo brokerInfo = new BrokerInfo();
+        brokerInfo.setBrokerId(new BrokerId("broker"));
+        brokerInfo.setBrokerUploadUrl("http://localhost");
+        brokerInfo.setNetworkConnection(true);
+        brokerInfo.setDuplexConnection(true);
+        brokerInfo.setConnectionId(42);
+        commands.add(brokerInfo);
+
+        MessagePull pull = new MessagePull();
+        pull.setConsumerId(consumerInfo.getConsumerId());
+        pull.setDestination(queue);
+        pull.setCorrelationId("correlation");
+        pull.setMessageId(message.getMessageId());
+        commands.add(pull);
+
+        ProducerInfo producerInfo = new ProducerInfo(producerId);
+        producerInfo.setDispatchAsync(true);
+        producerInfo.setWindowSize(1024);
+        commands.add(producerInfo);
+
+        RemoveInfo removeInfo = new RemoveInfo(consumerInfo.getConsumerId());
+        removeInfo.setLastDeliveredSequenceId(7);
+        commands.add(removeInfo);
+
+        return commands;
+    }
+}
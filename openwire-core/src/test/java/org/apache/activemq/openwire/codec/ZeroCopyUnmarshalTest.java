@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.commands.CommandTypes;
+import org.apache.activemq.openwire.commands.MessageId;
+import org.apache.activemq.openwire.commands.OpenWireBytesMessage;
+import org.apache.activemq.openwire.commands.OpenWireQueue;
+import org.apache.activemq.openwire.commands.OpenWireTextMessage;
+import org.apache.activemq.openwire.commands.ProducerId;
+import org.junit.Test;
+
+/**
+ * Tests for unmarshaling message content and properties as views of the received frame.
+ */
+public class ZeroCopyUnmarshalTest {
+
+    @Test
+    public void testContentSharesFrameArrayTight() throws Exception {
+        doTestContentSharesFrameArray(true);
+    }
+
+    @Test
+    public void testContentSharesFrameArrayLoose() throws Exception {
+        doTestContentSharesFrameArray(false);
+    }
+
+    @Test
+    public void testContentIsCopiedWhenDisabled() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, false);
+        Buffer frame = wireFormat.marshal(createBytesMessage(256));
+
+        OpenWireBytesMessage decoded = (OpenWireBytesMessage) wireFormat.unmarshal(frame);
+        assertNotSame(frame.data, decoded.getContent().data);
+        assertNotSame(frame.data, decoded.getMarshalledProperties().data);
+    }
+
+    @Test
+    public void testDetachCopiesOutOfFrame() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, true);
+        OpenWireBytesMessage message = createBytesMessage(512);
+        Buffer frame = wireFormat.marshal(message);
+
+        OpenWireBytesMessage decoded = (OpenWireBytesMessage) wireFormat.unmarshal(frame);
+        decoded.detach();
+
+        Buffer content = decoded.getContent();
+        assertNotSame(frame.data, content.data);
+        assertEquals(0, content.offset);
+        assertEquals(512, content.length);
+
+        // A detached message must be unaffected by reuse of the frame
+        Arrays.fill(frame.data, (byte) 0);
+        assertTrue(Arrays.equals(message.getBodyBytes(), decoded.getBodyBytes()));
+        assertEquals("value", decoded.getProperty("property"));
+
+        // Detaching an already detached message does not copy again
+        decoded.detach();
+        assertSame(content, decoded.getContent());
+    }
+
+    @Test
+    public void testCompressedContentView() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, true);
+        OpenWireBytesMessage message = createBytesMessage(4096);
+        message.compress();
+
+        OpenWireBytesMessage decoded = (OpenWireBytesMessage) wireFormat.unmarshal(wireFormat.marshal(message));
+        assertTrue(decoded.isCompressed());
+        assertTrue(decoded.getContent().offset > 0);
+        assertEquals(4096, decoded.getBodyLength());
+        assertTrue(Arrays.equals(message.getBodyBytes(), decoded.getBodyBytes()));
+    }
+
+    @Test
+    public void testTextMessageView() throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(true, true);
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        message.setText("zero copy text");
+
+        OpenWireTextMessage decoded = (OpenWireTextMessage) wireFormat.unmarshal(wireFormat.marshal(message));
+        assertEquals("zero copy text", decoded.getText());
+    }
+
+    @Test
+    public void testReadBufferIsBoundedByStreamEnd() throws Exception {
+        byte[] data = new byte[] { 0, 1, 2, 3, 4, 5, 6, 7 };
+        DataByteArrayInputStream in = new DataByteArrayInputStream(new Buffer(data, 2, 4));
+        in.readByte();
+
+        Buffer slice = in.readBuffer(10);
+        assertSame(data, slice.data);
+        assertEquals(3, slice.offset);
+        assertEquals(3, slice.length);
+        assertEquals(0, in.available());
+    }
+
+    private void doTestContentSharesFrameArray(boolean tight) throws Exception {
+        OpenWireFormat wireFormat = createWireFormat(tight, true);
+        OpenWireBytesMessage message = createBytesMessage(1024);
+        Buffer frame = wireFormat.marshal(message);
+
+        OpenWireBytesMessage decoded = (OpenWireBytesMessage) wireFormat.unmarshal(frame);
+        assertSame(frame.data, decoded.getContent().data);
+        assertSame(frame.data, decoded.getMarshalledProperties().data);
+        assertEquals(1024, decoded.getBodyLength());
+        assertTrue(Arrays.equals(message.getBodyBytes(), decoded.getBodyBytes()));
+        assertEquals("value", decoded.getProperty("property"));
+    }
+
+    private OpenWireFormat createWireFormat(boolean tight, boolean zeroCopy) {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        wireFormat.setTightEncodingEnabled(tight);
+        wireFormat.setZeroCopyUnmarshalEnabled(zeroCopy);
+        return wireFormat;
+    }
+
+    private OpenWireBytesMessage createBytesMessage(int payloadSize) throws Exception {
+        byte[] payload = new byte[payloadSize];
+        for (int i = 0; i < payloadSize; ++i) {
+            payload[i] = (byte) (i % 7);
+        }
+
+        ProducerId producerId = new ProducerId("connection:1:1:1");
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setProducerId(producerId);
+        message.setMessageId(new MessageId(producerId, 1));
+        message.setDestination(new OpenWireQueue("TEST.QUEUE"));
+        message.setProperty("property", "value");
+        message.setBodyBytes(payload);
+        return message;
+    }
+}
@@ -0,0 +1,310 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.commands;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.compression.CompressionCodec;
+import org.apache.activemq.openwire.compression.CompressionCodecs;
+import org.junit.Test;
+
+/**
+ * Tests for compressing message bodies with the different {@link CompressionCodec} types.
+ */
+public class MessageCompressionCodecTest {
+
+    private static final String TEXT;
+
+    static {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 40; ++i) {
+            builder.append("The quick red fox jumped over the lazy brown dog. ");
+        }
+        TEXT = builder.toString();
+    }
+
+    @Test
+    public void testTextMessageRoundTrip() throws Exception {
+        for (CompressionCodec codec : codecs()) {
+            OpenWireTextMessage message = new OpenWireTextMessage();
+            message.setUseCompression(true);
+            message.setCompressionCodec(codec);
+            message.setText(TEXT);
+
+            OpenWireTextMessage received = (OpenWireTextMessage) roundTrip(message);
+            assertTrue(received.isCompressed());
+            assertCodecProperty(codec, received);
+            assertEquals(TEXT, received.getText());
+        }
+    }
+
+    @Test
+    public void testBytesMessageRoundTrip() throws Exception {
+        byte[] body = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        for (CompressionCodec codec : codecs()) {
+            OpenWireBytesMessage message = new OpenWireBytesMessage();
+            message.setUseCompression(true);
+            message.setCompressionCodec(codec);
+            message.setBodyBytes(body);
+
+            OpenWireBytesMessage received = (OpenWireBytesMessage) roundTrip(message);
+            assertTrue(received.isCompressed());
+            assertCodecProperty(codec, received);
+            assertEquals(body.length, received.getBodyLength());
+            assertArrayEquals(body, received.getBodyBytes());
+        }
+    }
+
+    @Test
+    public void testMapMessageRoundTrip() throws Exception {
+        for (CompressionCodec codec : codecs()) {
+            OpenWireMapMessage message = new OpenWireMapMessage();
+            message.setUseCompression(true);
+            message.setCompressionCodec(codec);
+            message.setObject("text", TEXT);
+            message.setObject("number", 42);
+
+            OpenWireMapMessage received = (OpenWireMapMessage) roundTrip(message);
+            assertTrue(received.isCompressed());
+            assertCodecProperty(codec, received);
+            assertEquals(TEXT, received.getObject("text"));
+            assertEquals(42, received.getObject("number"));
+        }
+    }
+
+    @Test
+    public void testObjectMessageRoundTrip() throws Exception {
+        for (CompressionCodec codec : codecs()) {
+            OpenWireObjectMessage message = new OpenWireObjectMessage();
+            message.setUseCompression(true);
+            message.setCompressionCodec(codec);
+            message.setObject(TEXT);
+
+            OpenWireObjectMessage received = (OpenWireObjectMessage) roundTrip(message);
+            assertTrue(received.isCompressed());
+            assertCodecProperty(codec, received);
+            assertEquals(TEXT, received.getObject());
+        }
+    }
+
+    @Test
+    public void testBodyBelowThresholdIsNotCompressed() throws Exception {
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setUseCompression(true);
+        message.setCompressionCodec(CompressionCodecs.LZ4);
+        message.setCompressionThreshold(1024);
+        message.setText("short");
+
+        OpenWireTextMessage received = (OpenWireTextMessage) roundTrip(message);
+        assertFalse(received.isCompressed());
+        assertNull(received.getPayloadCompressionCodec());
+        assertEquals("short", received.getText());
+
+        OpenWireBytesMessage bytes = new OpenWireBytesMessage();
+        bytes.setUseCompression(true);
+        bytes.setCompressionThreshold(TEXT.length() + 1);
+        bytes.setBodyBytes(TEXT.getBytes(StandardCharsets.UTF_8));
+        assertFalse(bytes.isCompressed());
+
+        bytes.setCompressionThreshold(TEXT.length());
+        bytes.setBodyBytes(TEXT.getBytes(StandardCharsets.UTF_8));
+        assertTrue(bytes.isCompressed());
+    }
+
+    @Test
+    public void testChangingCodecReplacesProperty() throws Exception {
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setUseCompression(true);
+        message.setCompressionCodec(CompressionCodecs.LZ4);
+        message.setBodyBytes(TEXT.getBytes(StandardCharsets.UTF_8));
+        assertEquals(CompressionCodecs.LZ4, message.getPayloadCompressionCodec());
+
+        message.setCompressionCodec(null);
+        message.setBodyBytes(TEXT.getBytes(StandardCharsets.UTF_8));
+        assertEquals(CompressionCodecs.DEFLATE, message.getPayloadCompressionCodec());
+        assertEquals(TEXT, new String(message.getBodyBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCopyRetainsCodec() throws Exception {
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setCompressionCodec(CompressionCodecs.LZ4);
+        message.setCompressionThreshold(100);
+        message.setMaxDecompressedSize(1024);
+
+        OpenWireTextMessage copy = message.copy();
+        assertEquals(CompressionCodecs.LZ4, copy.getCompressionCodec());
+        assertEquals(100, copy.getCompressionThreshold());
+        assertEquals(1024, copy.getMaxDecompressedSize());
+    }
+
+    @Test
+    public void testUnknownCodecFailsToDecompress() throws Exception {
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setUseCompression(true);
+        message.setCompressionCodec(CompressionCodecs.LZ4);
+        message.setBodyBytes(TEXT.getBytes(StandardCharsets.UTF_8));
+        message.setProperty(CompressionCodecs.CODEC_PROPERTY, (byte) 99, false);
+
+        try {
+            message.getBodyBytes();
+            fail("Should not decompress a body with an unknown codec");
+        } catch (Exception expected) {
+        }
+    }
+
+    @Test
+    public void testBytesBodyTruncatedToRecordedLength() throws Exception {
+        byte[] body = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setContent(compressedBody(body, body.length - 10));
+        message.setCompressed(true);
+
+        assertEquals(body.length - 10, message.getBodyLength());
+        assertArrayEquals(Arrays.copyOf(body, body.length - 10), message.getBodyBytes());
+    }
+
+    @Test
+    public void testBytesBodyShorterThanRecordedLengthFails() throws Exception {
+        byte[] body = TEXT.getBytes(StandardCharsets.UTF_8);
+
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setContent(compressedBody(body, body.length + 10));
+        message.setCompressed(true);
+
+        try {
+            message.getBodyBytes();
+            fail("Should not decompress a body shorter than its recorded length");
+        } catch (Exception expected) {
+        }
+    }
+
+    @Test
+    public void testBytesBodyNotInflatedPastRecordedLength() throws Exception {
+        byte[] body = new byte[4 * 1024 * 1024];
+
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setContent(compressedBody(body, 16));
+        message.setCompressed(true);
+        message.setMaxDecompressedSize(1024);
+
+        assertEquals(16, message.getBodyLength());
+        assertArrayEquals(new byte[16], message.getBodyBytes());
+    }
+
+    @Test
+    public void testBytesBodyLargerThanMaximumFails() throws Exception {
+        byte[] body = new byte[4096];
+
+        OpenWireBytesMessage message = new OpenWireBytesMessage();
+        message.setContent(compressedBody(body, body.length));
+        message.setCompressed(true);
+        message.setMaxDecompressedSize(1024);
+
+        try {
+            message.getBodyBytes();
+            fail("Should not decompress a body larger than the maximum size");
+        } catch (Exception expected) {
+        }
+    }
+
+    @Test
+    public void testPayloadLargerThanMaximumFails() throws Exception {
+        for (CompressionCodec codec : codecs()) {
+            OpenWireTextMessage message = new OpenWireTextMessage();
+            message.setUseCompression(true);
+            message.setCompressionCodec(codec);
+            message.setText(TEXT);
+
+            OpenWireTextMessage received = (OpenWireTextMessage) roundTrip(message);
+            received.setMaxDecompressedSize(TEXT.length() / 2);
+            try {
+                received.getText();
+                fail("Should not decompress a payload larger than the maximum size");
+            } catch (Exception expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testCodecPropertyHiddenFromApplication() throws Exception {
+        OpenWireTextMessage message = new OpenWireTextMessage();
+        message.setUseCompression(true);
+        message.setCompressionCodec(CompressionCodecs.LZ4);
+        message.setProperty("color", "red");
+        message.setText(TEXT);
+
+        OpenWireTextMessage received = (OpenWireTextMessage) roundTrip(message);
+        assertNull(received.getProperty(CompressionCodecs.CODEC_PROPERTY));
+        assertFalse(received.propertyExists(CompressionCodecs.CODEC_PROPERTY));
+        assertEquals(1, received.getProperties().size());
+        assertEquals("color", received.getPropertyNames().nextElement());
+
+        received.clearProperties();
+        assertTrue(received.getProperties().isEmpty());
+        assertEquals(CompressionCodecs.LZ4, received.getPayloadCompressionCodec());
+        assertEquals(TEXT, received.getText());
+
+        try {
+            received.setProperty(CompressionCodecs.CODEC_PROPERTY, (byte) 1);
+            fail("Should not allow the codec property to be set");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static Buffer compressedBody(byte[] body, int recordedLength) throws IOException {
+        Buffer compressed = CompressionCodecs.DEFLATE.compress(new Buffer(body));
+        DataByteArrayOutputStream content = new DataByteArrayOutputStream();
+        content.writeInt(recordedLength);
+        content.write(compressed.getData(), compressed.getOffset(), compressed.getLength());
+        return content.toBuffer();
+    }
+
+    private static List<CompressionCodec> codecs() {
+        List<CompressionCodec> codecs = new ArrayList<>();
+        codecs.add(CompressionCodecs.DEFLATE);
+        codecs.add(CompressionCodecs.LZ4);
+        codecs.add(CompressionCodecs.NONE);
+        return codecs;
+    }
+
+    private static void assertCodecProperty(CompressionCodec codec, OpenWireMessage message) throws IOException {
+        assertEquals(codec, message.getPayloadCompressionCodec());
+        assertNull(message.getProperty(CompressionCodecs.CODEC_PROPERTY));
+    }
+
+    private static OpenWireMessage roundTrip(OpenWireMessage message) throws IOException {
+        OpenWireFormat wireFormat = new OpenWireFormat(CommandTypes.PROTOCOL_VERSION);
+        return (OpenWireMessage) wireFormat.unmarshal(wireFormat.marshal(message));
+    }
+}
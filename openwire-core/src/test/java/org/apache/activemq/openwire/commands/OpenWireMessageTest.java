@@ -370,6 +370,93 @@ public class OpenWireMessageTest {
         roundTripProperties(message);
     }
 
+    @Test
+    public void testGetPropertyFromMarshalledPropertiesIsLazy() throws Exception {
+        OpenWireObjectMessage message = new OpenWireObjectMessage();
+        message.setProperty("string", "value");
+        message.setProperty("int", 42);
+        message.setProperty("null", null);
+        fakeUnmarshal(message);
+
+        assertEquals("value", message.getProperty("string"));
+        assertEquals(42, message.getProperty("int"));
+        assertNull(message.getProperty("missing"));
+        assertTrue(message.propertyExists("null"));
+        assertFalse(message.propertyExists("missing"));
+        assertNull(message.properties);
+
+        message.setProperty("added", true);
+        assertNull(message.properties);
+        assertEquals("value", message.getProperty("string"));
+        assertEquals(Boolean.TRUE, message.getProperty("added"));
+    }
+
+    @Test
+    public void testGetPropertyAfterMarshalledPropertiesReplaced() throws Exception {
+        OpenWireObjectMessage message = new OpenWireObjectMessage();
+        message.setProperty("key", "first");
+        fakeUnmarshal(message);
+        assertEquals("first", message.getProperty("key"));
+
+        OpenWireObjectMessage other = new OpenWireObjectMessage();
+        other.setProperty("key", "second");
+        fakeUnmarshal(other);
+
+        message.setMarshalledProperties(other.getMarshalledProperties());
+        assertEquals("second", message.getProperty("key"));
+    }
+
+    @Test
+    public void testSetPropertyOnMarshalledPropertiesIsPatched() throws Exception {
+        OpenWireObjectMessage message = new OpenWireObjectMessage();
+        message.setProperty("keep", "value");
+        message.setProperty("replace", 1);
+        message.setProperty("remove", 2L);
+        fakeUnmarshal(message);
+
+        message.setProperty("replace", "replaced");
+        message.setProperty("added", true);
+        message.removeProperty("remove");
+        message.removeProperty("added");
+        message.setProperty("added", false);
+        assertNull(message.properties);
+
+        assertEquals("value", message.getProperty("keep"));
+        assertEquals("replaced", message.getProperty("replace"));
+        assertEquals(Boolean.FALSE, message.getProperty("added"));
+        assertNull(message.getProperty("remove"));
+        assertFalse(message.propertyExists("remove"));
+        assertTrue(message.propertyExists("added"));
+
+        OpenWireFormat format = new OpenWireFormat(OpenWireFormat.DEFAULT_WIRE_VERSION);
+        OpenWireObjectMessage decoded = (OpenWireObjectMessage) format.unmarshal(format.marshal(message));
+        Map<String, Object> properties = decoded.getProperties();
+        assertEquals(3, properties.size());
+        assertEquals("value", decoded.getProperty("keep"));
+        assertEquals("replaced", decoded.getProperty("replace"));
+        assertEquals(Boolean.FALSE, decoded.getProperty("added"));
+        assertFalse(properties.containsKey("remove"));
+    }
+
+    @Test
+    public void testPatchedPropertiesAreMergedBeforeFullAccess() throws Exception {
+        OpenWireObjectMessage message = new OpenWireObjectMessage();
+        message.setProperty("keep", "value");
+        fakeUnmarshal(message);
+
+        message.setProperty("added", 42);
+        OpenWireObjectMessage copy = (OpenWireObjectMessage) message.copy();
+
+        Map<String, Object> properties = message.getProperties();
+        assertEquals(2, properties.size());
+        assertEquals(42, properties.get("added"));
+
+        assertEquals(42, copy.getProperty("added"));
+        copy.clearProperties();
+        assertNull(copy.getProperty("added"));
+        assertEquals(42, message.getProperty("added"));
+    }
+
     private void roundTripProperties(OpenWireObjectMessage message) throws IOException, Exception {
         OpenWireObjectMessage copy = new OpenWireObjectMessage();
         for (Map.Entry<String, Object> prop : message.getProperties().entrySet()) {
@@ -0,0 +1,201 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.compression;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.junit.Test;
+
+/**
+ * Round trip tests for the built in {@link CompressionCodec} implementations.
+ */
+public class CompressionCodecTest {
+
+    private static final String TEXT = "The quick red fox jumped over the lazy brown dog. ";
+
+    private static final CompressionCodec[] CODECS = {
+        CompressionCodecs.DEFLATE, CompressionCodecs.LZ4, CompressionCodecs.NONE, new DeflateCompressionCodec(1)
+    };
+
+    @Test
+    public void testEmptyRoundTrip() throws Exception {
+        doTestRoundTrip(new byte[0]);
+    }
+
+    @Test
+    public void testSmallRoundTrip() throws Exception {
+        for (int size = 1; size < 32; ++size) {
+            byte[] data = new byte[size];
+            for (int i = 0; i < size; ++i) {
+                data[i] = (byte) (i % 3);
+            }
+            doTestRoundTrip(data);
+        }
+    }
+
+    @Test
+    public void testRepetitiveRoundTrip() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; ++i) {
+            builder.append(TEXT);
+        }
+        byte[] data = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        doTestRoundTrip(data);
+
+        assertTrue(CompressionCodecs.DEFLATE.compress(new Buffer(data)).getLength() < data.length / 10);
+        assertTrue(CompressionCodecs.LZ4.compress(new Buffer(data)).getLength() < data.length / 10);
+    }
+
+    @Test
+    public void testRunOfOneByteRoundTrip() throws Exception {
+        byte[] data = new byte[70000];
+        Arrays.fill(data, (byte) 'a');
+        doTestRoundTrip(data);
+    }
+
+    @Test
+    public void testRandomRoundTrip() throws Exception {
+        Random random = new Random(42);
+        for (int size : new int[] { 13, 100, 4096, 65536, 300000 }) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            doTestRoundTrip(data);
+        }
+    }
+
+    @Test
+    public void testMixedRoundTrip() throws Exception {
+        Random random = new Random(7);
+        byte[] data = new byte[1024 * 1024];
+        for (int i = 0; i < data.length; ++i) {
+            // Small alphabet with long range repeats so matches span the maximum distance.
+            data[i] = (i % 100000) < 50000 ? (byte) random.nextInt(4) : data[i % 50000];
+        }
+        doTestRoundTrip(data);
+    }
+
+    @Test
+    public void testRoundTripWithOffset() throws Exception {
+        byte[] data = (TEXT + TEXT + TEXT).getBytes(StandardCharsets.UTF_8);
+        byte[] padded = new byte[data.length + 20];
+        Arrays.fill(padded, (byte) 0x7F);
+        System.arraycopy(data, 0, padded, 10, data.length);
+
+        for (CompressionCodec codec : CODECS) {
+            Buffer compressed = codec.compress(new Buffer(padded, 10, data.length));
+
+            byte[] shifted = new byte[compressed.getLength() + 5];
+            System.arraycopy(compressed.getData(), compressed.getOffset(), shifted, 5, compressed.getLength());
+
+            Buffer decompressed = codec.decompress(new Buffer(shifted, 5, compressed.getLength()));
+            assertArrayEquals(codec.getName(), data, decompressed.toByteArray());
+        }
+    }
+
+    @Test
+    public void testDecompressStopsAtMaxLength() throws Exception {
+        Random random = new Random(3);
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (i % 1000) < 500 ? (byte) random.nextInt(4) : data[i - 500];
+        }
+
+        for (CompressionCodec codec : CODECS) {
+            Buffer compressed = codec.compress(new Buffer(data));
+            for (int maxLength : new int[] { 0, 1, 499, 777, 50000, data.length, data.length + 1 }) {
+                Buffer decompressed = codec.decompress(compressed, maxLength);
+                int expected = Math.min(maxLength, data.length);
+                assertEquals(codec.getName(), expected, decompressed.getLength());
+                assertArrayEquals(codec.getName(), Arrays.copyOf(data, expected), decompressed.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public void testLz4RejectsMalformedInput() throws Exception {
+        byte[] data = (TEXT + TEXT + TEXT + TEXT).getBytes(StandardCharsets.UTF_8);
+        Buffer compressed = CompressionCodecs.LZ4.compress(new Buffer(data));
+
+        for (int length = 0; length < compressed.getLength(); ++length) {
+            try {
+                CompressionCodecs.LZ4.decompress(new Buffer(compressed.getData(), compressed.getOffset(), length));
+                fail("Should not decompress truncated input of length " + length);
+            } catch (IOException expected) {
+            }
+        }
+
+        byte[] corrupt = compressed.toByteArray();
+        corrupt[0] = 0x7F;
+        try {
+            CompressionCodecs.LZ4.decompress(new Buffer(corrupt));
+            fail("Should not decompress input with an invalid length");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testDeflateRejectsTruncatedInput() throws Exception {
+        byte[] data = (TEXT + TEXT + TEXT + TEXT).getBytes(StandardCharsets.UTF_8);
+        Buffer compressed = CompressionCodecs.DEFLATE.compress(new Buffer(data));
+
+        try {
+            CompressionCodecs.DEFLATE.decompress(new Buffer(compressed.getData(), compressed.getOffset(), compressed.getLength() / 2));
+            fail("Should not decompress truncated input");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testLookup() {
+        assertSame(CompressionCodecs.DEFLATE, CompressionCodecs.lookup(DeflateCompressionCodec.ID));
+        assertSame(CompressionCodecs.LZ4, CompressionCodecs.lookup(Lz4CompressionCodec.ID));
+        assertSame(CompressionCodecs.NONE, CompressionCodecs.lookup(NoopCompressionCodec.ID));
+    }
+
+    @Test
+    public void testRegisterConflictingId() {
+        CompressionCodecs.register(CompressionCodecs.LZ4);
+
+        try {
+            CompressionCodecs.register(new DeflateCompressionCodec(9));
+            fail("Should not register a second codec with the deflate id");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertSame(CompressionCodecs.DEFLATE, CompressionCodecs.lookup(DeflateCompressionCodec.ID));
+    }
+
+    private void doTestRoundTrip(byte[] data) throws IOException {
+        for (CompressionCodec codec : CODECS) {
+            Buffer compressed = codec.compress(new Buffer(data));
+            Buffer decompressed = codec.decompress(compressed);
+            assertEquals(codec.getName(), data.length, decompressed.getLength());
+            assertArrayEquals(codec.getName(), data, decompressed.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+import org.apache.activemq.openwire.buffer.UTF8Buffer;
+import org.junit.Test;
+
+public class PropertiesViewTest {
+
+    @Test
+    public void testEmptyMap() throws Exception {
+        PropertiesView view = new PropertiesView(encode(new HashMap<String, Object>()));
+        assertEquals(0, view.size());
+        assertNull(view.get("missing"));
+        assertFalse(view.containsKey("missing"));
+        assertTrue(view.keySet().isEmpty());
+    }
+
+    @Test
+    public void testNullMap() throws Exception {
+        PropertiesView view = new PropertiesView(encode(null));
+        assertEquals(0, view.size());
+        assertNull(view.get("missing"));
+    }
+
+    @Test
+    public void testAllPrimitiveTypes() throws Exception {
+        StringBuilder big = new StringBuilder();
+        while (big.length() < 70000) {
+            big.append("big string value ");
+        }
+
+        Map<String, Object> nested = new HashMap<String, Object>();
+        nested.put("inner", 42);
+        List<Object> list = new ArrayList<Object>();
+        list.add("element");
+        list.add(7L);
+
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("null", null);
+        map.put("boolean", Boolean.TRUE);
+        map.put("byte", (byte) 1);
+        map.put("char", 'c');
+        map.put("short", (short) 2);
+        map.put("int", 3);
+        map.put("long", 4L);
+        map.put("float", 5.5f);
+        map.put("double", 6.5d);
+        map.put("bytes", new byte[] { 1, 2, 3 });
+        map.put("string", "value");
+        map.put("big", big.toString());
+        map.put("map", nested);
+        map.put("list", list);
+        map.put("last", "end");
+
+        PropertiesView view = new PropertiesView(encode(map));
+        assertEquals(map.size(), view.size());
+        assertEquals(map.keySet(), view.keySet());
+
+        assertTrue(view.containsKey("null"));
+        assertNull(view.get("null"));
+        assertEquals(Boolean.TRUE, view.get("boolean"));
+        assertEquals((byte) 1, view.get("byte"));
+        assertEquals('c', view.get("char"));
+        assertEquals((short) 2, view.get("short"));
+        assertEquals(3, view.get("int"));
+        assertEquals(4L, view.get("long"));
+        assertEquals(5.5f, view.get("float"));
+        assertEquals(6.5d, view.get("double"));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) view.get("bytes"));
+        assertTrue(view.get("string") instanceof UTF8Buffer);
+        assertEquals("value", view.get("string").toString());
+        assertEquals(big.toString(), view.get("big").toString());
+        assertEquals(nested, view.get("map"));
+        assertEquals(list, view.get("list"));
+        assertEquals("end", view.get("last").toString());
+        assertFalse(view.containsKey("missing"));
+    }
+
+    @Test
+    public void testNonAsciiKeys() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("café", 1);
+        map.put("日本", 2);
+        map.put("nul\u0000l", 3);
+        map.put("cafe", 4);
+
+        PropertiesView view = new PropertiesView(encode(map));
+        assertEquals(1, view.get("café"));
+        assertEquals(2, view.get("日本"));
+        assertEquals(3, view.get("nul\u0000l"));
+        assertEquals(4, view.get("cafe"));
+        assertNull(view.get("caf"));
+        assertNull(view.get("cafes"));
+        assertEquals(map.keySet(), view.keySet());
+    }
+
+    @Test
+    public void testBufferWithOffset() throws Exception {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("key", "value");
+        Buffer encoded = encode(map);
+
+        byte[] padded = new byte[encoded.getLength() + 10];
+        System.arraycopy(encoded.getData(), encoded.getOffset(), padded, 5, encoded.getLength());
+
+        PropertiesView view = new PropertiesView(new Buffer(padded, 5, encoded.getLength()));
+        assertEquals("value", view.get("key").toString());
+        assertEquals(1, view.size());
+    }
+
+    @Test
+    public void testTruncatedMapIsRejected() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("first", "value");
+        map.put("second", 1L);
+        Buffer encoded = encode(map);
+
+        for (int length = 0; length < encoded.getLength(); ++length) {
+            PropertiesView view = new PropertiesView(new Buffer(encoded.getData(), encoded.getOffset(), length));
+            try {
+                view.get("second");
+                fail("Should not read a truncated map of length " + length);
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void testUnknownTypeIsRejected() throws Exception {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("key", 1);
+        byte[] encoded = encode(map).toByteArray();
+        encoded[4 + 2 + 3] = 99;
+
+        try {
+            new PropertiesView(new Buffer(encoded)).get("key");
+            fail("Should not read an unknown primitive type");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testMergeAddsReplacesAndRemoves() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("keep", "value");
+        map.put("replace", 1);
+        map.put("remove", 2L);
+        map.put("café", "unchanged");
+
+        Map<String, Object> updates = new LinkedHashMap<String, Object>();
+        updates.put("replace", "replaced");
+        updates.put("added", Boolean.TRUE);
+        Set<String> removals = new HashSet<String>();
+        removals.add("remove");
+        removals.add("missing");
+
+        Buffer merged = new PropertiesView(encode(map)).merge(updates, removals);
+
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("keep", "value");
+        expected.put("café", "unchanged");
+        expected.put("replace", "replaced");
+        expected.put("added", Boolean.TRUE);
+
+        Map<String, Object> decoded = decode(merged);
+        assertEquals(expected.keySet(), decoded.keySet());
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().toString(), decoded.get(entry.getKey()).toString());
+        }
+    }
+
+    @Test
+    public void testMergeCopiesUnchangedEntries() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("first", "value");
+        map.put("second", new byte[1024]);
+        Buffer encoded = encode(map);
+
+        Map<String, Object> updates = new HashMap<String, Object>();
+        updates.put("third", 3);
+        Buffer merged = new PropertiesView(encode(map)).merge(updates, null);
+
+        // The original entries are copied byte for byte ahead of the new one.
+        byte[] original = encoded.toByteArray();
+        byte[] result = merged.toByteArray();
+        assertEquals(3, new PropertiesView(merged).size());
+        for (int i = 4; i < original.length; ++i) {
+            assertEquals(original[i], result[i]);
+        }
+        assertEquals(3, new PropertiesView(merged).get("third"));
+    }
+
+    @Test
+    public void testMergeWithNoChanges() throws Exception {
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("key", "value");
+        Buffer encoded = encode(map);
+
+        Buffer merged = new PropertiesView(encoded).merge(null, null);
+        assertArrayEquals(encoded.toByteArray(), merged.toByteArray());
+
+        Buffer empty = new PropertiesView(encode(null)).merge(map, null);
+        assertEquals("value", decode(empty).get("key").toString());
+    }
+
+    private static Buffer encode(Map<String, Object> map) throws IOException {
+        DataByteArrayOutputStream bytesOut = new DataByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(bytesOut);
+        OpenWireMarshallingSupport.marshalPrimitiveMap(map, dataOut);
+        dataOut.close();
+        return bytesOut.toBuffer();
+    }
+
+    private static Map<String, Object> decode(Buffer encoded) throws IOException {
+        return OpenWireMarshallingSupport.unmarshalPrimitiveMap(new DataByteArrayInputStream(encoded));
+    }
+}
@@ -25,7 +25,10 @@ import java.io.File;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.apache.activemq.openwire.annotations.OpenWireProperty;
 import org.apache.activemq.openwire.annotations.OpenWireType;
@@ -181,6 +184,55 @@ public class GeneratorUtils {
         return outputFolder;
     }
 
+    /**
+     * Returns the protocol versions at which the encoding of the given OpenWire type changes,
+     * taking into account the properties inherited from its OpenWire super types.  The
+     * returned set always starts with version one, each later entry is the first version in
+     * which one or more additional properties are marshaled.
+     *
+     * @param openWireType
+     *      The OpenWire type whose property versions are requested.
+     * @param typeDescriptors
+     *      All the OpenWire types being generated, used to resolve the super types.
+     *
+     * @return a sorted set of the versions where the type's encoding changes.
+     */
+    public static SortedSet<Integer> findPropertyVersions(OpenWireTypeDescriptor openWireType, List<OpenWireTypeDescriptor> typeDescriptors) {
+        final SortedSet<Integer> versions = new TreeSet<Integer>();
+        versions.add(1);
+
+        OpenWireTypeDescriptor current = openWireType;
+        while (current != null) {
+            for (final OpenWirePropertyDescriptor property : current.getProperties()) {
+                versions.add(Math.max(1, property.getVersion()));
+            }
+
+            current = findTypeDescriptor(current.getSuperClass(), typeDescriptors);
+        }
+
+        return versions;
+    }
+
+    /**
+     * Locates the OpenWire type with the given simple name.
+     *
+     * @param typeName
+     *      The simple name of the OpenWire type to find.
+     * @param typeDescriptors
+     *      All the OpenWire types being generated.
+     *
+     * @return the matching type descriptor or null if the name is not an OpenWire type.
+     */
+    public static OpenWireTypeDescriptor findTypeDescriptor(String typeName, List<OpenWireTypeDescriptor> typeDescriptors) {
+        for (final OpenWireTypeDescriptor descriptor : typeDescriptors) {
+            if (descriptor.getTypeName().equals(typeName)) {
+                return descriptor;
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Returns the capitalize version of the given string.  If the string is empty, does
      * not start with a letter, or is the first letter is already upper case then the
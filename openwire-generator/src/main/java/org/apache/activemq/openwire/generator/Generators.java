@@ -32,5 +32,13 @@ public class Generators {
     static {
         BUILTIN.add(new UniversalMarshallerGenerator());
         BUILTIN.add(new UniversalMarshallerFactoryGenerator());
+
+        UniversalMarshallerGenerator specializedMarshallers = new UniversalMarshallerGenerator();
+        specializedMarshallers.setVersionSpecialized(true);
+        BUILTIN.add(specializedMarshallers);
+
+        UniversalMarshallerFactoryGenerator specializedFactory = new UniversalMarshallerFactoryGenerator();
+        specializedFactory.setVersionSpecialized(true);
+        BUILTIN.add(specializedFactory);
     }
 }
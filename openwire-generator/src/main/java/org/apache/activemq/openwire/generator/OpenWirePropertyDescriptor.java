@@ -82,6 +82,13 @@ public class OpenWirePropertyDescriptor implements Comparable<OpenWirePropertyDe
         return propertyAnnotation.cached();
     }
 
+    /**
+     * @return true if the value is encoded relative to its value in the previous frame.
+     */
+    public boolean isDeltaEncoded() {
+        return propertyAnnotation.deltaEncoded();
+    }
+
     /**
      * @return true if the field is an array type.
      */
@@ -48,6 +48,7 @@ public class OpenWireTypeDescriptor {
 
         // Make sure all sequence numbers seen are correct
         validateSequenceNumbers();
+        validateHeaderProperties();
     }
 
     /**
@@ -118,6 +119,35 @@ public class OpenWireTypeDescriptor {
         return properties;
     }
 
+    /**
+     * @return the properties decoded eagerly when this type is unmarshaled lazily.
+     */
+    public List<OpenWirePropertyDescriptor> getHeaderProperties() {
+        return properties.subList(0, typeAnnotation.headerProperties());
+    }
+
+    /**
+     * @return the properties whose decoding is deferred when this type is unmarshaled lazily.
+     */
+    public List<OpenWirePropertyDescriptor> getDeferredProperties() {
+        return properties.subList(typeAnnotation.headerProperties(), properties.size());
+    }
+
+    /**
+     * @return true if this type can be unmarshaled lazily.
+     */
+    public boolean hasDeferredProperties() {
+        return typeAnnotation.headerProperties() > 0;
+    }
+
+    private void validateHeaderProperties() {
+        final int headerProperties = typeAnnotation.headerProperties();
+        if (headerProperties < 0 || (headerProperties > 0 && headerProperties >= properties.size())) {
+            throw new IllegalArgumentException("OpenWireType: '" + openWireType + "' declares " + headerProperties
+                + " header properties but must leave at least one of its " + properties.size() + " properties to defer.");
+        }
+    }
+
     private void validateSequenceNumbers() {
         int expected = 1;
         for (OpenWirePropertyDescriptor desc : properties) {
@@ -33,18 +33,28 @@ import org.slf4j.LoggerFactory;
 /**
  * Generates a MarshallerFactory instance that can be used to create the
  * codec configuration in the OpenWireFormat object.
+ * <p>
+ * Marshallers are created on the first use of their command type so that only the
+ * classes of the types a connection actually exchanges are loaded.
+ * <p>
+ * When version specialized output is enabled the generated factory returns a
+ * marshaller table per OpenWire version, the types whose encoding changes between
+ * versions use the matching version specialized marshallers and all others share
+ * the universal marshallers.
  */
 public class UniversalMarshallerFactoryGenerator extends AbstractGenerator {
 
     private static final Logger LOG = LoggerFactory.getLogger(UniversalMarshallerFactoryGenerator.class);
 
     private final String codecBase = "org.apache.activemq.openwire.codec";
-    private final String codecPackage = codecBase + ".universal";
+    private final String universalPackage = codecBase + ".universal";
+    private final String specializedPackage = codecBase + ".specialized";
     private String factoryFileName = "MarshallerFactory";
+    private boolean versionSpecialized;
 
     @Override
     public void run(List<OpenWireTypeDescriptor> typeDescriptors) throws Exception {
-        final File outputFolder = GeneratorUtils.createDestination(getBaseDir(), codecPackage);
+        final File outputFolder = GeneratorUtils.createDestination(getBaseDir(), getCodecPackage());
         LOG.info("Output location for generated marshaler factory is: {}", outputFolder.getAbsolutePath());
 
         final File factoryFile = new File(outputFolder, getFactoryFileName() + ".java");
@@ -54,7 +64,11 @@ public class UniversalMarshallerFactoryGenerator extends AbstractGenerator {
             writeApacheLicense(out);
             writePreamble(out);
             writeClassDefinition(out);
-            writeFactoryImplementation(out, typeDescriptors);
+            if (isVersionSpecialized()) {
+                writeSpecializedFactoryImplementation(out, typeDescriptors);
+            } else {
+                writeFactoryImplementation(out, typeDescriptors);
+            }
             writeClassClosure(out);
         } catch (final Exception e) {
             throw new RuntimeException(e);
@@ -68,13 +82,18 @@ public class UniversalMarshallerFactoryGenerator extends AbstractGenerator {
         out.println("");
         out.println("import " + getCodecPackageBase() + ".DataStreamMarshaller;");
         out.println("import " + getCodecPackageBase() + ".OpenWireFormat;");
+        out.println("import org.apache.activemq.openwire.commands.*;");
         out.println("");
     }
 
     private void writeClassDefinition(PrintWriter out) {
 
         out.println("/**");
-        out.println(" * Marshalling Factory for the Universal OpenWire Codec package.");
+        if (isVersionSpecialized()) {
+            out.println(" * Marshalling Factory for the version specialized OpenWire Codec package.");
+        } else {
+            out.println(" * Marshalling Factory for the Universal OpenWire Codec package.");
+        }
         out.println(" *");
         out.println(" * NOTE!: This file is auto generated - do not modify!");
         out.println(" *");
@@ -86,30 +105,40 @@ public class UniversalMarshallerFactoryGenerator extends AbstractGenerator {
     private void writeFactoryImplementation(PrintWriter out, List<OpenWireTypeDescriptor> typeDescriptors) {
 
         out.println("    /**");
-        out.println("     * Creates a Map of command type -> Marshallers");
+        out.println("     * Map of command type -> Marshallers, populated as each type is first used");
         out.println("     */");
         out.println("    static final private DataStreamMarshaller marshaller[] = new DataStreamMarshaller[256];");
-        out.println("    static {");
         out.println("");
+        out.println("    /**");
+        out.println("     * Creates the marshaller of a command type, its class is only loaded once the type is used");
+        out.println("     */");
+        out.println("    static private DataStreamMarshaller createMarshaller(int type) {");
+        out.println("        switch (type) {");
 
-        List<OpenWireTypeDescriptor> sorted = new ArrayList<OpenWireTypeDescriptor>(typeDescriptors);
-        Collections.sort(sorted, new Comparator<OpenWireTypeDescriptor>() {
-            @Override
-            public int compare(OpenWireTypeDescriptor o1, OpenWireTypeDescriptor o2) {
-                return o1.getTypeName().compareTo(o2.getTypeName());
-            }
-        });
-
-        for (final OpenWireTypeDescriptor openWireType : sorted) {
+        for (final OpenWireTypeDescriptor openWireType : sortByName(typeDescriptors)) {
             if (!openWireType.isAbstract()) {
-                out.println("        add(new " + openWireType.getTypeName() + "Marshaller());");
+                out.println("            case " + openWireType.getTypeName() + ".DATA_STRUCTURE_TYPE:");
+                out.println("                return new " + openWireType.getTypeName() + "Marshaller();");
             }
         }
 
+        out.println("            default:");
+        out.println("                return null;");
+        out.println("        }");
         out.println("    }");
         out.println("");
-        out.println("    static private void add(DataStreamMarshaller dsm) {");
-        out.println("        marshaller[dsm.getDataStructureType()] = dsm;");
+        out.println("    /**");
+        out.println("     * Returns the marshaller of a command type, creating it on first use");
+        out.println("     */");
+        out.println("    static public DataStreamMarshaller getMarshaller(int type) {");
+        out.println("        DataStreamMarshaller dsm = marshaller[type];");
+        out.println("        if (dsm == null) {");
+        out.println("            dsm = createMarshaller(type);");
+        out.println("            if (dsm != null) {");
+        out.println("                marshaller[type] = dsm;");
+        out.println("            }");
+        out.println("        }");
+        out.println("        return dsm;");
         out.println("    }");
         out.println("");
         out.println("    static public DataStreamMarshaller[] createMarshallerMap(OpenWireFormat wireFormat) {");
@@ -117,6 +146,91 @@ public class UniversalMarshallerFactoryGenerator extends AbstractGenerator {
         out.println("    }");
     }
 
+    private void writeSpecializedFactoryImplementation(PrintWriter out, List<OpenWireTypeDescriptor> typeDescriptors) {
+        final List<OpenWireTypeDescriptor> sorted = sortByName(typeDescriptors);
+
+        int maxVersion = 1;
+        for (final OpenWireTypeDescriptor openWireType : sorted) {
+            maxVersion = Math.max(maxVersion, GeneratorUtils.findPropertyVersions(openWireType, typeDescriptors).last());
+        }
+
+        out.println("    /**");
+        out.println("     * The highest OpenWire version whose encoding differs from the version before it.");
+        out.println("     */");
+        out.println("    static final public int MAX_SPECIALIZED_VERSION = " + maxVersion + ";");
+        out.println("");
+        out.println("    /**");
+        out.println("     * Map of command type -> Marshallers for each OpenWire version, populated as each type is first used");
+        out.println("     */");
+        out.println("    static final private DataStreamMarshaller marshaller[][] = new DataStreamMarshaller[MAX_SPECIALIZED_VERSION + 1][256];");
+        out.println("");
+        out.println("    /**");
+        out.println("     * Creates the marshaller of a command type, its class is only loaded once the type is used");
+        out.println("     */");
+        out.println("    static private DataStreamMarshaller createMarshaller(int version, int type) {");
+        out.println("        switch (type) {");
+
+        for (final OpenWireTypeDescriptor openWireType : sorted) {
+            final List<Integer> versions =
+                new ArrayList<Integer>(GeneratorUtils.findPropertyVersions(openWireType, typeDescriptors));
+            if (openWireType.isAbstract() || versions.size() == 1) {
+                continue;
+            }
+
+            out.println("            case " + openWireType.getTypeName() + ".DATA_STRUCTURE_TYPE:");
+            for (int i = versions.size() - 1; i >= 0; --i) {
+                final int version = versions.get(i);
+                final String create = "return new " + openWireType.getTypeName() + "MarshallerV" + version + "();";
+
+                if (i == versions.size() - 1) {
+                    out.println("                if (version >= " + version + ") {");
+                } else if (i > 0) {
+                    out.println("                } else if (version >= " + version + ") {");
+                } else {
+                    out.println("                } else {");
+                }
+                out.println("                    " + create);
+            }
+            out.println("                }");
+        }
+
+        out.println("            default:");
+        out.println("                return " + universalPackage + ".MarshallerFactory.getMarshaller(type);");
+        out.println("        }");
+        out.println("    }");
+        out.println("");
+        out.println("    /**");
+        out.println("     * Returns the marshaller of a command type for an OpenWire version, creating it on first use");
+        out.println("     */");
+        out.println("    static public DataStreamMarshaller getMarshaller(int version, int type) {");
+        out.println("        final DataStreamMarshaller[] map = createMarshallerMap(null, version);");
+        out.println("        DataStreamMarshaller dsm = map[type];");
+        out.println("        if (dsm == null) {");
+        out.println("            dsm = createMarshaller(version, type);");
+        out.println("            if (dsm != null) {");
+        out.println("                map[type] = dsm;");
+        out.println("            }");
+        out.println("        }");
+        out.println("        return dsm;");
+        out.println("    }");
+        out.println("");
+        out.println("    static public DataStreamMarshaller[] createMarshallerMap(OpenWireFormat wireFormat, int version) {");
+        out.println("        return marshaller[Math.max(1, Math.min(version, MAX_SPECIALIZED_VERSION))];");
+        out.println("    }");
+    }
+
+    private List<OpenWireTypeDescriptor> sortByName(List<OpenWireTypeDescriptor> typeDescriptors) {
+        List<OpenWireTypeDescriptor> sorted = new ArrayList<OpenWireTypeDescriptor>(typeDescriptors);
+        Collections.sort(sorted, new Comparator<OpenWireTypeDescriptor>() {
+            @Override
+            public int compare(OpenWireTypeDescriptor o1, OpenWireTypeDescriptor o2) {
+                return o1.getTypeName().compareTo(o2.getTypeName());
+            }
+        });
+
+        return sorted;
+    }
+
     private void writeClassClosure(PrintWriter out) {
         out.println("}");
     }
@@ -134,7 +248,22 @@ public class UniversalMarshallerFactoryGenerator extends AbstractGenerator {
      * @return the package name where the OpenWire marshalers are written.
      */
     public String getCodecPackage() {
-        return codecPackage;
+        return versionSpecialized ? specializedPackage : universalPackage;
+    }
+
+    /**
+     * @return true if the generator emits the version specialized marshaller factory.
+     */
+    public boolean isVersionSpecialized() {
+        return versionSpecialized;
+    }
+
+    /**
+     * @param versionSpecialized
+     *      true to emit a factory that returns the version specialized marshallers.
+     */
+    public void setVersionSpecialized(boolean versionSpecialized) {
+        this.versionSpecialized = versionSpecialized;
     }
 
     public String getFactoryFileName() {
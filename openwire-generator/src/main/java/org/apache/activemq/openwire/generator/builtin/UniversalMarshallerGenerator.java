@@ -19,9 +19,14 @@ package org.apache.activemq.openwire.generator.builtin;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 
 import org.apache.activemq.openwire.generator.AbstractGenerator;
 import org.apache.activemq.openwire.generator.GeneratorUtils;
@@ -33,23 +38,63 @@ import org.slf4j.LoggerFactory;
 /**
  * Generator that create a set of OpenWire command marshalers that can
  * handle all OpenWire versions.
+ * <p>
+ * When version specialized output is enabled the generator instead emits, for each
+ * type whose encoding differs between protocol versions, one marshaler per distinct
+ * set of marshaled properties.  These marshalers contain no version checks and are
+ * written to their own package alongside the universal marshalers which continue to
+ * handle the types whose encoding never changes.
  */
 public class UniversalMarshallerGenerator extends AbstractGenerator {
 
     private static final Logger LOG = LoggerFactory.getLogger(UniversalMarshallerGenerator.class);
 
     private final String codecBase = "org.apache.activemq.openwire.codec";
-    private final String codecPackage = codecBase + ".universal";
+    private final String universalPackage = codecBase + ".universal";
+    private final String specializedPackage = codecBase + ".specialized";
+
+    private boolean versionSpecialized;
+
+    // Per type state while generating the version specialized marshalers.
+    private List<OpenWireTypeDescriptor> typeDescriptors;
+    private int specializedVersion;
+    private int specializedVersionLimit;
+
+    // Slot in the wire format's delta state assigned to each delta encoded property.
+    private final Map<OpenWirePropertyDescriptor, Integer> deltaSlots = new IdentityHashMap<>();
 
     @Override
     public void run(List<OpenWireTypeDescriptor> typeDescriptors) throws Exception {
-        final File outputFolder = GeneratorUtils.createDestination(getBaseDir(), codecPackage);
+        final File outputFolder = GeneratorUtils.createDestination(getBaseDir(), getCodecPackage());
         LOG.info("Output location for generated marshalers is: {}", outputFolder.getAbsolutePath());
 
+        this.typeDescriptors = typeDescriptors;
+        assignDeltaSlots(typeDescriptors);
+
         for (final OpenWireTypeDescriptor openWireType : typeDescriptors) {
-            LOG.debug("Generating marshaller for type: {}", openWireType.getTypeName());
-            processClass(openWireType, outputFolder);
+            if (!isVersionSpecialized()) {
+                LOG.debug("Generating marshaller for type: {}", openWireType.getTypeName());
+                processClass(openWireType, outputFolder);
+                continue;
+            }
+
+            final List<Integer> versions =
+                new ArrayList<Integer>(GeneratorUtils.findPropertyVersions(openWireType, typeDescriptors));
+            if (versions.size() == 1) {
+                continue;
+            }
+
+            for (int i = 0; i < versions.size(); ++i) {
+                specializedVersion = versions.get(i);
+                specializedVersionLimit = i + 1 < versions.size() ? versions.get(i + 1) - 1 : 0;
+
+                LOG.debug("Generating marshaller for type: {} version: {}", openWireType.getTypeName(), specializedVersion);
+                processClass(openWireType, outputFolder);
+            }
         }
+
+        specializedVersion = 0;
+        specializedVersionLimit = 0;
     }
 
     /**
@@ -63,11 +108,40 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
      * @return the package name where the OpenWire marshalers are written.
      */
     public String getCodecPackage() {
-        return codecPackage;
+        return versionSpecialized ? specializedPackage : universalPackage;
+    }
+
+    /**
+     * @return true if the generator emits version specialized marshalers.
+     */
+    public boolean isVersionSpecialized() {
+        return versionSpecialized;
+    }
+
+    /**
+     * @param versionSpecialized
+     *      true to emit one marshaler per protocol version that changes a type's encoding.
+     */
+    public void setVersionSpecialized(boolean versionSpecialized) {
+        this.versionSpecialized = versionSpecialized;
     }
 
     //----- Implementation ---------------------------------------------------//
 
+    private void assignDeltaSlots(List<OpenWireTypeDescriptor> typeDescriptors) {
+        final List<OpenWireTypeDescriptor> sorted = new ArrayList<>(typeDescriptors);
+        sorted.sort(Comparator.comparing(OpenWireTypeDescriptor::getTypeName));
+
+        deltaSlots.clear();
+        for (final OpenWireTypeDescriptor openWireType : sorted) {
+            for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
+                if (property.isDeltaEncoded()) {
+                    deltaSlots.put(property, deltaSlots.size());
+                }
+            }
+        }
+    }
+
     protected void processClass(OpenWireTypeDescriptor openWireType, File outputFolder) throws Exception {
         final File marshalerFile = new File(outputFolder, getClassName(openWireType) + ".java");
 
@@ -85,6 +159,12 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
             writeLooseMarshal(out, openWireType);
             writeLooseUnmarshal(out, openWireType);
 
+            writeSkipSupportMethods(out, openWireType);
+            writeTightSkip(out, openWireType);
+            writeTightFieldOffsets(out, openWireType);
+            writeLooseSkip(out, openWireType);
+            writeLooseFieldOffsets(out, openWireType);
+
             writeClassClosure(out, openWireType);
         } catch (final Exception e) {
             throw new RuntimeException(e);
@@ -97,7 +177,7 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
 
         Set<String> languageTypes = new HashSet<String>();
 
-        for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
             final Class<?> type = property.getType();
             if (type.getCanonicalName().startsWith("java.util")) {
                 languageTypes.add(type.getCanonicalName());
@@ -114,7 +194,11 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
         out.println("import java.io.DataOutput;");
         out.println("import java.io.IOException;");
         out.println("");
+        out.println("import org.apache.activemq.openwire.buffer.DataByteArrayInputStream;");
         out.println("import " + getCodecPackageBase() + ".*;");
+        if (isVersionSpecialized()) {
+            out.println("import " + universalPackage + ".*;");
+        }
         out.println("import " + openWireType.getPackageName() + ".*;");
         out.println("");
     }
@@ -124,13 +208,33 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
         final String className = getClassName(openWireType);
         final String baseClassName = getBaseClassName(openWireType);
 
+        final List<String> implemented = new ArrayList<String>();
+        if (openWireType.hasDeferredProperties()) {
+            implemented.add("LazyUnmarshaller");
+        }
+        if (isRootMarshaller(openWireType)) {
+            implemented.add("SkippableMarshaller");
+        }
+
+        final String interfaces = implemented.isEmpty() ? "" : " implements " + String.join(", ", implemented);
+
         out.println("/**");
         out.println(" * Marshalling code for Open Wire for " + openWireType.getTypeName() + "");
+        if (isVersionSpecialized()) {
+            out.println(" *");
+            if (specializedVersionLimit == 0) {
+                out.println(" * Specialized for OpenWire version " + specializedVersion + " and above.");
+            } else if (specializedVersionLimit == specializedVersion) {
+                out.println(" * Specialized for OpenWire version " + specializedVersion + ".");
+            } else {
+                out.println(" * Specialized for OpenWire versions " + specializedVersion + " to " + specializedVersionLimit + ".");
+            }
+        }
         out.println(" *");
         out.println(" * NOTE!: This file is auto generated - do not modify!");
         out.println(" *");
         out.println(" */");
-        out.println("public " + abstractModifier + "class " + className + " extends " + baseClassName + " {");
+        out.println("public " + abstractModifier + "class " + className + " extends " + baseClassName + interfaces + " {");
         out.println("");
     }
 
@@ -156,6 +260,14 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
     }
 
     private void writeTightUnmarshal(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        if (openWireType.hasDeferredProperties()) {
+            writeDeferredTightUnmarshal(out, openWireType);
+            return;
+        } else if (isDeferredSubtype(openWireType)) {
+            writeDeferredSubtypeTightUnmarshal(out, openWireType);
+            return;
+        }
+
         out.println("    /**");
         out.println("     * Un-marshal an object instance from the data input stream");
         out.println("     *");
@@ -182,75 +294,85 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
             out.println("        info.beforeUnmarshall(wireFormat);");
         }
 
-        for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
-            final int size = property.getSize();
-            final String typeName = property.getTypeName();
-            final String setter = property.getSetterName();
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
+            writeTightUnmarshalProperty(out, property);
+        }
 
-            String indent = "        ";
-            if (property.getVersion() > 1) {
-                indent = indent + "    ";
-                out.println("        if (version >= " + property.getVersion() + ") {");
-            }
+        if (openWireType.isMarshalAware()) {
+            out.println("");
+            out.println("        info.afterUnmarshall(wireFormat);");
+        }
 
-            if (property.isArray() && !typeName.equals("byte[]")) {
-                final String arrayType = property.getType().getComponentType().getSimpleName();
+        out.println("    }");
+        out.println("");
+    }
 
-                if (size > 0) {
-                    out.println(indent + "{");
-                    out.println(indent + "    " + arrayType + " value[] = new " + arrayType + "[" + size + "];");
-                    out.println(indent + "    " + "for (int i = 0; i < " + size + "; i++) {");
-                    out.println(indent + "        value[i] = (" + arrayType + ") tightUnmarsalNestedObject(wireFormat,dataIn, bs);");
-                    out.println(indent + "    }");
-                    out.println(indent + "    info." + setter + "(value);");
-                    out.println(indent + "}");
-                } else {
-                    out.println(indent + "if (bs.readBoolean()) {");
-                    out.println(indent + "    short size = dataIn.readShort();");
-                    out.println(indent + "    " + arrayType + " value[] = new " + arrayType + "[size];");
-                    out.println(indent + "    for (int i = 0; i < size; i++) {");
-                    out.println(indent + "        value[i] = (" + arrayType + ") tightUnmarsalNestedObject(wireFormat,dataIn, bs);");
-                    out.println(indent + "    }");
-                    out.println(indent + "    info." + setter + "(value);");
-                    out.println(indent + "} else {");
-                    out.println(indent + "    info." + setter + "(null);");
-                    out.println(indent + "}");
-                }
-            } else {
-                if (typeName.equals("boolean")) {
-                    out.println(indent + "info." + setter + "(bs.readBoolean());");
-                } else if (typeName.equals("byte")) {
-                    out.println(indent + "info." + setter + "(dataIn.readByte());");
-                } else if (typeName.equals("char")) {
-                    out.println(indent + "info." + setter + "(dataIn.readChar());");
-                } else if (typeName.equals("short")) {
-                    out.println(indent + "info." + setter + "(dataIn.readShort());");
-                } else if (typeName.equals("int")) {
-                    out.println(indent + "info." + setter + "(dataIn.readInt());");
-                } else if (typeName.equals("long")) {
-                    out.println(indent + "info." + setter + "(tightUnmarshalLong(wireFormat, dataIn, bs));");
-                } else if (typeName.equals("String")) {
-                    out.println(indent + "info." + setter + "(tightUnmarshalString(dataIn, bs));");
-                } else if (typeName.equals("byte[]")) {
-                    if (size >= 0) {
-                        out.println(indent + "info." + setter + "(tightUnmarshalConstByteArray(dataIn, bs, " + size + "));");
-                    } else {
-                        out.println(indent + "info." + setter + "(tightUnmarshalByteArray(dataIn, bs));");
-                    }
-                } else if (typeName.equals("Buffer")) {
-                    out.println(indent + "info." + setter + "(tightUnmarshalByteSequence(dataIn, bs));");
-                } else if (property.isThrowable()) {
-                    out.println(indent + "info." + setter + "((" + property.getTypeName() + ") tightUnmarsalThrowable(wireFormat, dataIn, bs));");
-                } else if (property.isCached()) {
-                    out.println(indent + "info." + setter + "((" + property.getTypeName() + ") tightUnmarsalCachedObject(wireFormat, dataIn, bs));");
-                } else {
-                    out.println(indent + "info." + setter + "((" + property.getTypeName() + ") tightUnmarsalNestedObject(wireFormat, dataIn, bs));");
-                }
-            }
+    private void writeDeferredTightUnmarshal(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        final String typeName = openWireType.getTypeName();
 
-            if (property.getVersion() > 1) {
-                out.println("        }");
-            }
+        out.println("    /**");
+        out.println("     * Un-marshal an object instance from the data input stream");
+        out.println("     *");
+        out.println("     * @param wireFormat the OpenWireFormat instance to use");
+        out.println("     * @param target the object to un-marshal");
+        out.println("     * @param dataIn the data input stream to build the object from");
+        out.println("     * @param bs the boolean stream where the type's booleans were marshaled");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while reading the data");
+        out.println("     */");
+        out.println("    public void tightUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {");
+        out.println("        tightUnmarshalHeader(wireFormat, target, dataIn, bs);");
+        out.println("        tightUnmarshalRemainder(wireFormat, target, dataIn, bs);");
+        out.println("    }");
+        out.println("");
+        out.println("    /**");
+        out.println("     * Un-marshal the header properties of an object instance from the data input stream");
+        out.println("     *");
+        out.println("     * @param wireFormat the OpenWireFormat instance to use");
+        out.println("     * @param target the object to un-marshal");
+        out.println("     * @param dataIn the data input stream to build the object from");
+        out.println("     * @param bs the boolean stream where the type's booleans were marshaled");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while reading the data");
+        out.println("     */");
+        out.println("    public void tightUnmarshalHeader(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {");
+        out.println("        super.tightUnmarshal(wireFormat, target, dataIn, bs);");
+        out.println("");
+        out.println("        " + typeName + " info = (" + typeName + ") target;");
+        if (isOpenWireVersionNeeded(openWireType.getHeaderProperties())) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        out.println("");
+
+        if (openWireType.isMarshalAware()) {
+            out.println("        info.beforeUnmarshall(wireFormat);");
+        }
+
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType.getHeaderProperties())) {
+            writeTightUnmarshalProperty(out, property);
+        }
+
+        out.println("    }");
+        out.println("");
+        out.println("    /**");
+        out.println("     * Un-marshal the properties that follow the header of an object instance from the data input stream");
+        out.println("     *");
+        out.println("     * @param wireFormat the OpenWireFormat instance to use");
+        out.println("     * @param target the object to un-marshal");
+        out.println("     * @param dataIn the data input stream to build the object from");
+        out.println("     * @param bs the boolean stream where the type's booleans were marshaled");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while reading the data");
+        out.println("     */");
+        out.println("    public void tightUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {");
+        out.println("        " + typeName + " info = (" + typeName + ") target;");
+        if (isOpenWireVersionNeeded(openWireType.getDeferredProperties())) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        out.println("");
+
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType.getDeferredProperties())) {
+            writeTightUnmarshalProperty(out, property);
         }
 
         if (openWireType.isMarshalAware()) {
@@ -262,6 +384,111 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
         out.println("");
     }
 
+    private void writeDeferredSubtypeTightUnmarshal(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        final String typeName = openWireType.getTypeName();
+
+        // The super type's tightUnmarshal reads the header and then calls this override, so
+        // the properties are also read when the remainder of a lazily unmarshaled frame is.
+        out.println("    /**");
+        out.println("     * Un-marshal the properties that follow the header of an object instance from the data input stream");
+        out.println("     *");
+        out.println("     * @param wireFormat the OpenWireFormat instance to use");
+        out.println("     * @param target the object to un-marshal");
+        out.println("     * @param dataIn the data input stream to build the object from");
+        out.println("     * @param bs the boolean stream where the type's booleans were marshaled");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while reading the data");
+        out.println("     */");
+        out.println("    public void tightUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn, BooleanStream bs) throws IOException {");
+        out.println("        super.tightUnmarshalRemainder(wireFormat, target, dataIn, bs);");
+        out.println("");
+        out.println("        " + typeName + " info = (" + typeName + ") target;");
+        if (isOpenWireVersionNeeded(openWireType)) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        out.println("");
+
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
+            writeTightUnmarshalProperty(out, property);
+        }
+
+        out.println("    }");
+        out.println("");
+    }
+
+    private void writeTightUnmarshalProperty(PrintWriter out, OpenWirePropertyDescriptor property) {
+        final int size = property.getSize();
+        final String typeName = property.getTypeName();
+        final String setter = property.getSetterName();
+
+        String indent = "        ";
+        if (isVersionChecked(property)) {
+            indent = indent + "    ";
+            out.println("        if (version >= " + property.getVersion() + ") {");
+        }
+
+        if (property.isArray() && !typeName.equals("byte[]")) {
+            final String arrayType = property.getType().getComponentType().getSimpleName();
+
+            if (size > 0) {
+                out.println(indent + "{");
+                out.println(indent + "    " + arrayType + " value[] = new " + arrayType + "[" + size + "];");
+                out.println(indent + "    " + "for (int i = 0; i < " + size + "; i++) {");
+                out.println(indent + "        value[i] = (" + arrayType + ") tightUnmarsalNestedObject(wireFormat,dataIn, bs);");
+                out.println(indent + "    }");
+                out.println(indent + "    info." + setter + "(value);");
+                out.println(indent + "}");
+            } else {
+                out.println(indent + "if (bs.readBoolean()) {");
+                out.println(indent + "    short size = dataIn.readShort();");
+                out.println(indent + "    " + arrayType + " value[] = new " + arrayType + "[size];");
+                out.println(indent + "    for (int i = 0; i < size; i++) {");
+                out.println(indent + "        value[i] = (" + arrayType + ") tightUnmarsalNestedObject(wireFormat,dataIn, bs);");
+                out.println(indent + "    }");
+                out.println(indent + "    info." + setter + "(value);");
+                out.println(indent + "} else {");
+                out.println(indent + "    info." + setter + "(null);");
+                out.println(indent + "}");
+            }
+        } else {
+            if (typeName.equals("boolean")) {
+                out.println(indent + "info." + setter + "(bs.readBoolean());");
+            } else if (typeName.equals("byte")) {
+                out.println(indent + "info." + setter + "(dataIn.readByte());");
+            } else if (typeName.equals("char")) {
+                out.println(indent + "info." + setter + "(dataIn.readChar());");
+            } else if (typeName.equals("short")) {
+                out.println(indent + "info." + setter + "(dataIn.readShort());");
+            } else if (typeName.equals("int")) {
+                out.println(indent + "info." + setter + "(dataIn.readInt());");
+            } else if (typeName.equals("long") && property.isDeltaEncoded()) {
+                out.println(indent + "info." + setter + "(tightUnmarshalDeltaLong(wireFormat, " + getDeltaSlot(property) + ", dataIn, bs));");
+            } else if (typeName.equals("long")) {
+                out.println(indent + "info." + setter + "(tightUnmarshalLong(wireFormat, dataIn, bs));");
+            } else if (typeName.equals("String")) {
+                out.println(indent + "info." + setter + "(tightUnmarshalString(wireFormat, dataIn, bs));");
+            } else if (typeName.equals("byte[]")) {
+                if (size > 0) {
+                    out.println(indent + "info." + setter + "(tightUnmarshalConstByteArray(dataIn, bs, " + size + "));");
+                } else {
+                    out.println(indent + "info." + setter + "(tightUnmarshalByteArray(dataIn, bs));");
+                }
+            } else if (typeName.equals("Buffer")) {
+                out.println(indent + "info." + setter + "(tightUnmarshalByteSequence(wireFormat, dataIn, bs));");
+            } else if (property.isThrowable()) {
+                out.println(indent + "info." + setter + "((" + property.getTypeName() + ") tightUnmarsalThrowable(wireFormat, dataIn, bs));");
+            } else if (property.isCached()) {
+                out.println(indent + "info." + setter + "((" + property.getTypeName() + ") tightUnmarsalCachedObject(wireFormat, dataIn, bs));");
+            } else {
+                out.println(indent + "info." + setter + "((" + property.getTypeName() + ") tightUnmarsalNestedObject(wireFormat, dataIn, bs));");
+            }
+        }
+
+        if (isVersionChecked(property)) {
+            out.println("        }");
+        }
+    }
+
     private void writeTightMarshal1(PrintWriter out, OpenWireTypeDescriptor openWireType) {
         out.println("    /**");
         out.println("     * Write the booleans that this object uses to a BooleanStream");
@@ -290,27 +517,28 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
         out.println("        int rc = super.tightMarshal1(wireFormat, source, bs);");
 
         int baseSize = 0;
-        for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
             final int size = property.getSize();
             final String typeName = property.getTypeName();
             final String getter = "info." + property.getGetterName() + "()";
 
             String indent = "        ";
-            if (property.getVersion() > 1) {
+            if (isVersionChecked(property)) {
                 indent = indent + "    ";
                 out.println("        if (version >= " + property.getVersion() + ") {");
             }
 
             if (typeName.equals("boolean")) {
                 out.println(indent + "bs.writeBoolean(" + getter + ");");
-            } else if (typeName.equals("byte")) {
-                baseSize += 1;
-            } else if (typeName.equals("char")) {
-                baseSize += 2;
-            } else if (typeName.equals("short")) {
-                baseSize += 2;
-            } else if (typeName.equals("int")) {
-                baseSize += 4;
+            } else if (isFixedSize(typeName)) {
+                // Fields that are not always present can't be part of the fixed base size
+                if (isVersionChecked(property)) {
+                    out.println(indent + "rc += " + getFixedSize(typeName) + ";");
+                } else {
+                    baseSize += getFixedSize(typeName);
+                }
+            } else if (typeName.equals("long") && property.isDeltaEncoded()) {
+                out.println(indent + "rc += tightMarshalDeltaLong1(wireFormat, " + getDeltaSlot(property) + ", " + getter + ", bs);");
             } else if (typeName.equals("long")) {
                 out.println(indent + "rc += tightMarshalLong1(wireFormat, " + getter + ", bs);");
             } else if (typeName.equals("String")) {
@@ -339,7 +567,7 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
                 }
             }
 
-            if (property.getVersion() > 1) {
+            if (isVersionChecked(property)) {
                 out.println("        }");
             }
         }
@@ -373,13 +601,13 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
             out.println("");
         }
 
-        for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
             final int size = property.getSize();
             final String typeName = property.getTypeName();
             final String getter = "info." + property.getGetterName() + "()";
 
             String indent = "        ";
-            if (property.getVersion() > 1) {
+            if (isVersionChecked(property)) {
                 indent = indent + "    ";
                 out.println("        if (version >= " + property.getVersion() + ") {");
             }
@@ -394,6 +622,8 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
                 out.println(indent + "dataOut.writeShort(" + getter + ");");
             } else if (typeName.equals("int")) {
                 out.println(indent + "dataOut.writeInt(" + getter + ");");
+            } else if (typeName.equals("long") && property.isDeltaEncoded()) {
+                out.println(indent + "tightMarshalDeltaLong2(wireFormat, " + getDeltaSlot(property) + ", " + getter + ", dataOut, bs);");
             } else if (typeName.equals("long")) {
                 out.println(indent + "tightMarshalLong2(wireFormat, " + getter + ", dataOut, bs);");
             } else if (typeName.equals("String")) {
@@ -422,7 +652,7 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
                 }
             }
 
-            if (property.getVersion() > 1) {
+            if (isVersionChecked(property)) {
                 out.println("        }");
             }
         }
@@ -437,6 +667,14 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
     }
 
     private void writeLooseUnmarshal(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        if (openWireType.hasDeferredProperties()) {
+            writeDeferredLooseUnmarshal(out, openWireType);
+            return;
+        } else if (isDeferredSubtype(openWireType)) {
+            writeDeferredSubtypeLooseUnmarshal(out, openWireType);
+            return;
+        }
+
         out.println("    /**");
         out.println("     * Un-marshal an object instance from the data input stream");
         out.println("     *");
@@ -461,75 +699,78 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
             out.println("        info.beforeUnmarshall(wireFormat);");
         }
 
-        for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
-            final int size = property.getSize();
-            final String typeName = property.getTypeName();
-            final String setter = property.getSetterName();
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
+            writeLooseUnmarshalProperty(out, property);
+        }
 
-            String indent = "        ";
-            if (property.getVersion() > 1) {
-                indent = indent + "    ";
-                out.println("        if (version >= " + property.getVersion() + ") {");
-            }
+        if (openWireType.isMarshalAware()) {
+            out.println("");
+            out.println("        info.afterUnmarshall(wireFormat);");
+        }
 
-            if (property.isArray() && !typeName.equals("byte[]")) {
-                final String arrayType = property.getType().getComponentType().getSimpleName();
+        out.println("    }");
+    }
 
-                if (size > 0) {
-                    out.println(indent + "{");
-                    out.println(indent + "    " + arrayType + " value[] = new " + arrayType + "[" + size + "];");
-                    out.println(indent + "    " + "for (int i = 0; i < " + size + "; i++) {");
-                    out.println(indent + "        value[i] = (" + arrayType + ") looseUnmarsalNestedObject(wireFormat,dataIn);");
-                    out.println(indent + "    }");
-                    out.println(indent + "    info." + setter + "(value);");
-                    out.println(indent + "}");
-                } else {
-                    out.println(indent + "if (dataIn.readBoolean()) {");
-                    out.println(indent + "    short size = dataIn.readShort();");
-                    out.println(indent + "    " + arrayType + " value[] = new " + arrayType + "[size];");
-                    out.println(indent + "    for (int i = 0; i < size; i++) {");
-                    out.println(indent + "        value[i] = (" + arrayType + ") looseUnmarsalNestedObject(wireFormat,dataIn);");
-                    out.println(indent + "    }");
-                    out.println(indent + "    info." + setter + "(value);");
-                    out.println(indent + "} else {");
-                    out.println(indent + "    info." + setter + "(null);");
-                    out.println(indent + "}");
-                }
-            } else {
-                if (typeName.equals("boolean")) {
-                    out.println(indent + "info." + setter + "(dataIn.readBoolean());");
-                } else if (typeName.equals("byte")) {
-                    out.println(indent + "info." + setter + "(dataIn.readByte());");
-                } else if (typeName.equals("char")) {
-                    out.println(indent + "info." + setter + "(dataIn.readChar());");
-                } else if (typeName.equals("short")) {
-                    out.println(indent + "info." + setter + "(dataIn.readShort());");
-                } else if (typeName.equals("int")) {
-                    out.println(indent + "info." + setter + "(dataIn.readInt());");
-                } else if (typeName.equals("long")) {
-                    out.println(indent + "info." + setter + "(looseUnmarshalLong(wireFormat, dataIn));");
-                } else if (typeName.equals("String")) {
-                    out.println(indent + "info." + setter + "(looseUnmarshalString(dataIn));");
-                } else if (typeName.equals("byte[]")) {
-                    if (size > 0) {
-                        out.println(indent + "info." + setter + "(looseUnmarshalConstByteArray(dataIn, " + size + "));");
-                    } else {
-                        out.println(indent + "info." + setter + "(looseUnmarshalByteArray(dataIn));");
-                    }
-                } else if (typeName.equals("Buffer")) {
-                    out.println(indent + "info." + setter + "(looseUnmarshalByteSequence(dataIn));");
-                } else if (property.isThrowable()) {
-                    out.println(indent + "info." + setter + "((" + typeName + ") looseUnmarsalThrowable(wireFormat, dataIn));");
-                } else if (property.isCached()) {
-                    out.println(indent + "info." + setter + "((" + typeName + ") looseUnmarsalCachedObject(wireFormat, dataIn));");
-                } else {
-                    out.println(indent + "info." + setter + "((" + typeName + ") looseUnmarsalNestedObject(wireFormat, dataIn));");
-                }
-            }
+    private void writeDeferredLooseUnmarshal(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        final String typeName = openWireType.getTypeName();
 
-            if (property.getVersion() > 1) {
-                out.println("        }");
-            }
+        out.println("    /**");
+        out.println("     * Un-marshal an object instance from the data input stream");
+        out.println("     *");
+        out.println("     * @param target the object to un-marshal");
+        out.println("     * @param dataIn the data input stream to build the object from");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while writing the data");
+        out.println("     */");
+        out.println("    public void looseUnmarshal(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {");
+        out.println("        looseUnmarshalHeader(wireFormat, target, dataIn);");
+        out.println("        looseUnmarshalRemainder(wireFormat, target, dataIn);");
+        out.println("    }");
+        out.println("");
+        out.println("    /**");
+        out.println("     * Un-marshal the header properties of an object instance from the data input stream");
+        out.println("     *");
+        out.println("     * @param target the object to un-marshal");
+        out.println("     * @param dataIn the data input stream to build the object from");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while writing the data");
+        out.println("     */");
+        out.println("    public void looseUnmarshalHeader(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {");
+        out.println("        super.looseUnmarshal(wireFormat, target, dataIn);");
+        out.println("");
+        out.println("        " + typeName + " info = (" + typeName + ") target;");
+        if (isOpenWireVersionNeeded(openWireType.getHeaderProperties())) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        out.println("");
+
+        if (openWireType.isMarshalAware()) {
+            out.println("        info.beforeUnmarshall(wireFormat);");
+        }
+
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType.getHeaderProperties())) {
+            writeLooseUnmarshalProperty(out, property);
+        }
+
+        out.println("    }");
+        out.println("");
+        out.println("    /**");
+        out.println("     * Un-marshal the properties that follow the header of an object instance from the data input stream");
+        out.println("     *");
+        out.println("     * @param target the object to un-marshal");
+        out.println("     * @param dataIn the data input stream to build the object from");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while writing the data");
+        out.println("     */");
+        out.println("    public void looseUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {");
+        out.println("        " + typeName + " info = (" + typeName + ") target;");
+        if (isOpenWireVersionNeeded(openWireType.getDeferredProperties())) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        out.println("");
+
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType.getDeferredProperties())) {
+            writeLooseUnmarshalProperty(out, property);
         }
 
         if (openWireType.isMarshalAware()) {
@@ -540,6 +781,106 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
         out.println("    }");
     }
 
+    private void writeDeferredSubtypeLooseUnmarshal(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        final String typeName = openWireType.getTypeName();
+
+        out.println("    /**");
+        out.println("     * Un-marshal the properties that follow the header of an object instance from the data input stream");
+        out.println("     *");
+        out.println("     * @param target the object to un-marshal");
+        out.println("     * @param dataIn the data input stream to build the object from");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while writing the data");
+        out.println("     */");
+        out.println("    public void looseUnmarshalRemainder(OpenWireFormat wireFormat, Object target, DataInput dataIn) throws IOException {");
+        out.println("        super.looseUnmarshalRemainder(wireFormat, target, dataIn);");
+        out.println("");
+        out.println("        " + typeName + " info = (" + typeName + ") target;");
+        if (isOpenWireVersionNeeded(openWireType)) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        out.println("");
+
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
+            writeLooseUnmarshalProperty(out, property);
+        }
+
+        out.println("    }");
+    }
+
+    private void writeLooseUnmarshalProperty(PrintWriter out, OpenWirePropertyDescriptor property) {
+        final int size = property.getSize();
+        final String typeName = property.getTypeName();
+        final String setter = property.getSetterName();
+
+        String indent = "        ";
+        if (isVersionChecked(property)) {
+            indent = indent + "    ";
+            out.println("        if (version >= " + property.getVersion() + ") {");
+        }
+
+        if (property.isArray() && !typeName.equals("byte[]")) {
+            final String arrayType = property.getType().getComponentType().getSimpleName();
+
+            if (size > 0) {
+                out.println(indent + "{");
+                out.println(indent + "    " + arrayType + " value[] = new " + arrayType + "[" + size + "];");
+                out.println(indent + "    " + "for (int i = 0; i < " + size + "; i++) {");
+                out.println(indent + "        value[i] = (" + arrayType + ") looseUnmarsalNestedObject(wireFormat,dataIn);");
+                out.println(indent + "    }");
+                out.println(indent + "    info." + setter + "(value);");
+                out.println(indent + "}");
+            } else {
+                out.println(indent + "if (dataIn.readBoolean()) {");
+                out.println(indent + "    short size = dataIn.readShort();");
+                out.println(indent + "    " + arrayType + " value[] = new " + arrayType + "[size];");
+                out.println(indent + "    for (int i = 0; i < size; i++) {");
+                out.println(indent + "        value[i] = (" + arrayType + ") looseUnmarsalNestedObject(wireFormat,dataIn);");
+                out.println(indent + "    }");
+                out.println(indent + "    info." + setter + "(value);");
+                out.println(indent + "} else {");
+                out.println(indent + "    info." + setter + "(null);");
+                out.println(indent + "}");
+            }
+        } else {
+            if (typeName.equals("boolean")) {
+                out.println(indent + "info." + setter + "(dataIn.readBoolean());");
+            } else if (typeName.equals("byte")) {
+                out.println(indent + "info." + setter + "(dataIn.readByte());");
+            } else if (typeName.equals("char")) {
+                out.println(indent + "info." + setter + "(dataIn.readChar());");
+            } else if (typeName.equals("short")) {
+                out.println(indent + "info." + setter + "(dataIn.readShort());");
+            } else if (typeName.equals("int")) {
+                out.println(indent + "info." + setter + "(dataIn.readInt());");
+            } else if (typeName.equals("long") && property.isDeltaEncoded()) {
+                out.println(indent + "info." + setter + "(looseUnmarshalDeltaLong(wireFormat, " + getDeltaSlot(property) + ", dataIn));");
+            } else if (typeName.equals("long")) {
+                out.println(indent + "info." + setter + "(looseUnmarshalLong(wireFormat, dataIn));");
+            } else if (typeName.equals("String")) {
+                out.println(indent + "info." + setter + "(looseUnmarshalString(dataIn));");
+            } else if (typeName.equals("byte[]")) {
+                if (size > 0) {
+                    out.println(indent + "info." + setter + "(looseUnmarshalConstByteArray(dataIn, " + size + "));");
+                } else {
+                    out.println(indent + "info." + setter + "(looseUnmarshalByteArray(dataIn));");
+                }
+            } else if (typeName.equals("Buffer")) {
+                out.println(indent + "info." + setter + "(looseUnmarshalByteSequence(wireFormat, dataIn));");
+            } else if (property.isThrowable()) {
+                out.println(indent + "info." + setter + "((" + typeName + ") looseUnmarsalThrowable(wireFormat, dataIn));");
+            } else if (property.isCached()) {
+                out.println(indent + "info." + setter + "((" + typeName + ") looseUnmarsalCachedObject(wireFormat, dataIn));");
+            } else {
+                out.println(indent + "info." + setter + "((" + typeName + ") looseUnmarsalNestedObject(wireFormat, dataIn));");
+            }
+        }
+
+        if (isVersionChecked(property)) {
+            out.println("        }");
+        }
+    }
+
     private void writeLooseMarshal(PrintWriter out, OpenWireTypeDescriptor openWireType) {
         out.println("    /**");
         out.println("     * Write the object to the output using loose marshaling.");
@@ -562,13 +903,13 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
 
         out.println("        super.looseMarshal(wireFormat, source, dataOut);");
 
-        for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
             final int size = property.getSize();
             final String typeName = property.getTypeName();
             final String getter = "info." + property.getGetterName() + "()";
 
             String indent = "        ";
-            if (property.getVersion() > 1) {
+            if (isVersionChecked(property)) {
                 indent = indent + "    ";
                 out.println("        if (version >= " + property.getVersion() + ") {");
             }
@@ -583,6 +924,8 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
                 out.println(indent + "dataOut.writeShort(" + getter + ");");
             } else if (typeName.equals("int")) {
                 out.println(indent + "dataOut.writeInt(" + getter + ");");
+            } else if (typeName.equals("long") && property.isDeltaEncoded()) {
+                out.println(indent + "looseMarshalDeltaLong(wireFormat, " + getDeltaSlot(property) + ", " + getter + ", dataOut);");
             } else if (typeName.equals("long")) {
                 out.println(indent + "looseMarshalLong(wireFormat, " + getter + ", dataOut);");
             } else if (typeName.equals("String")) {
@@ -611,7 +954,7 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
                 }
             }
 
-            if (property.getVersion() > 1) {
+            if (isVersionChecked(property)) {
                 out.println("        }");
             }
         }
@@ -625,6 +968,220 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
         out.println("");
     }
 
+    private void writeSkipSupportMethods(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        out.println("");
+
+        if (isRootMarshaller(openWireType) || openWireType.isMarshalAware()) {
+            out.println("    /**");
+            out.println("     * @return true if the managed type is marshal aware");
+            out.println("     */");
+            out.println("    public boolean isMarshallAware() {");
+            out.println("        return " + openWireType.isMarshalAware() + ";");
+            out.println("    }");
+            out.println("");
+        }
+
+        out.println("    /**");
+        out.println("     * @return the number of properties of the managed type, including those of its super types");
+        out.println("     */");
+        out.println("    public int getFieldCount() {");
+        if (isRootMarshaller(openWireType)) {
+            out.println("        return " + openWireType.getProperties().size() + ";");
+        } else {
+            out.println("        return super.getFieldCount() + " + openWireType.getProperties().size() + ";");
+        }
+        out.println("    }");
+        out.println("");
+    }
+
+    private void writeTightSkip(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        out.println("    /**");
+        out.println("     * Skip an object instance in the data input stream without creating it");
+        out.println("     *");
+        out.println("     * @param wireFormat the OpenWireFormat instance to use");
+        out.println("     * @param dataIn the data input stream positioned at the object's properties");
+        out.println("     * @param bs the boolean stream where the type's booleans were marshaled");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while reading the data");
+        out.println("     */");
+        out.println("    public void tightSkip(OpenWireFormat wireFormat, DataInput dataIn, BooleanStream bs) throws IOException {");
+        if (!isRootMarshaller(openWireType)) {
+            out.println("        super.tightSkip(wireFormat, dataIn, bs);");
+        }
+        if (isOpenWireVersionNeeded(openWireType)) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        if (!getProperties(openWireType).isEmpty()) {
+            out.println("");
+        }
+
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
+            String indent = "        ";
+            if (isVersionChecked(property)) {
+                indent = indent + "    ";
+                out.println("        if (version >= " + property.getVersion() + ") {");
+            }
+
+            out.println(indent + getSkipStatement(property, true));
+
+            if (isVersionChecked(property)) {
+                out.println("        }");
+            }
+        }
+
+        out.println("    }");
+        out.println("");
+    }
+
+    private void writeTightFieldOffsets(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        out.println("    /**");
+        out.println("     * Skip an object instance in the data input stream recording the position of each property");
+        out.println("     *");
+        out.println("     * @param wireFormat the OpenWireFormat instance to use");
+        out.println("     * @param dataIn the data input stream positioned at the object's properties");
+        out.println("     * @param bs the boolean stream where the type's booleans were marshaled");
+        out.println("     * @param offsets the array that receives the position of each property");
+        out.println("     *");
+        out.println("     * @return the number of properties of the managed type");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while reading the data");
+        out.println("     */");
+        out.println("    public int tightFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, BooleanStream bs, int[] offsets) throws IOException {");
+        if (isRootMarshaller(openWireType)) {
+            out.println("        int field = 0;");
+        } else {
+            out.println("        int field = super.tightFieldOffsets(wireFormat, dataIn, bs, offsets);");
+        }
+        writeFieldOffsetsBody(out, openWireType, true);
+        out.println("    }");
+        out.println("");
+    }
+
+    private void writeLooseSkip(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        out.println("    /**");
+        out.println("     * Skip an object instance in the data input stream without creating it");
+        out.println("     *");
+        out.println("     * @param wireFormat the OpenWireFormat instance to use");
+        out.println("     * @param dataIn the data input stream positioned at the object's properties");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while reading the data");
+        out.println("     */");
+        out.println("    public void looseSkip(OpenWireFormat wireFormat, DataInput dataIn) throws IOException {");
+        if (!isRootMarshaller(openWireType)) {
+            out.println("        super.looseSkip(wireFormat, dataIn);");
+        }
+        if (isOpenWireVersionNeeded(openWireType)) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        if (!getProperties(openWireType).isEmpty()) {
+            out.println("");
+        }
+
+        for (final OpenWirePropertyDescriptor property : getProperties(openWireType)) {
+            String indent = "        ";
+            if (isVersionChecked(property)) {
+                indent = indent + "    ";
+                out.println("        if (version >= " + property.getVersion() + ") {");
+            }
+
+            out.println(indent + getSkipStatement(property, false));
+
+            if (isVersionChecked(property)) {
+                out.println("        }");
+            }
+        }
+
+        out.println("    }");
+        out.println("");
+    }
+
+    private void writeLooseFieldOffsets(PrintWriter out, OpenWireTypeDescriptor openWireType) {
+        out.println("    /**");
+        out.println("     * Skip an object instance in the data input stream recording the position of each property");
+        out.println("     *");
+        out.println("     * @param wireFormat the OpenWireFormat instance to use");
+        out.println("     * @param dataIn the data input stream positioned at the object's properties");
+        out.println("     * @param offsets the array that receives the position of each property");
+        out.println("     *");
+        out.println("     * @return the number of properties of the managed type");
+        out.println("     *");
+        out.println("     * @throws IOException if an error occurs while reading the data");
+        out.println("     */");
+        out.println("    public int looseFieldOffsets(OpenWireFormat wireFormat, DataByteArrayInputStream dataIn, int[] offsets) throws IOException {");
+        if (isRootMarshaller(openWireType)) {
+            out.println("        int field = 0;");
+        } else {
+            out.println("        int field = super.looseFieldOffsets(wireFormat, dataIn, offsets);");
+        }
+        writeFieldOffsetsBody(out, openWireType, false);
+        out.println("    }");
+    }
+
+    private void writeFieldOffsetsBody(PrintWriter out, OpenWireTypeDescriptor openWireType, boolean tight) {
+        if (isOpenWireVersionNeeded(openWireType)) {
+            out.println("        int version = wireFormat.getVersion();");
+        }
+        out.println("");
+
+        // Every property is numbered, including those the specialized version does not marshal
+        for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
+            if (isVersionSpecialized() && property.getVersion() > specializedVersion) {
+                out.println("        field++;");
+            } else if (isVersionChecked(property)) {
+                out.println("        if (version >= " + property.getVersion() + ") {");
+                out.println("            offsets[field] = dataIn.getPos();");
+                out.println("            " + getSkipStatement(property, tight));
+                out.println("        }");
+                out.println("        field++;");
+            } else {
+                out.println("        offsets[field++] = dataIn.getPos();");
+                out.println("        " + getSkipStatement(property, tight));
+            }
+        }
+
+        if (openWireType.hasProperties()) {
+            out.println("");
+        }
+        out.println("        return field;");
+    }
+
+    private String getSkipStatement(OpenWirePropertyDescriptor property, boolean tight) {
+        final int size = property.getSize();
+        final String typeName = property.getTypeName();
+        final String prefix = tight ? "tightSkip" : "looseSkip";
+        final String booleans = tight ? ", bs" : "";
+
+        if (typeName.equals("boolean")) {
+            return tight ? "bs.readBoolean();" : "skipFully(dataIn, 1);";
+        } else if (isFixedSize(typeName)) {
+            return "skipFully(dataIn, " + getFixedSize(typeName) + ");";
+        } else if (typeName.equals("long")) {
+            return prefix + "Long(wireFormat, dataIn" + booleans + ");";
+        } else if (typeName.equals("String")) {
+            return prefix + "String(dataIn" + booleans + ");";
+        } else if (typeName.equals("byte[]")) {
+            if (size > 0) {
+                return "skipFully(dataIn, " + size + ");";
+            } else {
+                return prefix + "ByteArray(dataIn" + booleans + ");";
+            }
+        } else if (typeName.equals("Buffer")) {
+            return prefix + "ByteSequence(dataIn" + booleans + ");";
+        } else if (property.isArray()) {
+            if (size > 0) {
+                return prefix + "ObjectArrayConstSize(wireFormat, dataIn" + booleans + ", " + size + ");";
+            } else {
+                return prefix + "ObjectArray(wireFormat, dataIn" + booleans + ");";
+            }
+        } else if (property.isThrowable()) {
+            return prefix + "Throwable(wireFormat, dataIn" + booleans + ");";
+        } else if (property.isCached()) {
+            return prefix + "CachedObject(wireFormat, dataIn" + booleans + ");";
+        } else {
+            return prefix + "NestedObject(wireFormat, dataIn" + booleans + ");";
+        }
+    }
+
     private void writeClassClosure(PrintWriter out, OpenWireTypeDescriptor openWireType) {
         out.println("}");
     }
@@ -632,8 +1189,12 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
     //----- Helper Methods for Code Generation -------------------------------//
 
     private boolean isOpenWireVersionNeeded(OpenWireTypeDescriptor openWireType) {
-        for (final OpenWirePropertyDescriptor property : openWireType.getProperties()) {
-            if (property.getVersion() > 1) {
+        return isOpenWireVersionNeeded(openWireType.getProperties());
+    }
+
+    private boolean isOpenWireVersionNeeded(List<OpenWirePropertyDescriptor> properties) {
+        for (final OpenWirePropertyDescriptor property : getProperties(properties)) {
+            if (isVersionChecked(property)) {
                 return true;
             }
         }
@@ -641,8 +1202,85 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
         return false;
     }
 
+    private int getDeltaSlot(OpenWirePropertyDescriptor property) {
+        return deltaSlots.get(property);
+    }
+
+    private boolean isFixedSize(String typeName) {
+        return getFixedSize(typeName) > 0;
+    }
+
+    private int getFixedSize(String typeName) {
+        switch (typeName) {
+            case "byte":
+                return 1;
+            case "char":
+            case "short":
+                return 2;
+            case "int":
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    private boolean isVersionChecked(OpenWirePropertyDescriptor property) {
+        return !isVersionSpecialized() && property.getVersion() > 1;
+    }
+
+    private List<OpenWirePropertyDescriptor> getProperties(OpenWireTypeDescriptor openWireType) {
+        return getProperties(openWireType.getProperties());
+    }
+
+    private List<OpenWirePropertyDescriptor> getProperties(List<OpenWirePropertyDescriptor> properties) {
+        if (!isVersionSpecialized()) {
+            return properties;
+        }
+
+        final List<OpenWirePropertyDescriptor> result = new ArrayList<OpenWirePropertyDescriptor>();
+        for (final OpenWirePropertyDescriptor property : properties) {
+            if (property.getVersion() <= specializedVersion) {
+                result.add(property);
+            }
+        }
+
+        return result;
+    }
+
     private String getClassName(OpenWireTypeDescriptor openWireType) {
-        return openWireType.getTypeName() + "Marshaller";
+        return getClassName(openWireType.getTypeName(), specializedVersion);
+    }
+
+    private String getClassName(String typeName, int version) {
+        if (version > 0) {
+            return typeName + "MarshallerV" + version;
+        }
+
+        return typeName + "Marshaller";
+    }
+
+    /**
+     * @return true if the type adds properties to a super type that declares header properties,
+     *         those properties are then read as part of the super type's remainder.
+     */
+    private boolean isDeferredSubtype(OpenWireTypeDescriptor openWireType) {
+        if (getProperties(openWireType).isEmpty()) {
+            return false;
+        }
+
+        OpenWireTypeDescriptor superType = GeneratorUtils.findTypeDescriptor(openWireType.getSuperClass(), typeDescriptors);
+        while (superType != null) {
+            if (superType.hasDeferredProperties()) {
+                return true;
+            }
+            superType = GeneratorUtils.findTypeDescriptor(superType.getSuperClass(), typeDescriptors);
+        }
+
+        return false;
+    }
+
+    private boolean isRootMarshaller(OpenWireTypeDescriptor openWireType) {
+        return getBaseClassName(openWireType).equals("BaseDataStreamMarshaller");
     }
 
     private String getBaseClassName(OpenWireTypeDescriptor openWireType) {
@@ -654,6 +1292,15 @@ public class UniversalMarshallerGenerator extends AbstractGenerator {
             !superName.equals("DataStructureSupport")) {
 
             answer = superName + "Marshaller";
+
+            // Extend the super type's marshaler for the same version when it is also specialized.
+            final OpenWireTypeDescriptor superType = GeneratorUtils.findTypeDescriptor(superName, typeDescriptors);
+            if (isVersionSpecialized() && superType != null) {
+                final SortedSet<Integer> versions = GeneratorUtils.findPropertyVersions(superType, typeDescriptors);
+                if (versions.size() > 1) {
+                    answer = getClassName(superName, versions.headSet(specializedVersion + 1).last());
+                }
+            }
         }
 
         return answer;
@@ -16,9 +16,14 @@
  */
 package org.apache.activemq.openwire.codec;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 import jakarta.jms.BytesMessage;
@@ -32,6 +37,7 @@ import org.apache.activemq.ActiveMQConnectionFactory;
 import org.apache.activemq.command.ActiveMQBytesMessage;
 import org.apache.activemq.command.ActiveMQQueue;
 import org.apache.activemq.command.ActiveMQTextMessage;
+import org.apache.activemq.openwire.buffer.Buffer;
 import org.apache.activemq.openwire.commands.ConnectionInfo;
 import org.apache.activemq.openwire.commands.ConsumerInfo;
 import org.apache.activemq.openwire.commands.Message;
@@ -40,15 +46,21 @@ import org.apache.activemq.openwire.commands.OpenWireBytesMessage;
 import org.apache.activemq.openwire.commands.OpenWireQueue;
 import org.apache.activemq.openwire.commands.OpenWireTextMessage;
 import org.apache.activemq.openwire.commands.ProducerInfo;
+import org.apache.activemq.openwire.compression.CompressionCodec;
+import org.apache.activemq.openwire.compression.CompressionCodecs;
 import org.apache.activemq.openwire.util.Wait;
 import org.apache.activemq.openwire.utils.OpenWireConnection;
 import org.apache.activemq.openwire.utils.OpenWireConsumer;
 import org.apache.activemq.openwire.utils.OpenWireProducer;
 import org.apache.activemq.openwire.utils.OpenWireSession;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class MessageCompressionTest extends OpenWireInteropTestSupport {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MessageCompressionTest.class);
+
     // The following text should compress well
     private static final String TEXT = "The quick red fox jumped over the lazy brown dog. "
             + "The quick red fox jumped over the lazy brown dog. " + "The quick red fox jumped over the lazy brown dog. "
@@ -198,6 +210,109 @@ public class MessageCompressionTest extends OpenWireInteropTestSupport {
                    compressedSize < unCompressedSize);
     }
 
+    @Test
+    public void testTextMessageLz4CompressionOpenWire() throws Exception {
+        sendOpenWireTextMessage(TEXT, true, CompressionCodecs.LZ4, 0);
+        OpenWireTextMessage message = receiveOpenWireTextMessage();
+        int compressedSize = message.getContent().getLength();
+        assertTrue(message.isCompressed());
+        assertEquals(CompressionCodecs.LZ4, message.getPayloadCompressionCodec());
+        assertEquals(TEXT, message.getText());
+
+        sendOpenWireTextMessage(TEXT, false);
+        message = receiveOpenWireTextMessage();
+        int unCompressedSize = message.getContent().getLength();
+
+        assertTrue("expected: compressed Size '" + compressedSize + "' < unCompressedSize '" + unCompressedSize + "'",
+                   compressedSize < unCompressedSize);
+    }
+
+    @Test
+    public void testBytesMessageLz4CompressionOpenWire() throws Exception {
+        sendOpenWireBytesMessage(TEXT, true, CompressionCodecs.LZ4, 0);
+        OpenWireBytesMessage message = receiveOpenWireBytesMessage();
+        int compressedSize = message.getContent().getLength();
+        assertTrue(message.isCompressed());
+        assertEquals(CompressionCodecs.LZ4, message.getPayloadCompressionCodec());
+        assertEquals(TEXT, new String(message.getBodyBytes(), "UTF8"));
+
+        sendOpenWireBytesMessage(TEXT, false);
+        message = receiveOpenWireBytesMessage();
+        int unCompressedSize = message.getContent().getLength();
+
+        assertTrue("expected: compressed Size '" + compressedSize + "' < unCompressedSize '" + unCompressedSize + "'",
+                   compressedSize < unCompressedSize);
+    }
+
+    @Test
+    public void testBytesMessageDeflateCompressionOpenWireToActiveMQWithPooledCodec() throws Exception {
+        sendOpenWireBytesMessage(TEXT, true, CompressionCodecs.DEFLATE, 0);
+        ActiveMQBytesMessage message = receiveAMQBytesMessage();
+        assertTrue(message.isCompressed());
+        assertNull(message.getProperty(CompressionCodecs.CODEC_PROPERTY));
+        byte[] bytes = new byte[TEXT.getBytes("UTF8").length];
+        message.readBytes(bytes);
+        assertEquals(TEXT, new String(bytes, "UTF8"));
+    }
+
+    @Test
+    public void testMessageBelowCompressionThresholdIsNotCompressed() throws Exception {
+        sendOpenWireTextMessage(TEXT, true, CompressionCodecs.LZ4, TEXT.length() * 2);
+        OpenWireTextMessage message = receiveOpenWireTextMessage();
+        assertFalse(message.isCompressed());
+        assertNull(message.getPayloadCompressionCodec());
+        assertEquals(TEXT, message.getText());
+    }
+
+    @Test
+    public void testCompressionCodecRatioAndThroughput() throws Exception {
+        final int iterations = Integer.getInteger("openwire.compression.iterations", 200);
+
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 64 * 1024) {
+            text.append(TEXT);
+        }
+
+        byte[] random = new byte[64 * 1024];
+        new Random(42).nextBytes(random);
+
+        byte[][] payloads = { text.toString().getBytes(StandardCharsets.UTF_8), random };
+        String[] payloadNames = { "text", "random" };
+        CompressionCodec[] codecs = { CompressionCodecs.DEFLATE, CompressionCodecs.LZ4, CompressionCodecs.NONE };
+
+        for (int p = 0; p < payloads.length; ++p) {
+            Buffer payload = new Buffer(payloads[p]);
+            for (CompressionCodec codec : codecs) {
+                Buffer compressed = codec.compress(payload);
+                assertArrayEquals(payloads[p], codec.decompress(compressed).toByteArray());
+
+                long compressTime = 0;
+                long decompressTime = 0;
+                for (int i = 0; i < iterations; ++i) {
+                    long start = System.nanoTime();
+                    compressed = codec.compress(payload);
+                    long middle = System.nanoTime();
+                    codec.decompress(compressed);
+                    long end = System.nanoTime();
+
+                    compressTime += middle - start;
+                    decompressTime += end - middle;
+                }
+
+                double megabytes = (double) payload.getLength() * iterations / (1024 * 1024);
+                LOG.info("{} payload with {}: ratio {}, compress {} MB/s, decompress {} MB/s",
+                         payloadNames[p], codec.getName(),
+                         String.format("%.2f", (double) payload.getLength() / compressed.getLength()),
+                         String.format("%.1f", megabytes / (compressTime / 1e9)),
+                         String.format("%.1f", megabytes / (decompressTime / 1e9)));
+            }
+        }
+
+        Buffer textPayload = new Buffer(payloads[0]);
+        assertTrue(CompressionCodecs.DEFLATE.compress(textPayload).getLength() < textPayload.getLength() / 10);
+        assertTrue(CompressionCodecs.LZ4.compress(textPayload).getLength() < textPayload.getLength() / 10);
+    }
+
     //---------- Sends and Receives Message Via ActiveMQ Objects -------------//
 
     private void sendAMQTextMessage(String message) throws Exception {
@@ -259,6 +374,10 @@ public class MessageCompressionTest extends OpenWireInteropTestSupport {
     }
 
     private void sendOpenWireTextMessage(String payload, boolean useCompression) throws Exception {
+        sendOpenWireTextMessage(payload, useCompression, CompressionCodecs.DEFLATE, 0);
+    }
+
+    private void sendOpenWireTextMessage(String payload, boolean useCompression, CompressionCodec codec, int threshold) throws Exception {
         connect();
         assertTrue(awaitConnected(10, TimeUnit.SECONDS));
         OpenWireConnection connection = new OpenWireConnection();
@@ -278,6 +397,8 @@ public class MessageCompressionTest extends OpenWireInteropTestSupport {
 
         OpenWireTextMessage message = new OpenWireTextMessage();
         message.setUseCompression(useCompression);
+        message.setCompressionCodec(codec);
+        message.setCompressionThreshold(threshold);
         message.setText(payload);
         message.setTimestamp(System.currentTimeMillis());
         message.setMessageId(producerId.getNextMessageId());
@@ -298,6 +419,10 @@ public class MessageCompressionTest extends OpenWireInteropTestSupport {
     }
 
     private void sendOpenWireBytesMessage(String payload, boolean useCompression) throws Exception {
+        sendOpenWireBytesMessage(payload, useCompression, CompressionCodecs.DEFLATE, 0);
+    }
+
+    private void sendOpenWireBytesMessage(String payload, boolean useCompression, CompressionCodec codec, int threshold) throws Exception {
         connect();
         assertTrue(awaitConnected(10, TimeUnit.SECONDS));
         OpenWireConnection connection = new OpenWireConnection();
@@ -317,6 +442,8 @@ public class MessageCompressionTest extends OpenWireInteropTestSupport {
 
         OpenWireBytesMessage message = new OpenWireBytesMessage();
         message.setUseCompression(useCompression);
+        message.setCompressionCodec(codec);
+        message.setCompressionThreshold(threshold);
         message.setBodyBytes(payload.getBytes("UTF8"));
         message.setTimestamp(System.currentTimeMillis());
         message.setMessageId(producerId.getNextMessageId());
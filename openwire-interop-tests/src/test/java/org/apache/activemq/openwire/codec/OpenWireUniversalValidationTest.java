@@ -60,6 +60,8 @@ public class OpenWireUniversalValidationTest {
         // tight/loose encoding so only need to test 1
         OpenWireFormat format = new OpenWireFormat();
         format.setUseLegacyCodecs(isUseLegacyCodecs());
+        // The override below is applied to the universal table itself
+        format.setUseVersionSpecializedCodecs(false);
 
         // Override the marshaller map with a custom impl to purposely marshal a class type that is
         // not a Throwable for testing the unmarshaller
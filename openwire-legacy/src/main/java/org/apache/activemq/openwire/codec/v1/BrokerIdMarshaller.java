@@ -59,7 +59,7 @@ public class BrokerIdMarshaller extends BaseDataStreamMarshaller {
     public void tightUnmarshal(OpenWireFormat wireFormat, Object o, DataInput dataIn, BooleanStream bs) throws IOException {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
         BrokerId info = (BrokerId) o;
-        info.setValue(tightUnmarshalString(dataIn, bs));
+        info.setValue(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
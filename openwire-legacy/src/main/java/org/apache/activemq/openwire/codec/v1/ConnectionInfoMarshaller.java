@@ -70,9 +70,9 @@ public class ConnectionInfoMarshaller extends BaseCommandMarshaller {
 
         ConnectionInfo info = (ConnectionInfo) o;
         info.setConnectionId((org.apache.activemq.openwire.commands.ConnectionId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setClientId(tightUnmarshalString(dataIn, bs));
-        info.setPassword(tightUnmarshalString(dataIn, bs));
-        info.setUserName(tightUnmarshalString(dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setPassword(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setUserName(tightUnmarshalString(wireFormat, dataIn, bs));
 
         if (bs.readBoolean()) {
             short size = dataIn.readShort();
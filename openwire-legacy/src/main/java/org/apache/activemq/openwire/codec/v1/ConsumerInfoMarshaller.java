@@ -66,8 +66,8 @@ public class ConsumerInfoMarshaller extends BaseCommandMarshaller {
         info.setPrefetchSize(dataIn.readInt());
         info.setMaximumPendingMessageLimit(dataIn.readInt());
         info.setDispatchAsync(bs.readBoolean());
-        info.setSelector(tightUnmarshalString(dataIn, bs));
-        info.setSubscriptionName(tightUnmarshalString(dataIn, bs));
+        info.setSelector(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setSubscriptionName(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setNoLocal(bs.readBoolean());
         info.setExclusive(bs.readBoolean());
         info.setRetroactive(bs.readBoolean());
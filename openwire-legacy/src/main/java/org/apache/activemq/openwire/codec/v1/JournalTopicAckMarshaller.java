@@ -64,8 +64,8 @@ public class JournalTopicAckMarshaller extends BaseDataStreamMarshaller {
         info.setDestination((OpenWireDestination) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
         info.setMessageId((org.apache.activemq.openwire.commands.MessageId) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
         info.setMessageSequenceId(tightUnmarshalLong(wireFormat, dataIn, bs));
-        info.setSubscritionName(tightUnmarshalString(dataIn, bs));
-        info.setClientId(tightUnmarshalString(dataIn, bs));
+        info.setSubscritionName(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setTransactionId((org.apache.activemq.openwire.commands.TransactionId) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
     }
 
@@ -18,75 +18,146 @@ package org.apache.activemq.openwire.codec.v1;
 
 import org.apache.activemq.openwire.codec.DataStreamMarshaller;
 import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.commands.*;
 
 public final class MarshallerFactory {
 
     /**
-     * Creates a Map of command type -> Marshalers
+     * Map of command type -> Marshallers, populated as each type is first used
      */
     private static final DataStreamMarshaller MARSHALLER[] = new DataStreamMarshaller[256];
-    static {
 
-        add(new LocalTransactionIdMarshaller());
-        add(new PartialCommandMarshaller());
-        add(new IntegerResponseMarshaller());
-        add(new OpenWireQueueMarshaller());
-        add(new OpenWireObjectMessageMarshaller());
-        add(new ConnectionIdMarshaller());
-        add(new ConnectionInfoMarshaller());
-        add(new ProducerInfoMarshaller());
-        add(new MessageDispatchNotificationMarshaller());
-        add(new SessionInfoMarshaller());
-        add(new TransactionInfoMarshaller());
-        add(new OpenWireStreamMessageMarshaller());
-        add(new MessageAckMarshaller());
-        add(new ProducerIdMarshaller());
-        add(new MessageIdMarshaller());
-        add(new OpenWireTempQueueMarshaller());
-        add(new RemoveSubscriptionInfoMarshaller());
-        add(new SessionIdMarshaller());
-        add(new DataArrayResponseMarshaller());
-        add(new JournalQueueAckMarshaller());
-        add(new ResponseMarshaller());
-        add(new ConnectionErrorMarshaller());
-        add(new ConsumerInfoMarshaller());
-        add(new XATransactionIdMarshaller());
-        add(new JournalTraceMarshaller());
-        add(new ConsumerIdMarshaller());
-        add(new OpenWireTextMessageMarshaller());
-        add(new SubscriptionInfoMarshaller());
-        add(new JournalTransactionMarshaller());
-        add(new ControlCommandMarshaller());
-        add(new LastPartialCommandMarshaller());
-        add(new NetworkBridgeFilterMarshaller());
-        add(new OpenWireBytesMessageMarshaller());
-        add(new WireFormatInfoMarshaller());
-        add(new OpenWireTempTopicMarshaller());
-        add(new DiscoveryEventMarshaller());
-        add(new ReplayCommandMarshaller());
-        add(new OpenWireTopicMarshaller());
-        add(new BrokerInfoMarshaller());
-        add(new DestinationInfoMarshaller());
-        add(new ShutdownInfoMarshaller());
-        add(new DataResponseMarshaller());
-        add(new ConnectionControlMarshaller());
-        add(new KeepAliveInfoMarshaller());
-        add(new FlushCommandMarshaller());
-        add(new ConsumerControlMarshaller());
-        add(new JournalTopicAckMarshaller());
-        add(new BrokerIdMarshaller());
-        add(new MessageDispatchMarshaller());
-        add(new OpenWireMapMessageMarshaller());
-        add(new OpenWireMessageMarshaller());
-        add(new RemoveInfoMarshaller());
-        add(new ExceptionResponseMarshaller());
+    /**
+     * Creates the marshaller of a command type, its class is only loaded once the type is used
+     */
+    private static DataStreamMarshaller createMarshaller(int type) {
+        switch (type) {
+            case LocalTransactionId.DATA_STRUCTURE_TYPE:
+                return new LocalTransactionIdMarshaller();
+            case PartialCommand.DATA_STRUCTURE_TYPE:
+                return new PartialCommandMarshaller();
+            case IntegerResponse.DATA_STRUCTURE_TYPE:
+                return new IntegerResponseMarshaller();
+            case OpenWireQueue.DATA_STRUCTURE_TYPE:
+                return new OpenWireQueueMarshaller();
+            case OpenWireObjectMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireObjectMessageMarshaller();
+            case ConnectionId.DATA_STRUCTURE_TYPE:
+                return new ConnectionIdMarshaller();
+            case ConnectionInfo.DATA_STRUCTURE_TYPE:
+                return new ConnectionInfoMarshaller();
+            case ProducerInfo.DATA_STRUCTURE_TYPE:
+                return new ProducerInfoMarshaller();
+            case MessageDispatchNotification.DATA_STRUCTURE_TYPE:
+                return new MessageDispatchNotificationMarshaller();
+            case SessionInfo.DATA_STRUCTURE_TYPE:
+                return new SessionInfoMarshaller();
+            case TransactionInfo.DATA_STRUCTURE_TYPE:
+                return new TransactionInfoMarshaller();
+            case OpenWireStreamMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireStreamMessageMarshaller();
+            case MessageAck.DATA_STRUCTURE_TYPE:
+                return new MessageAckMarshaller();
+            case ProducerId.DATA_STRUCTURE_TYPE:
+                return new ProducerIdMarshaller();
+            case MessageId.DATA_STRUCTURE_TYPE:
+                return new MessageIdMarshaller();
+            case OpenWireTempQueue.DATA_STRUCTURE_TYPE:
+                return new OpenWireTempQueueMarshaller();
+            case RemoveSubscriptionInfo.DATA_STRUCTURE_TYPE:
+                return new RemoveSubscriptionInfoMarshaller();
+            case SessionId.DATA_STRUCTURE_TYPE:
+                return new SessionIdMarshaller();
+            case DataArrayResponse.DATA_STRUCTURE_TYPE:
+                return new DataArrayResponseMarshaller();
+            case JournalQueueAck.DATA_STRUCTURE_TYPE:
+                return new JournalQueueAckMarshaller();
+            case Response.DATA_STRUCTURE_TYPE:
+                return new ResponseMarshaller();
+            case ConnectionError.DATA_STRUCTURE_TYPE:
+                return new ConnectionErrorMarshaller();
+            case ConsumerInfo.DATA_STRUCTURE_TYPE:
+                return new ConsumerInfoMarshaller();
+            case XATransactionId.DATA_STRUCTURE_TYPE:
+                return new XATransactionIdMarshaller();
+            case JournalTrace.DATA_STRUCTURE_TYPE:
+                return new JournalTraceMarshaller();
+            case ConsumerId.DATA_STRUCTURE_TYPE:
+                return new ConsumerIdMarshaller();
+            case OpenWireTextMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireTextMessageMarshaller();
+            case SubscriptionInfo.DATA_STRUCTURE_TYPE:
+                return new SubscriptionInfoMarshaller();
+            case JournalTransaction.DATA_STRUCTURE_TYPE:
+                return new JournalTransactionMarshaller();
+            case ControlCommand.DATA_STRUCTURE_TYPE:
+                return new ControlCommandMarshaller();
+            case LastPartialCommand.DATA_STRUCTURE_TYPE:
+                return new LastPartialCommandMarshaller();
+            case NetworkBridgeFilter.DATA_STRUCTURE_TYPE:
+                return new NetworkBridgeFilterMarshaller();
+            case OpenWireBytesMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireBytesMessageMarshaller();
+            case WireFormatInfo.DATA_STRUCTURE_TYPE:
+                return new WireFormatInfoMarshaller();
+            case OpenWireTempTopic.DATA_STRUCTURE_TYPE:
+                return new OpenWireTempTopicMarshaller();
+            case DiscoveryEvent.DATA_STRUCTURE_TYPE:
+                return new DiscoveryEventMarshaller();
+            case ReplayCommand.DATA_STRUCTURE_TYPE:
+                return new ReplayCommandMarshaller();
+            case OpenWireTopic.DATA_STRUCTURE_TYPE:
+                return new OpenWireTopicMarshaller();
+            case BrokerInfo.DATA_STRUCTURE_TYPE:
+                return new BrokerInfoMarshaller();
+            case DestinationInfo.DATA_STRUCTURE_TYPE:
+                return new DestinationInfoMarshaller();
+            case ShutdownInfo.DATA_STRUCTURE_TYPE:
+                return new ShutdownInfoMarshaller();
+            case DataResponse.DATA_STRUCTURE_TYPE:
+                return new DataResponseMarshaller();
+            case ConnectionControl.DATA_STRUCTURE_TYPE:
+                return new ConnectionControlMarshaller();
+            case KeepAliveInfo.DATA_STRUCTURE_TYPE:
+                return new KeepAliveInfoMarshaller();
+            case FlushCommand.DATA_STRUCTURE_TYPE:
+                return new FlushCommandMarshaller();
+            case ConsumerControl.DATA_STRUCTURE_TYPE:
+                return new ConsumerControlMarshaller();
+            case JournalTopicAck.DATA_STRUCTURE_TYPE:
+                return new JournalTopicAckMarshaller();
+            case BrokerId.DATA_STRUCTURE_TYPE:
+                return new BrokerIdMarshaller();
+            case MessageDispatch.DATA_STRUCTURE_TYPE:
+                return new MessageDispatchMarshaller();
+            case OpenWireMapMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireMapMessageMarshaller();
+            case OpenWireMessage.DATA_STRUCTURE_TYPE:
+                return new OpenWireMessageMarshaller();
+            case RemoveInfo.DATA_STRUCTURE_TYPE:
+                return new RemoveInfoMarshaller();
+            case ExceptionResponse.DATA_STRUCTURE_TYPE:
+                return new ExceptionResponseMarshaller();
+            default:
+                return null;
+        }
     }
 
     private MarshallerFactory() {
     }
 
-    private static void add(DataStreamMarshaller dsm) {
-        MARSHALLER[dsm.getDataStructureType()] = dsm;
+    /**
+     * Returns the marshaller of a command type, creating it on first use
+     */
+    public static DataStreamMarshaller getMarshaller(int type) {
+        DataStreamMarshaller dsm = MARSHALLER[type];
+        if (dsm == null) {
+            dsm = createMarshaller(type);
+            if (dsm != null) {
+                MARSHALLER[type] = dsm;
+            }
+        }
+        return dsm;
     }
 
     public static DataStreamMarshaller[] createMarshallerMap(OpenWireFormat wireFormat) {
@@ -61,8 +61,8 @@ public class RemoveSubscriptionInfoMarshaller extends BaseCommandMarshaller {
 
         RemoveSubscriptionInfo info = (RemoveSubscriptionInfo) o;
         info.setConnectionId((ConnectionId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setSubscriptionName(tightUnmarshalString(dataIn, bs));
-        info.setClientId(tightUnmarshalString(dataIn, bs));
+        info.setSubscriptionName(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
@@ -61,10 +61,10 @@ public class SubscriptionInfoMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         SubscriptionInfo info = (SubscriptionInfo) o;
-        info.setClientId(tightUnmarshalString(dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setDestination((OpenWireDestination) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setSelector(tightUnmarshalString(dataIn, bs));
-        info.setSubscriptionName(tightUnmarshalString(dataIn, bs));
+        info.setSelector(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setSubscriptionName(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
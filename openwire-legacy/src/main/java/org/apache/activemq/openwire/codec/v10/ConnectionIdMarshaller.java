@@ -60,7 +60,7 @@ public class ConnectionIdMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         ConnectionId info = (ConnectionId) o;
-        info.setValue(tightUnmarshalString(dataIn, bs));
+        info.setValue(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
@@ -60,7 +60,7 @@ public class ConsumerIdMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         ConsumerId info = (ConsumerId) o;
-        info.setConnectionId(tightUnmarshalString(dataIn, bs));
+        info.setConnectionId(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setSessionId(tightUnmarshalLong(wireFormat, dataIn, bs));
         info.setValue(tightUnmarshalLong(wireFormat, dataIn, bs));
     }
@@ -61,10 +61,10 @@ public class SubscriptionInfoMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         SubscriptionInfo info = (SubscriptionInfo) o;
-        info.setClientId(tightUnmarshalString(dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setDestination((OpenWireDestination) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setSelector(tightUnmarshalString(dataIn, bs));
-        info.setSubcriptionName(tightUnmarshalString(dataIn, bs));
+        info.setSelector(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setSubcriptionName(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setSubscribedDestination((OpenWireDestination) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
     }
 
@@ -41,7 +41,7 @@ public abstract class OpenWireDestinationMarshaller extends BaseDataStreamMarsha
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         OpenWireDestination info = (OpenWireDestination) o;
-        info.setPhysicalName(tightUnmarshalString(dataIn, bs));
+        info.setPhysicalName(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
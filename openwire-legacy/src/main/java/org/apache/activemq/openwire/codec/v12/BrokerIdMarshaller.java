@@ -59,7 +59,7 @@ public class BrokerIdMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         BrokerId info = (BrokerId) o;
-        info.setValue(tightUnmarshalString(dataIn, bs));
+        info.setValue(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
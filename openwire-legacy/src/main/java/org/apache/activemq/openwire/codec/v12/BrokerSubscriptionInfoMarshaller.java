@@ -58,7 +58,7 @@ public class BrokerSubscriptionInfoMarshaller extends BaseCommandMarshaller {
 
         BrokerSubscriptionInfo info = (BrokerSubscriptionInfo)o;
         info.setBrokerId((BrokerId) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
-        info.setBrokerName(tightUnmarshalString(dataIn, bs));
+        info.setBrokerName(tightUnmarshalString(wireFormat, dataIn, bs));
 
         if (bs.readBoolean()) {
             short size = dataIn.readShort();
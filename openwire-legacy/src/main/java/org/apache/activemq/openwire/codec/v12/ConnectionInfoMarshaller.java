@@ -61,9 +61,9 @@ public class ConnectionInfoMarshaller extends BaseCommandMarshaller {
 
         ConnectionInfo info = (ConnectionInfo) o;
         info.setConnectionId((ConnectionId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setClientId(tightUnmarshalString(dataIn, bs));
-        info.setPassword(tightUnmarshalString(dataIn, bs));
-        info.setUserName(tightUnmarshalString(dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setPassword(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setUserName(tightUnmarshalString(wireFormat, dataIn, bs));
 
         if (bs.readBoolean()) {
             short size = dataIn.readShort();
@@ -80,7 +80,7 @@ public class ConnectionInfoMarshaller extends BaseCommandMarshaller {
         info.setClientMaster(bs.readBoolean());
         info.setFaultTolerant(bs.readBoolean());
         info.setFailoverReconnect(bs.readBoolean());
-        info.setClientIp(tightUnmarshalString(dataIn, bs));
+        info.setClientIp(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
@@ -65,8 +65,8 @@ public class JournalTopicAckMarshaller extends BaseDataStreamMarshaller {
         info.setDestination((OpenWireDestination) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
         info.setMessageId((MessageId) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
         info.setMessageSequenceId(tightUnmarshalLong(wireFormat, dataIn, bs));
-        info.setSubscritionName(tightUnmarshalString(dataIn, bs));
-        info.setClientId(tightUnmarshalString(dataIn, bs));
+        info.setSubscritionName(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setTransactionId((TransactionId) tightUnmarsalNestedObject(wireFormat, dataIn, bs));
     }
 
@@ -60,7 +60,7 @@ public class MessageIdMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         MessageId info = (MessageId) o;
-        info.setTextView(tightUnmarshalString(dataIn, bs));
+        info.setTextView(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setProducerId((ProducerId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
         info.setProducerSequenceId(tightUnmarshalLong(wireFormat, dataIn, bs));
         info.setBrokerSequenceId(tightUnmarshalLong(wireFormat, dataIn, bs));
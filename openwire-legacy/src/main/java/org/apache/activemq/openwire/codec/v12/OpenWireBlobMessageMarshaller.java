@@ -58,8 +58,8 @@ public class OpenWireBlobMessageMarshaller extends OpenWireMessageMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         OpenWireBlobMessage info = (OpenWireBlobMessage) o;
-        info.setRemoteBlobUrl(tightUnmarshalString(dataIn, bs));
-        info.setMimeType(tightUnmarshalString(dataIn, bs));
+        info.setRemoteBlobUrl(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setMimeType(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setDeletedByBroker(bs.readBoolean());
     }
 
@@ -59,7 +59,7 @@ public class ProducerIdMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         ProducerId info = (ProducerId) o;
-        info.setConnectionId(tightUnmarshalString(dataIn, bs));
+        info.setConnectionId(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setValue(tightUnmarshalLong(wireFormat, dataIn, bs));
         info.setSessionId(tightUnmarshalLong(wireFormat, dataIn, bs));
     }
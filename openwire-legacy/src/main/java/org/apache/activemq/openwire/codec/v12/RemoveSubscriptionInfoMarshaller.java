@@ -60,8 +60,8 @@ public class RemoveSubscriptionInfoMarshaller extends BaseCommandMarshaller {
 
         RemoveSubscriptionInfo info = (RemoveSubscriptionInfo) o;
         info.setConnectionId((ConnectionId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setSubcriptionName(tightUnmarshalString(dataIn, bs));
-        info.setClientId(tightUnmarshalString(dataIn, bs));
+        info.setSubcriptionName(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setClientId(tightUnmarshalString(wireFormat, dataIn, bs));
 
     }
 
@@ -59,7 +59,7 @@ public class ControlCommandMarshaller extends BaseCommandMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         ControlCommand info = (ControlCommand) o;
-        info.setCommand(tightUnmarshalString(dataIn, bs));
+        info.setCommand(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
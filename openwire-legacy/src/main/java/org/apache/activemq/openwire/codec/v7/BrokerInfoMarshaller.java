@@ -61,7 +61,7 @@ public class BrokerInfoMarshaller extends BaseCommandMarshaller {
 
         BrokerInfo info = (BrokerInfo) o;
         info.setBrokerId((BrokerId) tightUnmarsalCachedObject(wireFormat, dataIn, bs));
-        info.setBrokerURL(tightUnmarshalString(dataIn, bs));
+        info.setBrokerURL(tightUnmarshalString(wireFormat, dataIn, bs));
 
         if (bs.readBoolean()) {
             short size = dataIn.readShort();
@@ -73,15 +73,15 @@ public class BrokerInfoMarshaller extends BaseCommandMarshaller {
         } else {
             info.setPeerBrokerInfos(null);
         }
-        info.setBrokerName(tightUnmarshalString(dataIn, bs));
+        info.setBrokerName(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setSlaveBroker(bs.readBoolean());
         info.setMasterBroker(bs.readBoolean());
         info.setFaultTolerantConfiguration(bs.readBoolean());
         info.setDuplexConnection(bs.readBoolean());
         info.setNetworkConnection(bs.readBoolean());
         info.setConnectionId(tightUnmarshalLong(wireFormat, dataIn, bs));
-        info.setBrokerUploadUrl(tightUnmarshalString(dataIn, bs));
-        info.setNetworkProperties(tightUnmarshalString(dataIn, bs));
+        info.setBrokerUploadUrl(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setNetworkProperties(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
@@ -60,8 +60,8 @@ public class DiscoveryEventMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         DiscoveryEvent info = (DiscoveryEvent) o;
-        info.setServiceName(tightUnmarshalString(dataIn, bs));
-        info.setBrokerName(tightUnmarshalString(dataIn, bs));
+        info.setServiceName(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setBrokerName(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
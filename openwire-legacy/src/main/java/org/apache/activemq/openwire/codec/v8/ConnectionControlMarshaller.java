@@ -64,8 +64,8 @@ public class ConnectionControlMarshaller extends BaseCommandMarshaller {
         info.setFaultTolerant(bs.readBoolean());
         info.setResume(bs.readBoolean());
         info.setSuspend(bs.readBoolean());
-        info.setConnectedBrokers(tightUnmarshalString(dataIn, bs));
-        info.setReconnectTo(tightUnmarshalString(dataIn, bs));
+        info.setConnectedBrokers(tightUnmarshalString(wireFormat, dataIn, bs));
+        info.setReconnectTo(tightUnmarshalString(wireFormat, dataIn, bs));
         info.setRebalanceConnection(bs.readBoolean());
         info.setToken(tightUnmarshalByteArray(dataIn, bs));
     }
@@ -60,7 +60,7 @@ public class JournalTraceMarshaller extends BaseDataStreamMarshaller {
         super.tightUnmarshal(wireFormat, o, dataIn, bs);
 
         JournalTrace info = (JournalTrace) o;
-        info.setMessage(tightUnmarshalString(dataIn, bs));
+        info.setMessage(tightUnmarshalString(wireFormat, dataIn, bs));
     }
 
     /**
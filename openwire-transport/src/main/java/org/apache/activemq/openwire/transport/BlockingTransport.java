@@ -0,0 +1,395 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.openwire.buffer.Buffer;
+import org.apache.activemq.openwire.buffer.DataByteArrayOutputStream;
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.commands.Command;
+import org.apache.activemq.openwire.commands.KeepAliveInfo;
+import org.apache.activemq.openwire.commands.Response;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An OpenWire client connection that uses blocking socket I/O with one reader and one writer
+ * thread per connection.
+ * <p>
+ * By default the threads come from {@link TransportThreads}, which on Java 21 and later creates
+ * virtual threads so that many thousands of connections can be open without a matching number
+ * of platform threads.  The writer thread is the only thread that encodes commands, callers of
+ * {@link #oneway(Object)} only queue them, and commands that queue up while a write is in
+ * progress are sent with a single socket write.
+ * <p>
+ * Wire format negotiation, request / response correlation and KeepAliveInfo handling work the
+ * same way as in {@link NioTransport}.
+ */
+public final class BlockingTransport implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlockingTransport.class);
+
+    private static final ThreadFactory DEFAULT_THREAD_FACTORY = TransportThreads.newThreadFactory("OpenWire Blocking Transport");
+
+    // Commands queued behind each other are written together up to this size
+    private static final int MAX_BATCH_SIZE = 64 * 1024;
+
+    // Queued by close() to wake the writer thread
+    private static final Object SHUTDOWN = new Object();
+
+    private final OpenWireFormat wireFormat;
+    private final InetSocketAddress remoteAddress;
+    private final ThreadFactory threadFactory;
+
+    private final BlockingQueue<Object> outbound = new LinkedBlockingQueue<>();
+    private final Map<Integer, CompletableFuture<Response>> requests = new ConcurrentHashMap<>();
+    private final AtomicInteger commandIds = new AtomicInteger();
+
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Socket socket;
+    private DataInputStream dataIn;
+    private OutputStream socketOut;
+    private volatile TransportListener transportListener;
+
+    private int connectionTimeout = 30000;
+    private int socketBufferSize = 64 * 1024;
+    private int ioBufferSize = 8 * 1024;
+    private boolean tcpNoDelay = true;
+
+    public BlockingTransport(OpenWireFormat wireFormat, URI remoteLocation) {
+        this(wireFormat, new InetSocketAddress(remoteLocation.getHost(), remoteLocation.getPort()), DEFAULT_THREAD_FACTORY);
+    }
+
+    public BlockingTransport(OpenWireFormat wireFormat, InetSocketAddress remoteAddress) {
+        this(wireFormat, remoteAddress, DEFAULT_THREAD_FACTORY);
+    }
+
+    public BlockingTransport(OpenWireFormat wireFormat, InetSocketAddress remoteAddress, ThreadFactory threadFactory) {
+        this.wireFormat = wireFormat;
+        this.remoteAddress = remoteAddress;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Connects to the remote peer on the calling thread and starts the reader and writer threads.
+     *
+     * @return a future that completes once the wire format has been negotiated, or right away
+     *         when the wire format has no preferred WireFormatInfo.
+     *
+     * @throws IOException if the connection cannot be established.
+     */
+    public CompletableFuture<Void> start() throws IOException {
+        if (!started.compareAndSet(false, true)) {
+            return connected;
+        }
+
+        socket = new Socket();
+        try {
+            socket.setReceiveBufferSize(socketBufferSize);
+            socket.setSendBufferSize(socketBufferSize);
+            socket.setTcpNoDelay(tcpNoDelay);
+            socket.connect(remoteAddress, connectionTimeout);
+
+            dataIn = new DataInputStream(new BufferedInputStream(socket.getInputStream(), ioBufferSize));
+            socketOut = socket.getOutputStream();
+
+            // Sent before the reader starts so that renegotiation cannot change the wire
+            // format while the info is being encoded.
+            WireFormatInfo info = wireFormat.getPreferedWireFormatInfo();
+            if (info != null) {
+                Buffer frame = wireFormat.marshal(info);
+                socketOut.write(frame.getData(), frame.getOffset(), frame.getLength());
+            } else {
+                connected.complete(null);
+            }
+        } catch (IOException e) {
+            closeSocket(e);
+            throw e;
+        }
+
+        LOG.debug("Connected to {}", remoteAddress);
+
+        threadFactory.newThread(this::readLoop).start();
+        threadFactory.newThread(this::writeLoop).start();
+
+        return connected;
+    }
+
+    /**
+     * A one way asynchronous send, the command is queued for the writer thread.
+     *
+     * @param command
+     *      the command to send.
+     *
+     * @throws IOException if the transport is closed.
+     */
+    public void oneway(Object command) throws IOException {
+        if (closed.get()) {
+            throw new IOException("Transport to " + remoteAddress + " is closed");
+        }
+
+        outbound.offer(command);
+    }
+
+    /**
+     * Sends the given command with a new command id and waits asynchronously for its response.
+     *
+     * @param command
+     *      the command to send, its command id and response required flag are overwritten.
+     *
+     * @return a future that completes with the response, or exceptionally if the transport
+     *         fails or is closed before the response arrives.
+     */
+    public CompletableFuture<Response> request(Command command) {
+        final int commandId = nextCommandId();
+        command.setCommandId(commandId);
+        command.setResponseRequired(true);
+
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        requests.put(commandId, response);
+        try {
+            oneway(command);
+        } catch (IOException e) {
+            requests.remove(commandId);
+            response.completeExceptionally(e);
+        }
+
+        return response;
+    }
+
+    /**
+     * @return a new command id that is unique for this transport.
+     */
+    public int nextCommandId() {
+        return commandIds.incrementAndGet();
+    }
+
+    /**
+     * Closes the connection, queued commands that have not been written are discarded and
+     * requests still waiting for a response fail.
+     */
+    @Override
+    public void close() {
+        closeSocket(null);
+    }
+
+    //----- Reader and writer threads ----------------------------------------//
+
+    private void readLoop() {
+        LOG.trace("Reader for {} starting", this);
+        try {
+            while (!closed.get()) {
+                onCommand(wireFormat.unmarshal(dataIn));
+            }
+        } catch (IOException e) {
+            fail(e);
+        } catch (Throwable e) {
+            fail(new IOException("Unexpected error occurred: " + e, e));
+        }
+    }
+
+    private void writeLoop() {
+        LOG.trace("Writer for {} starting", this);
+
+        // Encoded here and written with one call per batch, a DataOutputStream would hold its
+        // monitor while blocked in the socket write and pin a virtual thread to its carrier.
+        DataByteArrayOutputStream frames = new DataByteArrayOutputStream(ioBufferSize);
+        try {
+            // Commands are encoded with the negotiated settings so wait for the remote info.
+            connected.get();
+
+            while (!closed.get()) {
+                Object command = outbound.take();
+                frames.reset();
+                do {
+                    if (command == SHUTDOWN) {
+                        return;
+                    }
+                    wireFormat.marshal(command, frames);
+                } while (frames.size() < MAX_BATCH_SIZE && (command = outbound.poll()) != null);
+
+                socketOut.write(frames.getData(), 0, frames.size());
+                if (frames.getData().length > MAX_BATCH_SIZE) {
+                    frames.restart(ioBufferSize);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.trace("Writer for {} stopped", this);
+        } catch (IOException e) {
+            fail(e);
+        } catch (Throwable e) {
+            fail(new IOException("Unexpected error occurred: " + e, e));
+        }
+    }
+
+    private void onCommand(Object command) throws IOException {
+        if (command instanceof WireFormatInfo) {
+            onWireFormatInfo((WireFormatInfo) command);
+        } else if (command instanceof Response) {
+            CompletableFuture<Response> response = requests.remove(((Response) command).getCorrelationId());
+            if (response != null) {
+                response.complete((Response) command);
+                return;
+            }
+        } else if (command instanceof KeepAliveInfo && ((KeepAliveInfo) command).isResponseRequired()) {
+            oneway(new KeepAliveInfo());
+        }
+
+        TransportListener listener = transportListener;
+        if (listener != null) {
+            listener.onCommand(command);
+        } else {
+            LOG.error("No transportListener available to process inbound command: {}", command);
+        }
+    }
+
+    private void onWireFormatInfo(WireFormatInfo info) throws IOException {
+        if (!info.isValid()) {
+            throw new IOException("Remote wire format magic is invalid");
+        }
+
+        if (!connected.isDone()) {
+            wireFormat.renegotiateWireFormat(info);
+            LOG.debug("Negotiated wire format with {}: {}", remoteAddress, wireFormat);
+            connected.complete(null);
+        }
+    }
+
+    //----- Shutdown handling ------------------------------------------------//
+
+    private void fail(IOException error) {
+        if (closeSocket(error)) {
+            LOG.debug("Transport to {} failed: {}", remoteAddress, error.getMessage());
+            TransportListener listener = transportListener;
+            if (listener != null) {
+                listener.onException(error);
+            }
+        }
+    }
+
+    private boolean closeSocket(IOException cause) {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOG.debug("Caught exception closing socket to {}", remoteAddress, e);
+            }
+        }
+
+        outbound.clear();
+        outbound.offer(SHUTDOWN);
+
+        IOException failure = cause != null ? cause : new IOException("Transport to " + remoteAddress + " closed");
+        connected.completeExceptionally(failure);
+        for (CompletableFuture<Response> response : requests.values()) {
+            response.completeExceptionally(failure);
+        }
+        requests.clear();
+
+        return true;
+    }
+
+    //----- Property getters and setters -------------------------------------//
+
+    public TransportListener getTransportListener() {
+        return transportListener;
+    }
+
+    public void setTransportListener(TransportListener transportListener) {
+        this.transportListener = transportListener;
+    }
+
+    public OpenWireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * @return true if the connection is established and the wire format has been negotiated.
+     */
+    public boolean isConnected() {
+        return connected.isDone() && !connected.isCompletedExceptionally() && !closed.get();
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    public int getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(int connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public int getSocketBufferSize() {
+        return socketBufferSize;
+    }
+
+    public void setSocketBufferSize(int socketBufferSize) {
+        this.socketBufferSize = socketBufferSize;
+    }
+
+    public int getIoBufferSize() {
+        return ioBufferSize;
+    }
+
+    public void setIoBufferSize(int ioBufferSize) {
+        this.ioBufferSize = ioBufferSize;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    @Override
+    public String toString() {
+        return "BlockingTransport[" + remoteAddress + "]";
+    }
+}
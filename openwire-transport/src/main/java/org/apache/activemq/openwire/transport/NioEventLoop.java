@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single thread that services the channels registered with its {@link Selector} along with
+ * the tasks handed to it through {@link #execute(Runnable)}.
+ * <p>
+ * All I/O of a {@link NioTransport} happens on the event loop it was assigned, so the state of
+ * a connection is only ever touched by one thread.  The loop owns one read buffer that is
+ * shared by all of its connections since only one of them is read at a time.
+ */
+public final class NioEventLoop implements Executor, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NioEventLoop.class);
+
+    private final Selector selector;
+    private final Thread thread;
+    private final ByteBuffer readBuffer;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    NioEventLoop(String name, int readBufferSize) throws IOException {
+        this.selector = Selector.open();
+        this.readBuffer = ByteBuffer.allocateDirect(readBufferSize);
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Runs the given task on the event loop thread, tasks run in the order they were submitted.
+     *
+     * @param task
+     *      the task to run.
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (!running) {
+            throw new RejectedExecutionException("Event loop has been closed");
+        }
+
+        tasks.offer(task);
+        if (!inEventLoop() && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * @return true if the calling thread is the thread of this event loop.
+     */
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Stops the event loop and closes every channel still registered with it.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        selector.wakeup();
+        if (!inEventLoop()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return true once the event loop thread has finished, tasks submitted late may never run.
+     */
+    boolean isTerminated() {
+        return !thread.isAlive();
+    }
+
+    SelectionKey register(SelectableChannel channel, int interestOps, NioTransport transport) throws IOException {
+        return channel.register(selector, interestOps, transport);
+    }
+
+    ByteBuffer getReadBuffer() {
+        return readBuffer;
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                wakeupPending.set(false);
+
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    ((NioTransport) key.attachment()).processSelected(key);
+                }
+
+                runTasks();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            LOG.warn("Event loop {} failed: {}", thread.getName(), e.getMessage());
+            LOG.debug("Event loop failure detail", e);
+        } finally {
+            running = false;
+            shutdown();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.warn("Event loop task failed", e);
+            }
+        }
+    }
+
+    private void shutdown() {
+        runTasks();
+
+        try {
+            for (SelectionKey key : selector.keys()) {
+                ((NioTransport) key.attachment()).close();
+            }
+            runTasks();
+            selector.close();
+        } catch (IOException | ClosedSelectorException e) {
+            LOG.debug("Error while closing the selector of event loop {}", thread.getName(), e);
+        }
+    }
+}
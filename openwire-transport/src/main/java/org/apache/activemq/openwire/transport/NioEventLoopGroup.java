@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed set of {@link NioEventLoop} threads that share the connections created with it.
+ * <p>
+ * Each new transport is assigned the next event loop in turn, a handful of event loops can
+ * service thousands of connections since a thread is only busy while one of its connections
+ * has data to read or write.
+ */
+public final class NioEventLoopGroup implements AutoCloseable {
+
+    public static final int DEFAULT_READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final AtomicInteger GROUP_IDS = new AtomicInteger();
+
+    private final NioEventLoop[] eventLoops;
+    private final ByteBufferPool bufferPool;
+    private final AtomicInteger nextEventLoop = new AtomicInteger();
+
+    /**
+     * Creates a group with one event loop per available processor.
+     *
+     * @throws IOException if a selector cannot be opened.
+     */
+    public NioEventLoopGroup() throws IOException {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public NioEventLoopGroup(int threads) throws IOException {
+        this(threads, DEFAULT_READ_BUFFER_SIZE, new ByteBufferPool());
+    }
+
+    /**
+     * @param threads
+     *      the number of event loop threads to start.
+     * @param readBufferSize
+     *      the size of the buffer each event loop reads from its connections into.
+     * @param bufferPool
+     *      the pool that supplies the buffers outgoing frames are encoded into.
+     *
+     * @throws IOException if a selector cannot be opened.
+     */
+    public NioEventLoopGroup(int threads, int readBufferSize, ByteBufferPool bufferPool) throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+
+        final int groupId = GROUP_IDS.incrementAndGet();
+
+        this.bufferPool = bufferPool;
+        this.eventLoops = new NioEventLoop[threads];
+        try {
+            for (int i = 0; i < threads; ++i) {
+                eventLoops[i] = new NioEventLoop("OpenWire NIO Event Loop " + groupId + "-" + i, readBufferSize);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the event loop to assign to the next connection.
+     */
+    public NioEventLoop next() {
+        return eventLoops[Math.floorMod(nextEventLoop.getAndIncrement(), eventLoops.length)];
+    }
+
+    /**
+     * @return the number of event loops in this group.
+     */
+    public int getEventLoopCount() {
+        return eventLoops.length;
+    }
+
+    public ByteBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Stops every event loop of the group, closing the connections they service.
+     */
+    @Override
+    public void close() {
+        for (NioEventLoop eventLoop : eventLoops) {
+            if (eventLoop != null) {
+                eventLoop.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,562 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.codec.OpenWireFrameDecoder;
+import org.apache.activemq.openwire.commands.Command;
+import org.apache.activemq.openwire.commands.KeepAliveInfo;
+import org.apache.activemq.openwire.commands.Response;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A non-blocking OpenWire client connection serviced by one {@link NioEventLoop}.
+ * <p>
+ * Incoming data is reassembled into commands with an {@link OpenWireFrameDecoder} and handed
+ * to the {@link TransportListener} on the event loop thread.  Outgoing commands are encoded by
+ * the calling thread into buffers taken from the group's {@link ByteBufferPool} and written by
+ * the event loop with gathering writes, so any number of threads may send concurrently.
+ * <p>
+ * When the wire format carries a preferred {@link WireFormatInfo} it is sent as soon as the
+ * connection is established and commands sent before the remote WireFormatInfo arrives are
+ * held back until the wire format has been renegotiated.  KeepAliveInfo commands that require
+ * a response are answered automatically.
+ */
+public final class NioTransport implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NioTransport.class);
+
+    private static final int MAX_GATHERED_BUFFERS = 16;
+    private static final long CLOSE_CHECK_INTERVAL = 100;
+
+    private final OpenWireFormat wireFormat;
+    private final InetSocketAddress remoteAddress;
+    private final NioEventLoop eventLoop;
+    private final ByteBufferPool bufferPool;
+    private final OpenWireFrameDecoder decoder;
+
+    // Encoded frames waiting for the event loop to write them
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock encodeLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Runnable flushTask = this::flush;
+
+    // Only used by the event loop thread
+    private final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>();
+    private final ByteBuffer[] gathered = new ByteBuffer[MAX_GATHERED_BUFFERS];
+
+    private final Map<Integer, CompletableFuture<Response>> requests = new ConcurrentHashMap<>();
+    private final AtomicInteger commandIds = new AtomicInteger();
+
+    // Commands sent before the wire format was negotiated
+    private final Object negotiationLock = new Object();
+    private final List<Object> pendingCommands = new ArrayList<>();
+    private volatile boolean negotiated;
+
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private final CompletableFuture<Void> closedFuture = new CompletableFuture<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private SocketChannel channel;
+    private SelectionKey selectionKey;
+    private volatile TransportListener transportListener;
+
+    private int socketBufferSize = 64 * 1024;
+    private boolean tcpNoDelay = true;
+
+    public NioTransport(OpenWireFormat wireFormat, URI remoteLocation, NioEventLoopGroup group) {
+        this(wireFormat, new InetSocketAddress(remoteLocation.getHost(), remoteLocation.getPort()), group);
+    }
+
+    public NioTransport(OpenWireFormat wireFormat, InetSocketAddress remoteAddress, NioEventLoopGroup group) {
+        this.wireFormat = wireFormat;
+        this.remoteAddress = remoteAddress;
+        this.eventLoop = group.next();
+        this.bufferPool = group.getBufferPool();
+        this.decoder = new OpenWireFrameDecoder(wireFormat);
+        this.negotiated = wireFormat.getPreferedWireFormatInfo() == null;
+    }
+
+    /**
+     * Starts connecting to the remote peer, the connection is made by the event loop.
+     *
+     * @return a future that completes once the connection is established and, when the wire
+     *         format has a preferred WireFormatInfo, the wire format has been negotiated.
+     */
+    public CompletableFuture<Void> start() {
+        if (started.compareAndSet(false, true)) {
+            try {
+                eventLoop.execute(this::doConnect);
+            } catch (RejectedExecutionException e) {
+                connected.completeExceptionally(new IOException("Event loop has been closed"));
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * A one way asynchronous send, the command is encoded by the calling thread and written
+     * by the event loop.
+     *
+     * @param command
+     *      the command to send.
+     *
+     * @throws IOException if the transport is closed or the command cannot be encoded.
+     */
+    public void oneway(Object command) throws IOException {
+        if (closed.get()) {
+            throw new IOException("Transport to " + remoteAddress + " is closed");
+        }
+
+        if (!negotiated) {
+            synchronized (negotiationLock) {
+                if (!negotiated) {
+                    pendingCommands.add(command);
+                    return;
+                }
+            }
+        }
+
+        enqueue(command);
+        scheduleFlush();
+    }
+
+    /**
+     * Sends the given command with a new command id and waits asynchronously for its response.
+     *
+     * @param command
+     *      the command to send, its command id and response required flag are overwritten.
+     *
+     * @return a future that completes with the response, or exceptionally if the transport
+     *         fails or is closed before the response arrives.
+     */
+    public CompletableFuture<Response> request(Command command) {
+        final int commandId = nextCommandId();
+        command.setCommandId(commandId);
+        command.setResponseRequired(true);
+
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        requests.put(commandId, response);
+        try {
+            oneway(command);
+        } catch (IOException e) {
+            requests.remove(commandId);
+            response.completeExceptionally(e);
+        }
+
+        return response;
+    }
+
+    /**
+     * @return a new command id that is unique for this transport.
+     */
+    public int nextCommandId() {
+        return commandIds.incrementAndGet();
+    }
+
+    /**
+     * Closes the connection, frames that could not be written without blocking are discarded
+     * and requests still waiting for a response fail.
+     */
+    @Override
+    public void close() {
+        if (eventLoop.inEventLoop()) {
+            closeChannel(null);
+            return;
+        }
+
+        try {
+            eventLoop.execute(() -> closeChannel(null));
+        } catch (RejectedExecutionException e) {
+            // The event loop is gone and has closed its channels already.
+            closeChannel(null);
+        }
+
+        while (!closedFuture.isDone()) {
+            try {
+                closedFuture.get(CLOSE_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (eventLoop.isTerminated()) {
+                    closeChannel(null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    //----- Event loop processing --------------------------------------------//
+
+    void processSelected(SelectionKey key) {
+        try {
+            if (key.isConnectable()) {
+                channel.finishConnect();
+                key.interestOps(SelectionKey.OP_READ);
+                onConnected();
+            }
+            if (key.isValid() && key.isReadable()) {
+                read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush();
+            }
+        } catch (CancelledKeyException e) {
+            LOG.trace("Selection key of {} was cancelled", this);
+        } catch (IOException e) {
+            fail(e);
+        } catch (RuntimeException e) {
+            fail(new IOException("Unexpected error occurred: " + e, e));
+        }
+    }
+
+    private void doConnect() {
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, tcpNoDelay);
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, socketBufferSize);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, socketBufferSize);
+
+            if (channel.connect(remoteAddress)) {
+                selectionKey = eventLoop.register(channel, SelectionKey.OP_READ, this);
+                onConnected();
+            } else {
+                selectionKey = eventLoop.register(channel, SelectionKey.OP_CONNECT, this);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void onConnected() throws IOException {
+        LOG.debug("Connected to {}", remoteAddress);
+
+        WireFormatInfo info = wireFormat.getPreferedWireFormatInfo();
+        if (info != null) {
+            enqueue(info);
+        } else {
+            connected.complete(null);
+        }
+
+        flush();
+    }
+
+    private void read() throws IOException {
+        ByteBuffer buffer = eventLoop.getReadBuffer();
+        buffer.clear();
+
+        int read = channel.read(buffer);
+        if (read < 0) {
+            throw new EOFException("Connection closed by " + remoteAddress);
+        } else if (read == 0) {
+            return;
+        }
+
+        buffer.flip();
+        decoder.feed(buffer);
+
+        Object command;
+        while (!closed.get() && (command = decoder.pollCommand()) != null) {
+            onCommand(command);
+        }
+    }
+
+    private void onCommand(Object command) throws IOException {
+        if (command instanceof WireFormatInfo) {
+            onWireFormatInfo((WireFormatInfo) command);
+        } else if (command instanceof Response) {
+            CompletableFuture<Response> response = requests.remove(((Response) command).getCorrelationId());
+            if (response != null) {
+                response.complete((Response) command);
+                return;
+            }
+        } else if (command instanceof KeepAliveInfo && ((KeepAliveInfo) command).isResponseRequired()) {
+            oneway(new KeepAliveInfo());
+        }
+
+        TransportListener listener = transportListener;
+        if (listener != null) {
+            listener.onCommand(command);
+        } else {
+            LOG.error("No transportListener available to process inbound command: {}", command);
+        }
+    }
+
+    private void onWireFormatInfo(WireFormatInfo info) throws IOException {
+        if (!info.isValid()) {
+            throw new IOException("Remote wire format magic is invalid");
+        }
+
+        if (!negotiated) {
+            wireFormat.renegotiateWireFormat(info);
+            LOG.debug("Negotiated wire format with {}: {}", remoteAddress, wireFormat);
+
+            synchronized (negotiationLock) {
+                for (Object command : pendingCommands) {
+                    enqueue(command);
+                }
+                pendingCommands.clear();
+
+                // Set last so that a concurrent oneway keeps queuing behind the earlier commands
+                // until they have all been enqueued.
+                negotiated = true;
+            }
+
+            connected.complete(null);
+            flush();
+        }
+    }
+
+    //----- Write handling ---------------------------------------------------//
+
+    private void enqueue(Object command) throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+
+        // Frames must reach the queue in the order they were encoded when the marshal cache is in use.
+        encodeLock.lock();
+        try {
+            ByteBuffer encoded = wireFormat.marshal(command, buffer);
+            if (encoded != buffer) {
+                bufferPool.release(buffer);
+            }
+            encoded.flip();
+            outbound.offer(encoded);
+        } finally {
+            encodeLock.unlock();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            if (eventLoop.inEventLoop()) {
+                flush();
+            } else {
+                try {
+                    eventLoop.execute(flushTask);
+                } catch (RejectedExecutionException e) {
+                    LOG.debug("Event loop closed before {} could be flushed", this);
+                }
+            }
+        }
+    }
+
+    private void flush() {
+        if (closed.get() || channel == null || !channel.isConnected()) {
+            // Flushed again once connected.
+            return;
+        }
+
+        try {
+            while (true) {
+                drainOutbound();
+
+                if (writing.isEmpty()) {
+                    flushScheduled.set(false);
+                    if (outbound.isEmpty() || !flushScheduled.compareAndSet(false, true)) {
+                        setWriteInterest(false);
+                        return;
+                    }
+                    continue;
+                }
+
+                int count = 0;
+                long expected = 0;
+                for (ByteBuffer buffer : writing) {
+                    expected += buffer.remaining();
+                    gathered[count++] = buffer;
+                    if (count == MAX_GATHERED_BUFFERS) {
+                        break;
+                    }
+                }
+
+                long written = channel.write(gathered, 0, count);
+                Arrays.fill(gathered, 0, count, null);
+
+                while (!writing.isEmpty() && !writing.peekFirst().hasRemaining()) {
+                    bufferPool.release(writing.pollFirst());
+                }
+
+                if (written < expected) {
+                    // The socket send buffer is full, resume once the channel is writable.
+                    setWriteInterest(true);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void drainOutbound() {
+        ByteBuffer buffer;
+        while ((buffer = outbound.poll()) != null) {
+            writing.add(buffer);
+        }
+    }
+
+    private void setWriteInterest(boolean enabled) {
+        if (selectionKey != null && selectionKey.isValid()) {
+            int ops = selectionKey.interestOps();
+            int updated = enabled ? ops | SelectionKey.OP_WRITE : ops & ~SelectionKey.OP_WRITE;
+            if (updated != ops) {
+                selectionKey.interestOps(updated);
+            }
+        }
+    }
+
+    //----- Shutdown handling ------------------------------------------------//
+
+    private void fail(IOException error) {
+        LOG.debug("Transport to {} failed: {}", remoteAddress, error.getMessage());
+        if (closeChannel(error)) {
+            TransportListener listener = transportListener;
+            if (listener != null) {
+                listener.onException(error);
+            }
+        }
+    }
+
+    private boolean closeChannel(IOException cause) {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            if (selectionKey != null) {
+                selectionKey.cancel();
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    LOG.debug("Caught exception closing channel to {}", remoteAddress, e);
+                }
+            }
+
+            ByteBuffer buffer;
+            while ((buffer = writing.poll()) != null) {
+                bufferPool.release(buffer);
+            }
+            while ((buffer = outbound.poll()) != null) {
+                bufferPool.release(buffer);
+            }
+            synchronized (negotiationLock) {
+                pendingCommands.clear();
+            }
+            decoder.reset();
+
+            IOException failure = cause != null ? cause : new IOException("Transport to " + remoteAddress + " closed");
+            connected.completeExceptionally(failure);
+            for (CompletableFuture<Response> response : requests.values()) {
+                response.completeExceptionally(failure);
+            }
+            requests.clear();
+        } finally {
+            closedFuture.complete(null);
+        }
+
+        return true;
+    }
+
+    //----- Property getters and setters -------------------------------------//
+
+    public TransportListener getTransportListener() {
+        return transportListener;
+    }
+
+    public void setTransportListener(TransportListener transportListener) {
+        this.transportListener = transportListener;
+    }
+
+    public OpenWireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * @return true if the connection is established and the wire format has been negotiated.
+     */
+    public boolean isConnected() {
+        return connected.isDone() && !connected.isCompletedExceptionally() && !closed.get();
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    public int getSocketBufferSize() {
+        return socketBufferSize;
+    }
+
+    /**
+     * Sets the socket send and receive buffer size, must be called before {@link #start()}.
+     */
+    public void setSocketBufferSize(int socketBufferSize) {
+        this.socketBufferSize = socketBufferSize;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    /**
+     * Sets the TCP_NODELAY option of the socket, must be called before {@link #start()}.
+     */
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    @Override
+    public String toString() {
+        return "NioTransport[" + remoteAddress + "]";
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import java.io.IOException;
+
+/**
+ * An asynchronous listener of the commands received by a {@link NioTransport}.
+ * <p>
+ * Listeners are called on the event loop thread that services the transport and must not
+ * block, doing so stalls every other connection handled by the same event loop.
+ */
+public interface TransportListener {
+
+    /**
+     * called to process a command
+     *
+     * @param command
+     *      the command that was received.
+     */
+    void onCommand(Object command);
+
+    /**
+     * An unrecoverable exception has occurred on the transport, the transport has been closed.
+     *
+     * @param error
+     *      the cause of the failure.
+     */
+    void onException(IOException error);
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads used by {@link BlockingTransport}.
+ * <p>
+ * This is the Java 21 version which creates virtual threads, a blocked reader or writer only
+ * holds on to its carrier thread for as long as it is running.
+ */
+public final class TransportThreads {
+
+    private TransportThreads() {
+    }
+
+    /**
+     * @return true if the threads created by {@link #newThreadFactory(String)} are virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return true;
+    }
+
+    /**
+     * Creates a factory for the reader and writer threads of blocking transports.
+     *
+     * @param name
+     *      the prefix used to name the created threads.
+     *
+     * @return a new ThreadFactory.
+     */
+    public static ThreadFactory newThreadFactory(String name) {
+        return Thread.ofVirtual().name(name + "-", 1).factory();
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.TransportConnector;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConnectionInfo;
+import org.apache.activemq.openwire.commands.ExceptionResponse;
+import org.apache.activemq.openwire.commands.Response;
+import org.apache.activemq.openwire.commands.ShutdownInfo;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opens many BlockingTransport connections to an embedded broker, when virtual threads are
+ * available the number of platform threads must not grow with the number of connections.
+ * <p>
+ * The number of connections defaults to 1000, run with -Dopenwire.transport.connections=10000
+ * (and a matching open file limit) to measure larger counts.
+ */
+public class BlockingTransportBrokerTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BlockingTransportBrokerTest.class);
+
+    private static final int CONNECTIONS = Integer.getInteger("openwire.transport.connections", 1000);
+    private static final long TIMEOUT = 60;
+
+    private BrokerService brokerService;
+    private URI connectionURI;
+    private final List<BlockingTransport> transports = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        brokerService = new BrokerService();
+        brokerService.setPersistent(false);
+        brokerService.setAdvisorySupport(false);
+        brokerService.setUseJmx(false);
+
+        // The NIO connector keeps the broker side from using a thread per connection.
+        TransportConnector connector = brokerService.addConnector("nio://0.0.0.0:0");
+        brokerService.start();
+        brokerService.waitUntilStarted();
+        connectionURI = connector.getPublishableConnectURI();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (BlockingTransport transport : transports) {
+            transport.close();
+        }
+
+        if (brokerService != null) {
+            brokerService.stop();
+            brokerService.waitUntilStopped();
+        }
+    }
+
+    @Test(timeout = 300000)
+    public void testManyConnectionsWithBoundedPlatformThreads() throws Exception {
+        Assume.assumeTrue("Virtual threads need Java 21", TransportThreads.isVirtualThreadSupported());
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int initialThreads = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Response>> responses = new ArrayList<>();
+        for (int i = 0; i < CONNECTIONS; ++i) {
+            BlockingTransport transport = new BlockingTransport(LoopbackPeer.createWireFormat(), connectionURI);
+            transport.setTransportListener(new RecordingListener());
+            transports.add(transport);
+            transport.start();
+
+            ConnectionInfo connectionInfo = new ConnectionInfo(new ConnectionId("blocking-connection-" + i));
+            connectionInfo.setClientId("blocking-client-" + i);
+            responses.add(transport.request(connectionInfo));
+        }
+
+        for (CompletableFuture<Response> response : responses) {
+            Response result = response.get(TIMEOUT, TimeUnit.SECONDS);
+            assertFalse("Request failed: " + result, result instanceof ExceptionResponse);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        int peakThreads = threads.getPeakThreadCount();
+        LOG.info("Opened {} connections in {} ms, platform threads {} before and {} at peak",
+                 CONNECTIONS, elapsed, initialThreads, peakThreads);
+
+        // A platform thread reader and writer per connection would need 2 * CONNECTIONS threads.
+        assertTrue("Platform threads grew with the connection count: " + peakThreads,
+                   peakThreads - initialThreads < CONNECTIONS);
+
+        for (BlockingTransport transport : transports) {
+            transport.oneway(new ShutdownInfo());
+        }
+    }
+}
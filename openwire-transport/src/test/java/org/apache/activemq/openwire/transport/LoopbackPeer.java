@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.codec.OpenWireFormatFactory;
+import org.apache.activemq.openwire.commands.Command;
+import org.apache.activemq.openwire.commands.KeepAliveInfo;
+import org.apache.activemq.openwire.commands.Response;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+
+/**
+ * Accepts connections and services each one with a blocking thread, answering the
+ * WireFormatInfo handshake, responding to requests and echoing everything else.
+ */
+class LoopbackPeer implements AutoCloseable {
+
+    private final ServerSocket server;
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    final LinkedBlockingQueue<Object> received = new LinkedBlockingQueue<>();
+
+    volatile boolean respond = true;
+    volatile boolean sendKeepAlive;
+
+    LoopbackPeer() throws IOException {
+        server = new ServerSocket(0, 100, null);
+        Thread acceptor = new Thread(this::accept, "Loopback Peer Acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    InetSocketAddress getAddress() {
+        return new InetSocketAddress("localhost", server.getLocalPort());
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+                sockets.add(socket);
+                Thread service = new Thread(() -> service(socket), "Loopback Peer " + socket.getPort());
+                service.setDaemon(true);
+                service.start();
+            }
+        } catch (IOException e) {
+            // Server closed
+        }
+    }
+
+    private void service(Socket socket) {
+        OpenWireFormat wireFormat = createWireFormat();
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            send(wireFormat, out, wireFormat.getPreferedWireFormatInfo());
+
+            while (true) {
+                Object command = wireFormat.unmarshal(in);
+                if (command instanceof WireFormatInfo) {
+                    wireFormat.renegotiateWireFormat((WireFormatInfo) command);
+                    if (sendKeepAlive) {
+                        KeepAliveInfo keepAlive = new KeepAliveInfo();
+                        keepAlive.setResponseRequired(true);
+                        send(wireFormat, out, keepAlive);
+                    }
+                    continue;
+                }
+
+                received.offer(command);
+                Command request = (Command) command;
+                if (request.isResponseRequired()) {
+                    if (respond) {
+                        Response response = new Response();
+                        response.setCorrelationId(request.getCommandId());
+                        send(wireFormat, out, response);
+                    }
+                } else if (!(command instanceof KeepAliveInfo)) {
+                    send(wireFormat, out, command);
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    static OpenWireFormat createWireFormat() {
+        OpenWireFormatFactory factory = new OpenWireFormatFactory();
+        factory.setCacheEnabled(true);
+        factory.setTightEncodingEnabled(true);
+        return factory.createWireFormat();
+    }
+
+    private static void send(OpenWireFormat wireFormat, DataOutputStream out, Object command) throws IOException {
+        wireFormat.marshal(command, out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.TransportConnector;
+import org.apache.activemq.openwire.codec.OpenWireFormat;
+import org.apache.activemq.openwire.codec.OpenWireFormatFactory;
+import org.apache.activemq.openwire.commands.BrokerInfo;
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConnectionInfo;
+import org.apache.activemq.openwire.commands.ExceptionResponse;
+import org.apache.activemq.openwire.commands.Response;
+import org.apache.activemq.openwire.commands.SessionId;
+import org.apache.activemq.openwire.commands.SessionInfo;
+import org.apache.activemq.openwire.commands.ShutdownInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the NioTransport against an embedded ActiveMQ broker.
+ */
+public class NioTransportBrokerTest {
+
+    private static final long TIMEOUT = 10;
+
+    private BrokerService brokerService;
+    private URI connectionURI;
+    private NioEventLoopGroup group;
+
+    @Before
+    public void setUp() throws Exception {
+        brokerService = new BrokerService();
+        brokerService.setPersistent(false);
+        brokerService.setAdvisorySupport(false);
+        brokerService.setUseJmx(false);
+
+        TransportConnector connector = brokerService.addConnector("tcp://0.0.0.0:0");
+        brokerService.start();
+        brokerService.waitUntilStarted();
+        connectionURI = connector.getPublishableConnectURI();
+
+        group = new NioEventLoopGroup(2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (group != null) {
+            group.close();
+        }
+
+        if (brokerService != null) {
+            brokerService.stop();
+            brokerService.waitUntilStopped();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testConnectAndCreateSession() throws Exception {
+        final CountDownLatch brokerInfo = new CountDownLatch(1);
+
+        NioTransport transport = new NioTransport(createWireFormat(), connectionURI, group);
+        transport.setTransportListener(new TransportListener() {
+
+            @Override
+            public void onCommand(Object command) {
+                if (command instanceof BrokerInfo) {
+                    brokerInfo.countDown();
+                }
+            }
+
+            @Override
+            public void onException(IOException error) {
+            }
+        });
+        transport.start().get(TIMEOUT, TimeUnit.SECONDS);
+
+        ConnectionInfo connectionInfo = new ConnectionInfo(new ConnectionId("nio-connection"));
+        connectionInfo.setClientId("nio-client");
+        assertOk(transport.request(connectionInfo).get(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(brokerInfo.await(TIMEOUT, TimeUnit.SECONDS));
+
+        SessionInfo sessionInfo = new SessionInfo(new SessionId(connectionInfo.getConnectionId(), 1));
+        assertOk(transport.request(sessionInfo).get(TIMEOUT, TimeUnit.SECONDS));
+
+        assertEquals(1, brokerService.getBroker().getClients().length);
+
+        transport.oneway(new ShutdownInfo());
+        transport.close();
+    }
+
+    @Test(timeout = 60000)
+    public void testManyConnections() throws Exception {
+        List<NioTransport> transports = new ArrayList<>();
+        List<CompletableFuture<Response>> responses = new ArrayList<>();
+
+        for (int i = 0; i < 20; ++i) {
+            NioTransport transport = new NioTransport(createWireFormat(), connectionURI, group);
+            transport.setTransportListener(new TransportListener() {
+
+                @Override
+                public void onCommand(Object command) {
+                }
+
+                @Override
+                public void onException(IOException error) {
+                }
+            });
+            transport.start();
+            transports.add(transport);
+
+            ConnectionInfo connectionInfo = new ConnectionInfo(new ConnectionId("nio-connection-" + i));
+            connectionInfo.setClientId("nio-client-" + i);
+            responses.add(transport.request(connectionInfo));
+        }
+
+        for (CompletableFuture<Response> response : responses) {
+            assertOk(response.get(TIMEOUT, TimeUnit.SECONDS));
+        }
+
+        assertEquals(transports.size(), brokerService.getBroker().getClients().length);
+
+        for (NioTransport transport : transports) {
+            transport.oneway(new ShutdownInfo());
+            transport.close();
+        }
+    }
+
+    private static void assertOk(Response response) {
+        assertFalse("Request failed: " + response, response instanceof ExceptionResponse);
+    }
+
+    private static OpenWireFormat createWireFormat() {
+        OpenWireFormatFactory factory = new OpenWireFormatFactory();
+        factory.setCacheEnabled(true);
+        factory.setTightEncodingEnabled(true);
+        return factory.createWireFormat();
+    }
+}
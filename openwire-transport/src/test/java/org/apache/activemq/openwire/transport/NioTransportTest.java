@@ -0,0 +1,202 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.openwire.commands.ConnectionId;
+import org.apache.activemq.openwire.commands.ConnectionInfo;
+import org.apache.activemq.openwire.commands.KeepAliveInfo;
+import org.apache.activemq.openwire.commands.OpenWireBytesMessage;
+import org.apache.activemq.openwire.commands.Response;
+import org.apache.activemq.openwire.commands.WireFormatInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the NioTransport against a simple blocking OpenWire peer.
+ */
+public class NioTransportTest {
+
+    private static final long TIMEOUT = 10;
+
+    private NioEventLoopGroup group;
+    private LoopbackPeer peer;
+
+    @Before
+    public void setUp() throws Exception {
+        group = new NioEventLoopGroup(2);
+        peer = new LoopbackPeer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        peer.close();
+        group.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testRequestResponse() throws Exception {
+        NioTransport transport = createTransport(null);
+        transport.start().get(TIMEOUT, TimeUnit.SECONDS);
+        assertTrue(transport.isConnected());
+
+        ConnectionInfo info = new ConnectionInfo(new ConnectionId("test"));
+        Response response = transport.request(info).get(TIMEOUT, TimeUnit.SECONDS);
+        assertEquals(info.getCommandId(), response.getCorrelationId());
+
+        transport.close();
+        assertTrue(transport.isClosed());
+    }
+
+    @Test(timeout = 30000)
+    public void testCommandsSentBeforeNegotiationAreHeld() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        NioTransport transport = createTransport(listener);
+
+        List<CompletableFuture<Response>> responses = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            responses.add(transport.request(new ConnectionInfo(new ConnectionId("test-" + i))));
+        }
+        transport.start();
+
+        for (CompletableFuture<Response> response : responses) {
+            response.get(TIMEOUT, TimeUnit.SECONDS);
+        }
+
+        // The peer's WireFormatInfo is the only command that is not a response.
+        assertEquals(1, listener.commands.size());
+        assertTrue(listener.commands.get(0) instanceof WireFormatInfo);
+        transport.close();
+    }
+
+    @Test(timeout = 60000)
+    public void testLargeMessagesEchoedInOrder() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        NioTransport transport = createTransport(listener);
+        transport.start().get(TIMEOUT, TimeUnit.SECONDS);
+
+        Random random = new Random(42);
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) {
+            byte[] payload = new byte[1 + random.nextInt(512 * 1024)];
+            random.nextBytes(payload);
+            payloads.add(payload);
+
+            OpenWireBytesMessage message = new OpenWireBytesMessage();
+            message.setCommandId(transport.nextCommandId());
+            message.setBodyBytes(payload);
+            transport.oneway(message);
+        }
+
+        List<OpenWireBytesMessage> echoed = listener.awaitMessages(payloads.size());
+        for (int i = 0; i < payloads.size(); ++i) {
+            assertEquals(i + 1, echoed.get(i).getCommandId());
+            assertArrayEquals(payloads.get(i), echoed.get(i).getBodyBytes());
+        }
+
+        transport.close();
+    }
+
+    @Test(timeout = 60000)
+    public void testManyConnectionsShareEventLoops() throws Exception {
+        List<NioTransport> transports = new ArrayList<>();
+        List<CompletableFuture<Response>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            NioTransport transport = createTransport(null);
+            transport.start();
+            transports.add(transport);
+            responses.add(transport.request(new ConnectionInfo(new ConnectionId("test-" + i))));
+        }
+
+        for (CompletableFuture<Response> response : responses) {
+            response.get(TIMEOUT, TimeUnit.SECONDS);
+        }
+
+        for (NioTransport transport : transports) {
+            transport.close();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testKeepAliveIsAnswered() throws Exception {
+        peer.sendKeepAlive = true;
+
+        NioTransport transport = createTransport(null);
+        transport.start().get(TIMEOUT, TimeUnit.SECONDS);
+
+        Object reply = peer.received.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertTrue(reply instanceof KeepAliveInfo);
+
+        transport.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testCloseFailsPendingRequests() throws Exception {
+        peer.respond = false;
+
+        NioTransport transport = createTransport(null);
+        transport.start().get(TIMEOUT, TimeUnit.SECONDS);
+
+        CompletableFuture<Response> response = transport.request(new ConnectionInfo(new ConnectionId("test")));
+        assertTrue(peer.received.poll(TIMEOUT, TimeUnit.SECONDS) instanceof ConnectionInfo);
+
+        transport.close();
+        try {
+            response.get(TIMEOUT, TimeUnit.SECONDS);
+            fail("Request should fail when the transport is closed");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IOException);
+        }
+
+        try {
+            transport.oneway(new ConnectionInfo());
+            fail("Should not accept commands once closed");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testRemoteCloseNotifiesListener() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        NioTransport transport = createTransport(listener);
+        transport.start().get(TIMEOUT, TimeUnit.SECONDS);
+
+        peer.close();
+
+        assertTrue(listener.failed.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(transport.isClosed());
+    }
+
+    private NioTransport createTransport(TransportListener listener) {
+        NioTransport transport = new NioTransport(LoopbackPeer.createWireFormat(), peer.getAddress(), group);
+        transport.setTransportListener(listener != null ? listener : new RecordingListener());
+        return transport;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.openwire.transport;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.activemq.openwire.commands.OpenWireBytesMessage;
+
+/**
+ * Records the commands and failures reported by a transport.
+ */
+class RecordingListener implements TransportListener {
+
+    final List<Object> commands = new CopyOnWriteArrayList<>();
+    final CountDownLatch failed = new CountDownLatch(1);
+
+    @Override
+    public void onCommand(Object command) {
+        commands.add(command);
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void onException(IOException error) {
+        failed.countDown();
+    }
+
+    synchronized List<OpenWireBytesMessage> awaitMessages(int count) throws InterruptedException {
+        while (true) {
+            List<OpenWireBytesMessage> messages = new ArrayList<>();
+            for (Object command : commands) {
+                if (command instanceof OpenWireBytesMessage) {
+                    messages.add((OpenWireBytesMessage) command);
+                }
+            }
+            if (messages.size() >= count) {
+                return messages;
+            }
+            wait(100);
+        }
+    }
+}